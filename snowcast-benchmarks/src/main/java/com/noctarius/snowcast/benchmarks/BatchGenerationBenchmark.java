@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.benchmarks;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.noctarius.snowcast.Snowcast;
+import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequencer;
+import com.noctarius.snowcast.SnowcastSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares generating a fixed number of IDs one by one using {@link SnowcastSequencer#next()}
+ * against reserving them at once using {@link SnowcastSequencer#nextBatch(long[])}. Both benchmark
+ * methods produce <tt>batchSize</tt> IDs per invocation, therefore the reported scores are directly
+ * comparable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BatchGenerationBenchmark {
+
+    @Param({"128", "8192"})
+    private int maxLogicalNodeCount;
+
+    @Param({"16", "256", "4096"})
+    private int batchSize;
+
+    private HazelcastInstance hazelcastInstance;
+    private SnowcastSequencer sequencer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        hazelcastInstance = BenchmarkUtils.newMember();
+        Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+        SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis());
+        sequencer = snowcast.createSequencer("batch-benchmark", epoch, maxLogicalNodeCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        hazelcastInstance.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class IdBuffer {
+        private long[] ids;
+
+        @Setup(Level.Trial)
+        public void setup(BatchGenerationBenchmark benchmark) {
+            ids = new long[benchmark.batchSize];
+        }
+    }
+
+    @Benchmark
+    public long[] perCall(IdBuffer buffer)
+            throws InterruptedException {
+
+        long[] ids = buffer.ids;
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = sequencer.next();
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public long[] batch(IdBuffer buffer)
+            throws InterruptedException {
+
+        long[] ids = buffer.ids;
+        sequencer.nextBatch(ids);
+        return ids;
+    }
+}
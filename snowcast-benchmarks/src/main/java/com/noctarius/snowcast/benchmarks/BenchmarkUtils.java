@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.benchmarks;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.nio.Address;
+
+import javax.annotation.Nonnull;
+
+final class BenchmarkUtils {
+
+    private BenchmarkUtils() {
+    }
+
+    @Nonnull
+    static HazelcastInstance newMember() {
+        Config config = new Config();
+        config.setProperty("hazelcast.logging.type", "none");
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+
+        return Hazelcast.newHazelcastInstance(config);
+    }
+
+    @Nonnull
+    static HazelcastInstance newClient(@Nonnull HazelcastInstance member) {
+        Address address = member.getCluster().getLocalMember().getAddress();
+
+        ClientConfig config = new ClientConfig();
+        config.setProperty("hazelcast.logging.type", "none");
+        config.getNetworkConfig().addAddress(address.getHost() + ":" + address.getPort());
+
+        return HazelcastClient.newHazelcastClient(config);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.benchmarks;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.noctarius.snowcast.Snowcast;
+import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequencer;
+import com.noctarius.snowcast.SnowcastSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the default clock source, calculating the current millisecond from {@link System#nanoTime()}
+ * on every read, against the shared ticker enabled with <tt>snowcast.clock.ticker.enabled</tt>, on
+ * {@link SnowcastEpoch#getEpochTimestamp()} and on {@link SnowcastSequencer#next()} of a member. The
+ * ticker variants run in a separate fork with the system property set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ClockBenchmark {
+
+    private static final String TICKER_ENABLED = "-Dsnowcast.clock.ticker.enabled=true";
+
+    private HazelcastInstance member;
+    private SnowcastEpoch epoch;
+    private SnowcastSequencer sequencer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        member = BenchmarkUtils.newMember();
+
+        Snowcast snowcast = SnowcastSystem.snowcast(member);
+        epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis());
+        sequencer = snowcast.createSequencer("clock-benchmark", epoch, 128);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        member.shutdown();
+    }
+
+    @Benchmark
+    public long epochTimestamp() {
+        return epoch.getEpochTimestamp();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = TICKER_ENABLED)
+    public long epochTimestampTicker() {
+        return epoch.getEpochTimestamp();
+    }
+
+    @Benchmark
+    public long next()
+            throws InterruptedException {
+
+        return sequencer.next();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = TICKER_ENABLED)
+    public long nextTicker()
+            throws InterruptedException {
+
+        return sequencer.next();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.benchmarks;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.noctarius.snowcast.Snowcast;
+import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequencer;
+import com.noctarius.snowcast.SnowcastSequencerOptions;
+import com.noctarius.snowcast.SnowcastSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SnowcastSequencer#next()} for every legal <tt>maxLogicalNodeCount</tt>. The fewer
+ * logical nodes are configured the more counter bits are available per millisecond; with 8192 nodes a
+ * single thread exhausts the counter quickly and has to wait for the next millisecond. The sampled
+ * latency method makes those waits visible in the upper percentiles. Attaching multiple logical node
+ * ids multiplies the IDs available per millisecond.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CounterExhaustionBenchmark {
+
+    @Param({"128", "256", "512", "1024", "2048", "4096", "8192"})
+    private int maxLogicalNodeCount;
+
+    @Param({"1", "4"})
+    private int logicalNodes;
+
+    private HazelcastInstance hazelcastInstance;
+    private SnowcastSequencer sequencer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        hazelcastInstance = BenchmarkUtils.newMember();
+        Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+        SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis());
+        SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults().withLogicalNodes(logicalNodes);
+        sequencer = snowcast.createSequencer("exhaustion-benchmark", epoch, maxLogicalNodeCount, options);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        hazelcastInstance.shutdown();
+    }
+
+    @Benchmark
+    public long throughput()
+            throws InterruptedException {
+
+        return sequencer.next();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long latency()
+            throws InterruptedException {
+
+        return sequencer.next();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.benchmarks;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.noctarius.snowcast.Snowcast;
+import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequencer;
+import com.noctarius.snowcast.SnowcastSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SnowcastSequencer#next()} from a single thread and from all available processors.
+ * The sequencer is either created on an embedded member or on a client connected to that member,
+ * selected by the <tt>mode</tt> parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class NextBenchmark {
+
+    @Param({"member", "client"})
+    private String mode;
+
+    private HazelcastInstance member;
+    private HazelcastInstance client;
+    private SnowcastSequencer sequencer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        member = BenchmarkUtils.newMember();
+        HazelcastInstance hazelcastInstance = member;
+        if ("client".equals(mode)) {
+            client = BenchmarkUtils.newClient(member);
+            hazelcastInstance = client;
+        }
+
+        Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+        SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis());
+        sequencer = snowcast.createSequencer("next-benchmark", epoch, 128);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        if (client != null) {
+            client.shutdown();
+        }
+        member.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long singleThread()
+            throws InterruptedException {
+
+        return sequencer.next();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long allThreads()
+            throws InterruptedException {
+
+        return sequencer.next();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.benchmarks;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.serialization.Data;
+import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
+import com.noctarius.snowcast.impl.PartitionReplication;
+import com.noctarius.snowcast.impl.SequencerDefinition;
+import com.noctarius.snowcast.impl.SequencerPartition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures serializing and deserializing the {@link PartitionReplication} of a single partition, which is
+ * the payload sent per migrated partition. Every sequencer of the partition has the same members or clients
+ * attached, as it happens when all cluster participants use all sequencers. The serialized size of the
+ * partition is printed once per trial.
+ * <p>
+ * The delta benchmark measures the replica synchronization payload after one member re-attached to every
+ * sequencer of the partition, only the changed slots are written.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ReplicationBenchmark {
+
+    @Param({"10", "100"})
+    private int sequencerCount;
+
+    @Param({"16", "1024"})
+    private int attachedNodeCount;
+
+    private InternalSerializationService serializationService;
+    private SequencerPartition partition;
+    private Map<String, LogicalNodeTableVersion> knownVersions;
+    private Data data;
+
+    @Setup(Level.Trial)
+    public void setup()
+            throws UnknownHostException {
+
+        Address[] addresses = new Address[attachedNodeCount];
+        for (int i = 0; i < attachedNodeCount; i++) {
+            addresses[i] = new Address("10.0." + (i >>> 8) + "." + (i & 0xFF), 5701);
+        }
+
+        SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis());
+        SequencerDefinition[] definitions = new SequencerDefinition[sequencerCount];
+        partition = new SequencerPartition(0);
+        for (int i = 0; i < sequencerCount; i++) {
+            definitions[i] = new SequencerDefinition("replication-benchmark-" + i, epoch, 8192, (short) 1);
+            for (Address address : addresses) {
+                partition.attachLogicalNode(definitions[i], address);
+            }
+        }
+
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        data = serializationService.toData(partition.createPartitionReplication());
+
+        // The replica knows the current state, afterwards the first member re-attaches to every sequencer
+        knownVersions = partition.createPartitionDigest();
+        for (SequencerDefinition definition : definitions) {
+            partition.detachLogicalNode(definition.getSequencerName(), addresses[0], 0);
+            partition.attachLogicalNode(definition, addresses[0]);
+        }
+        Data delta = serializationService.toData(partition.createPartitionReplication(knownVersions));
+
+        System.out.printf("%nserialized partition: %d bytes, %d bytes per sequencer, delta: %d bytes%n", //
+                data.totalSize(), data.totalSize() / sequencerCount, delta.totalSize());
+    }
+
+    @Benchmark
+    public Data serialize() {
+        return serializationService.toData(partition.createPartitionReplication());
+    }
+
+    @Benchmark
+    public Data serializeDelta() {
+        return serializationService.toData(partition.createPartitionReplication(knownVersions));
+    }
+
+    @Benchmark
+    public PartitionReplication deserialize() {
+        return serializationService.toObject(data);
+    }
+}
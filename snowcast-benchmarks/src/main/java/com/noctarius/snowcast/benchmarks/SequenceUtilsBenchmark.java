@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.benchmarks;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.noctarius.snowcast.Snowcast;
+import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequenceComparator;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
+import com.noctarius.snowcast.SnowcastSequenceUtils;
+import com.noctarius.snowcast.SnowcastSequencer;
+import com.noctarius.snowcast.SnowcastSystem;
+import com.noctarius.snowcast.SnowcastTimestampComparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the decode and compare functions of {@link SnowcastSequenceUtils} and {@link SnowcastSequenceLayout}
+ * as well as sorting with {@link SnowcastSequenceComparator} and {@link SnowcastTimestampComparator} against
+ * the primitive radix sort. The IDs are generated once by a real sequencer and shuffled; the member is shut
+ * down before the measurement starts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SequenceUtilsBenchmark {
+
+    private static final int SEQUENCE_ID_COUNT = 4096;
+    private static final int SEQUENCE_ID_MASK = SEQUENCE_ID_COUNT - 1;
+
+    @Param({"128", "8192"})
+    private int maxLogicalNodeCount;
+
+    private long[] sequenceIds;
+    private long[] sortBuffer;
+    private long[] timestamps;
+    private int[] logicalNodeIds;
+    private int[] counters;
+    private SnowcastSequenceLayout sequenceLayout;
+    private Long[] boxedSequenceIds;
+    private SnowcastSequenceComparator sequenceComparator;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup()
+            throws InterruptedException {
+
+        HazelcastInstance hazelcastInstance = BenchmarkUtils.newMember();
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis());
+            SnowcastSequencer sequencer = snowcast.createSequencer("utils-benchmark", epoch, maxLogicalNodeCount);
+
+            boxedSequenceIds = new Long[SEQUENCE_ID_COUNT];
+            for (int i = 0; i < SEQUENCE_ID_COUNT; i++) {
+                boxedSequenceIds[i] = sequencer.next();
+            }
+        } finally {
+            hazelcastInstance.shutdown();
+        }
+
+        List<Long> shuffled = Arrays.asList(boxedSequenceIds);
+        Collections.shuffle(shuffled);
+
+        sequenceIds = new long[SEQUENCE_ID_COUNT];
+        for (int i = 0; i < SEQUENCE_ID_COUNT; i++) {
+            sequenceIds[i] = boxedSequenceIds[i];
+        }
+        sortBuffer = new long[SEQUENCE_ID_COUNT];
+        timestamps = new long[SEQUENCE_ID_COUNT];
+        logicalNodeIds = new int[SEQUENCE_ID_COUNT];
+        counters = new int[SEQUENCE_ID_COUNT];
+        sequenceLayout = SnowcastSequenceLayout.of(maxLogicalNodeCount);
+        sequenceComparator = new SnowcastSequenceComparator(maxLogicalNodeCount);
+    }
+
+    @Benchmark
+    public long timestampValue() {
+        return SnowcastSequenceUtils.timestampValue(nextSequenceId());
+    }
+
+    @Benchmark
+    public int logicalNodeId() {
+        return SnowcastSequenceUtils.logicalNodeId(nextSequenceId(), maxLogicalNodeCount);
+    }
+
+    @Benchmark
+    public int counterValue() {
+        return SnowcastSequenceUtils.counterValue(nextSequenceId(), maxLogicalNodeCount);
+    }
+
+    @Benchmark
+    public int layoutLogicalNodeId() {
+        return sequenceLayout.logicalNodeId(nextSequenceId());
+    }
+
+    @Benchmark
+    public int layoutCounterValue() {
+        return sequenceLayout.counterValue(nextSequenceId());
+    }
+
+    @Benchmark
+    public int layoutCompare() {
+        return sequenceLayout.compare(nextSequenceId(), nextSequenceId());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] layoutBulkDecode() {
+        sequenceLayout.decode(sequenceIds, timestamps, logicalNodeIds, counters);
+        return counters;
+    }
+
+    @Benchmark
+    public int compareTimestamp() {
+        return SnowcastSequenceUtils.compareTimestamp(nextSequenceId(), nextSequenceId());
+    }
+
+    @Benchmark
+    public int compareSequence() {
+        return SnowcastSequenceUtils.compareSequence(nextSequenceId(), nextSequenceId(), maxLogicalNodeCount);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Long[] sortSequenceComparator() {
+        Long[] copy = boxedSequenceIds.clone();
+        Arrays.sort(copy, sequenceComparator);
+        return copy;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Long[] sortTimestampComparator() {
+        Long[] copy = boxedSequenceIds.clone();
+        Arrays.sort(copy, SnowcastTimestampComparator.INSTANCE);
+        return copy;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long[] sortBySequence() {
+        long[] copy = sequenceIds.clone();
+        SnowcastSequenceUtils.sortBySequence(copy, sortBuffer, maxLogicalNodeCount);
+        return copy;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long[] sortByTimestamp() {
+        long[] copy = sequenceIds.clone();
+        SnowcastSequenceUtils.sortByTimestamp(copy, sortBuffer);
+        return copy;
+    }
+
+    private long nextSequenceId() {
+        return sequenceIds[index++ & SEQUENCE_ID_MASK];
+    }
+}
@@ -23,6 +23,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * <p>The Snowcast instance is a {@link com.noctarius.snowcast.SnowcastSequencer} factory bound
@@ -71,6 +73,88 @@ public interface Snowcast {
     SnowcastSequencer createSequencer(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
                                       @Min(128) @Max(8192) int maxLogicalNodeCount);
 
+    /**
+     * Creates a {@link com.noctarius.snowcast.SnowcastSequencer} or returns an already existing
+     * instance based on the given sequencerName and custom epoch. This method is fully thread-safe
+     * and safe to be called concurrently.<br>
+     * This operation is a cluster wide operation and blocks until the sequencer's configuration
+     * is registered or checked and the {@link com.noctarius.snowcast.SnowcastSequencer} instance is
+     * created or retrieved.<br>
+     * The given options only define the behavior of the local sequencer instance and are not part
+     * of the cluster wide configuration. If the sequencer instance already exists locally, the
+     * existing instance is returned and the options are ignored.
+     *
+     * @param sequencerName       the reference name of the distributed sequencer
+     * @param epoch               the custom epoch for this sequencer
+     * @param maxLogicalNodeCount the maximal logical node ID, must be between 128 and 8192
+     * @param options             the local options of the sequencer instance
+     * @return a new SnowcastSequencer instance or an existing one matching the sequencerName and epoch
+     */
+    @Nonnull
+    SnowcastSequencer createSequencer(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                                      @Min(128) @Max(8192) int maxLogicalNodeCount, @Nonnull SnowcastSequencerOptions options);
+
+    /**
+     * Creates a {@link com.noctarius.snowcast.SnowcastSequencer} or returns an already existing
+     * instance based on the given sequencerName, custom epoch and bit layout of the generated IDs.
+     * This method is fully thread-safe and safe to be called concurrently.<br>
+     * This operation is a cluster wide operation and blocks until the sequencer's configuration
+     * is registered or checked and the {@link com.noctarius.snowcast.SnowcastSequencer} instance is
+     * created or retrieved.<br>
+     * The layout is part of the cluster wide configuration, the maximal logical node count of the
+     * sequencer is defined by the layout's logical node bits.
+     *
+     * @param sequencerName  the reference name of the distributed sequencer
+     * @param epoch          the custom epoch for this sequencer
+     * @param sequenceLayout the bit layout of the generated sequence IDs
+     * @return a new SnowcastSequencer instance or an existing one matching the sequencerName and epoch
+     * @see com.noctarius.snowcast.SnowcastSequenceLayout#of(int, int, int)
+     */
+    @Nonnull
+    SnowcastSequencer createSequencer(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                                      @Nonnull SnowcastSequenceLayout sequenceLayout);
+
+    /**
+     * Creates a {@link com.noctarius.snowcast.SnowcastSequencer} or returns an already existing
+     * instance based on the given sequencerName, custom epoch and bit layout of the generated IDs.
+     * This method is fully thread-safe and safe to be called concurrently.<br>
+     * This operation is a cluster wide operation and blocks until the sequencer's configuration
+     * is registered or checked and the {@link com.noctarius.snowcast.SnowcastSequencer} instance is
+     * created or retrieved.<br>
+     * The given options only define the behavior of the local sequencer instance and are not part
+     * of the cluster wide configuration. If the sequencer instance already exists locally, the
+     * existing instance is returned and the options are ignored.
+     *
+     * @param sequencerName  the reference name of the distributed sequencer
+     * @param epoch          the custom epoch for this sequencer
+     * @param sequenceLayout the bit layout of the generated sequence IDs
+     * @param options        the local options of the sequencer instance
+     * @return a new SnowcastSequencer instance or an existing one matching the sequencerName and epoch
+     * @see com.noctarius.snowcast.SnowcastSequenceLayout#of(int, int, int)
+     */
+    @Nonnull
+    SnowcastSequencer createSequencer(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                                      @Nonnull SnowcastSequenceLayout sequenceLayout, @Nonnull SnowcastSequencerOptions options);
+
+    /**
+     * Creates multiple {@link com.noctarius.snowcast.SnowcastSequencer}s or returns already existing
+     * instances, based on the given specs. This method is fully thread-safe and safe to be called
+     * concurrently.<br>
+     * Other than calling {@link #createSequencer(String, SnowcastEpoch, int, SnowcastSequencerOptions)}
+     * for every spec, the sequencers are registered and attached in batches. On Hazelcast nodes all
+     * sequencers owned by the same partition are handled by a single operation and all partitions are
+     * processed in parallel, on clients all attach requests are sent before waiting for the first
+     * response. The time to create all sequencers therefore scales with the number of partitions rather
+     * than with the number of sequencers.<br>
+     * If the creation of any of the sequencers fails, logical node IDs attached by this call are released
+     * and the failure is rethrown.
+     *
+     * @param specs the specs of the sequencers to create
+     * @return the new or existing SnowcastSequencer instances in the iteration order of the specs
+     */
+    @Nonnull
+    List<SnowcastSequencer> createSequencers(@Nonnull Collection<SnowcastSequencerSpec> specs);
+
     /**
      * Destroys the given {@link com.noctarius.snowcast.SnowcastSequencer} instance. A sequencer should
      * be destroyed by the same Snowcast instance it was created with otherwise unexpected behavior
@@ -16,9 +16,10 @@
  */
 package com.noctarius.snowcast;
 
+import com.noctarius.snowcast.impl.InternalClock;
+
 import java.time.Instant;
 import java.util.Calendar;
-import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 
@@ -45,9 +46,6 @@ import static com.noctarius.snowcast.impl.ExceptionUtils.exception;
  */
 public final class SnowcastEpoch {
 
-    private static final long INITIALIZATION_TIMESTAMP = System.currentTimeMillis();
-    private static final long INITIALIZATION_NANOTIME = System.nanoTime();
-
     private final long offset;
 
     private SnowcastEpoch(@Nonnegative long offset) {
@@ -63,6 +61,18 @@ public final class SnowcastEpoch {
         return getEpochTimestamp(getNow());
     }
 
+    /**
+     * Returns the current point in time as a number of ticks of the given resolution since
+     * this custom epoch. With {@link SnowcastTimestampResolution#Milliseconds} the result equals
+     * {@link #getEpochTimestamp()}, finer resolutions are derived from {@link System#nanoTime()}.
+     *
+     * @param resolution the resolution of the ticks
+     * @return the current number of ticks based on this custom epoch
+     */
+    public long getEpochTicks(@Nonnull SnowcastTimestampResolution resolution) {
+        return InternalClock.currentTimeTicks(resolution) - offset * resolution.getTicksPerMillisecond();
+    }
+
     /**
      * Returns the timestamp value between this custom epoch and the standard Linux
      * timestamp epoch (in milliseconds) for the given timestamp.
@@ -165,8 +175,6 @@ public final class SnowcastEpoch {
     }
 
     private static long getNow() {
-        long nanoTime = System.nanoTime();
-        long delta = nanoTime - INITIALIZATION_NANOTIME;
-        return INITIALIZATION_TIMESTAMP + TimeUnit.NANOSECONDS.toMillis(delta);
+        return InternalClock.currentTimeMillis();
     }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+/**
+ * <p>The SnowcastLatencyHistogram records durations, like the round trip of attaching a logical
+ * node id, into {@value #BUCKET_COUNT} buckets of power-of-two microsecond ranges. Bucket 0 (ZERO)
+ * holds all durations below one microsecond, bucket <tt>n</tt> all durations from 2^(n-1) up
+ * to 2^n microseconds and the last bucket additionally everything longer.</p>
+ * <p>Values are recorded concurrently and read without stopping the recording, the returned
+ * values therefore don't necessarily represent a consistent snapshot.</p>
+ */
+@ThreadSafe
+public interface SnowcastLatencyHistogram {
+
+    /**
+     * Number of buckets of every histogram.
+     */
+    int BUCKET_COUNT = 32;
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return the number of recorded durations
+     */
+    @Nonnegative
+    long getCount();
+
+    /**
+     * Returns the sum of all recorded durations in nanoseconds.
+     *
+     * @return the sum of all recorded durations in nanoseconds
+     */
+    @Nonnegative
+    long getTotalNanos();
+
+    /**
+     * Returns the longest recorded duration in nanoseconds.
+     *
+     * @return the longest recorded duration in nanoseconds
+     */
+    @Nonnegative
+    long getMaxNanos();
+
+    /**
+     * Returns the number of recorded durations that fell into the given bucket.
+     *
+     * @param bucket the bucket index
+     * @return the number of recorded durations in the bucket
+     */
+    @Nonnegative
+    long getBucketValue(@Min(0) @Max(BUCKET_COUNT - 1) int bucket);
+
+    /**
+     * Returns the average recorded duration in nanoseconds, 0 (ZERO) if nothing was recorded yet.
+     *
+     * @return the average recorded duration in nanoseconds
+     */
+    @Nonnegative
+    default long getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : getTotalNanos() / count;
+    }
+
+    /**
+     * Returns the exclusive upper bound, in microseconds, of durations counted into the given bucket.
+     * The last bucket has no upper bound, its returned value is only the bound of the power-of-two range.
+     *
+     * @param bucket the bucket index
+     * @return the exclusive upper bound in microseconds
+     */
+    @Nonnegative
+    static long getBucketUpperBoundMicros(@Min(0) @Max(BUCKET_COUNT - 1) int bucket) {
+        return 1L << bucket;
+    }
+}
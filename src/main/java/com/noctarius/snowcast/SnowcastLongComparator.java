@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast;
+
+/**
+ * <p>A comparator for primitive <tt>long</tt> sequence ids. It is the boxing-free counterpart
+ * to {@link java.util.Comparator}&lt;Long&gt; and is implemented by
+ * {@link com.noctarius.snowcast.SnowcastSequenceComparator} as well as
+ * {@link com.noctarius.snowcast.SnowcastTimestampComparator}.</p>
+ * <pre>
+ *     SnowcastLongComparator comparator = new SnowcastSequenceComparator( 128 );
+ *     int result = comparator.compare( sequencer.next(), sequencer.next() );
+ * </pre>
+ */
+@FunctionalInterface
+public interface SnowcastLongComparator {
+
+    /**
+     * Compares the two given sequence ids.
+     *
+     * @param sequenceId1 the first sequence id to be compared
+     * @param sequenceId2 the second sequence if to be compared
+     * @return a negative integer, zero, or a positive integer as the first argument is less than,
+     * equal to, or greater than the second.
+     */
+    int compare(long sequenceId1, long sequenceId2);
+}
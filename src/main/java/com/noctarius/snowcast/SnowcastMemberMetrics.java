@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The SnowcastMemberMetrics are the counters of the snowcast service of a single Hazelcast
+ * member, independent of any specific sequencer. They are not available on clients.
+ */
+@ThreadSafe
+public interface SnowcastMemberMetrics {
+
+    /**
+     * Returns the histogram of the durations partitions of this member were frozen, and
+     * therefore couldn't be changed, while being migrated.
+     *
+     * @return the partition freeze duration histogram
+     */
+    @Nonnull
+    SnowcastLatencyHistogram getPartitionFreezeDurations();
+}
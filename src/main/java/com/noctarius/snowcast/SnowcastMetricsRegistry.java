@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast;
+
+import javax.annotation.Nonnull;
+
+/**
+ * <p>The SnowcastMetricsRegistry is the service provider interface to publish snowcast metrics
+ * into arbitrary monitoring systems. Implementations are discovered using the
+ * {@link java.util.ServiceLoader} mechanism, by listing the implementing class name in a
+ * <tt>META-INF/services/com.noctarius.snowcast.SnowcastMetricsRegistry</tt> resource, and need
+ * a public no-argument constructor.</p>
+ * <p>Metrics are handed over as live views when a local sequencer instance is created or the
+ * snowcast service of a member starts, implementations read them whenever needed. Nothing is
+ * pushed on the ID generation path. The built-in JMX publication can be disabled by setting the
+ * system property <tt>snowcast.metrics.jmx.disable</tt> to <tt>true</tt>.</p>
+ * <p>Exceptions thrown by an implementation are ignored and never prevent sequencers from being
+ * created or destroyed.</p>
+ */
+public interface SnowcastMetricsRegistry {
+
+    /**
+     * Publishes the metrics of a newly created local sequencer instance.
+     *
+     * @param instanceName the name of the Hazelcast instance (node or client) owning the sequencer
+     * @param metrics      the live metrics of the sequencer
+     */
+    void registerSequencer(@Nonnull String instanceName, @Nonnull SnowcastSequencerMetrics metrics);
+
+    /**
+     * Withdraws the metrics of a destroyed local sequencer instance.
+     *
+     * @param instanceName the name of the Hazelcast instance (node or client) owning the sequencer
+     * @param metrics      the metrics previously passed to {@link #registerSequencer(String, SnowcastSequencerMetrics)}
+     */
+    void unregisterSequencer(@Nonnull String instanceName, @Nonnull SnowcastSequencerMetrics metrics);
+
+    /**
+     * Publishes the metrics of the snowcast service of a started Hazelcast member.
+     * The default implementation ignores member metrics.
+     *
+     * @param instanceName the name of the Hazelcast member
+     * @param metrics      the live metrics of the member
+     */
+    default void registerMember(@Nonnull String instanceName, @Nonnull SnowcastMemberMetrics metrics) {
+    }
+
+    /**
+     * Withdraws the metrics of the snowcast service of a Hazelcast member being shut down.
+     * The default implementation ignores member metrics.
+     *
+     * @param instanceName the name of the Hazelcast member
+     * @param metrics      the metrics previously passed to {@link #registerMember(String, SnowcastMemberMetrics)}
+     */
+    default void unregisterMember(@Nonnull String instanceName, @Nonnull SnowcastMemberMetrics metrics) {
+    }
+}
@@ -43,12 +43,14 @@ import java.util.Comparator;
  *     SnowcastSequencer sequencer = getSnowcastSequencer();
  *     Comparator&lt;Long&gt; comparator = SnowcastSequenceUtils.snowcastSequenceComparator( sequencer );
  * </pre>
+ * <p>To compare primitive <tt>long</tt> values without any boxing the instance can also be used
+ * as a {@link com.noctarius.snowcast.SnowcastLongComparator}.</p>
  */
 @ThreadSafe
 public final class SnowcastSequenceComparator
-        implements Comparator<Long> {
+        implements Comparator<Long>, SnowcastLongComparator {
 
-    private final int maxLogicalNodeCount;
+    private final SnowcastSequenceLayout sequenceLayout;
 
     /**
      * This constructor creates a new SnowcastSequenceComparator instance bound to the given
@@ -62,9 +64,20 @@ public final class SnowcastSequenceComparator
      * </pre>
      *
      * @param maxLogicalNodeCount the maximal logical node count
+     * @throws SnowcastMaxLogicalNodeIdOutOfBoundsException when maxLogicalNodeCount is outside of the legal range
      */
     public SnowcastSequenceComparator(@Min(128) @Max(8192) int maxLogicalNodeCount) {
-        this.maxLogicalNodeCount = maxLogicalNodeCount;
+        this.sequenceLayout = SnowcastSequenceLayout.of(maxLogicalNodeCount);
+    }
+
+    /**
+     * This constructor creates a new SnowcastSequenceComparator instance bound to the given
+     * sequence layout, required for sequence ids of sequencers with a custom layout.
+     *
+     * @param sequenceLayout the layout of the sequence ids at generation time
+     */
+    public SnowcastSequenceComparator(@Nonnull SnowcastSequenceLayout sequenceLayout) {
+        this.sequenceLayout = sequenceLayout;
     }
 
     /**
@@ -72,6 +85,14 @@ public final class SnowcastSequenceComparator
      */
     @Override
     public int compare(@Nonnull Long sequenceId1, @Nonnull Long sequenceId2) {
-        return SnowcastSequenceUtils.compareSequence(sequenceId1, sequenceId2, maxLogicalNodeCount);
+        return compare(sequenceId1.longValue(), sequenceId2.longValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compare(long sequenceId1, long sequenceId2) {
+        return sequenceLayout.compare(sequenceId1, sequenceId2);
     }
 }
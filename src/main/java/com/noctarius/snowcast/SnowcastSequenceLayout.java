@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast;
+
+import com.noctarius.snowcast.impl.InternalSequencerUtils;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_BUFFER_LENGTH;
+import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_SEQUENCE_LAYOUT;
+import static com.noctarius.snowcast.impl.ExceptionUtils.exception;
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.calculateBoundedMaxLogicalNodeCount;
+import static com.noctarius.snowcast.impl.SnowcastConstants.DEFAULT_TIMESTAMP_BITS;
+import static com.noctarius.snowcast.impl.SnowcastConstants.MAX_COUNTER_BITS;
+import static com.noctarius.snowcast.impl.SnowcastConstants.MAX_LOGICAL_NODE_BITS;
+import static com.noctarius.snowcast.impl.SnowcastConstants.MIN_COUNTER_BITS;
+import static com.noctarius.snowcast.impl.SnowcastConstants.MIN_LOGICAL_NODE_BITS;
+import static com.noctarius.snowcast.impl.SnowcastConstants.MIN_TIMESTAMP_BITS;
+import static com.noctarius.snowcast.impl.SnowcastConstants.NODE_ID_LOWER_BOUND;
+import static com.noctarius.snowcast.impl.SnowcastConstants.NODE_ID_UPPER_BOUND;
+import static com.noctarius.snowcast.impl.SnowcastConstants.SEQUENCE_ID_BITS;
+
+/**
+ * <p>The SnowcastSequenceLayout describes the bit layout of sequence ids generated with a certain
+ * maximum logical node count. All shifts and masks are computed once, therefore decoding sequence ids
+ * through a layout instance skips the bounds checks and calculations that the corresponding
+ * {@link com.noctarius.snowcast.SnowcastSequenceUtils} methods have to do on every call.</p>
+ * <p>Layouts are immutable and there is exactly one default instance per legal maximum logical node count:</p>
+ * <pre>
+ *     SnowcastSequenceLayout layout = SnowcastSequenceLayout.of( 128 );
+ *     long[] timestamps = new long[ids.length];
+ *     int[] counters = new int[ids.length];
+ *     layout.timestampValues( ids, timestamps );
+ *     layout.counterValues( ids, counters );
+ * </pre>
+ * <p>The default layouts use 41 bits for the timestamp value, the remaining 23 bits are shared by the
+ * logicalNodeId and the counter value. Custom layouts trade timestamp range for more logicalNodeIds or
+ * more IDs per millisecond and are passed to
+ * {@link com.noctarius.snowcast.Snowcast#createSequencer(String, SnowcastEpoch, SnowcastSequenceLayout)}:</p>
+ * <pre>
+ *     // 38 bits (~8.7 years) of timestamp, 16 logical nodes and 2^22 IDs per millisecond
+ *     SnowcastSequenceLayout layout = SnowcastSequenceLayout.of( 38, 4, 22 );
+ * </pre>
+ * <p>Custom layouts can also store the timestamp in sub-millisecond ticks, see
+ * {@link com.noctarius.snowcast.SnowcastTimestampResolution}. Timestamp values are still decoded
+ * as milliseconds, {@link #tickValue(long)} returns the raw number of ticks.</p>
+ * <p>The bulk decode methods are plain loops over the arrays without any branches to give the JIT
+ * compiler the chance to unroll and vectorize them.</p>
+ */
+@ThreadSafe
+public final class SnowcastSequenceLayout
+        implements SnowcastLongComparator {
+
+    // The smallest legal maximum logical node count uses 2^7 nodes
+    private static final int LAYOUT_INDEX_OFFSET = Integer.numberOfTrailingZeros(NODE_ID_LOWER_BOUND);
+
+    private static final SnowcastSequenceLayout[] LAYOUTS = createLayouts();
+
+    private final int timestampBits;
+    private final int logicalNodeBits;
+    private final int counterBits;
+    private final SnowcastTimestampResolution timestampResolution;
+    private final int ticksPerMillisecond;
+    private final int maxLogicalNodeCount;
+    private final int timestampShift;
+    private final long logicalNodeMask;
+    private final long counterMask;
+
+    private SnowcastSequenceLayout(@Nonnegative int timestampBits, @Nonnegative int logicalNodeBits,
+                                   @Nonnegative int counterBits, @Nonnull SnowcastTimestampResolution timestampResolution) {
+
+        this.timestampBits = timestampBits;
+        this.logicalNodeBits = logicalNodeBits;
+        this.counterBits = counterBits;
+        this.timestampResolution = timestampResolution;
+        this.ticksPerMillisecond = timestampResolution.getTicksPerMillisecond();
+        this.maxLogicalNodeCount = 1 << logicalNodeBits;
+        this.timestampShift = logicalNodeBits + counterBits;
+        this.counterMask = (1L << counterBits) - 1;
+        this.logicalNodeMask = ((1L << logicalNodeBits) - 1) << counterBits;
+    }
+
+    /**
+     * Returns the layout of sequence ids generated with the given maximum logical node count.
+     * Values that are not a power of two are rounded up the same way a sequencer does.
+     *
+     * @param maxLogicalNodeCount the maximum node count that was specified at generation time
+     * @return the layout instance bound to the maximum logical node count
+     * @throws SnowcastMaxLogicalNodeIdOutOfBoundsException when maxLogicalNodeCount is outside of the legal range
+     */
+    @Nonnull
+    public static SnowcastSequenceLayout of(@Min(128) @Max(8192) int maxLogicalNodeCount) {
+        int nodeCount = calculateBoundedMaxLogicalNodeCount(maxLogicalNodeCount);
+        return LAYOUTS[Integer.numberOfTrailingZeros(nodeCount + 1) - LAYOUT_INDEX_OFFSET];
+    }
+
+    /**
+     * Returns a custom layout with the given number of bits per value. The bits must add up to 64, with
+     * 32 to 41 timestamp bits, 1 to 13 logicalNodeId bits (2 to 8192 logical nodes) and 10 to 30 counter
+     * bits. The timestamp bits define how long after the epoch sequence ids can be generated, 41 bits
+     * last about 69 years, every bit less halves the range. Layouts equal to one of the default layouts
+     * return the default instance.
+     *
+     * @param timestampBits   the number of bits of the timestamp value
+     * @param logicalNodeBits the number of bits of the logicalNodeId
+     * @param counterBits     the number of bits of the counter value
+     * @return the layout instance with the given number of bits per value
+     * @throws IllegalArgumentException when one of the values is outside of the legal range or the bits
+     *                                  don't add up to 64
+     */
+    @Nonnull
+    public static SnowcastSequenceLayout of(@Min(32) @Max(41) int timestampBits, @Min(1) @Max(13) int logicalNodeBits,
+                                            @Min(10) @Max(30) int counterBits) {
+
+        return of(timestampBits, logicalNodeBits, counterBits, SnowcastTimestampResolution.Milliseconds);
+    }
+
+    /**
+     * Returns a custom layout with the given number of bits per value and the given unit of the timestamp
+     * value. The bits are bound to the same ranges as with {@link #of(int, int, int)}. With a sub-millisecond
+     * resolution the counter value restarts with every tick instead of every millisecond, the timestamp bits
+     * last shorter by the number of ticks per millisecond though.
+     *
+     * @param timestampBits       the number of bits of the timestamp value
+     * @param logicalNodeBits     the number of bits of the logicalNodeId
+     * @param counterBits         the number of bits of the counter value
+     * @param timestampResolution the unit of the timestamp value
+     * @return the layout instance with the given number of bits per value and timestamp resolution
+     * @throws IllegalArgumentException when one of the values is outside of the legal range or the bits
+     *                                  don't add up to 64
+     */
+    @Nonnull
+    public static SnowcastSequenceLayout of(@Min(32) @Max(41) int timestampBits, @Min(1) @Max(13) int logicalNodeBits,
+                                            @Min(10) @Max(30) int counterBits,
+                                            @Nonnull SnowcastTimestampResolution timestampResolution) {
+
+        if (timestampBits < MIN_TIMESTAMP_BITS || timestampBits > DEFAULT_TIMESTAMP_BITS //
+                || logicalNodeBits < MIN_LOGICAL_NODE_BITS || logicalNodeBits > MAX_LOGICAL_NODE_BITS //
+                || counterBits < MIN_COUNTER_BITS || counterBits > MAX_COUNTER_BITS //
+                || timestampBits + logicalNodeBits + counterBits != SEQUENCE_ID_BITS) {
+
+            throw exception(IllegalArgumentException::new, ILLEGAL_SEQUENCE_LAYOUT, timestampBits, logicalNodeBits,
+                    counterBits, SEQUENCE_ID_BITS, MIN_TIMESTAMP_BITS, DEFAULT_TIMESTAMP_BITS, MIN_LOGICAL_NODE_BITS,
+                    MAX_LOGICAL_NODE_BITS, MIN_COUNTER_BITS, MAX_COUNTER_BITS);
+        }
+
+        int layoutIndex = logicalNodeBits - LAYOUT_INDEX_OFFSET;
+        if (timestampBits == DEFAULT_TIMESTAMP_BITS && layoutIndex >= 0
+                && timestampResolution == SnowcastTimestampResolution.Milliseconds) {
+
+            return LAYOUTS[layoutIndex];
+        }
+        return new SnowcastSequenceLayout(timestampBits, logicalNodeBits, counterBits, timestampResolution);
+    }
+
+    /**
+     * Returns the maximum logical node count of this layout, always a power of two.
+     *
+     * @return the maximum logical node count
+     */
+    @Min(2)
+    @Max(8192)
+    public int getMaxLogicalNodeCount() {
+        return maxLogicalNodeCount;
+    }
+
+    /**
+     * Returns the number of bits reserved for the timestamp value in this layout.
+     *
+     * @return the number of timestamp bits
+     */
+    @Nonnegative
+    public int getTimestampBits() {
+        return timestampBits;
+    }
+
+    /**
+     * Returns the number of bits reserved for the logicalNodeId in this layout.
+     *
+     * @return the number of logicalNodeId bits
+     */
+    @Nonnegative
+    public int getLogicalNodeBits() {
+        return logicalNodeBits;
+    }
+
+    /**
+     * Returns the number of bits reserved for the counter value in this layout.
+     *
+     * @return the number of counter bits
+     */
+    @Nonnegative
+    public int getCounterBits() {
+        return counterBits;
+    }
+
+    /**
+     * Returns the unit of the timestamp value in this layout.
+     *
+     * @return the timestamp resolution
+     */
+    @Nonnull
+    public SnowcastTimestampResolution getTimestampResolution() {
+        return timestampResolution;
+    }
+
+    /**
+     * Extracts the timestamp value from a given sequence id, see
+     * {@link com.noctarius.snowcast.SnowcastSequenceUtils#timestampValue(long)}. The value is always
+     * in milliseconds, timestamps of sub-millisecond resolutions are truncated, see {@link #tickValue(long)}.
+     *
+     * @param sequenceId the sequence id to extract the timestamp value from
+     * @return the extracted timestamp value in milliseconds based on the generation epoch
+     */
+    @Nonnegative
+    public long timestampValue(long sequenceId) {
+        long ticks = sequenceId >>> timestampShift;
+        return ticksPerMillisecond == 1 ? ticks : ticks / ticksPerMillisecond;
+    }
+
+    /**
+     * Extracts the raw timestamp value from a given sequence id, in ticks of the layout's
+     * {@link com.noctarius.snowcast.SnowcastTimestampResolution}. For millisecond resolution
+     * layouts this equals {@link #timestampValue(long)}.
+     *
+     * @param sequenceId the sequence id to extract the timestamp value from
+     * @return the extracted timestamp value in ticks based on the generation epoch
+     */
+    @Nonnegative
+    public long tickValue(long sequenceId) {
+        return sequenceId >>> timestampShift;
+    }
+
+    /**
+     * Extracts the logicalNodeId from a given sequence id, see
+     * {@link com.noctarius.snowcast.SnowcastSequenceUtils#logicalNodeId(long, int)}.
+     *
+     * @param sequenceId the sequence id to extract the logicalNodeId value from
+     * @return the extracted logicalNodeId
+     */
+    @Nonnegative
+    public int logicalNodeId(long sequenceId) {
+        return InternalSequencerUtils.logicalNodeId(sequenceId, counterBits, logicalNodeMask);
+    }
+
+    /**
+     * Extracts the counter value from a given sequence id, see
+     * {@link com.noctarius.snowcast.SnowcastSequenceUtils#counterValue(long, int)}.
+     *
+     * @param sequenceId the sequence id to extract the counter value from
+     * @return the extracted counter value
+     */
+    @Nonnegative
+    public int counterValue(long sequenceId) {
+        return InternalSequencerUtils.counterValue(sequenceId, counterMask);
+    }
+
+    /**
+     * Compares two distinct sequence ids by their internal timestamp <b>and</b> counter value, see
+     * {@link com.noctarius.snowcast.SnowcastSequenceUtils#compareSequence(long, long, int)}.
+     *
+     * @param sequenceId1 the first sequence id to be compared
+     * @param sequenceId2 the second sequence if to be compared
+     * @return a negative integer, zero, or a positive integer as the first argument is less than,
+     * equal to, or greater than the second.
+     */
+    @Override
+    public int compare(long sequenceId1, long sequenceId2) {
+        long timestampValue1 = tickValue(sequenceId1);
+        long timestampValue2 = tickValue(sequenceId2);
+
+        int compare = Long.compare(timestampValue1, timestampValue2);
+        if (compare != 0) {
+            return compare;
+        }
+
+        return Long.compare(sequenceId1 & counterMask, sequenceId2 & counterMask);
+    }
+
+    /**
+     * Extracts the timestamp values of all given sequence ids into the target array.
+     *
+     * @param sequenceIds the sequence ids to extract the timestamp values from
+     * @param timestamps  the target array, at least as long as sequenceIds
+     * @throws IllegalArgumentException when the target array is too short
+     */
+    public void timestampValues(@Nonnull long[] sequenceIds, @Nonnull long[] timestamps) {
+        int length = checkTargetLength(sequenceIds, timestamps.length, "timestamps");
+        if (ticksPerMillisecond == 1) {
+            for (int i = 0; i < length; i++) {
+                timestamps[i] = tickValue(sequenceIds[i]);
+            }
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            timestamps[i] = tickValue(sequenceIds[i]) / ticksPerMillisecond;
+        }
+    }
+
+    /**
+     * Extracts the logicalNodeIds of all given sequence ids into the target array.
+     *
+     * @param sequenceIds    the sequence ids to extract the logicalNodeIds from
+     * @param logicalNodeIds the target array, at least as long as sequenceIds
+     * @throws IllegalArgumentException when the target array is too short
+     */
+    public void logicalNodeIds(@Nonnull long[] sequenceIds, @Nonnull int[] logicalNodeIds) {
+        int length = checkTargetLength(sequenceIds, logicalNodeIds.length, "logicalNodeIds");
+        for (int i = 0; i < length; i++) {
+            logicalNodeIds[i] = logicalNodeId(sequenceIds[i]);
+        }
+    }
+
+    /**
+     * Extracts the counter values of all given sequence ids into the target array.
+     *
+     * @param sequenceIds the sequence ids to extract the counter values from
+     * @param counters    the target array, at least as long as sequenceIds
+     * @throws IllegalArgumentException when the target array is too short
+     */
+    public void counterValues(@Nonnull long[] sequenceIds, @Nonnull int[] counters) {
+        int length = checkTargetLength(sequenceIds, counters.length, "counters");
+        for (int i = 0; i < length; i++) {
+            counters[i] = counterValue(sequenceIds[i]);
+        }
+    }
+
+    /**
+     * Extracts timestamp value, logicalNodeId and counter value of all given sequence ids into the
+     * target arrays in a single pass.
+     *
+     * @param sequenceIds    the sequence ids to decode
+     * @param timestamps     the timestamp target array, at least as long as sequenceIds
+     * @param logicalNodeIds the logicalNodeId target array, at least as long as sequenceIds
+     * @param counters       the counter target array, at least as long as sequenceIds
+     * @throws IllegalArgumentException when one of the target arrays is too short
+     */
+    public void decode(@Nonnull long[] sequenceIds, @Nonnull long[] timestamps, @Nonnull int[] logicalNodeIds,
+                       @Nonnull int[] counters) {
+
+        int length = checkTargetLength(sequenceIds, timestamps.length, "timestamps");
+        checkTargetLength(sequenceIds, logicalNodeIds.length, "logicalNodeIds");
+        checkTargetLength(sequenceIds, counters.length, "counters");
+        for (int i = 0; i < length; i++) {
+            long sequenceId = sequenceIds[i];
+            timestamps[i] = timestampValue(sequenceId);
+            logicalNodeIds[i] = logicalNodeId(sequenceId);
+            counters[i] = counterValue(sequenceId);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        SnowcastSequenceLayout that = (SnowcastSequenceLayout) o;
+        return timestampBits == that.timestampBits && logicalNodeBits == that.logicalNodeBits
+                && counterBits == that.counterBits && timestampResolution == that.timestampResolution;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = timestampBits;
+        result = 31 * result + logicalNodeBits;
+        result = 31 * result + counterBits;
+        result = 31 * result + timestampResolution.hashCode();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "SnowcastSequenceLayout{" + "maxLogicalNodeCount=" + maxLogicalNodeCount + ", timestampBits="
+                + timestampBits + ", logicalNodeBits=" + logicalNodeBits + ", counterBits=" + counterBits
+                + ", timestampResolution=" + timestampResolution + '}';
+    }
+
+    @Nonnegative
+    private static int checkTargetLength(@Nonnull long[] sequenceIds, @Nonnegative int targetLength,
+                                         @Nonnull String targetName) {
+
+        int length = sequenceIds.length;
+        if (targetLength < length) {
+            throw exception(IllegalArgumentException::new, ILLEGAL_BUFFER_LENGTH, targetName, length, targetLength);
+        }
+        return length;
+    }
+
+    @Nonnull
+    private static SnowcastSequenceLayout[] createLayouts() {
+        int layoutCount = Integer.numberOfTrailingZeros(NODE_ID_UPPER_BOUND) - LAYOUT_INDEX_OFFSET + 1;
+        SnowcastSequenceLayout[] layouts = new SnowcastSequenceLayout[layoutCount];
+        for (int i = 0; i < layoutCount; i++) {
+            // The logicalNodeId and the counter value share the bits below the timestamp
+            int logicalNodeBits = LAYOUT_INDEX_OFFSET + i;
+            int counterBits = SEQUENCE_ID_BITS - DEFAULT_TIMESTAMP_BITS - logicalNodeBits;
+            layouts[i] = new SnowcastSequenceLayout(DEFAULT_TIMESTAMP_BITS, logicalNodeBits, counterBits,
+                    SnowcastTimestampResolution.Milliseconds);
+        }
+        return layouts;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast;
+
+import com.noctarius.snowcast.impl.SequencerSubscription;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.noctarius.snowcast.impl.ExceptionMessages.PARAMETER_MUST_NOT_BE_NULL;
+import static com.noctarius.snowcast.impl.ExceptionUtils.exception;
+
+/**
+ * <p>The SnowcastSequencePublisher is a Reactive Streams {@link org.reactivestreams.Publisher}
+ * emitting snowcast sequence IDs of a {@link com.noctarius.snowcast.SnowcastSequencer} according
+ * to the demand of its subscribers. Every subscriber receives its own, unique IDs and the
+ * publisher never completes.</p>
+ * <p>The publisher never blocks and honors the sequencer's counter budget. If all IDs of the
+ * current timestamp tick (see {@link com.noctarius.snowcast.SnowcastTimestampResolution}) are
+ * used up, emission continues at the next tick on the executor given at creation, by default
+ * the {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}. Subscribers running
+ * long operations inside {@link org.reactivestreams.Subscriber#onNext(Object)} should therefore
+ * pass an own executor. If the sequencer is detached or destroyed, subscribers are terminated
+ * with {@link org.reactivestreams.Subscriber#onError(Throwable)}.</p>
+ * <pre>
+ *     Publisher&lt;Long&gt; publisher = SnowcastSequencePublisher.publisher( sequencer );
+ * </pre>
+ * <p>This class requires the Reactive Streams API (<tt>org.reactivestreams:reactive-streams</tt>)
+ * to be available on the classpath. It is an optional dependency of snowcast.</p>
+ */
+public final class SnowcastSequencePublisher
+        implements Publisher<Long> {
+
+    private final SnowcastSequencer sequencer;
+    private final Executor executor;
+
+    private SnowcastSequencePublisher(@Nonnull SnowcastSequencer sequencer, @Nonnull Executor executor) {
+        this.sequencer = sequencer;
+        this.executor = executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(@Nonnull Subscriber<? super Long> subscriber) {
+        if (subscriber == null) {
+            throw exception(NullPointerException::new, PARAMETER_MUST_NOT_BE_NULL, "subscriber");
+        }
+        subscriber.onSubscribe(new SequencerSubscription(sequencer, subscriber, executor));
+    }
+
+    /**
+     * Creates a new SnowcastSequencePublisher emitting IDs generated by the given sequencer.
+     *
+     * @param sequencer the sequencer to generate IDs with
+     * @return a publisher of snowcast sequence IDs
+     */
+    @Nonnull
+    public static SnowcastSequencePublisher publisher(@Nonnull SnowcastSequencer sequencer) {
+        return publisher(sequencer, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new SnowcastSequencePublisher emitting IDs generated by the given sequencer. Emission
+     * continued after the IDs of a millisecond were used up runs on the given executor.
+     *
+     * @param sequencer the sequencer to generate IDs with
+     * @param executor  the executor to continue the emission on
+     * @return a publisher of snowcast sequence IDs
+     */
+    @Nonnull
+    public static SnowcastSequencePublisher publisher(@Nonnull SnowcastSequencer sequencer, @Nonnull Executor executor) {
+        if (executor == null) {
+            throw exception(NullPointerException::new, PARAMETER_MUST_NOT_BE_NULL, "executor");
+        }
+        return new SnowcastSequencePublisher(sequencer, executor);
+    }
+}
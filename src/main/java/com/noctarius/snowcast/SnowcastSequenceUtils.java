@@ -17,6 +17,7 @@
 package com.noctarius.snowcast;
 
 import com.noctarius.snowcast.impl.InternalSequencerUtils;
+import com.noctarius.snowcast.impl.SequenceIdSorter;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -25,17 +26,19 @@ import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import java.util.Comparator;
 
-import static com.noctarius.snowcast.impl.InternalSequencerUtils.calculateBoundedMaxLogicalNodeCount;
-import static com.noctarius.snowcast.impl.InternalSequencerUtils.calculateCounterMask;
-import static com.noctarius.snowcast.impl.InternalSequencerUtils.calculateLogicalNodeMask;
-import static com.noctarius.snowcast.impl.InternalSequencerUtils.calculateLogicalNodeShifting;
 import static com.noctarius.snowcast.impl.SnowcastConstants.DEFAULT_MAX_LOGICAL_NODES_13_BITS;
+import static com.noctarius.snowcast.impl.SnowcastConstants.SHIFT_TIMESTAMP;
 
 /**
  * This class contains a collection of helper methods to easy the use of snowcast. It provides
  * the user with functionality to extract timestamp-, counter-value and logicalNodeId from a
  * sequence id and to compare sequence ids without the need for boxing/unboxing as the
- * {@link com.noctarius.snowcast.SnowcastTimestampComparator} would have to.
+ * {@link com.noctarius.snowcast.SnowcastTimestampComparator} would have to. Arrays of sequence ids
+ * can be sorted and merged the same way, without boxing them into <tt>Long</tt> instances.
+ * <p>Methods without a maximum logical node count or {@link com.noctarius.snowcast.SnowcastSequenceLayout}
+ * parameter expect sequence ids of one of the default layouts with 41 timestamp bits in milliseconds.
+ * Sequence ids of sequencers with a custom layout or timestamp resolution are decoded through the
+ * layout instance or the overloads taking the layout.</p>
  */
 @ThreadSafe
 public final class SnowcastSequenceUtils {
@@ -56,6 +59,20 @@ public final class SnowcastSequenceUtils {
         return InternalSequencerUtils.snowcastSequenceComparator(sequencer);
     }
 
+    /**
+     * Returns the {@link com.noctarius.snowcast.SnowcastSequenceLayout} of sequence ids generated by the
+     * given {@link com.noctarius.snowcast.SnowcastSequencer}. For decoding many sequence ids the layout's
+     * methods should be preferred over the helper methods of this class, since shifts and masks are
+     * precomputed.
+     *
+     * @param sequencer the SnowcastSequencer to retrieve the maximum logical node count value from
+     * @return the SnowcastSequenceLayout instance bound to the maximum logical node count
+     */
+    @Nonnull
+    public static SnowcastSequenceLayout sequenceLayout(@Nonnull SnowcastSequencer sequencer) {
+        return InternalSequencerUtils.sequenceLayout(sequencer);
+    }
+
     /**
      * This helper method extracts the timestamp value from a given sequence id. This timestamp value can be
      * used to order multiple sequence ids depending on their generation time.<br>
@@ -70,6 +87,20 @@ public final class SnowcastSequenceUtils {
         return InternalSequencerUtils.timestampValue(sequenceId);
     }
 
+    /**
+     * This helper method extracts the timestamp value from a given sequence id of the given layout. The
+     * timestamp value is always returned in milliseconds, sequence ids of layouts with a sub-millisecond
+     * {@link com.noctarius.snowcast.SnowcastTimestampResolution} are truncated to the millisecond.
+     *
+     * @param sequenceId     the sequence id to extract the timestamp value from
+     * @param sequenceLayout the layout of the sequence id at generation time
+     * @return the extracted timestamp value in milliseconds based on the generation epoch
+     */
+    @Nonnegative
+    public static long timestampValue(long sequenceId, @Nonnull SnowcastSequenceLayout sequenceLayout) {
+        return sequenceLayout.timestampValue(sequenceId);
+    }
+
     /**
      * <p>This helper method extracts the logicalNodeId from a given sequence id. This logicalNodeId identifies
      * the logical node at generation time. Since assignment is automatic and there is no guarantee that a
@@ -98,10 +129,7 @@ public final class SnowcastSequenceUtils {
      */
     @Nonnegative
     public static int logicalNodeId(long sequenceId, @Min(128) @Max(8192) int maxLogicalNodeCount) {
-        int nodeCount = calculateBoundedMaxLogicalNodeCount(maxLogicalNodeCount);
-        int nodeIdShiftFactor = calculateLogicalNodeShifting(nodeCount);
-        long mask = calculateLogicalNodeMask(nodeCount, nodeIdShiftFactor);
-        return InternalSequencerUtils.logicalNodeId(sequenceId, nodeIdShiftFactor, mask);
+        return SnowcastSequenceLayout.of(maxLogicalNodeCount).logicalNodeId(sequenceId);
     }
 
     /**
@@ -130,10 +158,7 @@ public final class SnowcastSequenceUtils {
      */
     @Nonnegative
     public static int counterValue(long sequenceId, @Min(128) @Max(8192) int maxLogicalNodeCount) {
-        int nodeCount = calculateBoundedMaxLogicalNodeCount(maxLogicalNodeCount);
-        int nodeIdShiftFactor = calculateLogicalNodeShifting(nodeCount);
-        long mask = calculateCounterMask(nodeCount, nodeIdShiftFactor);
-        return InternalSequencerUtils.counterValue(sequenceId, mask);
+        return SnowcastSequenceLayout.of(maxLogicalNodeCount).counterValue(sequenceId);
     }
 
     /**
@@ -181,20 +206,172 @@ public final class SnowcastSequenceUtils {
      * @throws SnowcastMaxLogicalNodeIdOutOfBoundsException when maxLogicalNodeCount is outside of the legal range
      */
     public static int compareSequence(long sequenceId1, long sequenceId2, @Min(128) @Max(8192) int maxLogicalNodeCount) {
-        int nodeCount = calculateBoundedMaxLogicalNodeCount(maxLogicalNodeCount);
-        int nodeIdShifting = calculateLogicalNodeShifting(nodeCount);
-        long counterMask = calculateCounterMask(nodeCount, nodeIdShifting);
+        return SnowcastSequenceLayout.of(maxLogicalNodeCount).compare(sequenceId1, sequenceId2);
+    }
 
-        long timestampValue1 = timestampValue(sequenceId1);
-        long timestampValue2 = timestampValue(sequenceId2);
+    /**
+     * This helper method provides a comparison implementation to order or compare two distinct
+     * sequence ids of the given layout by their internal timestamp <b>and</b> counter value. Timestamps
+     * of sub-millisecond resolutions are compared at their full resolution.
+     *
+     * @param sequenceId1    the first sequence id to be compared
+     * @param sequenceId2    the second sequence if to be compared
+     * @param sequenceLayout the layout of the sequence ids at generation time
+     * @return a negative integer, zero, or a positive integer as the first argument is less than,
+     * equal to, or greater than the second.
+     */
+    public static int compareSequence(long sequenceId1, long sequenceId2, @Nonnull SnowcastSequenceLayout sequenceLayout) {
+        return sequenceLayout.compare(sequenceId1, sequenceId2);
+    }
 
-        int compare = Long.compare(timestampValue1, timestampValue2);
-        if (compare != 0) {
-            return compare;
-        }
+    /**
+     * <p>This helper method sorts the given sequence ids in place by their internal timestamp value. Sequence
+     * ids with equal timestamp values keep their relative order.</p>
+     * <p>This overload allocates a temporary buffer of the same length as the given array. To sort without
+     * allocating please use {@link #sortByTimestamp(long[], long[])} and provide a reusable buffer.</p>
+     *
+     * @param sequenceIds the sequence ids to sort
+     */
+    public static void sortByTimestamp(@Nonnull long[] sequenceIds) {
+        sortByTimestamp(sequenceIds, new long[sequenceIds.length]);
+    }
+
+    /**
+     * This helper method sorts the given sequence ids in place by their internal timestamp value. Sequence
+     * ids with equal timestamp values keep their relative order. The given buffer is used as scratch space
+     * and its content is overridden.
+     *
+     * @param sequenceIds the sequence ids to sort
+     * @param buffer      the scratch buffer, at least as long as sequenceIds
+     * @throws IllegalArgumentException when the buffer is shorter than sequenceIds
+     */
+    public static void sortByTimestamp(@Nonnull long[] sequenceIds, @Nonnull long[] buffer) {
+        SequenceIdSorter.sort(sequenceIds, buffer, SHIFT_TIMESTAMP, 0);
+    }
+
+    /**
+     * <p>This helper method sorts the given sequence ids in place by their internal timestamp <b>and</b> counter
+     * value, the same order as defined by {@link #compareSequence(long, long)}.</p>
+     * <p>This overload always assumes a maximal node count of 8192 nodes. For a divergent number of maximum
+     * nodes at generation time of the sequenceIds please use {@link #sortBySequence(long[], int)} and
+     * specify the maximum node count.</p>
+     *
+     * @param sequenceIds the sequence ids to sort
+     */
+    public static void sortBySequence(@Nonnull long[] sequenceIds) {
+        sortBySequence(sequenceIds, DEFAULT_MAX_LOGICAL_NODES_13_BITS);
+    }
+
+    /**
+     * <p>This helper method sorts the given sequence ids in place by their internal timestamp <b>and</b> counter
+     * value, the same order as defined by {@link #compareSequence(long, long, int)}.</p>
+     * <p>This overload allocates a temporary buffer of the same length as the given array. To sort without
+     * allocating please use {@link #sortBySequence(long[], long[], int)} and provide a reusable buffer.</p>
+     *
+     * @param sequenceIds         the sequence ids to sort
+     * @param maxLogicalNodeCount the maximum node count that was specified at generation time
+     * @throws SnowcastMaxLogicalNodeIdOutOfBoundsException when maxLogicalNodeCount is outside of the legal range
+     */
+    public static void sortBySequence(@Nonnull long[] sequenceIds, @Min(128) @Max(8192) int maxLogicalNodeCount) {
+        sortBySequence(sequenceIds, new long[sequenceIds.length], maxLogicalNodeCount);
+    }
+
+    /**
+     * This helper method sorts the given sequence ids in place by their internal timestamp <b>and</b> counter
+     * value, the same order as defined by {@link #compareSequence(long, long, int)}. The given buffer is used
+     * as scratch space and its content is overridden.
+     *
+     * @param sequenceIds         the sequence ids to sort
+     * @param buffer              the scratch buffer, at least as long as sequenceIds
+     * @param maxLogicalNodeCount the maximum node count that was specified at generation time
+     * @throws SnowcastMaxLogicalNodeIdOutOfBoundsException when maxLogicalNodeCount is outside of the legal range
+     * @throws IllegalArgumentException                     when the buffer is shorter than sequenceIds
+     */
+    public static void sortBySequence(@Nonnull long[] sequenceIds, @Nonnull long[] buffer,
+                                      @Min(128) @Max(8192) int maxLogicalNodeCount) {
+
+        sortBySequence(sequenceIds, buffer, SnowcastSequenceLayout.of(maxLogicalNodeCount));
+    }
+
+    /**
+     * <p>This helper method sorts the given sequence ids in place by their internal timestamp <b>and</b> counter
+     * value, the same order as defined by {@link SnowcastSequenceLayout#compare(long, long)}.</p>
+     * <p>This overload allocates a temporary buffer of the same length as the given array. To sort without
+     * allocating please use {@link #sortBySequence(long[], long[], SnowcastSequenceLayout)} and provide a
+     * reusable buffer.</p>
+     *
+     * @param sequenceIds    the sequence ids to sort
+     * @param sequenceLayout the layout of the sequence ids at generation time
+     */
+    public static void sortBySequence(@Nonnull long[] sequenceIds, @Nonnull SnowcastSequenceLayout sequenceLayout) {
+        sortBySequence(sequenceIds, new long[sequenceIds.length], sequenceLayout);
+    }
+
+    /**
+     * This helper method sorts the given sequence ids in place by their internal timestamp <b>and</b> counter
+     * value, the same order as defined by {@link SnowcastSequenceLayout#compare(long, long)}. The given buffer
+     * is used as scratch space and its content is overridden.
+     *
+     * @param sequenceIds    the sequence ids to sort
+     * @param buffer         the scratch buffer, at least as long as sequenceIds
+     * @param sequenceLayout the layout of the sequence ids at generation time
+     * @throws IllegalArgumentException when the buffer is shorter than sequenceIds
+     */
+    public static void sortBySequence(@Nonnull long[] sequenceIds, @Nonnull long[] buffer,
+                                      @Nonnull SnowcastSequenceLayout sequenceLayout) {
+
+        int counterBits = sequenceLayout.getCounterBits();
+        int timestampShift = sequenceLayout.getLogicalNodeBits() + counterBits;
+        SequenceIdSorter.sort(sequenceIds, buffer, timestampShift, counterBits);
+    }
+
+    /**
+     * This helper method merges two sequence id arrays, each already sorted by timestamp value, into
+     * the given target array. On equal timestamp values ids of the first array are taken first.
+     *
+     * @param sequenceIds1 the first sorted sequence id array
+     * @param sequenceIds2 the second sorted sequence id array
+     * @param target       the target array, at least as long as both arrays together
+     * @throws IllegalArgumentException when the target array is too short
+     */
+    public static void mergeByTimestamp(@Nonnull long[] sequenceIds1, @Nonnull long[] sequenceIds2,
+                                        @Nonnull long[] target) {
+
+        SequenceIdSorter.merge(sequenceIds1, sequenceIds2, target, SHIFT_TIMESTAMP, 0);
+    }
+
+    /**
+     * This helper method merges two sequence id arrays, each already sorted by timestamp and counter value,
+     * into the given target array. On equal timestamp and counter values ids of the first array are taken first.
+     *
+     * @param sequenceIds1        the first sorted sequence id array
+     * @param sequenceIds2        the second sorted sequence id array
+     * @param target              the target array, at least as long as both arrays together
+     * @param maxLogicalNodeCount the maximum node count that was specified at generation time
+     * @throws SnowcastMaxLogicalNodeIdOutOfBoundsException when maxLogicalNodeCount is outside of the legal range
+     * @throws IllegalArgumentException                     when the target array is too short
+     */
+    public static void mergeBySequence(@Nonnull long[] sequenceIds1, @Nonnull long[] sequenceIds2,
+                                       @Nonnull long[] target, @Min(128) @Max(8192) int maxLogicalNodeCount) {
+
+        mergeBySequence(sequenceIds1, sequenceIds2, target, SnowcastSequenceLayout.of(maxLogicalNodeCount));
+    }
+
+    /**
+     * This helper method merges two sequence id arrays, each already sorted by timestamp and counter value,
+     * into the given target array. On equal timestamp and counter values ids of the first array are taken first.
+     *
+     * @param sequenceIds1   the first sorted sequence id array
+     * @param sequenceIds2   the second sorted sequence id array
+     * @param target         the target array, at least as long as both arrays together
+     * @param sequenceLayout the layout of the sequence ids at generation time
+     * @throws IllegalArgumentException when the target array is too short
+     */
+    public static void mergeBySequence(@Nonnull long[] sequenceIds1, @Nonnull long[] sequenceIds2,
+                                       @Nonnull long[] target, @Nonnull SnowcastSequenceLayout sequenceLayout) {
 
-        int counterValue1 = InternalSequencerUtils.counterValue(sequenceId1, counterMask);
-        int counterValue2 = InternalSequencerUtils.counterValue(sequenceId2, counterMask);
-        return Integer.compare(counterValue1, counterValue2);
+        int counterBits = sequenceLayout.getCounterBits();
+        int timestampShift = sequenceLayout.getLogicalNodeBits() + counterBits;
+        SequenceIdSorter.merge(sequenceIds1, sequenceIds2, target, timestampShift, counterBits);
     }
 }
@@ -19,6 +19,7 @@ package com.noctarius.snowcast;
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * <p>The SnowcastSequencer interface describes the general sequencer contract. This
@@ -61,6 +62,67 @@ public interface SnowcastSequencer {
     long next()
             throws InterruptedException;
 
+    /**
+     * <p>Generates and returns the given number of snowcast sequence IDs. The IDs are claimed
+     * as whole ranges of counter values of the current millisecond, spilling over into the
+     * following milliseconds if the requested number exceeds the remaining counter values.
+     * This call blocks until all IDs are generated.</p>
+     * <p>The returned IDs are ordered by their generation timestamp and counter value. This
+     * method is fully thread-safe and expected to be used in multi-threading environments.</p>
+     *
+     * @param count the number of IDs to generate
+     * @return an array containing the generated snowcast sequence IDs
+     * @throws InterruptedException if the blocking wait is interrupted
+     */
+    @Nonnull
+    long[] next(@Nonnegative int count)
+            throws InterruptedException;
+
+    /**
+     * <p>Generates snowcast sequence IDs and fills the given array completely. The IDs are
+     * claimed as whole ranges of counter values of the current millisecond, spilling over into
+     * the following milliseconds if the array's length exceeds the remaining counter values.
+     * This call blocks until the array is filled.</p>
+     * <p>This method does not allocate and is meant to be used with reused buffers. It is
+     * fully thread-safe and expected to be used in multi-threading environments.</p>
+     *
+     * @param ids the array to fill with generated snowcast sequence IDs
+     * @throws InterruptedException if the blocking wait is interrupted
+     */
+    void nextBatch(@Nonnull long[] ids)
+            throws InterruptedException;
+
+    /**
+     * <p>Generates the next snowcast sequence ID without blocking the calling thread. If an ID
+     * is available in the current millisecond, the returned future is already completed.
+     * Otherwise the generation is retried at the next millisecond by a shared timer thread
+     * and the future is completed on the {@link java.util.concurrent.ForkJoinPool#commonPool()
+     * common pool}, where non-async dependent stages run as well. Long running dependent stages
+     * should use an own executor to not starve the common pool.</p>
+     * <p>Errors, like the sequencer being detached or destroyed, are reported by completing
+     * the future exceptionally. This method is fully thread-safe and meant to be used from
+     * event loop threads that must never block.</p>
+     *
+     * @return a future completing with the next available snowcast sequence ID
+     */
+    @Nonnull
+    CompletableFuture<Long> nextAsync();
+
+    /**
+     * <p>Generates the given number of snowcast sequence IDs without blocking the calling
+     * thread. All IDs available in the current millisecond are claimed immediately. If those
+     * are not enough the generation continues at the following milliseconds on a shared timer
+     * thread and the future is completed on the {@link java.util.concurrent.ForkJoinPool#commonPool()
+     * common pool}, where non-async dependent stages run as well.</p>
+     * <p>The IDs are ordered by their generation timestamp and counter value. Errors are reported
+     * by completing the future exceptionally. This method is fully thread-safe.</p>
+     *
+     * @param count the number of IDs to generate
+     * @return a future completing with an array containing the generated snowcast sequence IDs
+     */
+    @Nonnull
+    CompletableFuture<long[]> nextBatchAsync(@Nonnegative int count);
+
     /**
      * Returns the current {@link com.noctarius.snowcast.SnowcastSequenceState} of this
      * sequencer. It might be attached, detached or destroyed. Please refer to the state
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * <p>The SnowcastSequencerMetrics are the counters of a single local sequencer instance. Every
+ * node or client keeps its own counters, the values are not aggregated over the cluster.</p>
+ * <p>Counters are recorded without locking or allocation and, apart from the number of attached
+ * logical node ids, are monotonically increasing for the lifetime of the local sequencer instance. Metrics are published through the
+ * {@link com.noctarius.snowcast.SnowcastMetricsRegistry} implementations, by default as JMX
+ * MBeans with the object name
+ * <tt>com.noctarius.snowcast:type=Sequencer,instance=&lt;instance name&gt;,name=&lt;sequencer name&gt;</tt>.</p>
+ */
+@ThreadSafe
+public interface SnowcastSequencerMetrics {
+
+    /**
+     * Returns the reference name of the sequencer these metrics belong to.
+     *
+     * @return the sequencers reference name
+     */
+    @Nonnull
+    String getSequencerName();
+
+    /**
+     * Returns the number of IDs generated by this local sequencer instance, including prefetched ones.
+     *
+     * @return the number of generated IDs
+     */
+    @Nonnegative
+    long getGeneratedIds();
+
+    /**
+     * Returns how often a thread had to wait for the next millisecond because all counter values
+     * of the current millisecond were used up.
+     *
+     * @return the number of counter exhaustion waits
+     */
+    @Nonnegative
+    long getCounterExhaustionWaits();
+
+    /**
+     * Returns how often updating the shared counter failed due to concurrent updates by other
+     * threads and had to be retried. A high number relative to the generated IDs indicates that
+     * counter striping (see {@link com.noctarius.snowcast.SnowcastSequencerOptions#withCounterStripes(int)})
+     * would help.
+     *
+     * @return the number of counter update retries
+     */
+    @Nonnegative
+    long getCasRetries();
+
+    /**
+     * Returns how often a single generation had to wait for half of the maximum number of
+     * milliseconds before it gives up with an exception.
+     *
+     * @return the number of generations approaching the retry limit
+     */
+    @Nonnegative
+    long getRetryLimitApproaches();
+
+    /**
+     * Returns the number of logical node ids currently attached to this sequencer, changes with
+     * adaptive scaling (see
+     * {@link com.noctarius.snowcast.SnowcastSequencerOptions#withAdaptiveLogicalNodes(int, long, java.util.concurrent.TimeUnit)}).
+     *
+     * @return the number of currently attached logical node ids
+     */
+    @Nonnegative
+    int getAttachedLogicalNodes();
+
+    /**
+     * Returns the histogram of the durations of attaching a logical node id to this sequencer.
+     *
+     * @return the attach latency histogram
+     */
+    @Nonnull
+    SnowcastLatencyHistogram getAttachLatency();
+
+    /**
+     * Returns the histogram of the durations of detaching the logical node id from this sequencer.
+     *
+     * @return the detach latency histogram
+     */
+    @Nonnull
+    SnowcastLatencyHistogram getDetachLatency();
+}
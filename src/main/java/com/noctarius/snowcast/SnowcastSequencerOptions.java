@@ -0,0 +1,462 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast;
+
+import com.hazelcast.util.QuickMath;
+
+import javax.annotation.Nonnull;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.util.concurrent.TimeUnit;
+
+import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_ADAPTIVE_COOL_DOWN;
+import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_ADAPTIVE_LOGICAL_NODES;
+import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_COUNTER_STRIPES;
+import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_LEASE_TIME;
+import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_LOGICAL_NODES;
+import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_PREFETCH_DEPTH;
+import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_PREFETCH_MAX_STALENESS;
+import static com.noctarius.snowcast.impl.ExceptionUtils.exception;
+
+/**
+ * <p>The SnowcastSequencerOptions define the local runtime behavior of a
+ * {@link com.noctarius.snowcast.SnowcastSequencer} instance. Other than the sequencer's
+ * configuration (name, epoch, maximum number of logical nodes) options are not shared
+ * with the cluster and can be different on every node or client.</p>
+ * <p>Options are immutable, every <tt>with*</tt> method returns a new instance:</p>
+ * <pre>
+ *     SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults().withCounterStripes( 8 );
+ *     SnowcastSequencer sequencer = snowcast.createSequencer( "name", epoch, 8192, options );
+ * </pre>
+ * <p>Options are applied when the local sequencer instance is created, calling
+ * {@link com.noctarius.snowcast.Snowcast#createSequencer(String, SnowcastEpoch, int, SnowcastSequencerOptions)}
+ * for an already existing sequencer returns the existing instance with its original options.</p>
+ */
+public final class SnowcastSequencerOptions {
+
+    /**
+     * Maximum number of counter stripes of a single sequencer.
+     */
+    public static final int MAX_COUNTER_STRIPES = 64;
+
+    /**
+     * Maximum number of logical node ids attached by a single sequencer.
+     */
+    public static final int MAX_LOGICAL_NODES = 16;
+
+    /**
+     * Minimum cool-down, in milliseconds, before adaptively attached logical node ids are detached.
+     */
+    public static final long MIN_ADAPTIVE_COOL_DOWN_MILLIS = 100;
+
+    /**
+     * Maximum number of prefetched IDs of a single sequencer.
+     */
+    public static final int MAX_PREFETCH_DEPTH = 65536;
+
+    /**
+     * Default maximum age of prefetched IDs in milliseconds.
+     */
+    public static final long DEFAULT_PREFETCH_MAX_STALENESS_MILLIS = 10;
+
+    /**
+     * Minimum lease time of a client's logical node id in milliseconds.
+     */
+    public static final long MIN_LEASE_TIME_MILLIS = 100;
+
+    private static final SnowcastSequencerOptions DEFAULTS = new SnowcastSequencerOptions(1, 1, 0, 0,
+            SnowcastWaitStrategy.Park, 0, DEFAULT_PREFETCH_MAX_STALENESS_MILLIS, 0);
+
+    private final int counterStripes;
+    private final int logicalNodes;
+    private final int adaptiveMaxLogicalNodes;
+    private final long adaptiveCoolDownMillis;
+    private final SnowcastWaitStrategy waitStrategy;
+    private final int prefetchDepth;
+    private final long prefetchMaxStalenessMillis;
+    private final long leaseTimeMillis;
+
+    private SnowcastSequencerOptions(@Min(1) @Max(MAX_COUNTER_STRIPES) int counterStripes,
+                                     @Min(1) @Max(MAX_LOGICAL_NODES) int logicalNodes,
+                                     @Min(0) @Max(MAX_LOGICAL_NODES) int adaptiveMaxLogicalNodes,
+                                     @Min(0) long adaptiveCoolDownMillis,
+                                     @Nonnull SnowcastWaitStrategy waitStrategy,
+                                     @Min(0) @Max(MAX_PREFETCH_DEPTH) int prefetchDepth,
+                                     @Min(1) long prefetchMaxStalenessMillis,
+                                     @Min(0) long leaseTimeMillis) {
+
+        this.counterStripes = counterStripes;
+        this.logicalNodes = logicalNodes;
+        this.adaptiveMaxLogicalNodes = adaptiveMaxLogicalNodes;
+        this.adaptiveCoolDownMillis = adaptiveCoolDownMillis;
+        this.waitStrategy = waitStrategy;
+        this.prefetchDepth = prefetchDepth;
+        this.prefetchMaxStalenessMillis = prefetchMaxStalenessMillis;
+        this.leaseTimeMillis = leaseTimeMillis;
+    }
+
+    /**
+     * Returns the number of counter stripes the per-millisecond counter range of the
+     * sequencer is split into. A value of 1 (ONE) means no striping.
+     *
+     * @return the number of counter stripes
+     */
+    @Min(1)
+    @Max(MAX_COUNTER_STRIPES)
+    public int getCounterStripes() {
+        return counterStripes;
+    }
+
+    /**
+     * <p>Returns a copy of these options with the given number of counter stripes.</p>
+     * <p>By default all threads generating IDs on the same sequencer increment the same
+     * counter. With many concurrent producer threads this single counter becomes a point of
+     * contention. Striping splits the counter range available per millisecond into
+     * <tt>counterStripes</tt> disjoint sub-ranges. Each thread is mapped to one of those
+     * sub-ranges and only falls back to other sub-ranges when its own one is exhausted for the
+     * current millisecond. Generated IDs stay unique and sortable by timestamp, however IDs
+     * inside the same millisecond are not necessarily ordered by their point of generation
+     * anymore.</p>
+     * <p>A good value is the number of available processors, it must be a power of two
+     * between 1 and {@value #MAX_COUNTER_STRIPES}.</p>
+     *
+     * @param counterStripes the number of counter stripes, must be a power of two
+     * @return a new options instance with the given number of counter stripes
+     * @throws java.lang.IllegalArgumentException if counterStripes is not a power of two or out of bounds
+     */
+    @Nonnull
+    public SnowcastSequencerOptions withCounterStripes(@Min(1) @Max(MAX_COUNTER_STRIPES) int counterStripes) {
+        if (counterStripes < 1 || counterStripes > MAX_COUNTER_STRIPES || !QuickMath.isPowerOfTwo(counterStripes)) {
+            throw exception(IllegalArgumentException::new, ILLEGAL_COUNTER_STRIPES, MAX_COUNTER_STRIPES, counterStripes);
+        }
+        return new SnowcastSequencerOptions(counterStripes, logicalNodes, adaptiveMaxLogicalNodes, adaptiveCoolDownMillis,
+                waitStrategy, prefetchDepth, prefetchMaxStalenessMillis, leaseTimeMillis);
+    }
+
+    /**
+     * Returns the number of logical node ids the sequencer attaches. A value of 1 (ONE) means
+     * a single logical node id.
+     *
+     * @return the number of logical node ids
+     */
+    @Min(1)
+    @Max(MAX_LOGICAL_NODES)
+    public int getLogicalNodes() {
+        return logicalNodes;
+    }
+
+    /**
+     * <p>Returns a copy of these options with the given number of logical node ids.</p>
+     * <p>A single logical node id caps the sequencer at the counter range of one millisecond,
+     * e.g. 1024 IDs per millisecond for a maximum of 8192 logical nodes, independent of the number
+     * of producer threads. With more than one logical node id the sequencer attaches all of them
+     * and every logical node id gets its own set of counter stripes. Threads are spread over all
+     * of those and only fall back to the ones of other logical node ids when their own ones are
+     * exhausted for the current millisecond, multiplying the number of IDs available per
+     * millisecond by <tt>logicalNodes</tt>.</p>
+     * <p>Every attached logical node id is taken from the sequencer's cluster-wide pool of
+     * logical nodes and is not available to other members or clients anymore. As with counter
+     * striping IDs inside the same millisecond are not necessarily ordered by their point of
+     * generation. The number must be a power of two between 1 and {@value #MAX_LOGICAL_NODES}.</p>
+     *
+     * @param logicalNodes the number of logical node ids, must be a power of two
+     * @return a new options instance with the given number of logical node ids
+     * @throws java.lang.IllegalArgumentException if logicalNodes is not a power of two or out of bounds
+     */
+    @Nonnull
+    public SnowcastSequencerOptions withLogicalNodes(@Min(1) @Max(MAX_LOGICAL_NODES) int logicalNodes) {
+        if (logicalNodes < 1 || logicalNodes > MAX_LOGICAL_NODES || !QuickMath.isPowerOfTwo(logicalNodes)) {
+            throw exception(IllegalArgumentException::new, ILLEGAL_LOGICAL_NODES, MAX_LOGICAL_NODES, logicalNodes);
+        }
+        return new SnowcastSequencerOptions(counterStripes, logicalNodes, adaptiveMaxLogicalNodes, adaptiveCoolDownMillis,
+                waitStrategy, prefetchDepth, prefetchMaxStalenessMillis, leaseTimeMillis);
+    }
+
+    /**
+     * Returns the maximum number of logical node ids the sequencer attaches adaptively. A value of
+     * 0 (ZERO) means adaptive scaling is disabled.
+     *
+     * @return the maximum number of adaptively attached logical node ids
+     */
+    @Min(0)
+    @Max(MAX_LOGICAL_NODES)
+    public int getAdaptiveMaxLogicalNodes() {
+        return adaptiveMaxLogicalNodes;
+    }
+
+    /**
+     * Returns the time, in milliseconds, without counter exhaustion before adaptively attached
+     * logical node ids are detached again.
+     *
+     * @return the adaptive scaling cool-down in milliseconds
+     */
+    @Min(0)
+    public long getAdaptiveCoolDownMillis() {
+        return adaptiveCoolDownMillis;
+    }
+
+    /**
+     * <p>Returns a copy of these options with adaptive scaling of the number of logical node ids.</p>
+     * <p>Multiple logical node ids (see {@link #withLogicalNodes(int)}) multiply the IDs available per
+     * millisecond but permanently take those logical node ids from the sequencer's cluster-wide pool.
+     * For bursty loads the sequencer can instead start with {@link #getLogicalNodes()} logical node ids
+     * and watch how often threads have to wait for the next millisecond because the counters are
+     * exhausted. If that happens frequently the number of attached logical node ids is doubled in the
+     * background, up to <tt>maxLogicalNodes</tt>. After <tt>coolDown</tt> without frequent exhaustion
+     * the number is halved again, down to {@link #getLogicalNodes()}. ID generation is never blocked
+     * by scaling.</p>
+     * <p>The maximum must be 0 (ZERO) to disable adaptive scaling or a power of two up to
+     * {@value #MAX_LOGICAL_NODES}, a maximum not larger than {@link #getLogicalNodes()} has no effect.
+     * The cool-down must be at least {@value #MIN_ADAPTIVE_COOL_DOWN_MILLIS} milliseconds.</p>
+     *
+     * @param maxLogicalNodes the maximum number of logical node ids, must be 0 or a power of two
+     * @param coolDown        the time without frequent exhaustion before logical node ids are detached
+     * @param unit            the time unit of coolDown
+     * @return a new options instance with the given adaptive scaling
+     * @throws java.lang.IllegalArgumentException if maxLogicalNodes is neither 0 nor a power of two in bounds
+     *                                            or coolDown is less than the minimum cool-down
+     */
+    @Nonnull
+    public SnowcastSequencerOptions withAdaptiveLogicalNodes(@Min(0) @Max(MAX_LOGICAL_NODES) int maxLogicalNodes,
+                                                             @Min(0) long coolDown, @Nonnull TimeUnit unit) {
+
+        if (maxLogicalNodes < 0 || maxLogicalNodes > MAX_LOGICAL_NODES
+                || (maxLogicalNodes != 0 && !QuickMath.isPowerOfTwo(maxLogicalNodes))) {
+
+            throw exception(IllegalArgumentException::new, ILLEGAL_ADAPTIVE_LOGICAL_NODES, MAX_LOGICAL_NODES, maxLogicalNodes);
+        }
+        long coolDownMillis = unit.toMillis(coolDown);
+        if (maxLogicalNodes > 0 && coolDownMillis < MIN_ADAPTIVE_COOL_DOWN_MILLIS) {
+            throw exception(IllegalArgumentException::new, ILLEGAL_ADAPTIVE_COOL_DOWN, MIN_ADAPTIVE_COOL_DOWN_MILLIS, coolDown,
+                    unit);
+        }
+        if (maxLogicalNodes == 0) {
+            coolDownMillis = 0;
+        }
+        return new SnowcastSequencerOptions(counterStripes, logicalNodes, maxLogicalNodes, coolDownMillis, waitStrategy,
+                prefetchDepth, prefetchMaxStalenessMillis, leaseTimeMillis);
+    }
+
+    /**
+     * Returns the strategy used to wait for the next millisecond if all IDs of the current
+     * millisecond are used up.
+     *
+     * @return the wait strategy
+     */
+    @Nonnull
+    public SnowcastWaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Returns a copy of these options with the given wait strategy. The wait strategy defines
+     * how a thread waits for the next millisecond if all IDs of the current millisecond are used up.
+     * The default strategy is {@link com.noctarius.snowcast.SnowcastWaitStrategy#Park}.
+     *
+     * @param waitStrategy the wait strategy to use
+     * @return a new options instance with the given wait strategy
+     */
+    @Nonnull
+    public SnowcastSequencerOptions withWaitStrategy(@Nonnull SnowcastWaitStrategy waitStrategy) {
+        return new SnowcastSequencerOptions(counterStripes, logicalNodes, adaptiveMaxLogicalNodes, adaptiveCoolDownMillis,
+                waitStrategy, prefetchDepth, prefetchMaxStalenessMillis, leaseTimeMillis);
+    }
+
+    /**
+     * Returns the number of IDs generated ahead of time by a background thread. A value of
+     * 0 (ZERO) means prefetching is disabled.
+     *
+     * @return the number of prefetched IDs
+     */
+    @Min(0)
+    @Max(MAX_PREFETCH_DEPTH)
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    /**
+     * Returns the maximum age, in milliseconds, of a prefetched ID before it is discarded.
+     *
+     * @return the maximum age of prefetched IDs in milliseconds
+     */
+    @Min(1)
+    public long getPrefetchMaxStalenessMillis() {
+        return prefetchMaxStalenessMillis;
+    }
+
+    /**
+     * <p>Returns a copy of these options with the given prefetch depth. If enabled, a background
+     * thread generates up to <tt>prefetchDepth</tt> IDs ahead of time into a lock-free ring buffer.
+     * {@link com.noctarius.snowcast.SnowcastSequencer#next()} then just takes the next prefetched ID
+     * and only generates an ID directly if the buffer runs empty. The batch and asynchronous
+     * methods always generate their IDs directly.</p>
+     * <p>Prefetched IDs carry the timestamp of their generation, IDs older than the configured
+     * staleness bound (see {@link #withPrefetchMaxStaleness(long, TimeUnit)}) are discarded. The
+     * buffer is cleared whenever the sequencer is detached or destroyed.</p>
+     * <p>The depth must be 0 (ZERO) to disable prefetching or a power of two up to
+     * {@value #MAX_PREFETCH_DEPTH}.</p>
+     *
+     * @param prefetchDepth the number of prefetched IDs, must be 0 or a power of two
+     * @return a new options instance with the given prefetch depth
+     * @throws java.lang.IllegalArgumentException if prefetchDepth is not a power of two or out of bounds
+     */
+    @Nonnull
+    public SnowcastSequencerOptions withPrefetchDepth(@Min(0) @Max(MAX_PREFETCH_DEPTH) int prefetchDepth) {
+        if (prefetchDepth < 0 || prefetchDepth > MAX_PREFETCH_DEPTH
+                || (prefetchDepth != 0 && !QuickMath.isPowerOfTwo(prefetchDepth))) {
+
+            throw exception(IllegalArgumentException::new, ILLEGAL_PREFETCH_DEPTH, MAX_PREFETCH_DEPTH, prefetchDepth);
+        }
+        return new SnowcastSequencerOptions(counterStripes, logicalNodes, adaptiveMaxLogicalNodes, adaptiveCoolDownMillis,
+                waitStrategy, prefetchDepth, prefetchMaxStalenessMillis, leaseTimeMillis);
+    }
+
+    /**
+     * Returns a copy of these options with the given maximum age of prefetched IDs. Prefetched
+     * IDs older than this bound are discarded instead of being handed out. The default is
+     * {@value #DEFAULT_PREFETCH_MAX_STALENESS_MILLIS} milliseconds, the minimum is one millisecond.
+     *
+     * @param maxStaleness the maximum age of prefetched IDs
+     * @param unit         the time unit of maxStaleness
+     * @return a new options instance with the given maximum age of prefetched IDs
+     * @throws java.lang.IllegalArgumentException if maxStaleness is less than one millisecond
+     */
+    @Nonnull
+    public SnowcastSequencerOptions withPrefetchMaxStaleness(@Min(1) long maxStaleness, @Nonnull TimeUnit unit) {
+        long maxStalenessMillis = unit.toMillis(maxStaleness);
+        if (maxStalenessMillis < 1) {
+            throw exception(IllegalArgumentException::new, ILLEGAL_PREFETCH_MAX_STALENESS, maxStaleness, unit);
+        }
+        return new SnowcastSequencerOptions(counterStripes, logicalNodes, adaptiveMaxLogicalNodes, adaptiveCoolDownMillis,
+                waitStrategy, prefetchDepth, maxStalenessMillis, leaseTimeMillis);
+    }
+
+    /**
+     * Returns the lease time, in milliseconds, of the logical node id of a client sequencer. A value
+     * of 0 (ZERO) means the logical node id is not leased but assigned until the sequencer is detached.
+     *
+     * @return the lease time in milliseconds
+     */
+    @Min(0)
+    public long getLeaseTimeMillis() {
+        return leaseTimeMillis;
+    }
+
+    /**
+     * <p>Returns a copy of these options with the given lease time. This option only applies to
+     * sequencers created on Hazelcast clients.</p>
+     * <p>Without a lease a client's logical node id stays assigned until the sequencer is detached or
+     * destroyed, a client JVM that ends without doing so leaves its logical node id assigned forever.
+     * With a lease the cluster releases the logical node id if it isn't renewed within the lease time.
+     * The client renews the lease in the background, three times per lease time, without blocking
+     * ID generation. If a lease could not be renewed in time, the sequencer stops generating IDs
+     * with timestamps after the lease's end and throws a
+     * {@link com.noctarius.snowcast.SnowcastStateException} instead.</p>
+     * <p>The lease time must be 0 (ZERO) to disable leasing or at least
+     * {@value #MIN_LEASE_TIME_MILLIS} milliseconds.</p>
+     *
+     * @param leaseTime the lease time of the logical node id
+     * @param unit      the time unit of leaseTime
+     * @return a new options instance with the given lease time
+     * @throws java.lang.IllegalArgumentException if leaseTime is neither 0 nor at least the minimum lease time
+     */
+    @Nonnull
+    public SnowcastSequencerOptions withLeaseTime(@Min(0) long leaseTime, @Nonnull TimeUnit unit) {
+        long leaseTimeMillis = unit.toMillis(leaseTime);
+        if (leaseTime < 0 || (leaseTime > 0 && leaseTimeMillis < MIN_LEASE_TIME_MILLIS)) {
+            throw exception(IllegalArgumentException::new, ILLEGAL_LEASE_TIME, MIN_LEASE_TIME_MILLIS, leaseTime, unit);
+        }
+        return new SnowcastSequencerOptions(counterStripes, logicalNodes, adaptiveMaxLogicalNodes, adaptiveCoolDownMillis,
+                waitStrategy, prefetchDepth, prefetchMaxStalenessMillis, leaseTimeMillis);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        SnowcastSequencerOptions that = (SnowcastSequencerOptions) o;
+        if (counterStripes != that.counterStripes) {
+            return false;
+        }
+        if (logicalNodes != that.logicalNodes) {
+            return false;
+        }
+        if (adaptiveMaxLogicalNodes != that.adaptiveMaxLogicalNodes) {
+            return false;
+        }
+        if (adaptiveCoolDownMillis != that.adaptiveCoolDownMillis) {
+            return false;
+        }
+        if (prefetchDepth != that.prefetchDepth) {
+            return false;
+        }
+        if (prefetchMaxStalenessMillis != that.prefetchMaxStalenessMillis) {
+            return false;
+        }
+        if (leaseTimeMillis != that.leaseTimeMillis) {
+            return false;
+        }
+        return waitStrategy == that.waitStrategy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = counterStripes;
+        result = 31 * result + logicalNodes;
+        result = 31 * result + adaptiveMaxLogicalNodes;
+        result = 31 * result + (int) (adaptiveCoolDownMillis ^ (adaptiveCoolDownMillis >>> 32));
+        result = 31 * result + waitStrategy.hashCode();
+        result = 31 * result + prefetchDepth;
+        result = 31 * result + (int) (prefetchMaxStalenessMillis ^ (prefetchMaxStalenessMillis >>> 32));
+        result = 31 * result + (int) (leaseTimeMillis ^ (leaseTimeMillis >>> 32));
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "SnowcastSequencerOptions{" + "counterStripes=" + counterStripes + ", logicalNodes=" + logicalNodes
+                + ", adaptiveMaxLogicalNodes=" + adaptiveMaxLogicalNodes + ", adaptiveCoolDownMillis=" + adaptiveCoolDownMillis
+                + ", waitStrategy=" + waitStrategy + ", prefetchDepth=" + prefetchDepth
+                + ", prefetchMaxStalenessMillis=" + prefetchMaxStalenessMillis + ", leaseTimeMillis=" + leaseTimeMillis + '}';
+    }
+
+    /**
+     * Returns the default options. By default a single logical node id is attached without
+     * adaptive scaling, counter striping, prefetching and leasing are disabled and threads park until the next millisecond if
+     * all IDs of the current millisecond are used up.
+     *
+     * @return the default options
+     */
+    @Nonnull
+    public static SnowcastSequencerOptions defaults() {
+        return DEFAULTS;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast;
+
+import javax.annotation.Nonnull;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+import static com.noctarius.snowcast.impl.SnowcastConstants.DEFAULT_MAX_LOGICAL_NODES_13_BITS;
+
+/**
+ * <p>The SnowcastSequencerSpec describes a single {@link com.noctarius.snowcast.SnowcastSequencer}
+ * to be created by {@link com.noctarius.snowcast.Snowcast#createSequencers(java.util.Collection)}.
+ * It carries the same parameters as the single
+ * {@link com.noctarius.snowcast.Snowcast#createSequencer(String, SnowcastEpoch, int, SnowcastSequencerOptions)}
+ * call.</p>
+ * <pre>
+ *     List&lt;SnowcastSequencerSpec&gt; specs = tenants.stream()
+ *         .map( tenant -&gt; SnowcastSequencerSpec.of( tenant.getName(), epoch ) )
+ *         .collect( Collectors.toList() );
+ *     List&lt;SnowcastSequencer&gt; sequencers = snowcast.createSequencers( specs );
+ * </pre>
+ */
+public final class SnowcastSequencerSpec {
+
+    private final String sequencerName;
+    private final SnowcastEpoch epoch;
+    private final int maxLogicalNodeCount;
+    private final SnowcastSequenceLayout sequenceLayout;
+    private final SnowcastSequencerOptions options;
+
+    private SnowcastSequencerSpec(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                                  @Min(2) @Max(8192) int maxLogicalNodeCount, @Nonnull SnowcastSequenceLayout sequenceLayout,
+                                  @Nonnull SnowcastSequencerOptions options) {
+
+        this.sequencerName = sequencerName;
+        this.epoch = epoch;
+        this.maxLogicalNodeCount = maxLogicalNodeCount;
+        this.sequenceLayout = sequenceLayout;
+        this.options = options;
+    }
+
+    /**
+     * Creates a spec with the maximum of 8192 logical nodes and the default options.
+     *
+     * @param sequencerName the reference name of the distributed sequencer
+     * @param epoch         the custom epoch for this sequencer
+     * @return the spec of the sequencer
+     */
+    @Nonnull
+    public static SnowcastSequencerSpec of(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch) {
+        return of(sequencerName, epoch, DEFAULT_MAX_LOGICAL_NODES_13_BITS);
+    }
+
+    /**
+     * Creates a spec with the default options.
+     *
+     * @param sequencerName       the reference name of the distributed sequencer
+     * @param epoch               the custom epoch for this sequencer
+     * @param maxLogicalNodeCount the maximal logical node ID, must be between 128 and 8192
+     * @return the spec of the sequencer
+     */
+    @Nonnull
+    public static SnowcastSequencerSpec of(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                                           @Min(128) @Max(8192) int maxLogicalNodeCount) {
+
+        return of(sequencerName, epoch, maxLogicalNodeCount, SnowcastSequencerOptions.defaults());
+    }
+
+    /**
+     * Creates a spec.
+     *
+     * @param sequencerName       the reference name of the distributed sequencer
+     * @param epoch               the custom epoch for this sequencer
+     * @param maxLogicalNodeCount the maximal logical node ID, must be between 128 and 8192
+     * @param options             the local options of the sequencer instance
+     * @return the spec of the sequencer
+     */
+    @Nonnull
+    public static SnowcastSequencerSpec of(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                                           @Min(128) @Max(8192) int maxLogicalNodeCount,
+                                           @Nonnull SnowcastSequencerOptions options) {
+
+        SnowcastSequenceLayout sequenceLayout = SnowcastSequenceLayout.of(maxLogicalNodeCount);
+        return new SnowcastSequencerSpec(sequencerName, epoch, maxLogicalNodeCount, sequenceLayout, options);
+    }
+
+    /**
+     * Creates a spec with a custom bit layout and the default options.
+     *
+     * @param sequencerName  the reference name of the distributed sequencer
+     * @param epoch          the custom epoch for this sequencer
+     * @param sequenceLayout the bit layout of the generated sequence IDs
+     * @return the spec of the sequencer
+     */
+    @Nonnull
+    public static SnowcastSequencerSpec of(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                                           @Nonnull SnowcastSequenceLayout sequenceLayout) {
+
+        return of(sequencerName, epoch, sequenceLayout, SnowcastSequencerOptions.defaults());
+    }
+
+    /**
+     * Creates a spec with a custom bit layout.
+     *
+     * @param sequencerName  the reference name of the distributed sequencer
+     * @param epoch          the custom epoch for this sequencer
+     * @param sequenceLayout the bit layout of the generated sequence IDs
+     * @param options        the local options of the sequencer instance
+     * @return the spec of the sequencer
+     */
+    @Nonnull
+    public static SnowcastSequencerSpec of(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                                           @Nonnull SnowcastSequenceLayout sequenceLayout,
+                                           @Nonnull SnowcastSequencerOptions options) {
+
+        int maxLogicalNodeCount = sequenceLayout.getMaxLogicalNodeCount();
+        return new SnowcastSequencerSpec(sequencerName, epoch, maxLogicalNodeCount, sequenceLayout, options);
+    }
+
+    /**
+     * Returns the reference name of the distributed sequencer.
+     *
+     * @return the sequencer name
+     */
+    @Nonnull
+    public String getSequencerName() {
+        return sequencerName;
+    }
+
+    /**
+     * Returns the custom epoch of the sequencer.
+     *
+     * @return the custom epoch
+     */
+    @Nonnull
+    public SnowcastEpoch getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the maximal logical node ID of the sequencer.
+     *
+     * @return the maximal logical node ID
+     */
+    @Min(2)
+    @Max(8192)
+    public int getMaxLogicalNodeCount() {
+        return maxLogicalNodeCount;
+    }
+
+    /**
+     * Returns the bit layout of the generated sequence IDs.
+     *
+     * @return the sequence layout
+     */
+    @Nonnull
+    public SnowcastSequenceLayout getSequenceLayout() {
+        return sequenceLayout;
+    }
+
+    /**
+     * Returns the local options of the sequencer instance.
+     *
+     * @return the sequencer options
+     */
+    @Nonnull
+    public SnowcastSequencerOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        SnowcastSequencerSpec that = (SnowcastSequencerSpec) o;
+
+        if (maxLogicalNodeCount != that.maxLogicalNodeCount) {
+            return false;
+        }
+        if (!sequencerName.equals(that.sequencerName)) {
+            return false;
+        }
+        if (!epoch.equals(that.epoch)) {
+            return false;
+        }
+        if (!sequenceLayout.equals(that.sequenceLayout)) {
+            return false;
+        }
+        return options.equals(that.options);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = sequencerName.hashCode();
+        result = 31 * result + epoch.hashCode();
+        result = 31 * result + maxLogicalNodeCount;
+        result = 31 * result + sequenceLayout.hashCode();
+        result = 31 * result + options.hashCode();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "SnowcastSequencerSpec{" + "sequencerName='" + sequencerName + '\'' + ", epoch=" + epoch
+                + ", maxLogicalNodeCount=" + maxLogicalNodeCount + ", sequenceLayout=" + sequenceLayout + ", options=" + options
+                + '}';
+    }
+}
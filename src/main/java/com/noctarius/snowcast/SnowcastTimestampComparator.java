@@ -36,7 +36,7 @@ import java.util.Comparator;
  */
 @ThreadSafe
 public enum SnowcastTimestampComparator
-        implements Comparator<Long> {
+        implements Comparator<Long>, SnowcastLongComparator {
 
     /**
      * The singleton instance for this {@link java.util.Comparator} implementation. Since the
@@ -54,4 +54,12 @@ public enum SnowcastTimestampComparator
     public int compare(@Nonnull Long sequenceId1, @Nonnull Long sequenceId2) {
         return SnowcastSequenceUtils.compareTimestamp(sequenceId1, sequenceId2);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compare(long sequenceId1, long sequenceId2) {
+        return SnowcastSequenceUtils.compareTimestamp(sequenceId1, sequenceId2);
+    }
 }
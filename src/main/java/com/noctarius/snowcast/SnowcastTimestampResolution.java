@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast;
+
+import javax.annotation.Nonnegative;
+
+/**
+ * <p>The SnowcastTimestampResolution defines the unit of the timestamp value stored in sequence
+ * ids. The counter value restarts with every tick of the timestamp, finer resolutions therefore
+ * shorten the time a {@link com.noctarius.snowcast.SnowcastSequencer} has to wait when all counter
+ * values of the current tick are used up, from up to a millisecond down to the tick length.</p>
+ * <p>Every tick uses up one timestamp value, finer resolutions shrink the time range covered by
+ * the timestamp bits accordingly. 41 timestamp bits last about 69 years with millisecond ticks,
+ * about 7 years with 100 microsecond ticks and about 8 months with 10 microsecond ticks. The
+ * resolution is part of the {@link com.noctarius.snowcast.SnowcastSequenceLayout}:</p>
+ * <pre>
+ *     SnowcastSequenceLayout layout = SnowcastSequenceLayout.of( 41, 7, 16, HundredMicroseconds );
+ * </pre>
+ * <p>Sub-millisecond ticks are derived from {@link System#nanoTime()} relative to the wall clock
+ * time at class initialization.</p>
+ */
+public enum SnowcastTimestampResolution {
+    /**
+     * One tick per millisecond, the resolution of the default layouts.
+     */
+    Milliseconds(1),
+
+    /**
+     * Ten ticks per millisecond, each tick lasts 100 microseconds.
+     */
+    HundredMicroseconds(10),
+
+    /**
+     * A hundred ticks per millisecond, each tick lasts 10 microseconds.
+     */
+    TenMicroseconds(100);
+
+    private static final long NANOS_PER_MILLISECOND = 1000000;
+
+    private final int ticksPerMillisecond;
+    private final long nanosPerTick;
+
+    SnowcastTimestampResolution(@Nonnegative int ticksPerMillisecond) {
+        this.ticksPerMillisecond = ticksPerMillisecond;
+        this.nanosPerTick = NANOS_PER_MILLISECOND / ticksPerMillisecond;
+    }
+
+    /**
+     * Returns the number of ticks per millisecond.
+     *
+     * @return the number of ticks per millisecond
+     */
+    @Nonnegative
+    public int getTicksPerMillisecond() {
+        return ticksPerMillisecond;
+    }
+
+    /**
+     * Returns the length of a single tick in nanoseconds.
+     *
+     * @return the length of a tick in nanoseconds
+     */
+    @Nonnegative
+    public long getNanosPerTick() {
+        return nanosPerTick;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast;
+
+/**
+ * <p>The SnowcastWaitStrategy defines how a {@link com.noctarius.snowcast.SnowcastSequencer}
+ * waits for the next millisecond when all IDs of the current millisecond are used up.</p>
+ * <p>The strategies trade latency for CPU usage. The waiting thread is woken up at the next
+ * millisecond boundary in all cases, the strategies only differ in what the thread does until
+ * then. The wait strategy is configured using
+ * {@link com.noctarius.snowcast.SnowcastSequencerOptions#withWaitStrategy(SnowcastWaitStrategy)}.</p>
+ */
+public enum SnowcastWaitStrategy {
+    /**
+     * Parks the waiting thread until the computed next millisecond boundary. This strategy
+     * does not burn any CPU while waiting but the wakeup is subject to the operating system's
+     * timer slack. This is the default strategy.
+     */
+    Park,
+
+    /**
+     * Spins on the clock and signals the processor that the thread is busy-waiting using
+     * <tt>Thread::onSpinWait</tt> if available (Java 9 and later), otherwise behaves like
+     * {@link #BusySpin}. Offers the lowest wakeup latency while being friendlier to
+     * hyper-threaded siblings than a plain busy spin.
+     */
+    SpinWait,
+
+    /**
+     * Spins on the clock without any back off. Offers the lowest wakeup latency but keeps a
+     * processor fully busy while waiting.
+     */
+    BusySpin,
+
+    /**
+     * Yields the waiting thread's processor time on every iteration. A compromise between
+     * spinning and parking if more threads than processors are runnable.
+     */
+    Yield
+}
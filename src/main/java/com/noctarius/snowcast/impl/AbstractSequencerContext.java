@@ -18,16 +18,20 @@ package com.noctarius.snowcast.impl;
 
 import com.noctarius.snowcast.SnowcastEpoch;
 import com.noctarius.snowcast.SnowcastIllegalStateException;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
 import com.noctarius.snowcast.SnowcastSequenceState;
+import com.noctarius.snowcast.SnowcastSequencerOptions;
+import com.noctarius.snowcast.SnowcastWaitStrategy;
 import com.noctarius.snowcast.SnowcastStateException;
+import com.noctarius.snowcast.SnowcastTimestampResolution;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static com.noctarius.snowcast.SnowcastSequenceState.Attached;
@@ -35,73 +39,122 @@ import static com.noctarius.snowcast.SnowcastSequenceState.Destroyed;
 import static com.noctarius.snowcast.SnowcastSequenceState.Detached;
 import static com.noctarius.snowcast.impl.ExceptionMessages.GENERATION_MAX_RETRY_EXCEEDED;
 import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_TIMESTAMP_GENERATED;
+import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_TIMESTAMP_OVERFLOW;
+import static com.noctarius.snowcast.impl.ExceptionMessages.LOGICAL_NODE_LEASE_EXPIRED;
 import static com.noctarius.snowcast.impl.ExceptionMessages.SEQUENCER_IN_WRONG_STATE;
 import static com.noctarius.snowcast.impl.ExceptionMessages.SEQUENCER_NOT_ASSIGNED;
 import static com.noctarius.snowcast.impl.ExceptionMessages.SEQUENCER_WRONG_STATE_CANNOT_ATTACH;
 import static com.noctarius.snowcast.impl.ExceptionMessages.SEQUENCER_WRONG_STATE_CANNOT_DETACH;
 import static com.noctarius.snowcast.impl.ExceptionUtils.exception;
-import static com.noctarius.snowcast.impl.InternalSequencerUtils.calculateCounterMask;
-import static com.noctarius.snowcast.impl.InternalSequencerUtils.calculateLogicalNodeMask;
-import static com.noctarius.snowcast.impl.InternalSequencerUtils.calculateLogicalNodeShifting;
 import static com.noctarius.snowcast.impl.InternalSequencerUtils.calculateMaxMillisCounter;
-import static com.noctarius.snowcast.impl.InternalSequencerUtils.generateSequenceId;
-import static com.noctarius.snowcast.impl.SnowcastConstants.INCREMENT_RETRY_TIMEOUT_NANOS;
+import static com.noctarius.snowcast.impl.MillisecondBoundaryWaiter.waitForNextTick;
 import static com.noctarius.snowcast.impl.SnowcastConstants.MAX_RETRY_GENERATE_IDS;
-import static com.noctarius.snowcast.impl.SnowcastConstants.SHIFT_COUNTER;
-import static com.noctarius.snowcast.impl.SnowcastConstants.TC_COUNTER_READ_MASK;
-import static com.noctarius.snowcast.impl.SnowcastConstants.TC_TIMESTAMP_READ_MASK;
+import static com.noctarius.snowcast.impl.SnowcastConstants.RETRY_LIMIT_APPROACH_THRESHOLD;
+import static com.noctarius.snowcast.impl.TracingUtils.TRACING_ENABLED;
 
 @ThreadSafe
 abstract class AbstractSequencerContext {
 
     private static final AtomicReferenceFieldUpdater<AbstractSequencerContext, SnowcastSequenceState> STATE_UPDATER;
 
-    private static final AtomicLongFieldUpdater<AbstractSequencerContext> TIMESTAMP_AND_COUNTER_UPDATER;
-
     private static final Tracer TRACER = TracingUtils.tracer(AbstractSequencerContext.class);
 
+    private static final int[] NO_LOGICAL_NODE_IDS = new int[0];
+
     static {
         STATE_UPDATER = AtomicReferenceFieldUpdater
                 .newUpdater(AbstractSequencerContext.class, SnowcastSequenceState.class, "state");
-        TIMESTAMP_AND_COUNTER_UPDATER = AtomicLongFieldUpdater.newUpdater(AbstractSequencerContext.class, "timestampAndCounter");
     }
 
     private final SequencerDefinition definition;
     private final String sequencerName;
     private final SnowcastEpoch epoch;
 
+    private final SnowcastSequenceLayout sequenceLayout;
+    private final SnowcastTimestampResolution timestampResolution;
+    private final int timestampShift;
     private final int nodeIdShiftFactor;
     private final int maxMillisCounter;
 
-    private final long logicalNodeIdReadMask;
-    private final long counterReadMask;
+    // The counter stripes keep the timestamp in the lower and the counter in the upper bits
+    private final int tcCounterShift;
+    private final long tcTimestampMask;
+
+    // Counter stripes of all logical node ids, the stripes of a logical node id are laid out consecutively
+    private final CounterStripe[] counterStripes;
+    private final int counterStripeShift;
+    private final int logicalNodes;
+    private final int maxLogicalNodes;
+
+    private final SnowcastWaitStrategy waitStrategy;
+
+    // The retry bounds in ticks of the timestamp resolution, every retry waits for the next tick
+    private final int maxRetries;
+    private final int retryLimitApproachThreshold;
+
+    // Only set if prefetching is enabled
+    private final PrefetchBuffer prefetchBuffer;
+
+    private final SequencerMetrics metrics;
+
+    // Only set if adaptive scaling of the logical node ids is enabled
+    private final AdaptiveLogicalNodeScaler scaler;
+
+    // Serializes changes of the assigned logical node ids by scaling and detaching
+    private final Object logicalNodesMutex = new Object();
 
     private volatile SnowcastSequenceState state = Detached;
 
-    // Holds the currently assigned logical node id
-    private volatile int logicalNodeId = -1;
+    // Holds the currently assigned logical node ids, empty if none is assigned
+    private volatile int[] logicalNodeIds = NO_LOGICAL_NODE_IDS;
+
+    // Epoch timestamp from which on the logical node ids must not be used anymore, only bound for leased ids
+    private volatile long leaseExpiration = Long.MAX_VALUE;
 
-    // This field is only accessed or written through the field updater
-    private volatile long timestampAndCounter;
+    // The lease expiration in ticks of the timestamp resolution, as compared against while generating IDs
+    private volatile long leaseExpirationTick = Long.MAX_VALUE;
 
-    AbstractSequencerContext(@Nonnull SequencerDefinition definition) {
+    AbstractSequencerContext(@Nonnull SequencerDefinition definition, @Nonnull SnowcastSequencerOptions options) {
         this.definition = definition;
         this.sequencerName = definition.getSequencerName();
         this.epoch = definition.getEpoch();
 
-        int maxLogicalNodeCount = definition.getBoundedMaxLogicalNodeCount();
-        this.nodeIdShiftFactor = calculateLogicalNodeShifting(maxLogicalNodeCount);
-        this.logicalNodeIdReadMask = calculateLogicalNodeMask(maxLogicalNodeCount, nodeIdShiftFactor);
-        this.counterReadMask = calculateCounterMask(maxLogicalNodeCount, nodeIdShiftFactor);
+        this.sequenceLayout = definition.getSequenceLayout();
+        this.timestampResolution = sequenceLayout.getTimestampResolution();
+        this.nodeIdShiftFactor = sequenceLayout.getCounterBits();
+        this.timestampShift = sequenceLayout.getLogicalNodeBits() + nodeIdShiftFactor;
         this.maxMillisCounter = calculateMaxMillisCounter(nodeIdShiftFactor);
-
-        // Just to prevent the "never-written" warning
-        this.timestampAndCounter = 0;
-
-        TRACER.trace("nodeIdShiftFactor: %s", nodeIdShiftFactor);
-        TRACER.trace("logicalNodeIdReadMask: %s", logicalNodeIdReadMask);
-        TRACER.trace("counterReadMask: %s", counterReadMask);
-        TRACER.trace("maxMillisCounter: %s", maxMillisCounter);
+        this.tcCounterShift = sequenceLayout.getTimestampBits();
+        this.tcTimestampMask = (1L << tcCounterShift) - 1;
+
+        int counterStripes = options.getCounterStripes();
+        this.logicalNodes = options.getLogicalNodes();
+        this.maxLogicalNodes = Math.max(logicalNodes, options.getAdaptiveMaxLogicalNodes());
+        this.counterStripeShift = Integer.numberOfTrailingZeros(counterStripes);
+        this.counterStripes = createCounterStripes(maxLogicalNodes, counterStripes, maxMillisCounter, tcCounterShift);
+        this.waitStrategy = options.getWaitStrategy();
+        this.maxRetries = MAX_RETRY_GENERATE_IDS * timestampResolution.getTicksPerMillisecond();
+        this.retryLimitApproachThreshold = RETRY_LIMIT_APPROACH_THRESHOLD * timestampResolution.getTicksPerMillisecond();
+        this.metrics = new SequencerMetrics(sequencerName);
+        this.scaler = maxLogicalNodes == logicalNodes ? null : new AdaptiveLogicalNodeScaler(this, metrics, logicalNodes,
+                maxLogicalNodes, options.getAdaptiveCoolDownMillis());
+
+        int prefetchDepth = options.getPrefetchDepth();
+        long maxStaleness = options.getPrefetchMaxStalenessMillis();
+        this.prefetchBuffer = prefetchDepth == 0 ? null : new PrefetchBuffer(this, prefetchDepth, maxStaleness);
+
+        if (TRACING_ENABLED && TRACER.isTracing()) {
+            TRACER.trace("sequenceLayout: %s", sequenceLayout);
+            TRACER.trace("timestampResolution: %s", timestampResolution);
+            TRACER.trace("timestampShift: %s", timestampShift);
+            TRACER.trace("nodeIdShiftFactor: %s", nodeIdShiftFactor);
+            TRACER.trace("maxMillisCounter: %s", maxMillisCounter);
+            TRACER.trace("counterStripes: %s", counterStripes);
+            TRACER.trace("logicalNodes: %s", logicalNodes);
+            TRACER.trace("maxLogicalNodes: %s", maxLogicalNodes);
+            TRACER.trace("waitStrategy: %s", waitStrategy);
+            TRACER.trace("prefetchDepth: %s", prefetchDepth);
+        }
     }
 
     @Nonnull
@@ -114,35 +167,165 @@ abstract class AbstractSequencerContext {
         return definition;
     }
 
+    @Nonnull
+    final SequencerMetrics getSequencerMetrics() {
+        return metrics;
+    }
+
     final long next()
             throws InterruptedException {
 
-        int logicalNodeID = checkStateAndLogicalNodeId();
-        long timestamp = epoch.getEpochTimestamp();
+        PrefetchBuffer prefetchBuffer = this.prefetchBuffer;
+        if (prefetchBuffer != null) {
+            long id = prefetchBuffer.poll();
+            if (id != PrefetchBuffer.NO_ID) {
+                return id;
+            }
+            // Prefetched IDs used up, generate directly
+        }
 
-        if (timestamp < 0) {
-            throw exception(SnowcastIllegalStateException::new, ILLEGAL_TIMESTAMP_GENERATED);
+        int[] logicalNodeIds = checkStateAndLogicalNodeIds();
+        long timestamp = epoch.getEpochTicks(timestampResolution);
+
+        if ((timestamp & ~tcTimestampMask) != 0) {
+            throw illegalTimestamp(timestamp);
         }
 
-        int nextId;
+        int counterStripeMask = counterStripeMask(logicalNodeIds);
+        int homeStripe = homeCounterStripe(counterStripeMask);
+
+        long claim;
         int retry = 0;
         while (true) {
-            checkAndUpdateTimestamp(timestamp);
+            claim = increment(homeStripe, counterStripeMask, timestamp);
+            if (claim != -1) {
+                if (isAttached(logicalNodeIds)) {
+                    break;
+                }
 
-            nextId = increment(timestamp);
-            if (nextId != -1) {
-                break;
+                // Logical node ids changed while claiming, the claim may belong to a removed one
+                logicalNodeIds = checkStateAndLogicalNodeIds();
+                counterStripeMask = counterStripeMask(logicalNodeIds);
+                homeStripe = homeCounterStripe(counterStripeMask);
+                continue;
+            }
+
+            if (retry++ >= maxRetries) {
+                throw maxRetryExceeded();
+            }
+            recordCounterExhaustion(retry);
+
+            // Counter range of the current millisecond is exhausted
+            timestamp = waitForNextTick(waitStrategy, epoch, timestampResolution, timestamp);
+        }
+
+        if (timestamp >= leaseExpirationTick) {
+            throw leaseExpired();
+        }
+        int logicalNodeID = logicalNodeIdOf(logicalNodeIds, (int) (claim >>> 32));
+        return sequenceId(timestamp, logicalNodeID, (int) claim);
+    }
+
+    final void nextBatch(@Nonnull long[] ids, @Nonnegative int offset, @Nonnegative int length)
+            throws InterruptedException {
+
+        int position = offset;
+        int limit = offset + length;
+        int retry = 0;
+        while (position < limit) {
+            // A batch may span many ticks, the logical node ids could be detached or replaced meanwhile
+            int[] logicalNodeIds = checkStateAndLogicalNodeIds();
+            int counterStripeMask = counterStripeMask(logicalNodeIds);
+            int homeStripe = homeCounterStripe(counterStripeMask);
+
+            long timestamp = epoch.getEpochTicks(timestampResolution);
+            if ((timestamp & ~tcTimestampMask) != 0) {
+                throw illegalTimestamp(timestamp);
+            }
+            if (timestamp >= leaseExpirationTick) {
+                throw leaseExpired();
+            }
+
+            int newPosition = incrementAndFill(homeStripe, counterStripeMask, timestamp, logicalNodeIds, ids, position, limit);
+            if (newPosition != position) {
+                if (!isAttached(logicalNodeIds)) {
+                    // Logical node ids changed while claiming, overwrite the claimed IDs with the current ones
+                    continue;
+                }
+                position = newPosition;
+                retry = 0;
+                continue;
             }
 
-            if (retry++ >= MAX_RETRY_GENERATE_IDS) {
-                throw exception(SnowcastIllegalStateException::new, GENERATION_MAX_RETRY_EXCEEDED, MAX_RETRY_GENERATE_IDS);
+            if (retry++ >= maxRetries) {
+                throw maxRetryExceeded();
             }
+            recordCounterExhaustion(retry);
 
-            TimeUnit.NANOSECONDS.sleep(INCREMENT_RETRY_TIMEOUT_NANOS);
-            timestamp = epoch.getEpochTimestamp();
+            // Counter range of the current millisecond is exhausted
+            waitForNextTick(waitStrategy, epoch, timestampResolution, timestamp);
+        }
+    }
+
+    @Nonnull
+    final CompletableFuture<Long> nextAsync() {
+        long[] ids = new long[1];
+        try {
+            if (tryNextBatch(ids, 0, 1) == 1) {
+                return CompletableFuture.completedFuture(ids[0]);
+            }
+        } catch (RuntimeException e) {
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
         }
+        return scheduleBatch(ids, 0).thenApply(batch -> batch[0]);
+    }
+
+    @Nonnull
+    final CompletableFuture<long[]> nextBatchAsync(@Nonnegative int count) {
+        long[] ids = new long[count];
+        int position;
+        try {
+            position = tryNextBatch(ids, 0, count);
+            if (position == count) {
+                return CompletableFuture.completedFuture(ids);
+            }
+        } catch (RuntimeException e) {
+            CompletableFuture<long[]> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        return scheduleBatch(ids, position);
+    }
 
-        return generateSequenceId(timestamp, logicalNodeID, nextId, nodeIdShiftFactor);
+    /**
+     * Claims as many IDs as available in the current millisecond without waiting.
+     *
+     * @return the position after the last filled ID
+     */
+    @Nonnegative
+    final int tryNextBatch(@Nonnull long[] ids, @Nonnegative int position, @Nonnegative int limit) {
+        while (true) {
+            int[] logicalNodeIds = checkStateAndLogicalNodeIds();
+
+            long timestamp = epoch.getEpochTicks(timestampResolution);
+            if ((timestamp & ~tcTimestampMask) != 0) {
+                throw illegalTimestamp(timestamp);
+            }
+            if (timestamp >= leaseExpirationTick) {
+                throw leaseExpired();
+            }
+
+            int counterStripeMask = counterStripeMask(logicalNodeIds);
+            int newPosition = incrementAndFill(homeCounterStripe(counterStripeMask), counterStripeMask, timestamp,
+                    logicalNodeIds, ids, position, limit);
+
+            // Claimed IDs are only valid if the logical node ids weren't changed while claiming
+            if (newPosition == position || isAttached(logicalNodeIds)) {
+                return newPosition;
+            }
+        }
     }
 
     @Nonnull
@@ -155,35 +338,186 @@ abstract class AbstractSequencerContext {
         stateTransition(Attached);
 
         // Request sequencer remote assignment
-        this.logicalNodeId = doAttachLogicalNode(definition);
-        TRACER.trace("logicalNodeId '%s' attached", logicalNodeId);
+        long start = System.nanoTime();
+        int[] logicalNodeIds = new int[logicalNodes];
+        attachLogicalNodes(logicalNodeIds, 0, 0);
+        metrics.recordAttachLatency(System.nanoTime() - start);
+
+        logicalNodesAttached(logicalNodeIds);
+    }
+
+    /**
+     * Attaches a logical node id that was already assigned remotely, like by a bulk creation.
+     *
+     * @param logicalNodeId the assigned logical node id
+     */
+    final void attachLogicalNode(@Min(128) @Max(8192) int logicalNodeId) {
+        // Will fail if state transition is not allowed
+        stateTransition(Attached);
+
+        // Further logical node ids are requested one by one
+        long start = System.nanoTime();
+        int[] logicalNodeIds = new int[logicalNodes];
+        logicalNodeIds[0] = logicalNodeId;
+        attachLogicalNodes(logicalNodeIds, 1, 0);
+        metrics.recordAttachLatency(System.nanoTime() - start);
+
+        logicalNodesAttached(logicalNodeIds);
     }
 
     final void detachLogicalNode() {
         // Will fail if state transition is not allowed
         stateTransition(Detached);
 
-        int logicalNodeId = this.logicalNodeId;
-        this.logicalNodeId = -1;
+        int[] logicalNodeIds;
+        synchronized (logicalNodesMutex) {
+            logicalNodeIds = this.logicalNodeIds;
+            assignLogicalNodeIds(NO_LOGICAL_NODE_IDS);
+            this.leaseExpiration = Long.MAX_VALUE;
+            this.leaseExpirationTick = Long.MAX_VALUE;
+        }
 
         // Remove sequencer remote assignment
-        doDetachLogicalNode(definition, logicalNodeId);
-        TRACER.trace("logicalNodeId '%s' detached", logicalNodeId);
+        long start = System.nanoTime();
+        detachLogicalNodes(logicalNodeIds, 0, logicalNodeIds.length);
+        metrics.recordDetachLatency(System.nanoTime() - start);
+        if (TRACING_ENABLED && TRACER.isTracing()) {
+            TRACER.trace("logicalNodeIds %s detached", Arrays.toString(logicalNodeIds));
+        }
+    }
+
+    /**
+     * Bounds the usage of the current logical node id to IDs with timestamps before the given
+     * epoch timestamp.
+     *
+     * @param leaseExpiration the epoch timestamp the lease of the logical node id expires
+     */
+    final void updateLeaseExpiration(long leaseExpiration) {
+        this.leaseExpiration = leaseExpiration;
+        this.leaseExpirationTick = leaseExpiration == Long.MAX_VALUE //
+                ? Long.MAX_VALUE : leaseExpiration * timestampResolution.getTicksPerMillisecond();
+        if (TRACING_ENABLED && TRACER.isTracing()) {
+            TRACER.trace("lease of sequencer %s expires at %s", sequencerName, leaseExpiration);
+        }
+    }
+
+    final long getLeaseExpiration() {
+        return leaseExpiration;
+    }
+
+    @Nonnegative
+    final int getAttachedLogicalNodes() {
+        return logicalNodeIds.length;
+    }
+
+    /**
+     * Doubles the number of assigned logical node ids, bound by the maximum number of logical node ids.
+     *
+     * @return true if further logical node ids were attached, otherwise false
+     */
+    final boolean growLogicalNodes() {
+        int[] logicalNodeIds = this.logicalNodeIds;
+        if (!isAttached(logicalNodeIds) || logicalNodeIds.length >= maxLogicalNodes) {
+            return false;
+        }
+
+        // Attached remotely without holding the mutex, the result is validated before it gets published
+        int[] grownLogicalNodeIds = Arrays.copyOf(logicalNodeIds, logicalNodeIds.length << 1);
+        long start = System.nanoTime();
+        attachLogicalNodes(grownLogicalNodeIds, logicalNodeIds.length, logicalNodeIds.length);
+        metrics.recordAttachLatency(System.nanoTime() - start);
+
+        synchronized (logicalNodesMutex) {
+            if (isAttached(logicalNodeIds)) {
+                // The counter values of the current millisecond are unknown for the new logical node ids
+                long timestamp = epoch.getEpochTicks(timestampResolution);
+                int limit = grownLogicalNodeIds.length << counterStripeShift;
+                for (int i = logicalNodeIds.length << counterStripeShift; i < limit; i++) {
+                    exhaustMillisecond(counterStripes[i], timestamp);
+                }
+
+                assignLogicalNodeIds(grownLogicalNodeIds);
+                onLogicalNodesAttached(grownLogicalNodeIds);
+                return true;
+            }
+        }
+
+        // Detached, destroyed or resized while attaching, nobody else releases the new logical node ids
+        detachLogicalNodes(grownLogicalNodeIds, logicalNodeIds.length, grownLogicalNodeIds.length);
+        return false;
+    }
+
+    /**
+     * Halves the number of assigned logical node ids, bound by the configured number of logical node ids.
+     *
+     * @return true if logical node ids were detached, otherwise false
+     */
+    final boolean shrinkLogicalNodes() {
+        synchronized (logicalNodesMutex) {
+            int[] logicalNodeIds = this.logicalNodeIds;
+            if (!isAttached(logicalNodeIds) || logicalNodeIds.length <= logicalNodes) {
+                return false;
+            }
+
+            int[] shrunkLogicalNodeIds = Arrays.copyOf(logicalNodeIds, logicalNodeIds.length >>> 1);
+            assignLogicalNodeIds(shrunkLogicalNodeIds);
+
+            // Generations validate the logical node ids after claiming and discard claims of removed ones,
+            // claims validated before the removal carry at most the current tick, which must be over
+            // before the removed logical node ids can be reassigned
+            try {
+                waitForNextTick(SnowcastWaitStrategy.Park, epoch, timestampResolution, epoch.getEpochTicks(timestampResolution));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            long start = System.nanoTime();
+            detachLogicalNodes(logicalNodeIds, shrunkLogicalNodeIds.length, logicalNodeIds.length);
+            metrics.recordDetachLatency(System.nanoTime() - start);
+
+            onLogicalNodesAttached(shrunkLogicalNodeIds);
+            return true;
+        }
+    }
+
+    /**
+     * Returns true if the sequencer is attached and the given logical node ids are the currently
+     * assigned ones.
+     *
+     * @param logicalNodeIds the logical node ids as passed to {@link #onLogicalNodesAttached(int[])}
+     * @return true if the given logical node ids are currently assigned, otherwise false
+     */
+    final boolean isAttached(@Nonnull int[] logicalNodeIds) {
+        return state == Attached && this.logicalNodeIds == logicalNodeIds;
+    }
+
+    final long currentEpochTimestamp() {
+        return epoch.getEpochTimestamp();
+    }
+
+    @Nonnegative
+    final int getMaxRetries() {
+        return maxRetries;
+    }
+
+    @Nonnull
+    final SnowcastTimestampResolution getTimestampResolution() {
+        return timestampResolution;
     }
 
     @Nonnegative
     final long timestampValue(long sequenceId) {
-        return InternalSequencerUtils.timestampValue(sequenceId);
+        return sequenceLayout.timestampValue(sequenceId);
     }
 
     @Nonnegative
     final int logicalNodeId(long sequenceId) {
-        return InternalSequencerUtils.logicalNodeId(sequenceId, nodeIdShiftFactor, logicalNodeIdReadMask);
+        return sequenceLayout.logicalNodeId(sequenceId);
     }
 
     @Nonnegative
     final int counterValue(long sequenceId) {
-        return InternalSequencerUtils.counterValue(sequenceId, counterReadMask);
+        return sequenceLayout.counterValue(sequenceId);
     }
 
     @Min(128)
@@ -192,6 +526,14 @@ abstract class AbstractSequencerContext {
 
     protected abstract void doDetachLogicalNode(@Nonnull SequencerDefinition definition, @Min(128) @Max(8192) int logicalNodeId);
 
+    /**
+     * Called after all logical node ids were attached and assigned to the sequencer.
+     *
+     * @param logicalNodeIds the attached logical node ids, must not be modified
+     */
+    protected void onLogicalNodesAttached(@Nonnull int[] logicalNodeIds) {
+    }
+
     boolean stateTransition(@Nonnull SnowcastSequenceState newState) {
         while (true) {
             SnowcastSequenceState state = this.state;
@@ -216,33 +558,187 @@ abstract class AbstractSequencerContext {
 
             if (STATE_UPDATER.compareAndSet(this, state, newState)) {
                 TRACER.trace("stated updated: %s -> %s", state, newState);
+                if (newState != Attached && prefetchBuffer != null) {
+                    // Prefetched IDs must not be handed out after leaving the attached state
+                    prefetchBuffer.stop();
+                }
+                if (newState != Attached && scaler != null) {
+                    scaler.stop();
+                }
                 return true;
             }
         }
     }
 
-    private void checkAndUpdateTimestamp(@Nonnegative long timestamp) {
+    private void attachLogicalNodes(@Nonnull int[] logicalNodeIds, @Nonnegative int offset, @Nonnegative int releaseOffset) {
+        int attached = offset;
+        try {
+            for (; attached < logicalNodeIds.length; attached++) {
+                logicalNodeIds[attached] = doAttachLogicalNode(definition);
+            }
+        } catch (RuntimeException e) {
+            // Release the logical node ids attached so far, nothing would ever detach them otherwise
+            try {
+                detachLogicalNodes(logicalNodeIds, releaseOffset, attached);
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private void detachLogicalNodes(@Nonnull int[] logicalNodeIds, @Nonnegative int from, @Nonnegative int to) {
+        RuntimeException exception = null;
+        for (int i = from; i < to; i++) {
+            try {
+                doDetachLogicalNode(definition, logicalNodeIds[i]);
+            } catch (RuntimeException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private void assignLogicalNodeIds(@Nonnull int[] logicalNodeIds) {
+        this.logicalNodeIds = logicalNodeIds;
+        metrics.recordAttachedLogicalNodes(logicalNodeIds.length);
+    }
+
+    private void logicalNodesAttached(@Nonnull int[] logicalNodeIds) {
+        if (maxLogicalNodes > 1) {
+            // Logical node ids may be assigned to different counter stripes than on the previous attach,
+            // the counter values of the current millisecond are unknown for those
+            long timestamp = epoch.getEpochTicks(timestampResolution);
+            for (CounterStripe counterStripe : counterStripes) {
+                exhaustMillisecond(counterStripe, timestamp);
+            }
+        }
+
+        assignLogicalNodeIds(logicalNodeIds);
+        onLogicalNodesAttached(logicalNodeIds);
+        if (TRACING_ENABLED && TRACER.isTracing()) {
+            TRACER.trace("logicalNodeIds %s attached", Arrays.toString(logicalNodeIds));
+        }
+
+        if (prefetchBuffer != null) {
+            prefetchBuffer.start(sequencerName);
+        }
+        if (scaler != null) {
+            scaler.start();
+        }
+    }
+
+    @Nonnull
+    private CompletableFuture<long[]> scheduleBatch(@Nonnull long[] ids, @Nonnegative int position) {
+        metrics.recordCounterExhaustionWait();
+        AsyncBatchGeneration generation = new AsyncBatchGeneration(this, ids, position);
+        MillisecondTickScheduler.scheduleNextTick(generation, timestampResolution);
+        return generation.getFuture();
+    }
+
+    @Nonnegative
+    private int counterStripeMask(@Nonnull int[] logicalNodeIds) {
+        return (logicalNodeIds.length << counterStripeShift) - 1;
+    }
+
+    @Nonnegative
+    private int homeCounterStripe(@Nonnegative int counterStripeMask) {
+        if (counterStripeMask == 0) {
+            return 0;
+        }
+        // Thread IDs are handed out sequentially, the lower bits spread threads evenly over the stripes
+        return (int) Thread.currentThread().getId() & counterStripeMask;
+    }
+
+    @Min(128)
+    @Max(8192)
+    private int logicalNodeIdOf(@Nonnull int[] logicalNodeIds, @Nonnegative int counterStripe) {
+        return logicalNodeIds[counterStripe >>> counterStripeShift];
+    }
+
+    /**
+     * Claims the next counter value, starting with the thread's own stripe.
+     *
+     * @return the index of the counter stripe in the upper and the claimed counter value in the lower
+     * 32 bits, -1 if all stripes are exhausted for the expected timestamp
+     */
+    private long increment(@Nonnegative int homeStripe, @Nonnegative int counterStripeMask,
+                           @Nonnegative long expectedTimestamp) {
+
+        // Start with the thread's own stripe and only fall back to the others if exhausted
+        for (int i = 0; i <= counterStripeMask; i++) {
+            int index = (homeStripe + i) & counterStripeMask;
+            CounterStripe counterStripe = counterStripes[index];
+            checkAndUpdateTimestamp(counterStripe, expectedTimestamp);
+
+            int nextId = increment(counterStripe, expectedTimestamp);
+            if (nextId != -1) {
+                return ((long) index << 32) | nextId;
+            }
+        }
+        return -1;
+    }
+
+    @Nonnegative
+    private int incrementAndFill(@Nonnegative int homeStripe, @Nonnegative int counterStripeMask,
+                                 @Nonnegative long expectedTimestamp, @Nonnull int[] logicalNodeIds,
+                                 @Nonnull long[] ids, @Nonnegative int position, @Nonnegative int limit) {
+
+        // Start with the thread's own stripe and only fall back to the others if exhausted
+        for (int i = 0; i <= counterStripeMask && position < limit; i++) {
+            int index = (homeStripe + i) & counterStripeMask;
+            CounterStripe counterStripe = counterStripes[index];
+            checkAndUpdateTimestamp(counterStripe, expectedTimestamp);
+
+            int logicalNodeID = logicalNodeIdOf(logicalNodeIds, index);
+            position = incrementAndFill(counterStripe, expectedTimestamp, logicalNodeID, ids, position, limit);
+        }
+        return position;
+    }
+
+    private void checkAndUpdateTimestamp(@Nonnull CounterStripe counterStripe, @Nonnegative long timestamp) {
         while (true) {
-            long timestampAndCounter = this.timestampAndCounter;
-            long lastTimestamp = timestampAndCounter & TC_TIMESTAMP_READ_MASK;
+            long timestampAndCounter = counterStripe.getTimestampAndCounter();
+            long lastTimestamp = timestampAndCounter & tcTimestampMask;
             if (lastTimestamp < timestamp) {
-                if (TIMESTAMP_AND_COUNTER_UPDATER.compareAndSet(this, timestampAndCounter, timestamp)) {
+                // Reset the counter to the beginning of the stripe's range
+                long newTC = timestamp | ((long) (counterStripe.getFirstCounter() - 1) << tcCounterShift);
+                if (counterStripe.compareAndSetTimestampAndCounter(timestampAndCounter, newTC)) {
                     break;
                 }
+                metrics.recordCasRetry();
             } else {
                 break;
             }
         }
     }
 
-    @Nonnegative
-    private int increment(@Nonnegative long expectedTimestamp) {
+    private void exhaustMillisecond(@Nonnull CounterStripe counterStripe, @Nonnegative long timestamp) {
         while (true) {
-            long timestampAndCounter = this.timestampAndCounter;
+            long timestampAndCounter = counterStripe.getTimestampAndCounter();
+            if ((timestampAndCounter & tcTimestampMask) > timestamp) {
+                break;
+            }
+            long newTC = timestamp | ((long) counterStripe.getLastCounter() << tcCounterShift);
+            if (counterStripe.compareAndSetTimestampAndCounter(timestampAndCounter, newTC)) {
+                break;
+            }
+        }
+    }
+
+    private int increment(@Nonnull CounterStripe counterStripe, @Nonnegative long expectedTimestamp) {
+        while (true) {
+            long timestampAndCounter = counterStripe.getTimestampAndCounter();
 
             // Extract values
-            long counter = (timestampAndCounter & TC_COUNTER_READ_MASK) >> SHIFT_COUNTER;
-            long timestamp = timestampAndCounter & TC_TIMESTAMP_READ_MASK;
+            long counter = timestampAndCounter >>> tcCounterShift;
+            long timestamp = timestampAndCounter & tcTimestampMask;
 
             if (expectedTimestamp != timestamp) {
                 return -1;
@@ -251,32 +747,121 @@ abstract class AbstractSequencerContext {
             // Increment the counter
             counter++;
 
-            // Exceeded the counters value for a single millisecond
-            if (counter > maxMillisCounter) {
+            // Exceeded the stripe's counter range for a single millisecond
+            if (counter > counterStripe.getLastCounter()) {
                 return -1;
             }
 
             // Build the new combined timestamp and counter value
-            long newTC = timestamp | (counter << SHIFT_COUNTER);
-            if (TIMESTAMP_AND_COUNTER_UPDATER.compareAndSet(this, timestampAndCounter, newTC)) {
+            long newTC = timestamp | (counter << tcCounterShift);
+            if (counterStripe.compareAndSetTimestampAndCounter(timestampAndCounter, newTC)) {
+                metrics.recordGeneratedIds(1);
                 return (int) counter;
             }
+            metrics.recordCasRetry();
+        }
+    }
+
+    @Nonnegative
+    private int incrementAndFill(@Nonnull CounterStripe counterStripe, @Nonnegative long expectedTimestamp,
+                                 @Min(128) @Max(8192) int logicalNodeID, @Nonnull long[] ids,
+                                 @Nonnegative int position, @Nonnegative int limit) {
+
+        while (true) {
+            long timestampAndCounter = counterStripe.getTimestampAndCounter();
+
+            // Extract values
+            long counter = timestampAndCounter >>> tcCounterShift;
+            long timestamp = timestampAndCounter & tcTimestampMask;
+
+            if (expectedTimestamp != timestamp) {
+                return position;
+            }
 
-            TRACER.trace("increment compareAndSwap failed, retrying");
+            // Exceeded the stripe's counter range for a single millisecond
+            long available = counterStripe.getLastCounter() - counter;
+            if (available <= 0) {
+                return position;
+            }
+
+            // Claim as much of the remaining counter range as requested in one go
+            int claimed = (int) Math.min(available, limit - position);
+
+            // Build the new combined timestamp and counter value
+            long newTC = timestamp | ((counter + claimed) << tcCounterShift);
+            if (counterStripe.compareAndSetTimestampAndCounter(timestampAndCounter, newTC)) {
+                for (int i = 1; i <= claimed; i++) {
+                    int nextId = (int) counter + i;
+                    ids[position++] = sequenceId(timestamp, logicalNodeID, nextId);
+                }
+                metrics.recordGeneratedIds(claimed);
+                return position;
+            }
+            metrics.recordCasRetry();
         }
     }
 
-    @Min(128)
-    @Max(8192)
-    private int checkStateAndLogicalNodeId() {
-        int logicalNodeId = this.logicalNodeId;
-        if (logicalNodeId == -1) {
+    private long sequenceId(@Nonnegative long timestamp, @Min(128) @Max(8192) int logicalNodeID, @Nonnegative int counter) {
+        // Counter values are bound by the stripe ranges, no need to re-check them per ID
+        return (timestamp << timestampShift) | ((long) logicalNodeID << nodeIdShiftFactor) | counter;
+    }
+
+    @Nonnull
+    private int[] checkStateAndLogicalNodeIds() {
+        int[] logicalNodeIds = this.logicalNodeIds;
+        if (logicalNodeIds.length == 0) {
             throw exception(SnowcastStateException::new, SEQUENCER_NOT_ASSIGNED, sequencerName);
         }
         SnowcastSequenceState state = this.state;
         if (state != Attached) {
             throw exception(SnowcastStateException::new, SEQUENCER_IN_WRONG_STATE, sequencerName, Attached, state);
         }
-        return logicalNodeId;
+        return logicalNodeIds;
+    }
+
+    private void recordCounterExhaustion(@Nonnegative int retry) {
+        metrics.recordCounterExhaustionWait();
+        if (retry == retryLimitApproachThreshold) {
+            metrics.recordRetryLimitApproach();
+        }
+    }
+
+    // Failure paths are kept out of the generation methods to keep those small enough for inlining
+
+    @Nonnull
+    private SnowcastIllegalStateException illegalTimestamp(long timestamp) {
+        if (timestamp < 0) {
+            return exception(SnowcastIllegalStateException::new, ILLEGAL_TIMESTAMP_GENERATED);
+        }
+        return exception(SnowcastIllegalStateException::new, ILLEGAL_TIMESTAMP_OVERFLOW, timestamp, tcCounterShift);
+    }
+
+    @Nonnull
+    private SnowcastStateException leaseExpired() {
+        return exception(SnowcastStateException::new, LOGICAL_NODE_LEASE_EXPIRED, sequencerName);
+    }
+
+    @Nonnull
+    final SnowcastIllegalStateException maxRetryExceeded() {
+        return exception(SnowcastIllegalStateException::new, GENERATION_MAX_RETRY_EXCEEDED, maxRetries);
+    }
+
+    @Nonnull
+    private static CounterStripe[] createCounterStripes(@Nonnegative int logicalNodes, @Nonnegative int stripes,
+                                                        @Nonnegative int maxMillisCounter, @Nonnegative int counterShift) {
+
+        // Counter values start at 1, the range [1, maxMillisCounter] of every logical node id is
+        // split evenly and the last stripe takes the remainder
+        int stripeSize = maxMillisCounter / stripes;
+
+        CounterStripe[] counterStripes = new CounterStripe[logicalNodes * stripes];
+        for (int node = 0; node < logicalNodes; node++) {
+            for (int i = 0; i < stripes; i++) {
+                int firstCounter = i * stripeSize + 1;
+                int lastCounter = i == stripes - 1 ? maxMillisCounter : firstCounter + stripeSize - 1;
+                counterStripes[node * stripes + i] = new CounterStripe(firstCounter, lastCounter, counterShift);
+            }
+        }
+        return counterStripes;
     }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static com.noctarius.snowcast.impl.SnowcastConstants.ADAPTIVE_SCALING_EXHAUSTION_THRESHOLD;
+import static com.noctarius.snowcast.impl.SnowcastConstants.ADAPTIVE_SCALING_INTERVAL_MILLIS;
+import static com.noctarius.snowcast.impl.TracingUtils.TRACING_ENABLED;
+
+/**
+ * <p>Scales the number of logical node ids of a sequencer with its counter exhaustion rate. The
+ * rate is sampled on the shared tick scheduler, every {@value SnowcastConstants#ADAPTIVE_SCALING_INTERVAL_MILLIS}
+ * milliseconds. If at least {@value SnowcastConstants#ADAPTIVE_SCALING_EXHAUSTION_THRESHOLD} counter
+ * exhaustion waits happened since the last sample, the number of logical node ids is doubled. After
+ * the cool-down passed without reaching the threshold it is halved again.</p>
+ * <p>Attaching and detaching involves blocking remote calls and is handed off to dedicated daemon
+ * threads, at most one scaling step of a sequencer runs at a time.</p>
+ */
+@ThreadSafe
+final class AdaptiveLogicalNodeScaler
+        implements Runnable {
+
+    private static final Tracer TRACER = TracingUtils.tracer(AdaptiveLogicalNodeScaler.class);
+
+    private static final String THREAD_NAME = "snowcast-logical-node-scaler";
+
+    private final AtomicBoolean scaling = new AtomicBoolean();
+
+    private final AbstractSequencerContext sequencerContext;
+    private final SequencerMetrics metrics;
+    private final int minLogicalNodes;
+    private final int maxLogicalNodes;
+    private final long coolDownNanos;
+
+    private volatile ScheduledFuture<?> sampling;
+
+    // Growing is suspended after a failed attach, like when the pool of logical node ids is used up
+    private volatile long growSuspendedUntil;
+
+    // Only accessed by the tick scheduler thread
+    private long lastCounterExhaustionWaits;
+    private long lastExhaustionNanos;
+
+    AdaptiveLogicalNodeScaler(@Nonnull AbstractSequencerContext sequencerContext, @Nonnull SequencerMetrics metrics,
+                              @Nonnegative int minLogicalNodes, @Nonnegative int maxLogicalNodes,
+                              @Nonnegative long coolDownMillis) {
+
+        this.sequencerContext = sequencerContext;
+        this.metrics = metrics;
+        this.minLogicalNodes = minLogicalNodes;
+        this.maxLogicalNodes = maxLogicalNodes;
+        this.coolDownNanos = TimeUnit.MILLISECONDS.toNanos(coolDownMillis);
+    }
+
+    void start() {
+        // Published to the tick scheduler thread by scheduling the task
+        lastCounterExhaustionWaits = metrics.getCounterExhaustionWaits();
+        lastExhaustionNanos = System.nanoTime();
+        growSuspendedUntil = lastExhaustionNanos;
+        sampling = MillisecondTickScheduler
+                .scheduleAtFixedRate(this, ADAPTIVE_SCALING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        ScheduledFuture<?> sampling = this.sampling;
+        this.sampling = null;
+        if (sampling != null) {
+            sampling.cancel(false);
+        }
+    }
+
+    @Override
+    public void run() {
+        long counterExhaustionWaits = metrics.getCounterExhaustionWaits();
+        long exhaustions = counterExhaustionWaits - lastCounterExhaustionWaits;
+        lastCounterExhaustionWaits = counterExhaustionWaits;
+
+        long now = System.nanoTime();
+        int attachedLogicalNodes = sequencerContext.getAttachedLogicalNodes();
+        if (exhaustions >= ADAPTIVE_SCALING_EXHAUSTION_THRESHOLD) {
+            lastExhaustionNanos = now;
+            if (attachedLogicalNodes < maxLogicalNodes && now - growSuspendedUntil >= 0) {
+                scale(this::grow);
+            }
+
+        } else if (attachedLogicalNodes > minLogicalNodes && now - lastExhaustionNanos >= coolDownNanos) {
+            // Every halving step waits for its own cool-down
+            lastExhaustionNanos = now;
+            scale(sequencerContext::shrinkLogicalNodes);
+        }
+    }
+
+    private boolean grow() {
+        try {
+            return sequencerContext.growLogicalNodes();
+        } catch (RuntimeException e) {
+            growSuspendedUntil = System.nanoTime() + coolDownNanos;
+            throw e;
+        }
+    }
+
+    private void scale(@Nonnull BooleanSupplier scalingStep) {
+        if (!scaling.compareAndSet(false, true)) {
+            // Previous scaling step still running
+            return;
+        }
+        ExecutorHolder.EXECUTOR.execute(() -> {
+            try {
+                if (scalingStep.getAsBoolean() && TRACING_ENABLED && TRACER.isTracing()) {
+                    TRACER.trace("scaled to %s logical nodes", sequencerContext.getAttachedLogicalNodes());
+                }
+            } catch (RuntimeException e) {
+                TRACER.trace("scaling logical nodes failed", e);
+            } finally {
+                scaling.set(false);
+            }
+        });
+    }
+
+    private static final class ExecutorHolder {
+
+        // Scaling steps block on remote calls and must not starve the common pool
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
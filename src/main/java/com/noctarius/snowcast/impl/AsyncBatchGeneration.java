@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Fills an ID array without ever blocking. Every run claims as many IDs as available
+ * in the current millisecond and, if the array isn't full yet, reschedules itself for
+ * the next millisecond on the {@link MillisecondTickScheduler}. The future is completed
+ * on the common pool, dependent stages must not run on the shared tick scheduler thread.
+ */
+final class AsyncBatchGeneration
+        implements Runnable {
+
+    private final CompletableFuture<long[]> future = new CompletableFuture<>();
+
+    private final AbstractSequencerContext sequencerContext;
+    private final long[] ids;
+
+    private int position;
+    private int retry;
+
+    AsyncBatchGeneration(@Nonnull AbstractSequencerContext sequencerContext, @Nonnull long[] ids,
+                         @Nonnegative int position) {
+
+        this.sequencerContext = sequencerContext;
+        this.ids = ids;
+        this.position = position;
+    }
+
+    @Nonnull
+    CompletableFuture<long[]> getFuture() {
+        return future;
+    }
+
+    @Override
+    public void run() {
+        try {
+            // Scheduled for the next tick, the shared ticker may not have caught up yet
+            InternalClock.advanceTicker();
+
+            int newPosition = sequencerContext.tryNextBatch(ids, position, ids.length);
+            if (newPosition == ids.length) {
+                ForkJoinPool.commonPool().execute(() -> future.complete(ids));
+                return;
+            }
+
+            if (newPosition != position) {
+                position = newPosition;
+                retry = 0;
+
+            } else if (retry++ >= sequencerContext.getMaxRetries()) {
+                throw sequencerContext.maxRetryExceeded();
+            }
+
+            MillisecondTickScheduler.scheduleNextTick(this, sequencerContext.getTimestampResolution());
+
+        } catch (Throwable throwable) {
+            ForkJoinPool.commonPool().execute(() -> future.completeExceptionally(throwable));
+        }
+    }
+}
@@ -18,17 +18,27 @@ package com.noctarius.snowcast.impl;
 
 import com.hazelcast.client.impl.HazelcastClientInstanceImpl;
 import com.hazelcast.client.impl.protocol.ClientMessage;
-import com.hazelcast.client.impl.protocol.codec.SnowcastAttachLogicalNodeCodec;
-import com.hazelcast.client.impl.protocol.codec.SnowcastCreateSequencerDefinitionCodec;
+import com.hazelcast.client.impl.protocol.codec.SnowcastAttachLeasedLogicalNodeCodec;
+import com.hazelcast.client.impl.protocol.codec.SnowcastAttachLogicalNodeWithLayoutCodec;
+import com.hazelcast.client.impl.protocol.codec.SnowcastCreateSequencerDefinitionWithLayoutCodec;
 import com.hazelcast.client.impl.protocol.codec.SnowcastDestroySequencerDefinitionCodec;
-import com.hazelcast.client.impl.protocol.codec.SnowcastDetachLogicalNodeCodec;
+import com.hazelcast.client.impl.protocol.codec.SnowcastDetachLogicalNodeWithLayoutCodec;
 import com.hazelcast.client.impl.protocol.codec.SnowcastRegisterChannelCodec;
 import com.hazelcast.client.impl.protocol.codec.SnowcastRemoveChannelCodec;
+import com.hazelcast.client.impl.protocol.codec.SnowcastRenewLogicalNodeLeaseCodec;
+import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.core.Partition;
 import com.hazelcast.core.PartitionService;
 import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
 
 import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.sequenceLayoutOf;
 
 final class ClientCodec {
 
@@ -40,16 +50,54 @@ final class ClientCodec {
         this.partitionService = client.getPartitionService();
     }
 
-    int attachLogicalNode(@Nonnull String sequencerName, @Nonnull SequencerDefinition sequencerDefinition) {
+    @Nonnull
+    CompletableFuture<Integer> attachLeasedLogicalNodeAsync(@Nonnull String sequencerName,
+                                                            @Nonnull SequencerDefinition sequencerDefinition,
+                                                            long leaseTimeMillis) {
+
         long epochOffset = sequencerDefinition.getEpoch().getEpochOffset();
         int maxLogicalNodeCount = sequencerDefinition.getMaxLogicalNodeCount();
+        SnowcastSequenceLayout sequenceLayout = sequencerDefinition.getSequenceLayout();
+        int timestampBits = sequenceLayout.getTimestampBits();
+        int counterBits = sequenceLayout.getCounterBits();
+        int ticksPerMillisecond = sequenceLayout.getTimestampResolution().getTicksPerMillisecond();
         short backupCount = sequencerDefinition.getBackupCount();
 
-        ClientMessage request = SnowcastAttachLogicalNodeCodec
-                .encodeRequest(sequencerName, epochOffset, maxLogicalNodeCount, backupCount);
+        ClientMessage request = SnowcastAttachLeasedLogicalNodeCodec
+                .encodeRequest(sequencerName, epochOffset, maxLogicalNodeCount, timestampBits, counterBits,
+                        ticksPerMillisecond, backupCount, leaseTimeMillis);
 
-        ClientMessage response = invoke(sequencerName, request);
-        return SnowcastAttachLogicalNodeCodec.decodeResponse(response).response;
+        return invokeAsync(sequencerName, request,
+                response -> SnowcastAttachLeasedLogicalNodeCodec.decodeResponse(response).response);
+    }
+
+    @Nonnull
+    CompletableFuture<Integer> attachLogicalNodeAsync(@Nonnull String sequencerName,
+                                                      @Nonnull SequencerDefinition sequencerDefinition) {
+
+        long epochOffset = sequencerDefinition.getEpoch().getEpochOffset();
+        int maxLogicalNodeCount = sequencerDefinition.getMaxLogicalNodeCount();
+        SnowcastSequenceLayout sequenceLayout = sequencerDefinition.getSequenceLayout();
+        int timestampBits = sequenceLayout.getTimestampBits();
+        int counterBits = sequenceLayout.getCounterBits();
+        int ticksPerMillisecond = sequenceLayout.getTimestampResolution().getTicksPerMillisecond();
+        short backupCount = sequencerDefinition.getBackupCount();
+
+        ClientMessage request = SnowcastAttachLogicalNodeWithLayoutCodec
+                .encodeRequest(sequencerName, epochOffset, maxLogicalNodeCount, timestampBits, counterBits,
+                        ticksPerMillisecond, backupCount);
+
+        return invokeAsync(sequencerName, request,
+                response -> SnowcastAttachLogicalNodeWithLayoutCodec.decodeResponse(response).response);
+    }
+
+    @Nonnull
+    CompletableFuture<Boolean> renewLogicalNodeLeaseAsync(@Nonnull String sequencerName, int logicalNodeId,
+                                                          long leaseTimeMillis) {
+
+        ClientMessage request = SnowcastRenewLogicalNodeLeaseCodec.encodeRequest(sequencerName, logicalNodeId, leaseTimeMillis);
+        return invokeAsync(sequencerName, request,
+                response -> SnowcastRenewLogicalNodeLeaseCodec.decodeResponse(response).response);
     }
 
     SequencerDefinition createSequencerDefinition(@Nonnull String sequencerName,
@@ -57,10 +105,15 @@ final class ClientCodec {
 
         long epochOffset = sequencerDefinition.getEpoch().getEpochOffset();
         int maxLogicalNodeCount = sequencerDefinition.getMaxLogicalNodeCount();
+        SnowcastSequenceLayout sequenceLayout = sequencerDefinition.getSequenceLayout();
+        int timestampBits = sequenceLayout.getTimestampBits();
+        int counterBits = sequenceLayout.getCounterBits();
+        int ticksPerMillisecond = sequenceLayout.getTimestampResolution().getTicksPerMillisecond();
         short backupCount = sequencerDefinition.getBackupCount();
 
-        ClientMessage request = SnowcastCreateSequencerDefinitionCodec
-                .encodeRequest(sequencerName, epochOffset, maxLogicalNodeCount, backupCount);
+        ClientMessage request = SnowcastCreateSequencerDefinitionWithLayoutCodec
+                .encodeRequest(sequencerName, epochOffset, maxLogicalNodeCount, timestampBits, counterBits,
+                        ticksPerMillisecond, backupCount);
 
         ClientMessage response = invoke(sequencerName, request);
         return decodeSequencerDefinition(response);
@@ -77,13 +130,18 @@ final class ClientCodec {
 
         long epochOffset = sequencerDefinition.getEpoch().getEpochOffset();
         int maxLogicalNodeCount = sequencerDefinition.getMaxLogicalNodeCount();
+        SnowcastSequenceLayout sequenceLayout = sequencerDefinition.getSequenceLayout();
+        int timestampBits = sequenceLayout.getTimestampBits();
+        int counterBits = sequenceLayout.getCounterBits();
+        int ticksPerMillisecond = sequenceLayout.getTimestampResolution().getTicksPerMillisecond();
         short backupCount = sequencerDefinition.getBackupCount();
 
-        ClientMessage request = SnowcastDetachLogicalNodeCodec
-                .encodeRequest(sequencerName, epochOffset, maxLogicalNodeCount, backupCount, logicalNodeId);
+        ClientMessage request = SnowcastDetachLogicalNodeWithLayoutCodec
+                .encodeRequest(sequencerName, epochOffset, maxLogicalNodeCount, timestampBits, counterBits,
+                        ticksPerMillisecond, backupCount, logicalNodeId);
 
         ClientMessage response = invoke(sequencerName, request);
-        return SnowcastDetachLogicalNodeCodec.decodeResponse(response).response;
+        return SnowcastDetachLogicalNodeWithLayoutCodec.decodeResponse(response).response;
     }
 
     String registerChannel(@Nonnull String sequencerName) {
@@ -110,16 +168,60 @@ final class ClientCodec {
         });
     }
 
+    @Nonnull
+    private <V> CompletableFuture<V> invokeAsync(@Nonnull String sequencerName, @Nonnull ClientMessage request,
+                                                 @Nonnull Function<ClientMessage, V> decoder) {
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        try {
+            int partitionId = partitionId(sequencerName);
+            clientInvocator.invoke(partitionId, request).andThen(new ExecutionCallback<ClientMessage>() {
+                @Override
+                public void onResponse(ClientMessage response) {
+                    try {
+                        future.complete(decoder.apply(response));
+                    } catch (RuntimeException e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                }
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    static <V> V await(@Nonnull Future<V> future) {
+        return ExceptionUtils.execute(() -> {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                // Rethrow the remote failure the same way as synchronous invocations
+                throw e.getCause();
+            }
+        });
+    }
+
     private SequencerDefinition decodeSequencerDefinition(ClientMessage response) {
-        SnowcastCreateSequencerDefinitionCodec.ResponseParameters responseParameters = //
-                SnowcastCreateSequencerDefinitionCodec.decodeResponse(response);
+        SnowcastCreateSequencerDefinitionWithLayoutCodec.ResponseParameters responseParameters = //
+                SnowcastCreateSequencerDefinitionWithLayoutCodec.decodeResponse(response);
 
         String sequencerName = responseParameters.sequencerName;
         int maxLogicalNodeCount = responseParameters.maxLogicalNodeCount;
+        int timestampBits = responseParameters.timestampBits;
+        int counterBits = responseParameters.counterBits;
+        int ticksPerMillisecond = responseParameters.ticksPerMillisecond;
         long epochOffset = responseParameters.epochOffset;
         SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(epochOffset);
         short backupCount = (short) responseParameters.backupCount;
 
-        return new SequencerDefinition(sequencerName, epoch, maxLogicalNodeCount, backupCount);
+        SnowcastSequenceLayout sequenceLayout = sequenceLayoutOf(maxLogicalNodeCount, timestampBits, counterBits,
+                ticksPerMillisecond);
+        return new SequencerDefinition(sequencerName, epoch, maxLogicalNodeCount, sequenceLayout, backupCount);
     }
 }
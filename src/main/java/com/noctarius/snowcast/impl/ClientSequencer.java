@@ -23,16 +23,23 @@ import com.hazelcast.client.spi.ClientContext;
 import com.hazelcast.client.spi.ClientProxy;
 import com.hazelcast.client.spi.EventHandler;
 import com.hazelcast.client.spi.impl.ListenerMessageCodec;
+import com.hazelcast.core.HazelcastInstanceNotActiveException;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.serialization.SerializationService;
+import com.noctarius.snowcast.SnowcastException;
 import com.noctarius.snowcast.SnowcastSequenceState;
 import com.noctarius.snowcast.SnowcastSequencer;
+import com.noctarius.snowcast.SnowcastSequencerOptions;
 import com.noctarius.snowcast.impl.notification.ClientDestroySequencerNotification;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class ClientSequencer
         extends ClientProxy
@@ -42,11 +49,11 @@ public class ClientSequencer
     private final ClientSequencerService sequencerService;
 
     ClientSequencer(@Nonnull ClientSequencerService sequencerService, @Nonnull SequencerDefinition definition,
-                    @Nonnull ClientCodec clientCodec) {
+                    @Nonnull ClientCodec clientCodec, @Nonnull SnowcastSequencerOptions options) {
 
         super(SnowcastConstants.SERVICE_NAME, definition.getSequencerName());
         this.sequencerService = sequencerService;
-        this.sequencerContext = new ClientSequencerContext(definition, clientCodec);
+        this.sequencerContext = new ClientSequencerContext(definition, clientCodec, options);
     }
 
     @Nonnull
@@ -62,6 +69,41 @@ public class ClientSequencer
         return sequencerContext.next();
     }
 
+    @Nonnull
+    @Override
+    public long[] next(@Nonnegative int count)
+            throws InterruptedException {
+
+        long[] ids = new long[count];
+        sequencerContext.nextBatch(ids, 0, count);
+        return ids;
+    }
+
+    @Override
+    public void nextBatch(@Nonnull long[] ids)
+            throws InterruptedException {
+
+        sequencerContext.nextBatch(ids, 0, ids.length);
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Long> nextAsync() {
+        return sequencerContext.nextAsync();
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<long[]> nextBatchAsync(@Nonnegative int count) {
+        return sequencerContext.nextBatchAsync(count);
+    }
+
+    @Override
+    @Nonnegative
+    public int tryNextBatch(@Nonnull long[] ids, @Nonnegative int offset, @Nonnegative int length) {
+        return sequencerContext.tryNextBatch(ids, offset, offset + length) - offset;
+    }
+
     @Nonnull
     @Override
     public SnowcastSequenceState getSequencerState() {
@@ -74,6 +116,12 @@ public class ClientSequencer
         return sequencerContext.getSequencerDefinition();
     }
 
+    @Nonnull
+    @Override
+    public SequencerMetrics getSequencerMetrics() {
+        return sequencerContext.getSequencerMetrics();
+    }
+
     @Nonnull
     @Override
     public SnowcastSequencer attachLogicalNode() {
@@ -122,6 +170,18 @@ public class ClientSequencer
         return sequencerService;
     }
 
+    void prepareAttachLogicalNode() {
+        sequencerContext.prepareAttachLogicalNode();
+    }
+
+    void abortAttachLogicalNode() {
+        sequencerContext.abortAttachLogicalNode();
+    }
+
+    void releaseClientChannel() {
+        sequencerContext.unregisterClientChannel(this);
+    }
+
     private void unregisterClientChannel(@Nonnull String uuid) {
         ClientContext context = getContext();
         context.getListenerService().deregisterListener(uuid);
@@ -134,12 +194,22 @@ public class ClientSequencer
 
         private final ListenerMessageCodec listenerMessageCodec = new SequencerListenerMessageCodec();
         private final ClientCodec clientCodec;
+        private final long leaseTimeMillis;
 
         private volatile String channelRegistration;
 
-        private ClientSequencerContext(@Nonnull SequencerDefinition definition, @Nonnull ClientCodec clientCodec) {
-            super(definition);
+        // Attach request sent ahead of time, consumed by the next attach
+        private volatile CompletableFuture<Integer> pendingAttachment;
+        private volatile long pendingAttachmentTimestamp;
+
+        private volatile ScheduledFuture<?> leaseRenewal;
+
+        private ClientSequencerContext(@Nonnull SequencerDefinition definition, @Nonnull ClientCodec clientCodec,
+                                       @Nonnull SnowcastSequencerOptions options) {
+
+            super(definition, options);
             this.clientCodec = clientCodec;
+            this.leaseTimeMillis = options.getLeaseTimeMillis();
         }
 
         @Min(128)
@@ -148,7 +218,19 @@ public class ClientSequencer
         protected int doAttachLogicalNode(@Nonnull SequencerDefinition definition) {
             TRACER.trace("doAttachLogicalNode begin");
             try {
-                return clientCodec.attachLogicalNode(getSequencerName(), definition);
+                CompletableFuture<Integer> attachment = pendingAttachment;
+                pendingAttachment = null;
+                if (attachment == null) {
+                    attachment = sendAttachLogicalNode(definition);
+                }
+
+                int logicalNodeId = ClientCodec.await(attachment);
+                if (leaseTimeMillis > 0) {
+                    // The cluster starts the lease after the request was sent, the local lease ends before
+                    // and with multiple logical node ids the earliest lease bounds all of them
+                    updateLeaseExpiration(Math.min(getLeaseExpiration(), pendingAttachmentTimestamp + leaseTimeMillis));
+                }
+                return logicalNodeId;
             } finally {
                 TRACER.trace("doAttachLogicalNode end");
             }
@@ -158,12 +240,120 @@ public class ClientSequencer
         protected void doDetachLogicalNode(@Nonnull SequencerDefinition definition, @Min(128) @Max(8192) int logicalNodeId) {
             TRACER.trace("doDetachLogicalNode begin");
             try {
+                // Detaching single logical node ids by adaptive scaling keeps renewing the remaining ones
+                if (getSequencerState() != SnowcastSequenceState.Attached) {
+                    cancelLeaseRenewal();
+                }
                 clientCodec.detachLogicalNode(getSequencerName(), definition, logicalNodeId);
             } finally {
                 TRACER.trace("doDetachLogicalNode end");
             }
         }
 
+        @Override
+        protected void onLogicalNodesAttached(@Nonnull int[] logicalNodeIds) {
+            if (leaseTimeMillis > 0) {
+                // Adaptive scaling changes the logical node ids, the renewal is restarted for the new ones
+                cancelLeaseRenewal();
+                scheduleLeaseRenewal(logicalNodeIds);
+            }
+        }
+
+        private void prepareAttachLogicalNode() {
+            TRACER.trace("send attach request ahead for sequencer %s", getSequencerName());
+            pendingAttachment = sendAttachLogicalNode(getSequencerDefinition());
+        }
+
+        private void abortAttachLogicalNode() {
+            CompletableFuture<Integer> attachment = pendingAttachment;
+            pendingAttachment = null;
+            if (attachment == null) {
+                return;
+            }
+
+            TRACER.trace("abort attach request for sequencer %s", getSequencerName());
+            try {
+                int logicalNodeId = ClientCodec.await(attachment);
+                clientCodec.detachLogicalNode(getSequencerName(), getSequencerDefinition(), logicalNodeId);
+            } catch (SnowcastException e) {
+                // Nothing was attached or the cluster is not reachable anymore
+                TRACER.trace("abort attach request failed: %s", e.getMessage());
+            }
+        }
+
+        @Nonnull
+        private CompletableFuture<Integer> sendAttachLogicalNode(@Nonnull SequencerDefinition definition) {
+            pendingAttachmentTimestamp = currentEpochTimestamp();
+            if (leaseTimeMillis > 0) {
+                return clientCodec.attachLeasedLogicalNodeAsync(getSequencerName(), definition, leaseTimeMillis);
+            }
+            return clientCodec.attachLogicalNodeAsync(getSequencerName(), definition);
+        }
+
+        private void scheduleLeaseRenewal(@Nonnull int[] logicalNodeIds) {
+            // Renew often enough to survive a lost or slow renewal, the renewal requests are sent
+            // asynchronously and keep the shared tick scheduler thread free
+            long period = Math.max(1, leaseTimeMillis / 3);
+            leaseRenewal = MillisecondTickScheduler
+                    .scheduleAtFixedRate(() -> renewLease(logicalNodeIds), period, TimeUnit.MILLISECONDS);
+        }
+
+        private void cancelLeaseRenewal() {
+            ScheduledFuture<?> leaseRenewal = this.leaseRenewal;
+            this.leaseRenewal = null;
+            if (leaseRenewal != null) {
+                leaseRenewal.cancel(false);
+            }
+        }
+
+        private void renewLease(@Nonnull int[] logicalNodeIds) {
+            if (!isAttached(logicalNodeIds)) {
+                // Still attached means the logical node ids changed and another renewal took over
+                if (getSequencerState() != SnowcastSequenceState.Attached) {
+                    cancelLeaseRenewal();
+                }
+                return;
+            }
+
+            long timestamp = currentEpochTimestamp();
+
+            // The lease is only extended if the leases of all logical node ids were renewed
+            CompletableFuture<Boolean> renewal = renewLease(logicalNodeIds[0]);
+            for (int i = 1; i < logicalNodeIds.length; i++) {
+                renewal = renewal.thenCombine(renewLease(logicalNodeIds[i]), Boolean::logicalAnd);
+            }
+            renewal.whenComplete((renewed, throwable) -> {
+                if (!isAttached(logicalNodeIds)) {
+                    return;
+                }
+                if (throwable != null) {
+                    // Retried with the next period, until then the current lease stays valid
+                    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                    TRACER.trace("renewing lease of sequencer %s failed: %s", getSequencerName(), cause);
+                    if (cause instanceof HazelcastInstanceNotActiveException) {
+                        cancelLeaseRenewal();
+                    }
+                    return;
+                }
+
+                long leaseExpiration = getLeaseExpiration();
+                if (!renewed) {
+                    // Lease is lost, the logical node ids might be reassigned already
+                    TRACER.trace("lease of sequencer %s lost", getSequencerName());
+                    updateLeaseExpiration(0);
+                    cancelLeaseRenewal();
+
+                } else if (leaseExpiration != 0 && leaseExpiration < timestamp + leaseTimeMillis) {
+                    updateLeaseExpiration(timestamp + leaseTimeMillis);
+                }
+            });
+        }
+
+        @Nonnull
+        private CompletableFuture<Boolean> renewLease(@Min(128) @Max(8192) int logicalNodeId) {
+            return clientCodec.renewLogicalNodeLeaseAsync(getSequencerName(), logicalNodeId, leaseTimeMillis);
+        }
+
         private void unregisterClientChannel(@Nonnull ClientSequencer clientSequencer) {
             TRACER.trace("unregister from channel for sequencer %s", clientSequencer.getSequencerName());
             try {
@@ -231,6 +421,7 @@ public class ClientSequencer
             if (message instanceof ClientDestroySequencerNotification) {
                 TRACER.trace("ClientDestroySequencerNotification received");
                 clientSequencer.stateTransition(SnowcastSequenceState.Destroyed);
+                clientSequencer.sequencerService.invalidateSequencerProvision(clientSequencer);
                 sequencerContext.unregisterClientChannel(clientSequencer);
             }
         }
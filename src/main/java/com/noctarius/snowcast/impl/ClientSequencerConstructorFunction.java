@@ -19,11 +19,17 @@ package com.noctarius.snowcast.impl;
 import com.hazelcast.client.spi.ClientProxy;
 import com.hazelcast.client.spi.ProxyManager;
 import com.hazelcast.util.ConstructorFunction;
+import com.noctarius.snowcast.SnowcastException;
+import com.noctarius.snowcast.SnowcastSequencerOptions;
 
 import javax.annotation.Nonnull;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.noctarius.snowcast.impl.TracingUtils.TRACING_ENABLED;
 
 final class ClientSequencerConstructorFunction
         implements ConstructorFunction<SequencerDefinition, SequencerProvision> {
@@ -47,10 +53,81 @@ final class ClientSequencerConstructorFunction
     @Nonnull
     @Override
     public SequencerProvision createNew(@Nonnull SequencerDefinition definition) {
-        TRACER.trace("create new provision for definition %s", definition);
-        ClientSequencer sequencer = new ClientSequencer(sequencerService, definition, clientCodec);
-        initializeProxy(sequencer);
-        sequencer.attachLogicalNode();
+        return createNew(definition, SnowcastSequencerOptions.defaults());
+    }
+
+    @Nonnull
+    SequencerProvision createNew(@Nonnull SequencerDefinition definition, @Nonnull SnowcastSequencerOptions options) {
+        TRACER.trace("create new provision for definition %s, options %s", definition, options);
+        ClientSequencer sequencer = new ClientSequencer(sequencerService, definition, clientCodec, options);
+
+        // Send the attach request first to overlap its round trip with the listener registration
+        sequencer.prepareAttachLogicalNode();
+        return completeNew(sequencer);
+    }
+
+    @Nonnull
+    List<SequencerProvision> createNew(@Nonnull List<SequencerDefinition> definitions,
+                                       @Nonnull List<SnowcastSequencerOptions> options) {
+
+        if (TRACING_ENABLED && TRACER.isTracing()) {
+            TRACER.trace("create %s new provisions", definitions.size());
+        }
+        List<ClientSequencer> sequencers = new ArrayList<>(definitions.size());
+        for (int i = 0; i < definitions.size(); i++) {
+            ClientSequencer sequencer = new ClientSequencer(sequencerService, definitions.get(i), clientCodec, options.get(i));
+            // All attach requests are pipelined before the first response is awaited
+            sequencer.prepareAttachLogicalNode();
+            sequencers.add(sequencer);
+        }
+
+        List<SequencerProvision> provisions = new ArrayList<>(sequencers.size());
+        try {
+            for (ClientSequencer sequencer : sequencers) {
+                provisions.add(completeNew(sequencer));
+            }
+        } catch (RuntimeException e) {
+            // The failed sequencer cleaned up after itself, release the created ones and abort the outstanding ones
+            int created = provisions.size();
+            for (int i = 0; i < created; i++) {
+                release(sequencers.get(i));
+            }
+            for (int i = created + 1; i < sequencers.size(); i++) {
+                sequencers.get(i).abortAttachLogicalNode();
+            }
+            throw e;
+        }
+        return provisions;
+    }
+
+    void release(@Nonnull ClientSequencer sequencer) {
+        TRACER.trace("release unused sequencer %s", sequencer);
+        try {
+            sequencer.detachLogicalNode();
+        } catch (SnowcastException e) {
+            // The cluster is not reachable anymore, the logical node id is freed with the client connection
+            TRACER.trace("release sequencer failed: %s", e.getMessage());
+        } finally {
+            sequencer.releaseClientChannel();
+        }
+    }
+
+    @Nonnull
+    private SequencerProvision completeNew(@Nonnull ClientSequencer sequencer) {
+        SequencerDefinition definition = sequencer.getSequencerDefinition();
+        try {
+            initializeProxy(sequencer);
+        } catch (RuntimeException e) {
+            sequencer.abortAttachLogicalNode();
+            throw e;
+        }
+
+        try {
+            sequencer.attachLogicalNode();
+        } catch (RuntimeException e) {
+            sequencer.releaseClientChannel();
+            throw e;
+        }
         return new SequencerProvision(definition, sequencer);
     }
 
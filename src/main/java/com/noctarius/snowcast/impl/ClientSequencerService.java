@@ -18,18 +18,27 @@ package com.noctarius.snowcast.impl;
 
 import com.hazelcast.client.spi.ProxyManager;
 import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
 import com.noctarius.snowcast.SnowcastSequenceState;
 import com.noctarius.snowcast.SnowcastSequencer;
+import com.noctarius.snowcast.SnowcastSequencerOptions;
+import com.noctarius.snowcast.SnowcastSequencerSpec;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_SEQUENCER_TYPE;
 import static com.noctarius.snowcast.impl.ExceptionUtils.exception;
+import static com.noctarius.snowcast.impl.TracingUtils.TRACING_ENABLED;
 
 class ClientSequencerService
         implements SequencerService {
@@ -42,31 +51,106 @@ class ClientSequencerService
 
     private final ConcurrentMap<String, SequencerProvision> provisions;
 
-    ClientSequencerService(@Nonnull ProxyManager proxyManager, @Nonnull ClientCodec clientCodec) {
+    private final String instanceName;
+
+    ClientSequencerService(@Nonnull ProxyManager proxyManager, @Nonnull ClientCodec clientCodec,
+                           @Nonnull String instanceName) {
+
         this.sequencerConstructor = new ClientSequencerConstructorFunction(proxyManager, this, clientCodec);
         this.provisions = new ConcurrentHashMap<>();
         this.clientCodec = clientCodec;
+        this.instanceName = instanceName;
     }
 
     @Nonnull
     @Override
     public SnowcastSequencer createSequencer(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
-                                             @Min(128) @Max(8192) int maxLogicalNodeCount,
-                                             @Nonnegative @Max(Short.MAX_VALUE) short backupCount) {
-
-        TRACER.trace("register sequencer %s with epoch %s, max nodes %s, backups %s", //
-                sequencerName, epoch, maxLogicalNodeCount, backupCount);
+                                             @Min(2) @Max(8192) int maxLogicalNodeCount,
+                                             @Nonnull SnowcastSequenceLayout sequenceLayout,
+                                             @Nonnegative @Max(Short.MAX_VALUE) short backupCount,
+                                             @Nonnull SnowcastSequencerOptions options) {
+
+        if (TRACING_ENABLED && TRACER.isTracing()) {
+            TRACER.trace("register sequencer %s with epoch %s, max nodes %s, layout %s, backups %s, options %s", //
+                    sequencerName, epoch, maxLogicalNodeCount, sequenceLayout, backupCount, options);
+        }
 
-        SequencerDefinition definition = new SequencerDefinition(sequencerName, epoch, maxLogicalNodeCount, backupCount);
+        SequencerDefinition definition = new SequencerDefinition(sequencerName, epoch, maxLogicalNodeCount, sequenceLayout,
+                backupCount);
 
         try {
-            SequencerDefinition realDefinition = clientCodec.createSequencerDefinition(sequencerName, definition);
-            return getOrCreateSequencerProvision(realDefinition).getSequencer();
+            // The attach request of a new sequencer registers and validates the definition on its own
+            SequencerProvision provision = getOrCreateSequencerProvision(definition, options);
+
+            // The provision's definition was validated by the partition owner and the provision is removed as soon
+            // as the sequencer is destroyed anywhere in the cluster, an equal definition needs no round trip
+            if (!definition.equals(provision.getDefinition())) {
+                // Existing sequencer, validate the requested definition against the registered one
+                clientCodec.createSequencerDefinition(sequencerName, definition);
+            }
+            return provision.getSequencer();
         } finally {
             TRACER.trace("register sequencer %s end", sequencerName);
         }
     }
 
+    @Nonnull
+    @Override
+    public List<SnowcastSequencer> createSequencers(@Nonnull Collection<SnowcastSequencerSpec> specs,
+                                                    @Nonnegative @Max(Short.MAX_VALUE) short backupCount) {
+
+        if (TRACING_ENABLED && TRACER.isTracing()) {
+            TRACER.trace("register %s sequencers with backups %s", specs.size(), backupCount);
+        }
+
+        // Only sequencers unknown to this client are attached in bulk, everything else takes the regular path
+        Map<String, SnowcastSequencerSpec> pending = new HashMap<>();
+        List<SequencerDefinition> definitions = new ArrayList<>();
+        List<SnowcastSequencerOptions> options = new ArrayList<>();
+        for (SnowcastSequencerSpec spec : specs) {
+            String sequencerName = spec.getSequencerName();
+            if (provisions.containsKey(sequencerName) || pending.putIfAbsent(sequencerName, spec) != null) {
+                continue;
+            }
+
+            definitions.add(new SequencerDefinition(sequencerName, spec.getEpoch(), spec.getMaxLogicalNodeCount(),
+                    spec.getSequenceLayout(), backupCount));
+            options.add(spec.getOptions());
+        }
+
+        try {
+            Map<String, SequencerProvision> created = new HashMap<>();
+            for (SequencerProvision provision : sequencerConstructor.createNew(definitions, options)) {
+                String sequencerName = provision.getSequencerName();
+                if (provisions.putIfAbsent(sequencerName, provision) != null) {
+                    // Concurrently created by another thread, give back our logical node id, the existing
+                    // sequencer is validated against the requested definition by the regular path
+                    sequencerConstructor.release((ClientSequencer) provision.getSequencer());
+                    continue;
+                }
+                MetricsRegistries.registerSequencer(instanceName, provision.getSequencer().getSequencerMetrics());
+                created.put(sequencerName, provision);
+            }
+
+            List<SnowcastSequencer> sequencers = new ArrayList<>(specs.size());
+            for (SnowcastSequencerSpec spec : specs) {
+                String sequencerName = spec.getSequencerName();
+                SequencerProvision provision = created.get(sequencerName);
+                if (provision != null && pending.get(sequencerName) == spec) {
+                    sequencers.add(provision.getSequencer());
+                } else {
+                    sequencers.add(createSequencer(sequencerName, spec.getEpoch(), spec.getMaxLogicalNodeCount(),
+                            spec.getSequenceLayout(), backupCount, spec.getOptions()));
+                }
+            }
+            return sequencers;
+        } finally {
+            if (TRACING_ENABLED && TRACER.isTracing()) {
+                TRACER.trace("register %s sequencers end", specs.size());
+            }
+        }
+    }
+
     @Override
     public void destroySequencer(@Nonnull SnowcastSequencer sequencer) {
         if (!(sequencer instanceof ClientSequencer)) {
@@ -74,6 +158,7 @@ class ClientSequencerService
         }
 
         ((InternalSequencer) sequencer).stateTransition(SnowcastSequenceState.Destroyed);
+        invalidateSequencerProvision((ClientSequencer) sequencer);
 
         String sequencerName = sequencer.getSequencerName();
         TRACER.trace("destroy sequencer %s", sequencerName);
@@ -85,13 +170,28 @@ class ClientSequencerService
         }
     }
 
+    void invalidateSequencerProvision(@Nonnull ClientSequencer sequencer) {
+        String sequencerName = sequencer.getSequencerName();
+        TRACER.trace("invalidate cached sequencer instance for %s", sequencerName);
+
+        // A concurrently created provision for the same name belongs to a new sequencer and must survive
+        SequencerProvision provision = provisions.get(sequencerName);
+        if (provision != null && provision.getSequencer() == sequencer && provisions.remove(sequencerName, provision)) {
+            MetricsRegistries.unregisterSequencer(instanceName, sequencer.getSequencerMetrics());
+        }
+    }
+
     @Nonnull
-    private SequencerProvision getOrCreateSequencerProvision(@Nonnull SequencerDefinition definition) {
+    private SequencerProvision getOrCreateSequencerProvision(@Nonnull SequencerDefinition definition,
+                                                             @Nonnull SnowcastSequencerOptions options) {
+
         String sequencerName = definition.getSequencerName();
 
         SequencerProvision provision = provisions.computeIfAbsent(sequencerName, name -> {
             TRACER.trace("return and cache new sequencer instance for %s", sequencerName);
-            return sequencerConstructor.createNew(definition);
+            SequencerProvision created = sequencerConstructor.createNew(definition, options);
+            MetricsRegistries.registerSequencer(instanceName, created.getSequencer().getSequencerMetrics());
+            return created;
         });
 
         TRACER.trace("return existing sequencer instance for %s", sequencerName);
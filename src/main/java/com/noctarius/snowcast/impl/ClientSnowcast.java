@@ -22,13 +22,18 @@ import com.hazelcast.client.spi.ProxyManager;
 import com.hazelcast.core.HazelcastInstance;
 import com.noctarius.snowcast.Snowcast;
 import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
 import com.noctarius.snowcast.SnowcastSequencer;
+import com.noctarius.snowcast.SnowcastSequencerOptions;
+import com.noctarius.snowcast.SnowcastSequencerSpec;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.List;
 
 import static com.noctarius.snowcast.impl.ExceptionMessages.RETRIEVE_CLIENT_ENGINE_FAILED;
 import static com.noctarius.snowcast.impl.ExceptionMessages.UNKNOWN_HAZELCAST_VERSION;
@@ -48,7 +53,7 @@ class ClientSnowcast
         ClientInvocator clientInvocator = buildClientInvocator(client);
         ClientCodec clientCodec = new ClientCodec(client, clientInvocator);
         ProxyManager proxyManager = client.getProxyManager();
-        this.sequencerService = new ClientSequencerService(proxyManager, clientCodec);
+        this.sequencerService = new ClientSequencerService(proxyManager, clientCodec, client.getName());
         printStartupMessage(true);
     }
 
@@ -63,7 +68,41 @@ class ClientSnowcast
     public SnowcastSequencer createSequencer(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
                                              @Min(128) @Max(8192) int maxLogicalNodeCount) {
 
-        return sequencerService.createSequencer(sequencerName, epoch, maxLogicalNodeCount, backupCount);
+        return createSequencer(sequencerName, epoch, maxLogicalNodeCount, SnowcastSequencerOptions.defaults());
+    }
+
+    @Nonnull
+    @Override
+    public SnowcastSequencer createSequencer(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                                             @Min(128) @Max(8192) int maxLogicalNodeCount,
+                                             @Nonnull SnowcastSequencerOptions options) {
+
+        SnowcastSequenceLayout sequenceLayout = SnowcastSequenceLayout.of(maxLogicalNodeCount);
+        return sequencerService.createSequencer(sequencerName, epoch, maxLogicalNodeCount, sequenceLayout, backupCount, options);
+    }
+
+    @Nonnull
+    @Override
+    public SnowcastSequencer createSequencer(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                                             @Nonnull SnowcastSequenceLayout sequenceLayout) {
+
+        return createSequencer(sequencerName, epoch, sequenceLayout, SnowcastSequencerOptions.defaults());
+    }
+
+    @Nonnull
+    @Override
+    public SnowcastSequencer createSequencer(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                                             @Nonnull SnowcastSequenceLayout sequenceLayout,
+                                             @Nonnull SnowcastSequencerOptions options) {
+
+        int maxLogicalNodeCount = sequenceLayout.getMaxLogicalNodeCount();
+        return sequencerService.createSequencer(sequencerName, epoch, maxLogicalNodeCount, sequenceLayout, backupCount, options);
+    }
+
+    @Nonnull
+    @Override
+    public List<SnowcastSequencer> createSequencers(@Nonnull Collection<SnowcastSequencerSpec> specs) {
+        return sequencerService.createSequencers(specs, backupCount);
     }
 
     @Override
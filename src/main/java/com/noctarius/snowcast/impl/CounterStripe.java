@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A single combined timestamp and counter cell of a sequencer. The cell owns the counter
+ * range <tt>[firstCounter, lastCounter]</tt> of every millisecond. The value field is padded
+ * on both sides to prevent false sharing between the stripes of a striped sequencer.
+ */
+@ThreadSafe
+final class CounterStripe
+        extends CounterStripeRhsPadding {
+
+    private static final AtomicLongFieldUpdater<CounterStripeValue> TIMESTAMP_AND_COUNTER_UPDATER;
+
+    static {
+        TIMESTAMP_AND_COUNTER_UPDATER = AtomicLongFieldUpdater.newUpdater(CounterStripeValue.class, "timestampAndCounter");
+    }
+
+    private final int firstCounter;
+    private final int lastCounter;
+
+    CounterStripe(@Nonnegative int firstCounter, @Nonnegative int lastCounter, @Nonnegative int counterShift) {
+        this.firstCounter = firstCounter;
+        this.lastCounter = lastCounter;
+        this.timestampAndCounter = (long) (firstCounter - 1) << counterShift;
+    }
+
+    @Nonnegative
+    int getFirstCounter() {
+        return firstCounter;
+    }
+
+    @Nonnegative
+    int getLastCounter() {
+        return lastCounter;
+    }
+
+    long getTimestampAndCounter() {
+        return timestampAndCounter;
+    }
+
+    boolean compareAndSetTimestampAndCounter(long expected, long update) {
+        return TIMESTAMP_AND_COUNTER_UPDATER.compareAndSet(this, expected, update);
+    }
+}
+
+abstract class CounterStripeLhsPadding {
+    long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class CounterStripeValue
+        extends CounterStripeLhsPadding {
+
+    // This field is only written through the field updater
+    volatile long timestampAndCounter;
+}
+
+abstract class CounterStripeRhsPadding
+        extends CounterStripeValue {
+    long p11, p12, p13, p14, p15, p16, p17;
+}
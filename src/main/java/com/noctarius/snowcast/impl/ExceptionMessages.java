@@ -32,6 +32,18 @@ public enum ExceptionMessages {
      */
     ILLEGAL_MAX_LOGICAL_NODE_COUNT("maxLogicalNodeCount has an illegal value"),
 
+    /**
+     * Illegal sequence layout with %s timestamp, %s logical node and %s counter bits, the bits must add up to %s
+     * with %s to %s timestamp bits, %s to %s logical node bits and %s to %s counter bits
+     */
+    ILLEGAL_SEQUENCE_LAYOUT("Illegal sequence layout with %s timestamp, %s logical node and %s counter bits, "
+            + "the bits must add up to %s with %s to %s timestamp bits, %s to %s logical node bits and %s to %s counter bits"),
+
+    /**
+     * Illegal timestamp resolution with %s ticks per millisecond
+     */
+    ILLEGAL_TIMESTAMP_RESOLUTION("Illegal timestamp resolution with %s ticks per millisecond"),
+
     /**
      * Illegal detach attempt, address on slot is wrong
      */
@@ -128,6 +140,11 @@ public enum ExceptionMessages {
      */
     ILLEGAL_TIMESTAMP_GENERATED("Illegal Timestamp generated, value below 0"),
 
+    /**
+     * Illegal Timestamp generated, value %s does not fit into %s timestamp bits
+     */
+    ILLEGAL_TIMESTAMP_OVERFLOW("Illegal Timestamp generated, value %s does not fit into %s timestamp bits"),
+
     /**
      * The given Calendar's value '%s' seems to be in the future! Calendar months start at index 0
      */
@@ -156,7 +173,63 @@ public enum ExceptionMessages {
     /**
      * Found an unknown Hazelcast version
      */
-    UNKNOWN_HAZELCAST_VERSION("Found an unknown Hazelcast version");
+    UNKNOWN_HAZELCAST_VERSION("Found an unknown Hazelcast version"),
+
+    /**
+     * counterStripes must be a power of two between 1 and %s but was %s
+     */
+    ILLEGAL_COUNTER_STRIPES("counterStripes must be a power of two between 1 and %s but was %s"),
+
+    /**
+     * prefetchDepth must be 0 or a power of two up to %s but was %s
+     */
+    ILLEGAL_PREFETCH_DEPTH("prefetchDepth must be 0 or a power of two up to %s but was %s"),
+
+    /**
+     * maxStaleness must be at least one millisecond but was %s %s
+     */
+    ILLEGAL_PREFETCH_MAX_STALENESS("maxStaleness must be at least one millisecond but was %s %s"),
+
+    /**
+     * leaseTime must be 0 or at least %s milliseconds but was %s %s
+     */
+    ILLEGAL_LEASE_TIME("leaseTime must be 0 or at least %s milliseconds but was %s %s"),
+
+    /**
+     * logicalNodes must be a power of two between 1 and %s but was %s
+     */
+    ILLEGAL_LOGICAL_NODES("logicalNodes must be a power of two between 1 and %s but was %s"),
+
+    /**
+     * maxLogicalNodes must be 0 or a power of two up to %s but was %s
+     */
+    ILLEGAL_ADAPTIVE_LOGICAL_NODES("maxLogicalNodes must be 0 or a power of two up to %s but was %s"),
+
+    /**
+     * coolDown must be at least %s milliseconds but was %s %s
+     */
+    ILLEGAL_ADAPTIVE_COOL_DOWN("coolDown must be at least %s milliseconds but was %s %s"),
+
+    /**
+     * Lease of the logical node id of sequencer %s expired
+     */
+    LOGICAL_NODE_LEASE_EXPIRED("Lease of the logical node id of sequencer %s expired"),
+
+    /**
+     * %s must have a length of at least %s but was %s
+     */
+    ILLEGAL_BUFFER_LENGTH("%s must have a length of at least %s but was %s"),
+
+    /**
+     * Parameter %s must not be null
+     */
+    PARAMETER_MUST_NOT_BE_NULL("Parameter %s must not be null"),
+
+    /**
+     * Requested %s elements, the number of requested elements must be positive (Reactive Streams rule 3.9)
+     */
+    ILLEGAL_SUBSCRIPTION_REQUEST(
+            "Requested %s elements, the number of requested elements must be positive (Reactive Streams rule 3.9)");
 
     private final String template;
 
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import com.noctarius.snowcast.SnowcastTimestampResolution;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+import static com.noctarius.snowcast.impl.SnowcastConstants.CLOCK_TICKER_ENABLED;
+
+/**
+ * The clock used by snowcast to retrieve the current time in milliseconds. The clock is
+ * based on {@link System#nanoTime()} relative to the wall clock time at class initialization,
+ * to be independent of wall clock adjustments while the JVM is running.
+ * <p>With the system property <tt>snowcast.clock.ticker.enabled</tt> set to <tt>true</tt> the
+ * current time is read from the shared {@link MillisecondTicker} instead of calling
+ * {@link System#nanoTime()} on every read.</p>
+ */
+public final class InternalClock {
+
+    private static final long NANOS_PER_MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long INITIALIZATION_TIMESTAMP = System.currentTimeMillis();
+    private static final long INITIALIZATION_NANOTIME = System.nanoTime();
+
+    private InternalClock() {
+    }
+
+    /**
+     * Returns the current time in milliseconds since the standard Linux epoch.
+     *
+     * @return the current time in milliseconds
+     */
+    public static long currentTimeMillis() {
+        if (CLOCK_TICKER_ENABLED) {
+            return TickerHolder.TICKER.currentTimeMillis();
+        }
+        return preciseTimeMillis();
+    }
+
+    /**
+     * Returns the current time in milliseconds since the standard Linux epoch, always
+     * calculated from {@link System#nanoTime()}.
+     *
+     * @return the current time in milliseconds
+     */
+    public static long preciseTimeMillis() {
+        long delta = System.nanoTime() - INITIALIZATION_NANOTIME;
+        return INITIALIZATION_TIMESTAMP + delta / NANOS_PER_MILLISECOND;
+    }
+
+    /**
+     * Returns the current time in ticks of the given resolution since the standard Linux epoch.
+     * Millisecond ticks are read through {@link #currentTimeMillis()}, finer ticks are always
+     * calculated from {@link System#nanoTime()}.
+     *
+     * @param resolution the resolution of the ticks
+     * @return the current time in ticks of the given resolution
+     */
+    public static long currentTimeTicks(@Nonnull SnowcastTimestampResolution resolution) {
+        if (resolution == SnowcastTimestampResolution.Milliseconds) {
+            return currentTimeMillis();
+        }
+        long delta = System.nanoTime() - INITIALIZATION_NANOTIME;
+        return INITIALIZATION_TIMESTAMP * resolution.getTicksPerMillisecond() + delta / resolution.getNanosPerTick();
+    }
+
+    /**
+     * Returns the number of nanoseconds until {@link #currentTimeTicks(SnowcastTimestampResolution)}
+     * advances to the next tick of the given resolution.
+     *
+     * @param resolution the resolution of the ticks
+     * @return the nanoseconds until the next tick boundary, always greater than 0
+     */
+    @Nonnegative
+    public static long nanosUntilNextTick(@Nonnull SnowcastTimestampResolution resolution) {
+        long nanosPerTick = resolution.getNanosPerTick();
+        long delta = System.nanoTime() - INITIALIZATION_NANOTIME;
+        return nanosPerTick - (delta % nanosPerTick);
+    }
+
+    /**
+     * Returns the number of nanoseconds until {@link #currentTimeMillis()} advances to the
+     * next millisecond.
+     *
+     * @return the nanoseconds until the next millisecond boundary, always greater than 0
+     */
+    @Nonnegative
+    public static long nanosUntilNextMillisecond() {
+        long delta = System.nanoTime() - INITIALIZATION_NANOTIME;
+        return NANOS_PER_MILLISECOND - (delta % NANOS_PER_MILLISECOND);
+    }
+
+    /**
+     * Moves the shared ticker forward to the current time if it is lagging behind. Meant to
+     * be called by threads waiting for the next millisecond, which otherwise would have to
+     * wait for the ticker thread. Does nothing if the ticker is not enabled.
+     *
+     * @return true if the ticker was lagging behind and got moved forward, otherwise false
+     */
+    public static boolean advanceTicker() {
+        return CLOCK_TICKER_ENABLED && TickerHolder.TICKER.advance(preciseTimeMillis());
+    }
+
+    private static final class TickerHolder {
+
+        private static final MillisecondTicker TICKER = MillisecondTicker.start();
+    }
+}
@@ -19,6 +19,7 @@ package com.noctarius.snowcast.impl;
 import com.noctarius.snowcast.SnowcastSequenceState;
 import com.noctarius.snowcast.SnowcastSequencer;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -28,9 +29,15 @@ interface InternalSequencer
 
     void stateTransition(@Nonnull SnowcastSequenceState newState);
 
+    @Nonnegative
+    int tryNextBatch(@Nonnull long[] ids, @Nonnegative int offset, @Nonnegative int length);
+
     @Nonnull
     SequencerService getSequencerService();
 
     @Nonnull
     SequencerDefinition getSequencerDefinition();
+
+    @Nonnull
+    SequencerMetrics getSequencerMetrics();
 }
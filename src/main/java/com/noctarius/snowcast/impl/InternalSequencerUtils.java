@@ -21,7 +21,9 @@ import com.hazelcast.instance.BuildInfoProvider;
 import com.hazelcast.util.QuickMath;
 import com.noctarius.snowcast.SnowcastMaxLogicalNodeIdOutOfBoundsException;
 import com.noctarius.snowcast.SnowcastSequenceComparator;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
 import com.noctarius.snowcast.SnowcastSequencer;
+import com.noctarius.snowcast.SnowcastTimestampResolution;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -31,6 +33,7 @@ import java.util.Comparator;
 
 import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_MAX_LOGICAL_NODE_COUNT;
 import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_MAX_LOGICAL_NODE_ID_BOUNDARY;
+import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_TIMESTAMP_RESOLUTION;
 import static com.noctarius.snowcast.impl.ExceptionMessages.NEXT_ID_LARGER_THAN_ALLOWED_MAX_COUNTER;
 import static com.noctarius.snowcast.impl.ExceptionUtils.exception;
 import static com.noctarius.snowcast.impl.SnowcastConstants.ID_TIMESTAMP_READ_MASK;
@@ -60,7 +63,35 @@ public final class InternalSequencerUtils {
     @Nonnull
     public static Comparator<Long> snowcastSequenceComparator(@Nonnull SnowcastSequencer sequencer) {
         SequencerDefinition definition = ((InternalSequencer) sequencer).getSequencerDefinition();
-        return new SnowcastSequenceComparator(definition.getMaxLogicalNodeCount());
+        return new SnowcastSequenceComparator(definition.getSequenceLayout());
+    }
+
+    @Nonnull
+    public static SnowcastSequenceLayout sequenceLayout(@Nonnull SnowcastSequencer sequencer) {
+        SequencerDefinition definition = ((InternalSequencer) sequencer).getSequencerDefinition();
+        return definition.getSequenceLayout();
+    }
+
+    @Nonnull
+    public static SnowcastSequenceLayout sequenceLayoutOf(@Min(2) @Max(8192) int maxLogicalNodeCount,
+                                                          @Min(32) @Max(41) int timestampBits,
+                                                          @Min(10) @Max(30) int counterBits,
+                                                          @Min(1) @Max(100) int ticksPerMillisecond) {
+
+        // Serialized definitions only carry the requested maxLogicalNodeCount, it implies the logical node bits
+        int logicalNodeBits = Integer.numberOfTrailingZeros(QuickMath.nextPowerOfTwo(maxLogicalNodeCount));
+        SnowcastTimestampResolution timestampResolution = timestampResolutionOf(ticksPerMillisecond);
+        return SnowcastSequenceLayout.of(timestampBits, logicalNodeBits, counterBits, timestampResolution);
+    }
+
+    @Nonnull
+    public static SnowcastTimestampResolution timestampResolutionOf(@Min(1) @Max(100) int ticksPerMillisecond) {
+        for (SnowcastTimestampResolution timestampResolution : SnowcastTimestampResolution.values()) {
+            if (timestampResolution.getTicksPerMillisecond() == ticksPerMillisecond) {
+                return timestampResolution;
+            }
+        }
+        throw exception(IllegalArgumentException::new, ILLEGAL_TIMESTAMP_RESOLUTION, ticksPerMillisecond);
     }
 
     @Nonnegative
@@ -78,7 +109,8 @@ public final class InternalSequencerUtils {
 
     @Nonnegative
     public static int calculateMaxMillisCounter(@Nonnegative int shiftLogicalNodeId) {
-        return (int) Math.pow(2, shiftLogicalNodeId);
+        // Highest counter value that still fits into the counter bits
+        return (1 << shiftLogicalNodeId) - 1;
     }
 
     @Nonnegative
@@ -130,6 +162,21 @@ public final class InternalSequencerUtils {
         return id;
     }
 
+    public static long generateSequenceId(@Nonnegative long timestamp, @Nonnegative int logicalNodeID,
+                                          @Nonnegative int nextId, @Nonnull SnowcastSequenceLayout sequenceLayout) {
+
+        int counterBits = sequenceLayout.getCounterBits();
+        int maxCounter = calculateMaxMillisCounter(counterBits);
+        if (maxCounter < nextId) {
+            throw exception(NEXT_ID_LARGER_THAN_ALLOWED_MAX_COUNTER);
+        }
+
+        long id = timestamp << (sequenceLayout.getLogicalNodeBits() + counterBits);
+        id |= (long) logicalNodeID << counterBits;
+        id |= nextId;
+        return id;
+    }
+
     @Nonnegative
     public static long timestampValue(long sequenceId) {
         return (sequenceId & ID_TIMESTAMP_READ_MASK) >>> SHIFT_TIMESTAMP;
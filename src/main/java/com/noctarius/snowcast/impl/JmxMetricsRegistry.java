@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import com.noctarius.snowcast.SnowcastMemberMetrics;
+import com.noctarius.snowcast.SnowcastMetricsRegistry;
+import com.noctarius.snowcast.SnowcastSequencerMetrics;
+
+import javax.annotation.Nonnull;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+final class JmxMetricsRegistry
+        implements SnowcastMetricsRegistry {
+
+    private static final Tracer TRACER = TracingUtils.tracer(JmxMetricsRegistry.class);
+
+    private static final String DOMAIN = "com.noctarius.snowcast";
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    // Guarded by this, a recreated sequencer must not lose its MBean to the late unregistration of its predecessor
+    private final Map<ObjectName, Object> registrations = new HashMap<>();
+
+    @Override
+    public void registerSequencer(@Nonnull String instanceName, @Nonnull SnowcastSequencerMetrics metrics) {
+        register(sequencerObjectName(instanceName, metrics.getSequencerName()), metrics);
+    }
+
+    @Override
+    public void unregisterSequencer(@Nonnull String instanceName, @Nonnull SnowcastSequencerMetrics metrics) {
+        unregister(sequencerObjectName(instanceName, metrics.getSequencerName()), metrics);
+    }
+
+    @Override
+    public void registerMember(@Nonnull String instanceName, @Nonnull SnowcastMemberMetrics metrics) {
+        register(memberObjectName(instanceName), metrics);
+    }
+
+    @Override
+    public void unregisterMember(@Nonnull String instanceName, @Nonnull SnowcastMemberMetrics metrics) {
+        unregister(memberObjectName(instanceName), metrics);
+    }
+
+    private synchronized void register(@Nonnull ObjectName objectName, @Nonnull Object metrics) {
+        try {
+            if (registrations.put(objectName, metrics) != null) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(metrics, objectName);
+            TRACER.trace("registered MBean %s", objectName);
+        } catch (JMException e) {
+            TRACER.trace("registering MBean %s failed", e, objectName);
+        }
+    }
+
+    private synchronized void unregister(@Nonnull ObjectName objectName, @Nonnull Object metrics) {
+        if (!registrations.remove(objectName, metrics)) {
+            return;
+        }
+        try {
+            mBeanServer.unregisterMBean(objectName);
+            TRACER.trace("unregistered MBean %s", objectName);
+        } catch (JMException e) {
+            TRACER.trace("unregistering MBean %s failed", e, objectName);
+        }
+    }
+
+    @Nonnull
+    private static ObjectName sequencerObjectName(@Nonnull String instanceName, @Nonnull String sequencerName) {
+        return objectName("type=Sequencer,instance=" + ObjectName.quote(instanceName) //
+                + ",name=" + ObjectName.quote(sequencerName));
+    }
+
+    @Nonnull
+    private static ObjectName memberObjectName(@Nonnull String instanceName) {
+        return objectName("type=Member,instance=" + ObjectName.quote(instanceName));
+    }
+
+    @Nonnull
+    private static ObjectName objectName(@Nonnull String properties) {
+        return ExceptionUtils.execute(() -> new ObjectName(DOMAIN + ":" + properties));
+    }
+}
@@ -20,9 +20,11 @@ import com.hazelcast.nio.Address;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.UnsafeHelper;
+import com.noctarius.snowcast.SnowcastEpoch;
 import com.noctarius.snowcast.SnowcastException;
 import com.noctarius.snowcast.SnowcastIllegalStateException;
 import com.noctarius.snowcast.SnowcastNodeIdsExceededException;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
 import sun.misc.Unsafe;
 
 import javax.annotation.Nonnegative;
@@ -31,12 +33,19 @@ import javax.annotation.Nullable;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.noctarius.snowcast.impl.ExceptionMessages.BACKUP_OUT_OF_SYNC;
 import static com.noctarius.snowcast.impl.ExceptionMessages.DATA_NOT_POWER_OF_TWO;
 import static com.noctarius.snowcast.impl.ExceptionMessages.ERROR_MERGING_LOGICAL_NODE_TABLE;
 import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_DETACH_ATTEMPT;
 import static com.noctarius.snowcast.impl.ExceptionUtils.exception;
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.sequenceLayoutOf;
+import static com.noctarius.snowcast.impl.VarIntUtils.readVarInt;
+import static com.noctarius.snowcast.impl.VarIntUtils.readVarLong;
+import static com.noctarius.snowcast.impl.VarIntUtils.writeVarInt;
+import static com.noctarius.snowcast.impl.VarIntUtils.writeVarLong;
 
 class LogicalNodeTable {
 
@@ -46,6 +55,22 @@ class LogicalNodeTable {
     private static final int ARRAY_INDEX_SCALE;
     private static final int ARRAY_INDEX_SHIFT;
 
+    private static final int LONG_ARRAY_BASE_OFFSET;
+    private static final int LONG_ARRAY_INDEX_SHIFT;
+
+    private static final int BITMAP_WORD_SHIFT = 6;
+    private static final int BITMAP_WORD_MASK = (1 << BITMAP_WORD_SHIFT) - 1;
+    private static final long FULL_BITMAP_WORD = -1L;
+
+    // Lease expiration of slots that are assigned until detached
+    private static final long NO_LEASE = 0;
+
+    // Base version of snapshots that contain all assigned slots instead of the slots changed since a known version
+    private static final long FULL_SNAPSHOT = -1;
+
+    // Address index written for slots that were freed, dictionary indexes are shifted by one
+    private static final int FREE_SLOT = 0;
+
     static {
         try {
             ARRAY_BASE_OFFSET = UNSAFE.arrayBaseOffset(Object[].class);
@@ -55,6 +80,9 @@ class LogicalNodeTable {
                 throw exception(DATA_NOT_POWER_OF_TWO);
             }
             ARRAY_INDEX_SHIFT = 31 - Integer.numberOfLeadingZeros(ARRAY_INDEX_SCALE);
+
+            LONG_ARRAY_BASE_OFFSET = UNSAFE.arrayBaseOffset(long[].class);
+            LONG_ARRAY_INDEX_SHIFT = 31 - Integer.numberOfLeadingZeros(UNSAFE.arrayIndexScale(long[].class));
         } catch (Exception e) {
             throw new SnowcastException(e);
         }
@@ -65,16 +93,53 @@ class LogicalNodeTable {
 
     private volatile Object[] assignmentTable;
 
+    // Lease expiration (cluster time) per slot, NO_LEASE for slots assigned until detached
+    private final long[] leaseTable;
+
+    // One bit per slot, set for every assigned slot (leased or not), to find free slots without scanning the table
+    private final long[] slotBitmap;
+
+    // Partition wide version counter, every mutation stamps the changed slot with a new version. Mutations
+    // are executed by the partition thread only, versions therefore grow monotonically per table
+    private final AtomicLong partitionVersion;
+
+    // Version of the last mutation per slot, freed slots keep their version to be replicated as deletion
+    private final long[] slotVersions;
+
+    // Highest slot version per bitmap word, deltas skip all words without changes
+    private final long[] wordVersions;
+
+    // Identifies the table across the replicas, a recreated sequencer gets a new table with a new version
+    private volatile long createdVersion;
+    private volatile long previousVersion;
+    private volatile long version;
+
     LogicalNodeTable(@Nonnegative int partitionId, @Nonnull SequencerDefinition definition) {
-        this(partitionId, definition, new Object[definition.getBoundedMaxLogicalNodeCount()]);
+        this(partitionId, definition, new AtomicLong());
+    }
+
+    LogicalNodeTable(@Nonnegative int partitionId, @Nonnull SequencerDefinition definition,
+                     @Nonnull AtomicLong partitionVersion) {
+
+        this(partitionId, definition, partitionVersion, partitionVersion.incrementAndGet());
     }
 
-    private LogicalNodeTable(@Nonnegative int partitionId, @Nonnull SequencerDefinition definition,
-                             @Nonnull Object[] assignmentTable) {
+    LogicalNodeTable(@Nonnegative int partitionId, @Nonnull SequencerDefinition definition,
+                     @Nonnull AtomicLong partitionVersion, @Nonnegative long createdVersion) {
 
+        int length = definition.getBoundedMaxLogicalNodeCount();
         this.partitionId = partitionId;
         this.definition = definition;
-        this.assignmentTable = assignmentTable;
+        this.assignmentTable = new Object[length];
+        this.leaseTable = new long[length];
+        this.slotBitmap = new long[bitmapWordCount(length)];
+        this.partitionVersion = partitionVersion;
+        this.slotVersions = new long[length];
+        this.wordVersions = new long[slotBitmap.length];
+        this.createdVersion = createdVersion;
+        this.previousVersion = createdVersion;
+        this.version = createdVersion;
+        observeVersion(createdVersion);
     }
 
     @Nonnull
@@ -93,20 +158,87 @@ class LogicalNodeTable {
         return (Address) UNSAFE.getObjectVolatile(assignmentTable, offset);
     }
 
+    long getLeaseExpiration(@Min(128) @Max(8192) int logicalNodeId) {
+        return UNSAFE.getLongVolatile(leaseTable, leaseOffset(logicalNodeId));
+    }
+
+    @Nonnegative
+    long getCreatedVersion() {
+        return createdVersion;
+    }
+
+    @Nonnull
+    LogicalNodeTableVersion getTableVersion() {
+        return new LogicalNodeTableVersion(createdVersion, previousVersion, version);
+    }
+
+    long getSlotVersion(@Min(128) @Max(8192) int logicalNodeId) {
+        return UNSAFE.getLongVolatile(slotVersions, longOffset(logicalNodeId));
+    }
+
     @Min(128)
     @Max(8192)
     int attachLogicalNode(@Nonnull Address address) {
+        return attachLogicalNode(address, NO_LEASE, NO_LEASE);
+    }
+
+    @Min(128)
+    @Max(8192)
+    int attachLogicalNode(@Nonnull Address address, long now, long leaseExpiration) {
         while (true) {
             Object[] assignmentTable = this.assignmentTable;
-            int freeSlot = findFreeSlot(assignmentTable);
-            if (freeSlot == -1) {
+            int freeSlot = claimFreeSlot(assignmentTable.length);
+            if (freeSlot != -1) {
+                // The slot is owned by claiming its bit, nobody else writes it until it is detached again
+                UNSAFE.putLongVolatile(leaseTable, leaseOffset(freeSlot), leaseExpiration);
+                UNSAFE.putObjectVolatile(assignmentTable, offset(freeSlot), address);
+                stampSlot(freeSlot);
+                return freeSlot;
+            }
+
+            // No unassigned slot left, fall back to slots with an expired lease
+            int expiredSlot = findExpiredSlot(assignmentTable, now);
+            if (expiredSlot == -1) {
                 throw new SnowcastNodeIdsExceededException();
             }
-            long offset = offset(freeSlot);
-            if (UNSAFE.compareAndSwapObject(assignmentTable, offset, null, address)) {
-                return freeSlot;
+            long offset = offset(expiredSlot);
+            Object expected = assignmentTable[expiredSlot];
+            if (expected == null || !isLeaseExpired(expiredSlot, now)) {
+                continue;
             }
+            if (UNSAFE.compareAndSwapObject(assignmentTable, offset, expected, address)) {
+                UNSAFE.putLongVolatile(leaseTable, leaseOffset(expiredSlot), leaseExpiration);
+                stampSlot(expiredSlot);
+                return expiredSlot;
+            }
+        }
+    }
+
+    boolean renewLease(@Nonnull Address address, @Min(128) @Max(8192) int logicalNodeId, long leaseExpiration) {
+        // An expired lease is renewed as long as the slot wasn't reassigned in the meantime
+        Address addressOnSlot = (Address) UNSAFE.getObjectVolatile(assignmentTable, offset(logicalNodeId));
+        if (!address.equals(addressOnSlot)) {
+            return false;
+        }
+        if (getLeaseExpiration(logicalNodeId) == NO_LEASE) {
+            return false;
         }
+        UNSAFE.putLongVolatile(leaseTable, leaseOffset(logicalNodeId), leaseExpiration);
+        stampSlot(logicalNodeId);
+        return true;
+    }
+
+    void renewLease(@Nonnull Address address, @Min(128) @Max(8192) int logicalNodeId, long leaseExpiration,
+                    @Nonnull LogicalNodeTableVersion tableVersion) {
+
+        if (isNewerSlotVersion(logicalNodeId, tableVersion)) {
+            Address addressOnSlot = (Address) UNSAFE.getObjectVolatile(assignmentTable, offset(logicalNodeId));
+            if (address.equals(addressOnSlot)) {
+                UNSAFE.putLongVolatile(leaseTable, leaseOffset(logicalNodeId), leaseExpiration);
+            }
+            stampSlot(logicalNodeId, tableVersion);
+        }
+        advanceVersion(tableVersion);
     }
 
     void detachLogicalNode(@Nonnull Address address, @Min(128) @Max(8192) int logicalNodeId) {
@@ -123,96 +255,528 @@ class LogicalNodeTable {
 
             long offset = offset(logicalNodeId);
             if (UNSAFE.compareAndSwapObject(assignmentTable, offset, addressOnSlot, null)) {
+                UNSAFE.putLongVolatile(leaseTable, leaseOffset(logicalNodeId), NO_LEASE);
+                releaseSlot(logicalNodeId);
+                stampSlot(logicalNodeId);
                 break;
             }
         }
     }
 
+    void detachLogicalNode(@Nonnull Address address, @Min(128) @Max(8192) int logicalNodeId,
+                           @Nonnull LogicalNodeTableVersion tableVersion) {
+
+        if (isNewerSlotVersion(logicalNodeId, tableVersion)) {
+            // The owner freed the slot, whatever this replica still has stored is outdated
+            clearSlot(logicalNodeId);
+            stampSlot(logicalNodeId, tableVersion);
+        }
+        advanceVersion(tableVersion);
+    }
+
     void assignLogicalNode(@Min(128) @Max(8192) int logicalNodeId, @Nonnull Address address) {
+        assignLogicalNode(logicalNodeId, address, NO_LEASE);
+    }
+
+    void assignLogicalNode(@Min(128) @Max(8192) int logicalNodeId, @Nonnull Address address, long leaseExpiration) {
         while (true) {
             Object[] assignmentTable = this.assignmentTable;
-            if (assignmentTable[logicalNodeId] != null) {
+            Object expected = assignmentTable[logicalNodeId];
+            // A leased slot is only reassigned by the owner partition after its lease expired
+            if (expected != null && getLeaseExpiration(logicalNodeId) == NO_LEASE) {
                 throw exception(SnowcastIllegalStateException::new, BACKUP_OUT_OF_SYNC, partitionId);
             }
 
             long offset = offset(logicalNodeId);
-            if (UNSAFE.compareAndSwapObject(assignmentTable, offset, null, address)) {
+            if (UNSAFE.compareAndSwapObject(assignmentTable, offset, expected, address)) {
+                UNSAFE.putLongVolatile(leaseTable, leaseOffset(logicalNodeId), leaseExpiration);
+                if (expected == null) {
+                    markSlot(logicalNodeId);
+                }
+                stampSlot(logicalNodeId);
                 break;
             }
         }
     }
 
-    void merge(@Nonnull LogicalNodeTable mergeable) {
-        Object[] mergeableAssignmentTable = mergeable.assignmentTable;
+    void assignLogicalNode(@Min(128) @Max(8192) int logicalNodeId, @Nonnull Address address, long leaseExpiration,
+                           @Nonnull LogicalNodeTableVersion tableVersion) {
+
+        if (isNewerSlotVersion(logicalNodeId, tableVersion)) {
+            // The version orders the mutation after whatever this replica stored, no need to check the slot
+            setSlot(logicalNodeId, address, leaseExpiration);
+            stampSlot(logicalNodeId, tableVersion);
+        }
+        advanceVersion(tableVersion);
+    }
+
+    /**
+     * Replaces all slots with the given full snapshot of the partition owner. Leased slots may
+     * legitimately differ since they are reassigned after the lease expired, only conflicting
+     * slots without a lease on both sides fail the merge.
+     *
+     * @param snapshot the full snapshot to replace the slots with
+     */
+    void merge(@Nonnull SlotSnapshot snapshot) {
         Object[] assignmentTable = this.assignmentTable;
 
-        for (int index = 0; index < assignmentTable.length; index++) {
-            Address mergeableAddress = (Address) mergeableAssignmentTable[index];
-            Address currentAddress = (Address) assignmentTable[index];
-            if (currentAddress != null) {
-                if (mergeableAddress != null && !currentAddress.equals(mergeableAddress)) {
-                    throw exception(SnowcastIllegalStateException::new, ERROR_MERGING_LOGICAL_NODE_TABLE, partitionId);
+        // Check all replicated slots first to not leave a half merged table behind
+        forEachSnapshotSlot(snapshot, (index, slot) -> {
+            Address currentAddress = (Address) assignmentTable[slot];
+            Address mergeableAddress = snapshot.addresses[index];
+            if (currentAddress == null || mergeableAddress == null || currentAddress.equals(mergeableAddress)) {
+                return;
+            }
+            if (getLeaseExpiration(slot) == NO_LEASE && snapshot.leases[index] == NO_LEASE) {
+                throw exception(SnowcastIllegalStateException::new, ERROR_MERGING_LOGICAL_NODE_TABLE, partitionId);
+            }
+        });
+
+        for (int slot = 0; slot < assignmentTable.length; slot++) {
+            clearSlot(slot);
+        }
+
+        // Slots of a full snapshot carry no version of their own, all of them reflect the snapshot version
+        long snapshotVersion = snapshot.version;
+        forEachSnapshotSlot(snapshot, (index, slot) -> setSlot(slot, snapshot.addresses[index], snapshot.leases[index]));
+        for (int slot = 0; slot < assignmentTable.length; slot++) {
+            putSlotVersion(slot, snapshotVersion);
+        }
+
+        createdVersion = snapshot.createdVersion;
+        previousVersion = snapshotVersion;
+        version = snapshotVersion;
+        observeVersion(snapshotVersion);
+    }
+
+    void applyDelta(@Nonnull SlotSnapshot delta) {
+        forEachSnapshotSlot(delta, (index, slot) -> {
+            long slotVersion = delta.slotVersions[index];
+            if (slotVersion <= getSlotVersion(slot)) {
+                // Already received through a backup operation
+                return;
+            }
+
+            Address address = delta.addresses[index];
+            if (address == null) {
+                clearSlot(slot);
+            } else {
+                setSlot(slot, address, delta.leases[index]);
+            }
+            putSlotVersion(slot, slotVersion);
+        });
+
+        // The delta contains every change up to its version, as do the local slots up to the local version
+        if (delta.version > version) {
+            previousVersion = version;
+            version = delta.version;
+        }
+        observeVersion(delta.version);
+    }
+
+    private boolean isNewerSlotVersion(@Nonnegative int slot, @Nonnull LogicalNodeTableVersion tableVersion) {
+        return tableVersion.getVersion() > getSlotVersion(slot);
+    }
+
+    private void stampSlot(@Nonnegative int slot) {
+        long newVersion = partitionVersion.incrementAndGet();
+        putSlotVersion(slot, newVersion);
+        previousVersion = version;
+        version = newVersion;
+    }
+
+    private void stampSlot(@Nonnegative int slot, @Nonnull LogicalNodeTableVersion tableVersion) {
+        putSlotVersion(slot, tableVersion.getVersion());
+        observeVersion(tableVersion.getVersion());
+    }
+
+    private void putSlotVersion(@Nonnegative int slot, long slotVersion) {
+        UNSAFE.putLongVolatile(slotVersions, longOffset(slot), slotVersion);
+
+        long offset = longOffset(slot >>> BITMAP_WORD_SHIFT);
+        while (true) {
+            long wordVersion = UNSAFE.getLongVolatile(wordVersions, offset);
+            if (wordVersion >= slotVersion || UNSAFE.compareAndSwapLong(wordVersions, offset, wordVersion, slotVersion)) {
+                return;
+            }
+        }
+    }
+
+    private void advanceVersion(@Nonnull LogicalNodeTableVersion tableVersion) {
+        // The table version only moves on without gaps, a missed mutation leaves it behind until the
+        // next replica synchronization sends the slots changed since then
+        if (version == tableVersion.getPreviousVersion()) {
+            previousVersion = version;
+            version = tableVersion.getVersion();
+        }
+    }
+
+    private void observeVersion(@Nonnegative long observedVersion) {
+        while (true) {
+            long current = partitionVersion.get();
+            if (current >= observedVersion || partitionVersion.compareAndSet(current, observedVersion)) {
+                return;
+            }
+        }
+    }
+
+    private void setSlot(@Nonnegative int slot, @Nonnull Address address, long leaseExpiration) {
+        UNSAFE.putLongVolatile(leaseTable, leaseOffset(slot), leaseExpiration);
+        UNSAFE.putObjectVolatile(assignmentTable, offset(slot), address);
+        markSlot(slot);
+    }
+
+    private void clearSlot(@Nonnegative int slot) {
+        UNSAFE.putObjectVolatile(assignmentTable, offset(slot), null);
+        UNSAFE.putLongVolatile(leaseTable, leaseOffset(slot), NO_LEASE);
+        releaseSlot(slot);
+    }
+
+    private int claimFreeSlot(@Nonnegative int length) {
+        long[] slotBitmap = this.slotBitmap;
+        for (int word = 0; word < slotBitmap.length; word++) {
+            long offset = longOffset(word);
+            while (true) {
+                long bits = UNSAFE.getLongVolatile(slotBitmap, offset);
+                if (bits == FULL_BITMAP_WORD) {
+                    break;
+                }
+
+                int bit = Long.numberOfTrailingZeros(~bits);
+                int slot = (word << BITMAP_WORD_SHIFT) + bit;
+                if (slot >= length) {
+                    // Only the unused tail of the last word is left
+                    return -1;
                 }
+                if (UNSAFE.compareAndSwapLong(slotBitmap, offset, bits, bits | (1L << bit))) {
+                    return slot;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void markSlot(@Nonnegative int slot) {
+        long offset = longOffset(slot >>> BITMAP_WORD_SHIFT);
+        long mask = 1L << (slot & BITMAP_WORD_MASK);
+        while (true) {
+            long bits = UNSAFE.getLongVolatile(slotBitmap, offset);
+            if ((bits & mask) != 0 || UNSAFE.compareAndSwapLong(slotBitmap, offset, bits, bits | mask)) {
+                return;
             }
+        }
+    }
 
-            long offset = offset(index);
-            UNSAFE.putObjectVolatile(assignmentTable, offset, mergeableAddress);
+    private void releaseSlot(@Nonnegative int slot) {
+        long offset = longOffset(slot >>> BITMAP_WORD_SHIFT);
+        long mask = 1L << (slot & BITMAP_WORD_MASK);
+        while (true) {
+            long bits = UNSAFE.getLongVolatile(slotBitmap, offset);
+            if ((bits & mask) == 0 || UNSAFE.compareAndSwapLong(slotBitmap, offset, bits, bits & ~mask)) {
+                return;
+            }
         }
     }
 
-    private int findFreeSlot(@Nonnull Object[] assignmentTable) {
+    private int findExpiredSlot(@Nonnull Object[] assignmentTable, long now) {
+        // Leases are only set on a few slots, the scan is limited to a completely filled table
         for (int i = 0; i < assignmentTable.length; i++) {
-            if (assignmentTable[i] == null) {
+            if (assignmentTable[i] != null && isLeaseExpired(i, now)) {
                 return i;
             }
         }
         return -1;
     }
 
+    private boolean isLeaseExpired(@Nonnegative int index, long now) {
+        long leaseExpiration = getLeaseExpiration(index);
+        return leaseExpiration != NO_LEASE && leaseExpiration <= now;
+    }
+
     @Nonnegative
     private long offset(@Nonnegative int index) {
         return ((long) index << ARRAY_INDEX_SHIFT) + ARRAY_BASE_OFFSET;
     }
 
-    static void writeLogicalNodeTable(@Nonnull LogicalNodeTable logicalNodeTable, @Nonnull ObjectDataOutput out)
-            throws IOException {
+    @Nonnegative
+    private long leaseOffset(@Nonnegative int index) {
+        return longOffset(index);
+    }
 
-        out.writeObject(logicalNodeTable.definition);
+    @Nonnegative
+    private long longOffset(@Nonnegative int index) {
+        return ((long) index << LONG_ARRAY_INDEX_SHIFT) + LONG_ARRAY_BASE_OFFSET;
+    }
 
-        Object[] assignmentTable = logicalNodeTable.assignmentTable;
-        int length = assignmentTable.length;
+    @Nonnegative
+    private static int bitmapWordCount(@Nonnegative int length) {
+        return (length + BITMAP_WORD_MASK) >>> BITMAP_WORD_SHIFT;
+    }
+
+    @Nonnull
+    SlotSnapshot snapshot() {
+        long[] words = new long[slotBitmap.length];
+        int capacity = 0;
+        for (int word = 0; word < words.length; word++) {
+            words[word] = UNSAFE.getLongVolatile(slotBitmap, longOffset(word));
+            capacity += Long.bitCount(words[word]);
+        }
+
+        // Slots are read once, the snapshot stays consistent while it is written
+        Object[] assignmentTable = this.assignmentTable;
+        Address[] addresses = new Address[capacity];
+        long[] leases = new long[capacity];
 
         int size = 0;
-        for (int i = 0; i < length; i++) {
-            if (assignmentTable[i] != null) {
+        for (int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while (bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+
+                int slot = (word << BITMAP_WORD_SHIFT) + bit;
+                Address address = (Address) UNSAFE.getObjectVolatile(assignmentTable, offset(slot));
+                if (address == null) {
+                    // Claimed but not yet written or detached in the meantime
+                    words[word] &= ~(1L << bit);
+                    continue;
+                }
+                addresses[size] = address;
+                leases[size] = getLeaseExpiration(slot);
                 size++;
             }
         }
+        return new SlotSnapshot(definition, createdVersion, version, FULL_SNAPSHOT, words, addresses, leases, null, size);
+    }
+
+    @Nonnull
+    SlotSnapshot snapshot(@Nonnull LogicalNodeTableVersion knownVersion) {
+        long createdVersion = this.createdVersion;
+        long version = this.version;
+
+        // Another table (or none at all) on the replica, or a replica ahead of this table, needs all slots
+        long baseVersion = knownVersion.getVersion();
+        if (knownVersion.getCreatedVersion() != createdVersion || baseVersion < createdVersion || baseVersion > version) {
+            return snapshot();
+        }
+
+        Object[] assignmentTable = this.assignmentTable;
+        long[] words = new long[slotBitmap.length];
+        int size = 0;
+        int used = 0;
+        for (int word = 0; word < words.length; word++) {
+            used += Long.bitCount(UNSAFE.getLongVolatile(slotBitmap, longOffset(word)));
+            if (UNSAFE.getLongVolatile(wordVersions, longOffset(word)) <= baseVersion) {
+                continue;
+            }
+
+            int firstSlot = word << BITMAP_WORD_SHIFT;
+            int lastSlot = Math.min(firstSlot + BITMAP_WORD_MASK, assignmentTable.length - 1);
+            for (int slot = firstSlot; slot <= lastSlot; slot++) {
+                if (getSlotVersion(slot) > baseVersion) {
+                    words[word] |= 1L << (slot & BITMAP_WORD_MASK);
+                    size++;
+                }
+            }
+        }
+
+        // Lots of churn since the known version, a full snapshot is smaller than the changes
+        if (size > used) {
+            return snapshot();
+        }
+
+        Address[] addresses = new Address[size];
+        long[] leases = new long[size];
+        long[] slotVersions = new long[size];
+
+        int index = 0;
+        for (int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while (bits != 0) {
+                int slot = (word << BITMAP_WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+
+                // Freed slots are part of the delta too, they have no address
+                slotVersions[index] = Math.min(getSlotVersion(slot), version);
+                addresses[index] = (Address) UNSAFE.getObjectVolatile(assignmentTable, offset(slot));
+                leases[index] = getLeaseExpiration(slot);
+                index++;
+            }
+        }
+        return new SlotSnapshot(definition, createdVersion, version, baseVersion, words, addresses, leases, slotVersions,
+                size);
+    }
+
+    static void writeSlotSnapshot(@Nonnull SlotSnapshot snapshot, @Nonnull Map<Address, Integer> addressDictionary,
+                                  @Nonnull ObjectDataOutput out)
+            throws IOException {
+
+        SequencerDefinition definition = snapshot.definition;
+        out.writeUTF(definition.getSequencerName());
+        out.writeLong(definition.getEpoch().getEpochOffset());
+        writeVarInt(out, definition.getMaxLogicalNodeCount());
+        out.writeByte(definition.getSequenceLayout().getTimestampBits());
+        out.writeByte(definition.getSequenceLayout().getCounterBits());
+        out.writeByte(definition.getSequenceLayout().getTimestampResolution().getTicksPerMillisecond());
+        writeVarInt(out, definition.getBackupCount());
+
+        writeVarLong(out, snapshot.createdVersion);
+        writeVarLong(out, snapshot.version);
+        writeVarLong(out, snapshot.baseVersion - FULL_SNAPSHOT);
+
+        // Only non-empty bitmap words are written, slot indexes are implied by the bits
+        long[] words = snapshot.words;
+        int usedWords = 0;
+        for (long word : words) {
+            if (word != 0) {
+                usedWords++;
+            }
+        }
 
-        out.writeShort(size);
-        for (int i = 0; i < length; i++) {
-            Address address = (Address) assignmentTable[i];
-            if (address != null) {
-                out.writeShort(i);
-                address.writeData(out);
+        writeVarInt(out, usedWords);
+        for (int word = 0; word < words.length; word++) {
+            if (words[word] != 0) {
+                writeVarInt(out, word);
+                out.writeLong(words[word]);
+            }
+        }
+
+        // Addresses are shared by many slots and tables, only their dictionary index is written
+        boolean delta = snapshot.isDelta();
+        for (int i = 0; i < snapshot.size; i++) {
+            Address address = snapshot.addresses[i];
+            if (delta) {
+                // Slot versions are written relative to the table version, recent changes need a byte or two
+                writeVarInt(out, address == null ? FREE_SLOT : addressDictionary.get(address) + 1);
+                writeVarLong(out, snapshot.leases[i]);
+                writeVarLong(out, snapshot.version - snapshot.slotVersions[i]);
+            } else {
+                writeVarInt(out, addressDictionary.get(address));
+                writeVarLong(out, snapshot.leases[i]);
             }
         }
     }
 
     @Nonnull
-    static LogicalNodeTable readLogicalNodeTable(@Nonnegative int partitionId, @Nonnull ObjectDataInput in)
+    static SlotSnapshot readSlotSnapshot(@Nonnull Address[] addressDictionary, @Nonnull ObjectDataInput in)
             throws IOException {
 
-        SequencerDefinition definition = in.readObject();
-        short size = in.readShort();
+        String sequencerName = in.readUTF();
+        SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(in.readLong());
+        int maxLogicalNodeCount = readVarInt(in);
+        int timestampBits = in.readByte();
+        int counterBits = in.readByte();
+        int ticksPerMillisecond = in.readByte();
+        short backupCount = (short) readVarInt(in);
+        SnowcastSequenceLayout sequenceLayout = sequenceLayoutOf(maxLogicalNodeCount, timestampBits, counterBits,
+                ticksPerMillisecond);
+        SequencerDefinition definition = new SequencerDefinition(sequencerName, epoch, maxLogicalNodeCount, sequenceLayout,
+                backupCount);
+
+        long createdVersion = readVarLong(in);
+        long version = readVarLong(in);
+        long baseVersion = readVarLong(in) + FULL_SNAPSHOT;
+        boolean delta = baseVersion != FULL_SNAPSHOT;
+
+        int length = definition.getBoundedMaxLogicalNodeCount();
+        long[] words = new long[bitmapWordCount(length)];
 
-        Object[] assignmentTable = new Object[definition.getBoundedMaxLogicalNodeCount()];
+        int size = 0;
+        int usedWords = readVarInt(in);
+        for (int i = 0; i < usedWords; i++) {
+            int word = readVarInt(in);
+            words[word] = in.readLong();
+            size += Long.bitCount(words[word]);
+        }
+
+        Address[] addresses = new Address[size];
+        long[] leases = new long[size];
+        long[] slotVersions = delta ? new long[size] : null;
         for (int i = 0; i < size; i++) {
-            short index = in.readShort();
-            Address address = new Address();
-            address.readData(in);
-            assignmentTable[index] = address;
+            if (delta) {
+                int addressIndex = readVarInt(in);
+                addresses[i] = addressIndex == FREE_SLOT ? null : addressDictionary[addressIndex - 1];
+                leases[i] = readVarLong(in);
+                slotVersions[i] = version - readVarLong(in);
+            } else {
+                addresses[i] = addressDictionary[readVarInt(in)];
+                leases[i] = readVarLong(in);
+            }
+        }
+        return new SlotSnapshot(definition, createdVersion, version, baseVersion, words, addresses, leases, slotVersions,
+                size);
+    }
+
+    private static void forEachSnapshotSlot(@Nonnull SlotSnapshot snapshot, @Nonnull SlotConsumer consumer) {
+        long[] words = snapshot.words;
+        int index = 0;
+        for (int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while (bits != 0) {
+                int slot = (word << BITMAP_WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                consumer.accept(index++, slot);
+            }
+        }
+    }
+
+    private interface SlotConsumer {
+        void accept(@Nonnegative int index, @Nonnegative int slot);
+    }
+
+    static final class SlotSnapshot {
+
+        private final SequencerDefinition definition;
+        private final long createdVersion;
+        private final long version;
+        private final long baseVersion;
+        private final long[] words;
+        private final Address[] addresses;
+        private final long[] leases;
+        private final long[] slotVersions;
+        private final int size;
+
+        private SlotSnapshot(@Nonnull SequencerDefinition definition, @Nonnegative long createdVersion,
+                             @Nonnegative long version, long baseVersion, @Nonnull long[] words,
+                             @Nonnull Address[] addresses, @Nonnull long[] leases, @Nullable long[] slotVersions,
+                             @Nonnegative int size) {
+
+            this.definition = definition;
+            this.createdVersion = createdVersion;
+            this.version = version;
+            this.baseVersion = baseVersion;
+            this.words = words;
+            this.addresses = addresses;
+            this.leases = leases;
+            this.slotVersions = slotVersions;
+            this.size = size;
+        }
+
+        @Nonnull
+        SequencerDefinition getSequencerDefinition() {
+            return definition;
+        }
+
+        @Nonnegative
+        long getCreatedVersion() {
+            return createdVersion;
+        }
+
+        @Nonnegative
+        int size() {
+            return size;
+        }
+
+        boolean isDelta() {
+            return baseVersion != FULL_SNAPSHOT;
+        }
+
+        void collectAddresses(@Nonnull Map<Address, Integer> addressDictionary) {
+            for (int i = 0; i < size; i++) {
+                if (addresses[i] != null) {
+                    addressDictionary.putIfAbsent(addresses[i], addressDictionary.size());
+                }
+            }
         }
-        return new LogicalNodeTable(partitionId, definition, assignmentTable);
     }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.noctarius.snowcast.impl.VarIntUtils.readVarInt;
+import static com.noctarius.snowcast.impl.VarIntUtils.readVarLong;
+import static com.noctarius.snowcast.impl.VarIntUtils.writeVarInt;
+import static com.noctarius.snowcast.impl.VarIntUtils.writeVarLong;
+
+/**
+ * Version stamp of a {@link LogicalNodeTable} as seen by the partition owner. Backups
+ * use it to order replicated mutations and to find out whether they missed any of them.
+ * <p>
+ * The <tt>createdVersion</tt> identifies the table itself (a destroyed and recreated
+ * sequencer gets a new one), <tt>previousVersion</tt> is the table version before the
+ * latest mutation and <tt>version</tt> the version after it.
+ */
+public final class LogicalNodeTableVersion {
+
+    // Table versions start at 1, a version of a table that doesn't exist never matches a real one
+    static final LogicalNodeTableVersion UNKNOWN_TABLE = new LogicalNodeTableVersion(0, 0, 0);
+
+    private final long createdVersion;
+    private final long previousVersion;
+    private final long version;
+
+    public LogicalNodeTableVersion(@Nonnegative long createdVersion, @Nonnegative long previousVersion,
+                                   @Nonnegative long version) {
+
+        this.createdVersion = createdVersion;
+        this.previousVersion = previousVersion;
+        this.version = version;
+    }
+
+    @Nonnegative
+    public long getCreatedVersion() {
+        return createdVersion;
+    }
+
+    @Nonnegative
+    public long getPreviousVersion() {
+        return previousVersion;
+    }
+
+    @Nonnegative
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "LogicalNodeTableVersion{" + "createdVersion=" + createdVersion + ", previousVersion=" + previousVersion
+                + ", version=" + version + '}';
+    }
+
+    public static void writeTableVersion(@Nonnull ObjectDataOutput out, @Nonnull LogicalNodeTableVersion tableVersion)
+            throws IOException {
+
+        writeVarLong(out, tableVersion.createdVersion);
+        writeVarLong(out, tableVersion.previousVersion);
+        writeVarLong(out, tableVersion.version);
+    }
+
+    @Nonnull
+    public static LogicalNodeTableVersion readTableVersion(@Nonnull ObjectDataInput in)
+            throws IOException {
+
+        long createdVersion = readVarLong(in);
+        long previousVersion = readVarLong(in);
+        long version = readVarLong(in);
+        return new LogicalNodeTableVersion(createdVersion, previousVersion, version);
+    }
+
+    public static void writeTableVersions(@Nonnull ObjectDataOutput out,
+                                          @Nonnull Map<String, LogicalNodeTableVersion> tableVersions)
+            throws IOException {
+
+        writeVarInt(out, tableVersions.size());
+        for (Map.Entry<String, LogicalNodeTableVersion> entry : tableVersions.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeTableVersion(out, entry.getValue());
+        }
+    }
+
+    @Nonnull
+    public static Map<String, LogicalNodeTableVersion> readTableVersions(@Nonnull ObjectDataInput in)
+            throws IOException {
+
+        int size = readVarInt(in);
+        Map<String, LogicalNodeTableVersion> tableVersions = new HashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            String sequencerName = in.readUTF();
+            tableVersions.put(sequencerName, readTableVersion(in));
+        }
+        return tableVersions;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import com.noctarius.snowcast.SnowcastLatencyHistogram;
+import com.noctarius.snowcast.SnowcastMemberMetrics;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+@ThreadSafe
+final class MemberMetrics
+        implements SnowcastMemberMetrics, MemberMetricsMXBean {
+
+    private final StripedLatencyHistogram partitionFreezeDurations = new StripedLatencyHistogram();
+
+    void recordPartitionFreeze(@Nonnegative long nanos) {
+        partitionFreezeDurations.record(nanos);
+    }
+
+    @Nonnull
+    @Override
+    public SnowcastLatencyHistogram getPartitionFreezeDurations() {
+        return partitionFreezeDurations;
+    }
+
+    @Override
+    public long getPartitionFreezeCount() {
+        return partitionFreezeDurations.getCount();
+    }
+
+    @Override
+    public long getPartitionFreezeMeanNanos() {
+        return partitionFreezeDurations.getMeanNanos();
+    }
+
+    @Override
+    public long getPartitionFreezeMaxNanos() {
+        return partitionFreezeDurations.getMaxNanos();
+    }
+
+    @Nonnull
+    @Override
+    public long[] getPartitionFreezeBuckets() {
+        return partitionFreezeDurations.getBucketValues();
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import javax.annotation.Nonnull;
+
+/**
+ * JMX view of the {@link com.noctarius.snowcast.SnowcastMemberMetrics}, the freeze duration histogram
+ * is flattened into plain attributes.
+ */
+public interface MemberMetricsMXBean {
+
+    long getPartitionFreezeCount();
+
+    long getPartitionFreezeMeanNanos();
+
+    long getPartitionFreezeMaxNanos();
+
+    @Nonnull
+    long[] getPartitionFreezeBuckets();
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import com.noctarius.snowcast.SnowcastMemberMetrics;
+import com.noctarius.snowcast.SnowcastMetricsRegistry;
+import com.noctarius.snowcast.SnowcastSequencerMetrics;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.function.Consumer;
+
+final class MetricsRegistries {
+
+    private static final Tracer TRACER = TracingUtils.tracer(MetricsRegistries.class);
+
+    private static final List<SnowcastMetricsRegistry> REGISTRIES = loadRegistries();
+
+    private MetricsRegistries() {
+    }
+
+    static void registerSequencer(@Nonnull String instanceName, @Nonnull SnowcastSequencerMetrics metrics) {
+        forEach(registry -> registry.registerSequencer(instanceName, metrics));
+    }
+
+    static void unregisterSequencer(@Nonnull String instanceName, @Nonnull SnowcastSequencerMetrics metrics) {
+        forEach(registry -> registry.unregisterSequencer(instanceName, metrics));
+    }
+
+    static void registerMember(@Nonnull String instanceName, @Nonnull SnowcastMemberMetrics metrics) {
+        forEach(registry -> registry.registerMember(instanceName, metrics));
+    }
+
+    static void unregisterMember(@Nonnull String instanceName, @Nonnull SnowcastMemberMetrics metrics) {
+        forEach(registry -> registry.unregisterMember(instanceName, metrics));
+    }
+
+    private static void forEach(@Nonnull Consumer<SnowcastMetricsRegistry> action) {
+        for (SnowcastMetricsRegistry registry : REGISTRIES) {
+            try {
+                action.accept(registry);
+            } catch (RuntimeException e) {
+                // Monitoring must never break sequencer creation or destruction
+                TRACER.trace("metrics registry %s failed", e, registry);
+            }
+        }
+    }
+
+    @Nonnull
+    private static List<SnowcastMetricsRegistry> loadRegistries() {
+        List<SnowcastMetricsRegistry> registries = new ArrayList<>();
+        if (!SnowcastConstants.JMX_METRICS_DISABLED) {
+            registries.add(new JmxMetricsRegistry());
+        }
+
+        ClassLoader classLoader = MetricsRegistries.class.getClassLoader();
+        for (SnowcastMetricsRegistry registry : ServiceLoader.load(SnowcastMetricsRegistry.class, classLoader)) {
+            TRACER.trace("found metrics registry %s", registry);
+            registries.add(registry);
+        }
+        return Collections.unmodifiableList(registries);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastException;
+import com.noctarius.snowcast.SnowcastTimestampResolution;
+import com.noctarius.snowcast.SnowcastWaitStrategy;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Waits for the epoch timestamp to advance past a given millisecond, or a given tick of a
+ * sub-millisecond {@link com.noctarius.snowcast.SnowcastTimestampResolution}, using one of the
+ * {@link com.noctarius.snowcast.SnowcastWaitStrategy}s.
+ */
+final class MillisecondBoundaryWaiter {
+
+    // Thread::onSpinWait is only available with Java 9 and later
+    private static final MethodHandle ON_SPIN_WAIT = findOnSpinWait();
+
+    private MillisecondBoundaryWaiter() {
+    }
+
+    static long waitForNextTick(@Nonnull SnowcastWaitStrategy waitStrategy, @Nonnull SnowcastEpoch epoch,
+                                @Nonnull SnowcastTimestampResolution timestampResolution, long timestamp)
+            throws InterruptedException {
+
+        while (true) {
+            long now = epoch.getEpochTicks(timestampResolution);
+            if (now > timestamp) {
+                return now;
+            }
+
+            // The shared ticker may lag behind the clock, don't wait for it
+            if (InternalClock.advanceTicker()) {
+                continue;
+            }
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            switch (waitStrategy) {
+                case Park:
+                    LockSupport.parkNanos(InternalClock.nanosUntilNextTick(timestampResolution));
+                    break;
+                case SpinWait:
+                    onSpinWait();
+                    break;
+                case Yield:
+                    Thread.yield();
+                    break;
+                default:
+                    // BusySpin, just re-read the clock
+            }
+        }
+    }
+
+    private static void onSpinWait() {
+        if (ON_SPIN_WAIT == null) {
+            return;
+        }
+        try {
+            ON_SPIN_WAIT.invokeExact();
+        } catch (Throwable throwable) {
+            throw new SnowcastException(throwable);
+        }
+    }
+
+    @Nullable
+    private static MethodHandle findOnSpinWait() {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            return lookup.findStatic(Thread.class, "onSpinWait", MethodType.methodType(void.class));
+        } catch (Exception e) {
+            // Running on Java 8, spin without the hint
+            return null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import com.noctarius.snowcast.SnowcastTimestampResolution;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared timer of all sequencers to re-run asynchronous ID generation tasks at the next
+ * millisecond (or sub-millisecond tick) boundary and to run periodic housekeeping like lease renewals. The single
+ * daemon thread is only started when the first task is scheduled. No task must ever block or call into user
+ * code, like completing futures or emitting to subscribers, a slow callback would delay the lease renewals of
+ * all sequencers; such work is handed off to an executor.
+ */
+final class MillisecondTickScheduler {
+
+    private static final String THREAD_NAME = "snowcast-tick-scheduler";
+
+    private MillisecondTickScheduler() {
+    }
+
+    static void scheduleNextTick(@Nonnull Runnable task, @Nonnull SnowcastTimestampResolution timestampResolution) {
+        long delay = InternalClock.nanosUntilNextTick(timestampResolution);
+        SchedulerHolder.SCHEDULER.schedule(task, delay, TimeUnit.NANOSECONDS);
+    }
+
+    @Nonnull
+    static ScheduledFuture<?> scheduleAtFixedRate(@Nonnull Runnable task, @Nonnegative long period, @Nonnull TimeUnit unit) {
+        // Periodic tasks must only hand work off, the thread is shared with the millisecond ticks
+        return SchedulerHolder.SCHEDULER.scheduleAtFixedRate(task, period, period, unit);
+    }
+
+    private static final class SchedulerHolder {
+
+        private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+        @Nonnull
+        private static ScheduledExecutorService createScheduler() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Cancelled periodic tasks of detached sequencers must not pile up in the queue
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coarse grained clock source shared by all sequencers. A single daemon thread publishes
+ * the current time in milliseconds at every millisecond boundary, readers only load the
+ * padded volatile value. The published value never moves backwards, threads that notice
+ * the ticker lagging behind (e.g. while waiting for the next millisecond) move it forward
+ * themselves using {@link #advance(long)}.
+ */
+@ThreadSafe
+final class MillisecondTicker
+        extends MillisecondTickerRhsPadding
+        implements Runnable {
+
+    private static final String THREAD_NAME = "snowcast-clock-ticker";
+
+    private static final AtomicLongFieldUpdater<MillisecondTickerValue> CURRENT_TIME_MILLIS_UPDATER;
+
+    static {
+        CURRENT_TIME_MILLIS_UPDATER = AtomicLongFieldUpdater.newUpdater(MillisecondTickerValue.class, "currentTimeMillis");
+    }
+
+    MillisecondTicker(@Nonnegative long currentTimeMillis) {
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    long currentTimeMillis() {
+        return currentTimeMillis;
+    }
+
+    boolean advance(long timeMillis) {
+        while (true) {
+            long current = currentTimeMillis;
+            if (timeMillis <= current) {
+                return false;
+            }
+            if (CURRENT_TIME_MILLIS_UPDATER.compareAndSet(this, current, timeMillis)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            advance(InternalClock.preciseTimeMillis());
+            LockSupport.parkNanos(InternalClock.nanosUntilNextMillisecond());
+        }
+    }
+
+    @Nonnull
+    static MillisecondTicker start() {
+        MillisecondTicker ticker = new MillisecondTicker(InternalClock.preciseTimeMillis());
+        Thread thread = new Thread(ticker, THREAD_NAME);
+        thread.setDaemon(true);
+        // A late tick delays every sequencer of the JVM
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+        return ticker;
+    }
+}
+
+abstract class MillisecondTickerLhsPadding {
+    long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class MillisecondTickerValue
+        extends MillisecondTickerLhsPadding {
+
+    // This field is only written through the field updater
+    volatile long currentTimeMillis;
+}
+
+abstract class MillisecondTickerRhsPadding
+        extends MillisecondTickerValue {
+    long p11, p12, p13, p14, p15, p16, p17;
+}
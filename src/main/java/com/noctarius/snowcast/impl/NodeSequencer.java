@@ -18,11 +18,13 @@ package com.noctarius.snowcast.impl;
 
 import com.noctarius.snowcast.SnowcastSequenceState;
 import com.noctarius.snowcast.SnowcastSequencer;
+import com.noctarius.snowcast.SnowcastSequencerOptions;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.util.concurrent.CompletableFuture;
 
 public class NodeSequencer
         implements InternalSequencer {
@@ -30,7 +32,13 @@ public class NodeSequencer
     private final NodeSequencerContext sequencerContext;
 
     NodeSequencer(@Nonnull NodeSequencerService service, @Nonnull SequencerDefinition definition) {
-        this.sequencerContext = new NodeSequencerContext(service, definition);
+        this(service, definition, SnowcastSequencerOptions.defaults());
+    }
+
+    NodeSequencer(@Nonnull NodeSequencerService service, @Nonnull SequencerDefinition definition,
+                  @Nonnull SnowcastSequencerOptions options) {
+
+        this.sequencerContext = new NodeSequencerContext(service, definition, options);
     }
 
     @Nonnull
@@ -47,6 +55,41 @@ public class NodeSequencer
         return sequencerContext.next();
     }
 
+    @Nonnull
+    @Override
+    public long[] next(@Nonnegative int count)
+            throws InterruptedException {
+
+        long[] ids = new long[count];
+        sequencerContext.nextBatch(ids, 0, count);
+        return ids;
+    }
+
+    @Override
+    public void nextBatch(@Nonnull long[] ids)
+            throws InterruptedException {
+
+        sequencerContext.nextBatch(ids, 0, ids.length);
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Long> nextAsync() {
+        return sequencerContext.nextAsync();
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<long[]> nextBatchAsync(@Nonnegative int count) {
+        return sequencerContext.nextBatchAsync(count);
+    }
+
+    @Override
+    @Nonnegative
+    public int tryNextBatch(@Nonnull long[] ids, @Nonnegative int offset, @Nonnegative int length) {
+        return sequencerContext.tryNextBatch(ids, offset, offset + length) - offset;
+    }
+
     @Nonnull
     @Override
     public SnowcastSequenceState getSequencerState() {
@@ -59,6 +102,12 @@ public class NodeSequencer
         return sequencerContext.getSequencerDefinition();
     }
 
+    @Nonnull
+    @Override
+    public SequencerMetrics getSequencerMetrics() {
+        return sequencerContext.getSequencerMetrics();
+    }
+
     @Nonnull
     @Override
     public final SnowcastSequencer attachLogicalNode() {
@@ -66,6 +115,18 @@ public class NodeSequencer
         return this;
     }
 
+    void attachLogicalNode(@Min(128) @Max(8192) int logicalNodeId) {
+        sequencerContext.attachLogicalNode(logicalNodeId);
+    }
+
+    boolean growLogicalNodes() {
+        return sequencerContext.growLogicalNodes();
+    }
+
+    boolean shrinkLogicalNodes() {
+        return sequencerContext.shrinkLogicalNodes();
+    }
+
     @Nonnull
     @Override
     public final SnowcastSequencer detachLogicalNode() {
@@ -107,8 +168,10 @@ public class NodeSequencer
 
         private final NodeSequencerService service;
 
-        private NodeSequencerContext(@Nonnull NodeSequencerService service, @Nonnull SequencerDefinition definition) {
-            super(definition);
+        private NodeSequencerContext(@Nonnull NodeSequencerService service, @Nonnull SequencerDefinition definition,
+                                     @Nonnull SnowcastSequencerOptions options) {
+
+            super(definition, options);
             this.service = service;
         }
 
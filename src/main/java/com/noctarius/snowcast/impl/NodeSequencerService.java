@@ -30,24 +30,33 @@ import com.hazelcast.spi.InvocationBuilder;
 import com.hazelcast.spi.ManagedService;
 import com.hazelcast.spi.MigrationAwareService;
 import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.Notifier;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.OperationService;
 import com.hazelcast.spi.PartitionMigrationEvent;
 import com.hazelcast.spi.PartitionReplicationEvent;
 import com.hazelcast.spi.RemoteService;
+import com.hazelcast.spi.WaitNotifyKey;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.waitnotifyservice.WaitNotifyService;
 import com.hazelcast.spi.partition.IPartitionService;
 import com.hazelcast.spi.partition.MigrationEndpoint;
 import com.hazelcast.spi.serialization.SerializationService;
 import com.hazelcast.util.Clock;
 import com.noctarius.snowcast.SnowcastEpoch;
 import com.noctarius.snowcast.SnowcastIllegalStateException;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
 import com.noctarius.snowcast.SnowcastSequenceState;
 import com.noctarius.snowcast.SnowcastSequencer;
 import com.noctarius.snowcast.SnowcastSequencerAlreadyRegisteredException;
+import com.noctarius.snowcast.SnowcastSequencerOptions;
+import com.noctarius.snowcast.SnowcastSequencerSpec;
 import com.noctarius.snowcast.impl.operations.AttachLogicalNodeOperation;
+import com.noctarius.snowcast.impl.operations.AttachLogicalNodesOperation;
 import com.noctarius.snowcast.impl.operations.CreateSequencerDefinitionOperation;
 import com.noctarius.snowcast.impl.operations.DestroySequencerDefinitionOperation;
 import com.noctarius.snowcast.impl.operations.DetachLogicalNodeOperation;
+import com.noctarius.snowcast.impl.operations.SequencerReplicaDigestOperation;
 import com.noctarius.snowcast.impl.operations.SequencerReplicationOperation;
 import com.noctarius.snowcast.impl.operations.clientcodec.MessageChannel;
 
@@ -61,7 +70,10 @@ import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -88,15 +100,20 @@ public class NodeSequencerService
     private final MethodHandle getListenerMethodHandle;
     private final MethodHandle futureGetMethodHandle;
 
+    private final MemberMetrics memberMetrics;
+
     private NodeEngine nodeEngine;
     private EventService eventService;
     private SerializationService serializationService;
+    private WaitNotifyService waitNotifyService;
+    private String instanceName;
 
     public NodeSequencerService() {
         this.provisions = new ConcurrentHashMap<>();
         this.partitions = new ConcurrentHashMap<>();
         this.getListenerMethodHandle = findEventRegistrationGetListener();
         this.futureGetMethodHandle = findFutureExecutorMethod();
+        this.memberMetrics = new MemberMetrics();
     }
 
     @Override
@@ -104,23 +121,75 @@ public class NodeSequencerService
         this.nodeEngine = nodeEngine;
         this.eventService = nodeEngine.getEventService();
         this.serializationService = nodeEngine.getSerializationService();
+        this.waitNotifyService = ((NodeEngineImpl) nodeEngine).getWaitNotifyService();
+        this.instanceName = nodeEngine.getHazelcastInstance().getName();
+        MetricsRegistries.registerMember(instanceName, memberMetrics);
     }
 
     @Nonnull
     @Override
     public SnowcastSequencer createSequencer(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
-                                             @Min(128) @Max(8192) int maxLogicalNodeCount, short backupCount) {
+                                             @Min(2) @Max(8192) int maxLogicalNodeCount,
+                                             @Nonnull SnowcastSequenceLayout sequenceLayout, short backupCount,
+                                             @Nonnull SnowcastSequencerOptions options) {
+
+        SequencerDefinition definition = new SequencerDefinition(sequencerName, epoch, maxLogicalNodeCount, sequenceLayout,
+                backupCount);
 
-        SequencerDefinition definition = new SequencerDefinition(sequencerName, epoch, maxLogicalNodeCount, backupCount);
+        // A new sequencer registers its definition and attaches its logical node id in a single operation
+        SequencerProvision provision = getOrCreateSequencerProvision(definition, options);
 
+        // The provision's definition was validated by the partition owner and the provision is removed as soon
+        // as the sequencer is destroyed anywhere in the cluster, an equal definition needs no round trip
+        if (definition.equals(provision.getDefinition())) {
+            return provision.getSequencer();
+        }
+
+        // Existing sequencer, validate the requested definition against the registered one
         Operation operation = new CreateSequencerDefinitionOperation(definition);
         SequencerDefinition realDefinition = invoke(operation, sequencerName);
 
         if (!definition.equals(realDefinition)) {
             throw exception(SnowcastIllegalStateException::new, SEQUENCER_ALREADY_REGISTERED);
         }
+        return provision.getSequencer();
+    }
+
+    @Nonnull
+    @Override
+    public List<SnowcastSequencer> createSequencers(@Nonnull Collection<SnowcastSequencerSpec> specs, short backupCount) {
+        IPartitionService partitionService = nodeEngine.getPartitionService();
 
-        return getOrCreateSequencerProvision(realDefinition).getSequencer();
+        // Only sequencers unknown to this member are attached in bulk, everything else takes the regular path
+        Map<String, SnowcastSequencerSpec> pending = new HashMap<>();
+        Map<Integer, List<SequencerDefinition>> partitions = new HashMap<>();
+        for (SnowcastSequencerSpec spec : specs) {
+            String sequencerName = spec.getSequencerName();
+            if (provisions.containsKey(sequencerName) || pending.putIfAbsent(sequencerName, spec) != null) {
+                continue;
+            }
+
+            SequencerDefinition definition = new SequencerDefinition(sequencerName, spec.getEpoch(),
+                    spec.getMaxLogicalNodeCount(), spec.getSequenceLayout(), backupCount);
+
+            int partitionId = partitionService.getPartitionId(sequencerName);
+            partitions.computeIfAbsent(partitionId, id -> new ArrayList<>()).add(definition);
+        }
+
+        Map<String, SequencerProvision> created = attachSequencers(partitions, pending);
+
+        List<SnowcastSequencer> sequencers = new ArrayList<>(specs.size());
+        for (SnowcastSequencerSpec spec : specs) {
+            String sequencerName = spec.getSequencerName();
+            SequencerProvision provision = created.get(sequencerName);
+            if (provision != null && pending.get(sequencerName) == spec) {
+                sequencers.add(provision.getSequencer());
+            } else {
+                sequencers.add(createSequencer(sequencerName, spec.getEpoch(), spec.getMaxLogicalNodeCount(),
+                        spec.getSequenceLayout(), backupCount, spec.getOptions()));
+            }
+        }
+        return sequencers;
     }
 
     @Override
@@ -132,6 +201,7 @@ public class NodeSequencerService
         if (provision == null) {
             return;
         }
+        unregisterMetrics(provision);
 
         // Store destroyed state into the sequencer to prevent further id creation
         provision.getSequencer().stateTransition(SnowcastSequenceState.Destroyed);
@@ -149,6 +219,9 @@ public class NodeSequencerService
     @Override
     public void shutdown(boolean terminate) {
         // No action here, however not sure if this shouldn't kill all sequencers
+        // Published metrics must not outlive the member though
+        provisions.values().forEach(this::unregisterMetrics);
+        MetricsRegistries.unregisterMember(instanceName, memberMetrics);
     }
 
     @Nullable
@@ -160,8 +233,13 @@ public class NodeSequencerService
             return null;
         }
 
-        PartitionReplication partitionReplication = partition.createPartitionReplication();
-        return new SequencerReplicationOperation(partitionReplication);
+        // Migrations freeze the partition and move it as a whole, a replica synchronization only
+        // sends the table versions, the replica requests the slots changed since its own versions
+        if (partition.isFrozen()) {
+            PartitionReplication partitionReplication = partition.createPartitionReplication();
+            return new SequencerReplicationOperation(partitionReplication);
+        }
+        return new SequencerReplicaDigestOperation(partition.createPartitionDigest(), event.getReplicaIndex());
     }
 
     @Override
@@ -176,12 +254,23 @@ public class NodeSequencerService
     @Override
     public void commitMigration(@Nonnull PartitionMigrationEvent event) {
         int partitionId = event.getPartitionId();
+        if (event.getMigrationEndpoint() == MigrationEndpoint.DESTINATION && event.getNewReplicaIndex() == 0) {
+            // Promoted to partition owner, new versions must never collide with the former owner's ones,
+            // even if this member didn't store anything for the partition so far
+            getSequencerPartition(partitionId).promote();
+        }
+
         SequencerPartition partition = partitions.get(partitionId);
         if (partition != null) {
             if (event.getMigrationEndpoint() == MigrationEndpoint.SOURCE) {
+                // Operations parked on the former owner are answered with a retryable migration
+                // exception by Hazelcast and end up at the new owner
                 partitions.remove(partitionId);
+                unfreeze(partition);
+            } else {
+                unfreeze(partition);
+                notifyPartitionUnfrozen(partitionId);
             }
-            partition.unfreeze();
         }
     }
 
@@ -190,10 +279,16 @@ public class NodeSequencerService
         int partitionId = event.getPartitionId();
         SequencerPartition partition = partitions.get(partitionId);
         if (partition != null) {
-            partition.unfreeze();
+            unfreeze(partition);
+            notifyPartitionUnfrozen(partitionId);
         }
     }
 
+    public boolean isPartitionFrozen(@Nonnegative int partitionId) {
+        SequencerPartition partition = partitions.get(partitionId);
+        return partition != null && partition.isFrozen();
+    }
+
     @Override
     public void dispatchEvent(@Nonnull Object event, @Nonnull Object listener) {
         if (listener instanceof ClientChannelHandler) {
@@ -209,6 +304,16 @@ public class NodeSequencerService
         return partition.checkOrRegisterSequencerDefinition(definition);
     }
 
+    @Nonnull
+    public SequencerDefinition registerSequencerDefinition(@Nonnull SequencerDefinition definition,
+                                                           @Nonnull LogicalNodeTableVersion tableVersion) {
+
+        IPartitionService partitionService = nodeEngine.getPartitionService();
+        int partitionId = partitionService.getPartitionId(definition.getSequencerName());
+        SequencerPartition partition = getSequencerPartition(partitionId);
+        return partition.checkOrRegisterSequencerDefinition(definition, tableVersion);
+    }
+
     @Nullable
     public SequencerDefinition destroySequencer(@Nonnull String sequencerName, boolean local) {
         // Remove the current provision
@@ -216,6 +321,8 @@ public class NodeSequencerService
 
         SequencerDefinition definition = null;
         if (provision != null) {
+            unregisterMetrics(provision);
+
             // Store destroyed state into the sequencer to prevent further id creation
             provision.getSequencer().stateTransition(SnowcastSequenceState.Destroyed);
             definition = provision.getDefinition();
@@ -228,6 +335,11 @@ public class NodeSequencerService
         return definition;
     }
 
+    @Nonnull
+    MemberMetrics getMemberMetrics() {
+        return memberMetrics;
+    }
+
     @Nonnull
     public SequencerPartition getSequencerPartition(@Nonnegative int partitionId) {
         return partitions.computeIfAbsent(partitionId, SequencerPartition::new);
@@ -278,6 +390,60 @@ public class NodeSequencerService
         return completableFutureGet(invocationBuilder.invoke());
     }
 
+    @Nonnull
+    private Map<String, SequencerProvision> attachSequencers(@Nonnull Map<Integer, List<SequencerDefinition>> partitions,
+                                                             @Nonnull Map<String, SnowcastSequencerSpec> specs) {
+
+        // One attach operation per partition, all partitions are processed in parallel
+        OperationService operationService = nodeEngine.getOperationService();
+        Map<Integer, InternalCompletableFuture> futures = new HashMap<>();
+        for (Map.Entry<Integer, List<SequencerDefinition>> entry : partitions.entrySet()) {
+            int partitionId = entry.getKey();
+            AttachLogicalNodesOperation operation = new AttachLogicalNodesOperation(entry.getValue());
+            futures.put(partitionId, operationService.createInvocationBuilder(SERVICE_NAME, operation, partitionId).invoke());
+        }
+
+        Map<SequencerDefinition, Integer> attached = new HashMap<>();
+        RuntimeException failure = null;
+        for (Map.Entry<Integer, List<SequencerDefinition>> entry : partitions.entrySet()) {
+            try {
+                List<SequencerDefinition> definitions = entry.getValue();
+                int[] logicalNodeIds = completableFutureGet(futures.get(entry.getKey()));
+                for (int i = 0; i < logicalNodeIds.length; i++) {
+                    attached.put(definitions.get(i), logicalNodeIds[i]);
+                }
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+
+        if (failure != null) {
+            // Partially created batch, release all logical node ids attached so far
+            attached.forEach(this::detachSequencer);
+            throw failure;
+        }
+
+        Map<String, SequencerProvision> created = new HashMap<>();
+        for (Map.Entry<SequencerDefinition, Integer> entry : attached.entrySet()) {
+            SequencerDefinition definition = entry.getKey();
+            String sequencerName = definition.getSequencerName();
+
+            NodeSequencer sequencer = new NodeSequencer(this, definition, specs.get(sequencerName).getOptions());
+            sequencer.attachLogicalNode(entry.getValue());
+
+            SequencerProvision provision = new SequencerProvision(definition, sequencer);
+            if (provisions.putIfAbsent(sequencerName, provision) != null) {
+                // Concurrently created by another thread, give back our logical node id, the existing
+                // sequencer is validated against the requested definition by the regular path
+                sequencer.detachLogicalNode();
+                continue;
+            }
+            registerMetrics(provision);
+            created.put(sequencerName, provision);
+        }
+        return created;
+    }
+
     void detachSequencer(@Nonnull SequencerDefinition definition, @Min(128) @Max(8192) int logicalNodeId) {
         IPartitionService partitionService = nodeEngine.getPartitionService();
         int partitionId = partitionService.getPartitionId(definition.getSequencerName());
@@ -310,13 +476,18 @@ public class NodeSequencerService
     }
 
     @Nonnull
-    private SequencerProvision getOrCreateSequencerProvision(@Nonnull SequencerDefinition definition) {
+    private SequencerProvision getOrCreateSequencerProvision(@Nonnull SequencerDefinition definition,
+                                                             @Nonnull SnowcastSequencerOptions options) {
+
         String sequencerName = definition.getSequencerName();
 
         return provisions.computeIfAbsent(sequencerName, name -> {
-            NodeSequencer sequencer = new NodeSequencer(this, definition);
+            NodeSequencer sequencer = new NodeSequencer(this, definition, options);
             sequencer.attachLogicalNode();
-            return new SequencerProvision(definition, sequencer);
+
+            SequencerProvision provision = new SequencerProvision(definition, sequencer);
+            registerMetrics(provision);
+            return provision;
         });
     }
 
@@ -330,6 +501,43 @@ public class NodeSequencerService
     public void destroyDistributedObject(@Nonnull String objectName) {
     }
 
+    private void unfreeze(@Nonnull SequencerPartition partition) {
+        long frozenNanos = partition.unfreeze();
+        if (frozenNanos >= 0) {
+            memberMetrics.recordPartitionFreeze(frozenNanos);
+        }
+    }
+
+    private void registerMetrics(@Nonnull SequencerProvision provision) {
+        MetricsRegistries.registerSequencer(instanceName, provision.getSequencer().getSequencerMetrics());
+    }
+
+    private void unregisterMetrics(@Nonnull SequencerProvision provision) {
+        MetricsRegistries.unregisterSequencer(instanceName, provision.getSequencer().getSequencerMetrics());
+    }
+
+    private void notifyPartitionUnfrozen(@Nonnegative int partitionId) {
+        // Nothing can be parked before the service is initialized
+        if (waitNotifyService == null) {
+            return;
+        }
+
+        // Migrations are committed or rolled back on the partition thread, the parked operations
+        // are replayed right here in the order they arrived
+        waitNotifyService.notify(new Notifier() {
+            @Override
+            public boolean shouldNotify() {
+                return true;
+            }
+
+            @Nonnull
+            @Override
+            public WaitNotifyKey getNotifiedKey() {
+                return new PartitionFreezeWaitKey(partitionId);
+            }
+        });
+    }
+
     private <T> T completableFutureGet(InternalCompletableFuture completableFuture) {
         return executeMethodHandle(futureGetMethodHandle, completableFuture);
     }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import com.hazelcast.spi.BlockingOperation;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.WaitNotifyKey;
+import com.noctarius.snowcast.SnowcastIllegalStateException;
+
+import javax.annotation.Nonnull;
+
+import static com.noctarius.snowcast.impl.ExceptionMessages.PARTITION_IS_FROZEN;
+import static com.noctarius.snowcast.impl.ExceptionUtils.exception;
+
+/**
+ * The {@link BlockingOperation} behavior shared by all operations that park while their partition
+ * is frozen by a migration, instead of failing right away.
+ */
+public final class PartitionFreezeUtils {
+
+    private PartitionFreezeUtils() {
+    }
+
+    @Nonnull
+    public static WaitNotifyKey getWaitKey(@Nonnull Operation operation) {
+        return new PartitionFreezeWaitKey(operation.getPartitionId());
+    }
+
+    public static boolean shouldWait(@Nonnull Operation operation) {
+        // Parked until the migration is committed or rolled back instead of failing
+        NodeSequencerService sequencerService = operation.getService();
+        return sequencerService.isPartitionFrozen(operation.getPartitionId());
+    }
+
+    public static void onWaitExpire(@Nonnull Operation operation) {
+        operation.sendResponse(exception(SnowcastIllegalStateException::new, PARTITION_IS_FROZEN, operation.getPartitionId()));
+    }
+}
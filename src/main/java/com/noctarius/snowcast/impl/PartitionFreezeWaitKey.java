@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import com.hazelcast.spi.AbstractWaitNotifyKey;
+
+import javax.annotation.Nonnegative;
+
+import static com.noctarius.snowcast.impl.SnowcastConstants.SERVICE_NAME;
+
+/**
+ * Wait key of operations parked while their partition is frozen by a migration. The parked
+ * operations are replayed when the partition is unfrozen again, on the former owner they are
+ * answered with a retryable migration exception and transparently sent to the new owner.
+ */
+public final class PartitionFreezeWaitKey
+        extends AbstractWaitNotifyKey {
+
+    private final int partitionId;
+
+    public PartitionFreezeWaitKey(@Nonnegative int partitionId) {
+        super(SERVICE_NAME, "partition-" + partitionId);
+        this.partitionId = partitionId;
+    }
+
+    @Nonnegative
+    public int getPartitionId() {
+        return partitionId;
+    }
+}
@@ -16,28 +16,37 @@
  */
 package com.noctarius.snowcast.impl;
 
+import com.hazelcast.nio.Address;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.noctarius.snowcast.impl.LogicalNodeTable.SlotSnapshot;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.noctarius.snowcast.impl.VarIntUtils.readVarInt;
+import static com.noctarius.snowcast.impl.VarIntUtils.writeVarInt;
 
 public class PartitionReplication
         implements IdentifiedDataSerializable {
 
     private int partitionId;
-    private Collection<LogicalNodeTable> logicalNodeTables;
+    private boolean synchronization;
+    private List<SlotSnapshot> snapshots;
 
     public PartitionReplication() {
     }
 
-    public PartitionReplication(@Nonnegative int partitionId, @Nonnull Collection<LogicalNodeTable> logicalNodeTables) {
+    PartitionReplication(@Nonnegative int partitionId, @Nonnull List<SlotSnapshot> snapshots, boolean synchronization) {
         this.partitionId = partitionId;
-        this.logicalNodeTables = logicalNodeTables;
+        this.snapshots = snapshots;
+        this.synchronization = synchronization;
     }
 
     @Nonnegative
@@ -50,8 +59,13 @@ public class PartitionReplication
 
         targetPartition.freeze();
         try {
-            for (LogicalNodeTable logicalNodeTable : logicalNodeTables) {
-                targetPartition.mergeLogicalNodeTable(logicalNodeTable);
+            for (SlotSnapshot snapshot : snapshots) {
+                if (synchronization) {
+                    // Replica synchronization, full tables replace the stale ones, deltas are applied to them
+                    targetPartition.synchronizeLogicalNodeTable(snapshot);
+                } else {
+                    targetPartition.mergeLogicalNodeTable(snapshot);
+                }
             }
         } finally {
             targetPartition.unfreeze();
@@ -62,10 +76,22 @@ public class PartitionReplication
     public void writeData(@Nonnull ObjectDataOutput out)
             throws IOException {
 
+        // Each address is written once per partition, the iteration order defines its index
+        Map<Address, Integer> addressDictionary = new LinkedHashMap<>();
+        for (SlotSnapshot snapshot : snapshots) {
+            snapshot.collectAddresses(addressDictionary);
+        }
+
         out.writeInt(partitionId);
-        out.writeInt(logicalNodeTables.size());
-        for (LogicalNodeTable logicalNodeTable : logicalNodeTables) {
-            LogicalNodeTable.writeLogicalNodeTable(logicalNodeTable, out);
+        out.writeBoolean(synchronization);
+        writeVarInt(out, addressDictionary.size());
+        for (Address address : addressDictionary.keySet()) {
+            address.writeData(out);
+        }
+
+        writeVarInt(out, snapshots.size());
+        for (SlotSnapshot snapshot : snapshots) {
+            LogicalNodeTable.writeSlotSnapshot(snapshot, addressDictionary, out);
         }
     }
 
@@ -74,11 +100,19 @@ public class PartitionReplication
             throws IOException {
 
         partitionId = in.readInt();
-        int size = in.readInt();
-        logicalNodeTables = new ArrayList<>(size);
+        synchronization = in.readBoolean();
+
+        Address[] addressDictionary = new Address[readVarInt(in)];
+        for (int i = 0; i < addressDictionary.length; i++) {
+            Address address = new Address();
+            address.readData(in);
+            addressDictionary[i] = address;
+        }
+
+        int size = readVarInt(in);
+        snapshots = new ArrayList<>(size);
         for (int i = 0; i < size; i++) {
-            LogicalNodeTable logicalNodeTable = LogicalNodeTable.readLogicalNodeTable(partitionId, in);
-            logicalNodeTables.add(logicalNodeTable);
+            snapshots.add(LogicalNodeTable.readSlotSnapshot(addressDictionary, in));
         }
     }
 
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Single-producer / multi-consumer ring buffer of pre-generated sequence IDs. A background
+ * filler thread generates IDs in batches into the ring, callers of {@link #poll()} just claim
+ * the next slot with a single CAS.</p>
+ * <p>The filler refills the ring whenever at least half of it is consumed and discards IDs
+ * older than the configured staleness bound, therefore handed out IDs are never older than
+ * roughly <tt>maxStalenessMillis</tt>.</p>
+ */
+@ThreadSafe
+final class PrefetchBuffer {
+
+    // Counter values start at 1, a generated ID therefore never equals 0
+    static final long NO_ID = 0;
+
+    private static final Tracer TRACER = TracingUtils.tracer(PrefetchBuffer.class);
+
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AbstractSequencerContext sequencerContext;
+    private final AtomicLongArray slots;
+    private final int capacity;
+    private final int mask;
+    private final int refillThreshold;
+    private final long maxStalenessMillis;
+    private final long parkNanos;
+
+    private volatile Thread filler;
+    private volatile boolean fillerParked;
+
+    PrefetchBuffer(@Nonnull AbstractSequencerContext sequencerContext, @Nonnegative int capacity,
+                   @Nonnegative long maxStalenessMillis) {
+
+        this.sequencerContext = sequencerContext;
+        this.slots = new AtomicLongArray(capacity);
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.refillThreshold = Math.max(1, capacity / 2);
+        this.maxStalenessMillis = maxStalenessMillis;
+        // Check for stale IDs at least twice per staleness period
+        this.parkNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis) / 2);
+    }
+
+    long poll() {
+        while (true) {
+            long head = this.head.get();
+            long tail = this.tail.get();
+            if (head >= tail) {
+                wakeFiller();
+                return NO_ID;
+            }
+
+            // Read before claiming, the filler cannot overwrite the slot while head hasn't passed it
+            long id = slots.get((int) head & mask);
+            if (this.head.compareAndSet(head, head + 1)) {
+                if (capacity - (tail - head - 1) >= refillThreshold) {
+                    wakeFiller();
+                }
+                return id;
+            }
+        }
+    }
+
+    void start(@Nonnull String sequencerName) {
+        Thread thread = new Thread(this::fill, "snowcast-prefetch-" + sequencerName);
+        thread.setDaemon(true);
+        filler = thread;
+        thread.start();
+        TRACER.trace("prefetch filler started for sequencer %s", sequencerName);
+    }
+
+    void stop() {
+        Thread thread = filler;
+        filler = null;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        clear();
+    }
+
+    private void fill() {
+        Thread self = Thread.currentThread();
+        long[] chunk = new long[capacity];
+        try {
+            while (filler == self) {
+                discardStale();
+
+                long tail = this.tail.get();
+                int free = capacity - (int) (tail - head.get());
+                if (free >= refillThreshold) {
+                    sequencerContext.nextBatch(chunk, 0, free);
+                    if (filler != self) {
+                        break;
+                    }
+                    for (int i = 0; i < free; i++) {
+                        slots.lazySet((int) (tail + i) & mask, chunk[i]);
+                    }
+                    this.tail.lazySet(tail + free);
+                    continue;
+                }
+
+                fillerParked = true;
+                // Re-check after announcing to not miss a concurrent consumer's wakeup
+                if (capacity - (int) (this.tail.get() - head.get()) < refillThreshold) {
+                    LockSupport.parkNanos(this, parkNanos);
+                }
+                fillerParked = false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Sequencer detached or destroyed, consumers fall back to the direct path
+            TRACER.trace("prefetch filler stopped: %s", e.getMessage());
+        } finally {
+            if (filler == null || filler == self) {
+                clear();
+            }
+        }
+    }
+
+    private void discardStale() {
+        long now = sequencerContext.currentEpochTimestamp();
+        while (true) {
+            long head = this.head.get();
+            if (head >= tail.get()) {
+                return;
+            }
+            long id = slots.get((int) head & mask);
+            if (now - sequencerContext.timestampValue(id) <= maxStalenessMillis) {
+                return;
+            }
+            // IDs are ordered by generation time, stop at the first fresh one
+            this.head.compareAndSet(head, head + 1);
+        }
+    }
+
+    private void clear() {
+        while (true) {
+            long head = this.head.get();
+            long tail = this.tail.get();
+            if (head >= tail || this.head.compareAndSet(head, tail)) {
+                return;
+            }
+        }
+    }
+
+    private void wakeFiller() {
+        if (fillerParked) {
+            Thread thread = filler;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+}
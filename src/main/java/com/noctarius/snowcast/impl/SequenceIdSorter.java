@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_BUFFER_LENGTH;
+import static com.noctarius.snowcast.impl.ExceptionUtils.exception;
+
+/**
+ * <p>Sorts and merges primitive sequence id arrays by a sort key that is built from the timestamp
+ * value and, optionally, the counter value of a sequence id. The logical node id is not part of the
+ * key, ids with equal keys keep their relative order.</p>
+ * <p>Sorting is an LSD radix sort over 8 bit digits of the key. Digits that are equal for all ids
+ * (e.g. the upper timestamp bits of ids generated close to each other) are skipped.</p>
+ */
+public final class SequenceIdSorter {
+
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX - 1;
+
+    // Below this length the histogram passes cost more than they save
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private SequenceIdSorter() {
+    }
+
+    /**
+     * Sorts the given sequence ids in place, using the given buffer as scratch space.
+     *
+     * @param sequenceIds the sequence ids to sort
+     * @param buffer         the scratch buffer, at least as long as sequenceIds
+     * @param timestampShift the number of bits below the timestamp value
+     * @param counterBits    the number of counter bits to take into account, 0 to sort by timestamp only
+     */
+    public static void sort(@Nonnull long[] sequenceIds, @Nonnull long[] buffer, @Nonnegative int timestampShift,
+                            @Nonnegative int counterBits) {
+        int length = sequenceIds.length;
+        if (buffer.length < length) {
+            throw exception(IllegalArgumentException::new, ILLEGAL_BUFFER_LENGTH, "buffer", length, buffer.length);
+        }
+
+        if (length < INSERTION_SORT_THRESHOLD) {
+            insertionSort(sequenceIds, timestampShift, counterBits);
+            return;
+        }
+
+        // Only digits that differ between at least two keys need a pass
+        long firstKey = sortKey(sequenceIds[0], timestampShift, counterBits);
+        long differingBits = 0;
+        for (int i = 1; i < length; i++) {
+            differingBits |= sortKey(sequenceIds[i], timestampShift, counterBits) ^ firstKey;
+        }
+
+        int[] counts = new int[RADIX];
+        long[] source = sequenceIds;
+        long[] target = buffer;
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            if (((differingBits >>> shift) & RADIX_MASK) == 0) {
+                continue;
+            }
+
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < length; i++) {
+                counts[digit(source[i], timestampShift, counterBits, shift)]++;
+            }
+
+            int offset = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int count = counts[digit];
+                counts[digit] = offset;
+                offset += count;
+            }
+
+            for (int i = 0; i < length; i++) {
+                long sequenceId = source[i];
+                target[counts[digit(sequenceId, timestampShift, counterBits, shift)]++] = sequenceId;
+            }
+
+            long[] temp = source;
+            source = target;
+            target = temp;
+        }
+
+        if (source != sequenceIds) {
+            System.arraycopy(source, 0, sequenceIds, 0, length);
+        }
+    }
+
+    /**
+     * Merges the two given, already sorted, sequence id arrays into the target array. On equal
+     * sort keys ids of the first array are taken first.
+     *
+     * @param sequenceIds1   the first sorted sequence id array
+     * @param sequenceIds2   the second sorted sequence id array
+     * @param target         the target array, at least as long as both arrays together
+     * @param timestampShift the number of bits below the timestamp value
+     * @param counterBits    the number of counter bits to take into account, 0 to merge by timestamp only
+     */
+    public static void merge(@Nonnull long[] sequenceIds1, @Nonnull long[] sequenceIds2, @Nonnull long[] target,
+                             @Nonnegative int timestampShift, @Nonnegative int counterBits) {
+
+        int length1 = sequenceIds1.length;
+        int length2 = sequenceIds2.length;
+        if (target.length < length1 + length2) {
+            throw exception(IllegalArgumentException::new, ILLEGAL_BUFFER_LENGTH, "target", length1 + length2,
+                    target.length);
+        }
+
+        int index1 = 0;
+        int index2 = 0;
+        int position = 0;
+        while (index1 < length1 && index2 < length2) {
+            long sequenceId1 = sequenceIds1[index1];
+            long sequenceId2 = sequenceIds2[index2];
+            if (sortKey(sequenceId2, timestampShift, counterBits) < sortKey(sequenceId1, timestampShift, counterBits)) {
+                target[position++] = sequenceId2;
+                index2++;
+            } else {
+                target[position++] = sequenceId1;
+                index1++;
+            }
+        }
+
+        System.arraycopy(sequenceIds1, index1, target, position, length1 - index1);
+        System.arraycopy(sequenceIds2, index2, target, position + length1 - index1, length2 - index2);
+    }
+
+    private static void insertionSort(@Nonnull long[] sequenceIds, @Nonnegative int timestampShift,
+                                      @Nonnegative int counterBits) {
+        for (int i = 1; i < sequenceIds.length; i++) {
+            long sequenceId = sequenceIds[i];
+            long key = sortKey(sequenceId, timestampShift, counterBits);
+
+            int j = i - 1;
+            while (j >= 0 && sortKey(sequenceIds[j], timestampShift, counterBits) > key) {
+                sequenceIds[j + 1] = sequenceIds[j];
+                j--;
+            }
+            sequenceIds[j + 1] = sequenceId;
+        }
+    }
+
+    private static int digit(long sequenceId, @Nonnegative int timestampShift, @Nonnegative int counterBits,
+                             @Nonnegative int shift) {
+
+        return (int) (sortKey(sequenceId, timestampShift, counterBits) >>> shift) & RADIX_MASK;
+    }
+
+    private static long sortKey(long sequenceId, @Nonnegative int timestampShift, @Nonnegative int counterBits) {
+        // Timestamp and counter leave at least one logical node bit out and always fit into a positive long
+        long counterMask = (1L << counterBits) - 1;
+        return ((sequenceId >>> timestampShift) << counterBits) | (sequenceId & counterMask);
+    }
+}
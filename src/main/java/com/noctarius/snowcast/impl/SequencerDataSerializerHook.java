@@ -22,14 +22,19 @@ import com.hazelcast.nio.serialization.DataSerializableFactory;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import com.hazelcast.util.ConstructorFunction;
 import com.noctarius.snowcast.impl.operations.AttachLogicalNodeOperation;
+import com.noctarius.snowcast.impl.operations.AttachLogicalNodesOperation;
 import com.noctarius.snowcast.impl.operations.BackupAttachLogicalNodeOperation;
+import com.noctarius.snowcast.impl.operations.BackupAttachLogicalNodesOperation;
 import com.noctarius.snowcast.impl.operations.BackupCreateSequencerDefinitionOperation;
 import com.noctarius.snowcast.impl.operations.BackupDestroySequencerDefinitionOperation;
 import com.noctarius.snowcast.impl.operations.BackupDetachLogicalNodeOperation;
+import com.noctarius.snowcast.impl.operations.BackupRenewLogicalNodeLeaseOperation;
 import com.noctarius.snowcast.impl.operations.CreateSequencerDefinitionOperation;
 import com.noctarius.snowcast.impl.operations.DestroySequencerDefinitionOperation;
 import com.noctarius.snowcast.impl.operations.DestroySequencerOperation;
 import com.noctarius.snowcast.impl.operations.DetachLogicalNodeOperation;
+import com.noctarius.snowcast.impl.operations.SequencerReplicaDigestOperation;
+import com.noctarius.snowcast.impl.operations.SequencerReplicaSyncOperation;
 import com.noctarius.snowcast.impl.operations.SequencerReplicationOperation;
 
 import javax.annotation.Nonnegative;
@@ -52,8 +57,13 @@ public class SequencerDataSerializerHook
     public static final int TYPE_BACKUP_DESTROY_SEQUENCER_DEFINITION = 8;
     public static final int TYPE_BACKUP_ATTACH_LOGICAL_NODE = 9;
     public static final int TYPE_BACKUP_DETACH_LOGICAL_NODE = 10;
+    public static final int TYPE_BACKUP_RENEW_LOGICAL_NODE_LEASE = 11;
+    public static final int TYPE_ATTACH_LOGICAL_NODES = 12;
+    public static final int TYPE_BACKUP_ATTACH_LOGICAL_NODES = 13;
+    public static final int TYPE_REPLICA_DIGEST_OPERATION = 14;
+    public static final int TYPE_REPLICA_SYNC_OPERATION = 15;
 
-    private static final int LEN = TYPE_BACKUP_DETACH_LOGICAL_NODE + 1;
+    private static final int LEN = TYPE_REPLICA_SYNC_OPERATION + 1;
 
     private static final int DEFAULT_FACTORY_ID = 78412;
 
@@ -83,6 +93,11 @@ public class SequencerDataSerializerHook
         constructors[TYPE_BACKUP_DESTROY_SEQUENCER_DEFINITION] = id -> new BackupDestroySequencerDefinitionOperation();
         constructors[TYPE_BACKUP_ATTACH_LOGICAL_NODE] = id -> new BackupAttachLogicalNodeOperation();
         constructors[TYPE_BACKUP_DETACH_LOGICAL_NODE] = id -> new BackupDetachLogicalNodeOperation();
+        constructors[TYPE_BACKUP_RENEW_LOGICAL_NODE_LEASE] = id -> new BackupRenewLogicalNodeLeaseOperation();
+        constructors[TYPE_ATTACH_LOGICAL_NODES] = id -> new AttachLogicalNodesOperation();
+        constructors[TYPE_BACKUP_ATTACH_LOGICAL_NODES] = id -> new BackupAttachLogicalNodesOperation();
+        constructors[TYPE_REPLICA_DIGEST_OPERATION] = id -> new SequencerReplicaDigestOperation();
+        constructors[TYPE_REPLICA_SYNC_OPERATION] = id -> new SequencerReplicaSyncOperation();
         return new ArrayDataSerializableFactory(constructors);
     }
 }
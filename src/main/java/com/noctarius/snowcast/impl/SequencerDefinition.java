@@ -16,8 +16,9 @@
  */
 package com.noctarius.snowcast.impl;
 
+import com.hazelcast.util.QuickMath;
 import com.noctarius.snowcast.SnowcastEpoch;
-import com.noctarius.snowcast.SnowcastMaxLogicalNodeIdOutOfBoundsException;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -25,36 +26,46 @@ import javax.annotation.Nullable;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 
-import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_MAX_LOGICAL_NODE_ID_BOUNDARY;
+import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_MAX_LOGICAL_NODE_COUNT;
 import static com.noctarius.snowcast.impl.ExceptionUtils.exception;
-import static com.noctarius.snowcast.impl.SnowcastConstants.NODE_ID_LOWER_BOUND;
-import static com.noctarius.snowcast.impl.SnowcastConstants.NODE_ID_UPPER_BOUND;
 
 public final class SequencerDefinition {
     private final String sequencerName;
     private final SnowcastEpoch epoch;
     private final int maxLogicalNodeCount;
     private final int boundedMaxLogicalNodeCount;
+    private final SnowcastSequenceLayout sequenceLayout;
     private final short backupCount;
 
     public SequencerDefinition(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
                                @Min(128) @Max(8192) int maxLogicalNodeCount,
                                @Nonnegative @Max(Short.MAX_VALUE) short backupCount) {
 
-        if (maxLogicalNodeCount < NODE_ID_LOWER_BOUND) {
-            throw exception(SnowcastMaxLogicalNodeIdOutOfBoundsException::new, //
-                    ILLEGAL_MAX_LOGICAL_NODE_ID_BOUNDARY, "smaller", NODE_ID_LOWER_BOUND);
-        }
-        if (maxLogicalNodeCount > NODE_ID_UPPER_BOUND) {
-            throw exception(SnowcastMaxLogicalNodeIdOutOfBoundsException::new, //
-                    ILLEGAL_MAX_LOGICAL_NODE_ID_BOUNDARY, "larger", NODE_ID_UPPER_BOUND);
+        this(sequencerName, epoch, maxLogicalNodeCount, SnowcastSequenceLayout.of(maxLogicalNodeCount), backupCount);
+    }
+
+    public SequencerDefinition(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                               @Nonnull SnowcastSequenceLayout sequenceLayout,
+                               @Nonnegative @Max(Short.MAX_VALUE) short backupCount) {
+
+        this(sequencerName, epoch, sequenceLayout.getMaxLogicalNodeCount(), sequenceLayout, backupCount);
+    }
+
+    public SequencerDefinition(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                               @Min(2) @Max(8192) int maxLogicalNodeCount, @Nonnull SnowcastSequenceLayout sequenceLayout,
+                               @Nonnegative @Max(Short.MAX_VALUE) short backupCount) {
+
+        // The requested maxLogicalNodeCount is kept as given, the layout rounds it up to a power of two
+        if (maxLogicalNodeCount < 1 || QuickMath.nextPowerOfTwo(maxLogicalNodeCount) != sequenceLayout.getMaxLogicalNodeCount()) {
+            throw exception(IllegalArgumentException::new, ILLEGAL_MAX_LOGICAL_NODE_COUNT);
         }
 
         this.sequencerName = sequencerName;
         this.epoch = epoch;
         this.maxLogicalNodeCount = maxLogicalNodeCount;
+        this.sequenceLayout = sequenceLayout;
         this.backupCount = backupCount;
-        this.boundedMaxLogicalNodeCount = InternalSequencerUtils.calculateBoundedMaxLogicalNodeCount(maxLogicalNodeCount);
+        this.boundedMaxLogicalNodeCount = sequenceLayout.getMaxLogicalNodeCount() - 1;
     }
 
     @Nonnull
@@ -77,6 +88,11 @@ public final class SequencerDefinition {
         return boundedMaxLogicalNodeCount;
     }
 
+    @Nonnull
+    public SnowcastSequenceLayout getSequenceLayout() {
+        return sequenceLayout;
+    }
+
     @Min(128)
     @Max(8192)
     public short getBackupCount() {
@@ -97,6 +113,9 @@ public final class SequencerDefinition {
         if (maxLogicalNodeCount != that.maxLogicalNodeCount) {
             return false;
         }
+        if (!sequenceLayout.equals(that.sequenceLayout)) {
+            return false;
+        }
         if (!epoch.equals(that.epoch)) {
             return false;
         }
@@ -111,6 +130,7 @@ public final class SequencerDefinition {
         int result = sequencerName.hashCode();
         result = 31 * result + (epoch.hashCode());
         result = 31 * result + maxLogicalNodeCount;
+        result = 31 * result + sequenceLayout.hashCode();
         result = 31 * result + backupCount;
         return result;
     }
@@ -118,6 +138,6 @@ public final class SequencerDefinition {
     @Override
     public String toString() {
         return "SequencerDefinition{" + "sequencerName='" + sequencerName + '\'' + ", epoch=" + epoch + ", maxLogicalNodeCount="
-                + maxLogicalNodeCount + ", backupCount=" + backupCount + '}';
+                + maxLogicalNodeCount + ", sequenceLayout=" + sequenceLayout + ", backupCount=" + backupCount + '}';
     }
 }
@@ -22,11 +22,14 @@ import com.hazelcast.nio.serialization.Serializer;
 import com.hazelcast.nio.serialization.SerializerHook;
 import com.hazelcast.nio.serialization.StreamSerializer;
 import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import java.io.IOException;
 
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.sequenceLayoutOf;
+
 public class SequencerDefinitionSerializerHook
         implements SerializerHook<SequencerDefinition> {
 
@@ -57,6 +60,9 @@ public class SequencerDefinitionSerializerHook
             out.writeUTF(definition.getSequencerName());
             out.writeLong(definition.getEpoch().getEpochOffset());
             out.writeInt(definition.getMaxLogicalNodeCount());
+            out.writeByte(definition.getSequenceLayout().getTimestampBits());
+            out.writeByte(definition.getSequenceLayout().getCounterBits());
+            out.writeByte(definition.getSequenceLayout().getTimestampResolution().getTicksPerMillisecond());
             out.writeShort(definition.getBackupCount());
         }
 
@@ -67,10 +73,15 @@ public class SequencerDefinitionSerializerHook
             String sequencerName = in.readUTF();
             long epochOffset = in.readLong();
             int maxLogicalNodeCount = in.readInt();
+            int timestampBits = in.readByte();
+            int counterBits = in.readByte();
+            int ticksPerMillisecond = in.readByte();
             short backupCount = in.readShort();
 
             SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(epochOffset);
-            return new SequencerDefinition(sequencerName, epoch, maxLogicalNodeCount, backupCount);
+            SnowcastSequenceLayout sequenceLayout = sequenceLayoutOf(maxLogicalNodeCount, timestampBits, counterBits,
+                    ticksPerMillisecond);
+            return new SequencerDefinition(sequencerName, epoch, maxLogicalNodeCount, sequenceLayout, backupCount);
         }
 
         @Override
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import com.noctarius.snowcast.SnowcastLatencyHistogram;
+import com.noctarius.snowcast.SnowcastSequencerMetrics;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.atomic.LongAdder;
+
+@ThreadSafe
+final class SequencerMetrics
+        implements SnowcastSequencerMetrics, SequencerMetricsMXBean {
+
+    private final String sequencerName;
+
+    // Recorded on the generation path, LongAdder cells keep concurrent producers from contending
+    private final LongAdder generatedIds = new LongAdder();
+    private final LongAdder counterExhaustionWaits = new LongAdder();
+    private final LongAdder casRetries = new LongAdder();
+    private final LongAdder retryLimitApproaches = new LongAdder();
+
+    private volatile int attachedLogicalNodes;
+
+    private final StripedLatencyHistogram attachLatency = new StripedLatencyHistogram();
+    private final StripedLatencyHistogram detachLatency = new StripedLatencyHistogram();
+
+    SequencerMetrics(@Nonnull String sequencerName) {
+        this.sequencerName = sequencerName;
+    }
+
+    void recordGeneratedIds(@Nonnegative int count) {
+        generatedIds.add(count);
+    }
+
+    void recordCounterExhaustionWait() {
+        counterExhaustionWaits.increment();
+    }
+
+    void recordCasRetry() {
+        casRetries.increment();
+    }
+
+    void recordRetryLimitApproach() {
+        retryLimitApproaches.increment();
+    }
+
+    void recordAttachLatency(@Nonnegative long nanos) {
+        attachLatency.record(nanos);
+    }
+
+    void recordDetachLatency(@Nonnegative long nanos) {
+        detachLatency.record(nanos);
+    }
+
+    void recordAttachedLogicalNodes(@Nonnegative int attachedLogicalNodes) {
+        this.attachedLogicalNodes = attachedLogicalNodes;
+    }
+
+    @Nonnull
+    @Override
+    public String getSequencerName() {
+        return sequencerName;
+    }
+
+    @Override
+    public long getGeneratedIds() {
+        return generatedIds.sum();
+    }
+
+    @Override
+    public long getCounterExhaustionWaits() {
+        return counterExhaustionWaits.sum();
+    }
+
+    @Override
+    public long getCasRetries() {
+        return casRetries.sum();
+    }
+
+    @Override
+    public long getRetryLimitApproaches() {
+        return retryLimitApproaches.sum();
+    }
+
+    @Override
+    public int getAttachedLogicalNodes() {
+        return attachedLogicalNodes;
+    }
+
+    @Nonnull
+    @Override
+    public SnowcastLatencyHistogram getAttachLatency() {
+        return attachLatency;
+    }
+
+    @Nonnull
+    @Override
+    public SnowcastLatencyHistogram getDetachLatency() {
+        return detachLatency;
+    }
+
+    @Override
+    public long getAttachLatencyCount() {
+        return attachLatency.getCount();
+    }
+
+    @Override
+    public long getAttachLatencyMeanNanos() {
+        return attachLatency.getMeanNanos();
+    }
+
+    @Override
+    public long getAttachLatencyMaxNanos() {
+        return attachLatency.getMaxNanos();
+    }
+
+    @Nonnull
+    @Override
+    public long[] getAttachLatencyBuckets() {
+        return attachLatency.getBucketValues();
+    }
+
+    @Override
+    public long getDetachLatencyCount() {
+        return detachLatency.getCount();
+    }
+
+    @Override
+    public long getDetachLatencyMeanNanos() {
+        return detachLatency.getMeanNanos();
+    }
+
+    @Override
+    public long getDetachLatencyMaxNanos() {
+        return detachLatency.getMaxNanos();
+    }
+
+    @Nonnull
+    @Override
+    public long[] getDetachLatencyBuckets() {
+        return detachLatency.getBucketValues();
+    }
+
+    @Override
+    public String toString() {
+        return "SequencerMetrics{" + "sequencerName='" + sequencerName + '\'' + ", generatedIds=" + generatedIds
+                + ", counterExhaustionWaits=" + counterExhaustionWaits + ", casRetries=" + casRetries
+                + ", retryLimitApproaches=" + retryLimitApproaches + ", attachedLogicalNodes=" + attachedLogicalNodes + '}';
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import javax.annotation.Nonnull;
+
+/**
+ * JMX view of the {@link com.noctarius.snowcast.SnowcastSequencerMetrics}, latency histograms are
+ * flattened into plain attributes. Bucket arrays are indexed as described in
+ * {@link com.noctarius.snowcast.SnowcastLatencyHistogram}.
+ */
+public interface SequencerMetricsMXBean {
+
+    @Nonnull
+    String getSequencerName();
+
+    long getGeneratedIds();
+
+    long getCounterExhaustionWaits();
+
+    long getCasRetries();
+
+    long getRetryLimitApproaches();
+
+    int getAttachedLogicalNodes();
+
+    long getAttachLatencyCount();
+
+    long getAttachLatencyMeanNanos();
+
+    long getAttachLatencyMaxNanos();
+
+    @Nonnull
+    long[] getAttachLatencyBuckets();
+
+    long getDetachLatencyCount();
+
+    long getDetachLatencyMeanNanos();
+
+    long getDetachLatencyMaxNanos();
+
+    @Nonnull
+    long[] getDetachLatencyBuckets();
+}
@@ -21,14 +21,20 @@ import com.hazelcast.nio.UnsafeHelper;
 import com.noctarius.snowcast.SnowcastException;
 import com.noctarius.snowcast.SnowcastIllegalStateException;
 import com.noctarius.snowcast.SnowcastSequencerAlreadyRegisteredException;
+import com.noctarius.snowcast.impl.LogicalNodeTable.SlotSnapshot;
 import sun.misc.Unsafe;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.noctarius.snowcast.impl.ExceptionMessages.PARTITION_IS_FROZEN;
 import static com.noctarius.snowcast.impl.ExceptionMessages.SEQUENCER_ALREADY_REGISTERED;
@@ -43,6 +49,10 @@ public final class SequencerPartition {
     private static final int FROZEN = 1;
     private static final int UNFROZEN = 0;
 
+    // Versions issued by a promoted owner start at the next epoch, above anything the former owner might
+    // have sent to some of the replicas only
+    private static final int VERSION_EPOCH_SHIFT = 32;
+
     static {
         try {
             Field frozen = SequencerPartition.class.getDeclaredField("frozen");
@@ -58,11 +68,18 @@ public final class SequencerPartition {
 
     private final ConcurrentMap<String, LogicalNodeTable> logicalNodeTables;
 
+    // Shared by all tables of the partition, orders the mutations of all tables
+    private final AtomicLong partitionVersion;
+
     private volatile int frozen = UNFROZEN;
 
+    // Only meaningful while frozen, written by the freezing thread only
+    private volatile long frozenSince;
+
     public SequencerPartition(@Nonnegative int partitionId) {
         this.partitionId = partitionId;
         this.logicalNodeTables = new ConcurrentHashMap<>();
+        this.partitionVersion = new AtomicLong();
     }
 
     public int getPartitionId() {
@@ -72,6 +89,14 @@ public final class SequencerPartition {
     @Nonnull
     @Nonnegative
     public Integer attachLogicalNode(@Nonnull SequencerDefinition definition, @Nonnull Address address) {
+        return attachLogicalNode(definition, address, 0, 0);
+    }
+
+    @Nonnull
+    @Nonnegative
+    public Integer attachLogicalNode(@Nonnull SequencerDefinition definition, @Nonnull Address address, long now,
+                                     long leaseExpiration) {
+
         checkPartitionFreezeStatus();
 
         SequencerDefinition safeDefinition = checkOrRegisterSequencerDefinition(definition);
@@ -81,7 +106,69 @@ public final class SequencerPartition {
         if (logicalNodeTable == null) {
             throw exception(SnowcastIllegalStateException::new, UNREGISTERED_SEQUENCER_LOGICAL_NODE_TABLE, partitionId);
         }
-        return logicalNodeTable.attachLogicalNode(address);
+        return logicalNodeTable.attachLogicalNode(address, now, leaseExpiration);
+    }
+
+    @Nonnull
+    public int[] attachLogicalNodes(@Nonnull List<SequencerDefinition> definitions, @Nonnull Address address, long now) {
+        checkPartitionFreezeStatus();
+
+        // Check all definitions first, a conflicting definition fails the batch before anything is registered
+        Map<String, SequencerDefinition> checkedDefinitions = new HashMap<>();
+        for (SequencerDefinition definition : definitions) {
+            String sequencerName = definition.getSequencerName();
+            LogicalNodeTable logicalNodeTable = logicalNodeTables.get(sequencerName);
+            SequencerDefinition other = logicalNodeTable != null
+                    ? logicalNodeTable.getSequencerDefinition() : checkedDefinitions.get(sequencerName);
+
+            checkedDefinitions.put(sequencerName, checkSequencerDefinitions(definition, other));
+        }
+
+        LogicalNodeTable[] tables = new LogicalNodeTable[definitions.size()];
+        for (int i = 0; i < tables.length; i++) {
+            SequencerDefinition safeDefinition = checkOrRegisterSequencerDefinition(definitions.get(i));
+            LogicalNodeTable logicalNodeTable = logicalNodeTables.get(safeDefinition.getSequencerName());
+            if (logicalNodeTable == null) {
+                throw exception(SnowcastIllegalStateException::new, UNREGISTERED_SEQUENCER_LOGICAL_NODE_TABLE, partitionId);
+            }
+            tables[i] = logicalNodeTable;
+        }
+
+        int[] logicalNodeIds = new int[tables.length];
+        int attached = 0;
+        try {
+            for (; attached < tables.length; attached++) {
+                logicalNodeIds[attached] = tables[attached].attachLogicalNode(address, now, 0);
+            }
+        } catch (RuntimeException e) {
+            // Release the already attached logical node ids, the batch fails as a whole
+            for (int i = 0; i < attached; i++) {
+                tables[i].detachLogicalNode(address, logicalNodeIds[i]);
+            }
+            throw e;
+        }
+        return logicalNodeIds;
+    }
+
+    public boolean renewLogicalNodeLease(@Nonnull String sequencerName, @Nonnull Address address,
+                                         @Nonnegative int logicalNodeId, long leaseExpiration) {
+
+        checkPartitionFreezeStatus();
+
+        LogicalNodeTable logicalNodeTable = logicalNodeTables.get(sequencerName);
+        return logicalNodeTable != null && logicalNodeTable.renewLease(address, logicalNodeId, leaseExpiration);
+    }
+
+    public void renewLogicalNodeLease(@Nonnull String sequencerName, @Nonnull Address address,
+                                      @Nonnegative int logicalNodeId, long leaseExpiration,
+                                      @Nonnull LogicalNodeTableVersion tableVersion) {
+
+        checkPartitionFreezeStatus();
+
+        LogicalNodeTable logicalNodeTable = logicalNodeTables.get(sequencerName);
+        if (logicalNodeTable != null && logicalNodeTable.getCreatedVersion() == tableVersion.getCreatedVersion()) {
+            logicalNodeTable.renewLease(address, logicalNodeId, leaseExpiration, tableVersion);
+        }
     }
 
     public void detachLogicalNode(@Nonnull String sequencerName, @Nonnull Address address, @Nonnegative int logicalNodeId) {
@@ -94,6 +181,12 @@ public final class SequencerPartition {
     }
 
     public void assignLogicalNode(SequencerDefinition definition, int logicalNodeId, Address address) {
+        assignLogicalNode(definition, logicalNodeId, address, 0);
+    }
+
+    public void assignLogicalNode(@Nonnull SequencerDefinition definition, @Nonnegative int logicalNodeId,
+                                  @Nonnull Address address, long leaseExpiration) {
+
         checkPartitionFreezeStatus();
 
         SequencerDefinition safeDefinition = checkOrRegisterSequencerDefinition(definition);
@@ -103,7 +196,17 @@ public final class SequencerPartition {
         if (logicalNodeTable == null) {
             throw exception(SnowcastIllegalStateException::new, UNREGISTERED_SEQUENCER_LOGICAL_NODE_TABLE, partitionId);
         }
-        logicalNodeTable.assignLogicalNode(logicalNodeId, address);
+        logicalNodeTable.assignLogicalNode(logicalNodeId, address, leaseExpiration);
+    }
+
+    public void assignLogicalNode(@Nonnull SequencerDefinition definition, @Nonnegative int logicalNodeId,
+                                  @Nonnull Address address, long leaseExpiration,
+                                  @Nonnull LogicalNodeTableVersion tableVersion) {
+
+        checkPartitionFreezeStatus();
+
+        LogicalNodeTable logicalNodeTable = replicaLogicalNodeTable(definition, tableVersion);
+        logicalNodeTable.assignLogicalNode(logicalNodeId, address, leaseExpiration, tableVersion);
     }
 
     public void unassignLogicalNode(@Nonnull SequencerDefinition definition, @Nonnegative int logicalNodeId,
@@ -120,6 +223,32 @@ public final class SequencerPartition {
         }
     }
 
+    public void unassignLogicalNode(@Nonnull SequencerDefinition definition, @Nonnegative int logicalNodeId,
+                                    @Nonnull Address address, @Nonnull LogicalNodeTableVersion tableVersion) {
+
+        checkPartitionFreezeStatus();
+
+        LogicalNodeTable logicalNodeTable = logicalNodeTables.get(definition.getSequencerName());
+        if (logicalNodeTable != null && logicalNodeTable.getCreatedVersion() == tableVersion.getCreatedVersion()) {
+            logicalNodeTable.detachLogicalNode(address, logicalNodeId, tableVersion);
+        }
+    }
+
+    @Nonnull
+    public LogicalNodeTableVersion getLogicalNodeTableVersion(@Nonnull String sequencerName) {
+        LogicalNodeTable logicalNodeTable = logicalNodeTables.get(sequencerName);
+        return logicalNodeTable != null ? logicalNodeTable.getTableVersion() : LogicalNodeTableVersion.UNKNOWN_TABLE;
+    }
+
+    @Nonnull
+    public LogicalNodeTableVersion[] getLogicalNodeTableVersions(@Nonnull List<SequencerDefinition> definitions) {
+        LogicalNodeTableVersion[] tableVersions = new LogicalNodeTableVersion[definitions.size()];
+        for (int i = 0; i < tableVersions.length; i++) {
+            tableVersions[i] = getLogicalNodeTableVersion(definitions.get(i).getSequencerName());
+        }
+        return tableVersions;
+    }
+
     @Nullable
     Address getAttachedLogicalNode(@Nonnull String sequencerName, @Nonnegative int logicalNodeId) {
         LogicalNodeTable logicalNodeTable = logicalNodeTables.get(sequencerName);
@@ -130,7 +259,7 @@ public final class SequencerPartition {
     }
 
     @Nullable
-    SequencerDefinition getSequencerDefinition(@Nonnull String sequencerName) {
+    public SequencerDefinition getSequencerDefinition(@Nonnull String sequencerName) {
         LogicalNodeTable logicalNodeTable = logicalNodeTables.get(sequencerName);
         if (logicalNodeTable == null) {
             return null;
@@ -144,13 +273,21 @@ public final class SequencerPartition {
 
         LogicalNodeTable logicalNodeTable = logicalNodeTables.computeIfAbsent(sequencerName, name -> {
             checkPartitionFreezeStatus();
-            return new LogicalNodeTable(partitionId, definition);
+            return new LogicalNodeTable(partitionId, definition, partitionVersion);
         });
 
         SequencerDefinition other = logicalNodeTable.getSequencerDefinition();
         return checkSequencerDefinitions(definition, other);
     }
 
+    @Nonnull
+    SequencerDefinition checkOrRegisterSequencerDefinition(@Nonnull SequencerDefinition definition,
+                                                           @Nonnull LogicalNodeTableVersion tableVersion) {
+
+        checkPartitionFreezeStatus();
+        return replicaLogicalNodeTable(definition, tableVersion).getSequencerDefinition();
+    }
+
     @Nullable
     SequencerDefinition destroySequencerDefinition(@Nonnull String sequencerName) {
         checkPartitionFreezeStatus();
@@ -159,13 +296,15 @@ public final class SequencerPartition {
         return logicalNodeTable != null ? logicalNodeTable.getSequencerDefinition() : null;
     }
 
-    void mergeLogicalNodeTable(@Nonnull LogicalNodeTable mergeable) {
-        SequencerDefinition definition = mergeable.getSequencerDefinition();
+    void mergeLogicalNodeTable(@Nonnull SlotSnapshot snapshot) {
+        SequencerDefinition definition = snapshot.getSequencerDefinition();
         String sequencerName = definition.getSequencerName();
 
         LogicalNodeTable logicalNodeTable = logicalNodeTables.get(sequencerName);
         if (logicalNodeTable == null) {
-            logicalNodeTables.put(sequencerName, mergeable);
+            logicalNodeTable = new LogicalNodeTable(partitionId, definition, partitionVersion, snapshot.getCreatedVersion());
+            logicalNodeTable.merge(snapshot);
+            logicalNodeTables.put(sequencerName, logicalNodeTable);
             return;
         }
 
@@ -173,36 +312,125 @@ public final class SequencerPartition {
         SequencerDefinition registered = logicalNodeTable.getSequencerDefinition();
         checkSequencerDefinitions(definition, registered);
 
-        // Merge existing and replicated LogicalNodeTable if possible, if not
-        // kill the replication process
-        logicalNodeTable.merge(mergeable);
+        // The replicated LogicalNodeTable of the owner replaces the existing one, leased slots may have
+        // been reassigned since, conflicting slots without a lease kill the replication process
+        logicalNodeTable.merge(snapshot);
+    }
+
+    void synchronizeLogicalNodeTable(@Nonnull SlotSnapshot snapshot) {
+        SequencerDefinition definition = snapshot.getSequencerDefinition();
+        String sequencerName = definition.getSequencerName();
+
+        LogicalNodeTable logicalNodeTable = logicalNodeTables.get(sequencerName);
+        if (snapshot.isDelta()) {
+            // A delta only applies to the table it was created for, a vanished or recreated table
+            // will be requested again on the next replica synchronization
+            if (logicalNodeTable != null && logicalNodeTable.getCreatedVersion() == snapshot.getCreatedVersion()) {
+                logicalNodeTable.applyDelta(snapshot);
+            }
+            return;
+        }
+
+        // The owner sent the whole table, it replaces whatever this replica stored before
+        logicalNodeTable = new LogicalNodeTable(partitionId, definition, partitionVersion, snapshot.getCreatedVersion());
+        logicalNodeTable.merge(snapshot);
+        logicalNodeTables.put(sequencerName, logicalNodeTable);
+    }
+
+    @Nonnull
+    public PartitionReplication createPartitionReplication() {
+        List<SlotSnapshot> snapshots = new ArrayList<>(logicalNodeTables.size());
+        for (LogicalNodeTable logicalNodeTable : logicalNodeTables.values()) {
+            snapshots.add(logicalNodeTable.snapshot());
+        }
+        return new PartitionReplication(partitionId, snapshots, false);
+    }
+
+    @Nonnull
+    public PartitionReplication createPartitionReplication(@Nonnull Map<String, LogicalNodeTableVersion> knownVersions) {
+        List<SlotSnapshot> snapshots = new ArrayList<>(knownVersions.size());
+        for (Map.Entry<String, LogicalNodeTableVersion> entry : knownVersions.entrySet()) {
+            LogicalNodeTable logicalNodeTable = logicalNodeTables.get(entry.getKey());
+            if (logicalNodeTable != null) {
+                snapshots.add(logicalNodeTable.snapshot(entry.getValue()));
+            }
+        }
+        return new PartitionReplication(partitionId, snapshots, true);
+    }
+
+    @Nonnull
+    public Map<String, LogicalNodeTableVersion> createPartitionDigest() {
+        Map<String, LogicalNodeTableVersion> digest = new HashMap<>();
+        for (LogicalNodeTable logicalNodeTable : logicalNodeTables.values()) {
+            digest.put(logicalNodeTable.getSequencerName(), logicalNodeTable.getTableVersion());
+        }
+        return digest;
     }
 
     @Nonnull
-    PartitionReplication createPartitionReplication() {
-        return new PartitionReplication(partitionId, logicalNodeTables.values());
+    public Map<String, LogicalNodeTableVersion> compareDigest(@Nonnull Map<String, LogicalNodeTableVersion> digest) {
+        // Sequencers destroyed on the owner are removed, the owner won't send anything about them anymore
+        logicalNodeTables.keySet().retainAll(digest.keySet());
+
+        Map<String, LogicalNodeTableVersion> knownVersions = new HashMap<>();
+        for (Map.Entry<String, LogicalNodeTableVersion> entry : digest.entrySet()) {
+            LogicalNodeTableVersion ownerVersion = entry.getValue();
+            LogicalNodeTable logicalNodeTable = logicalNodeTables.get(entry.getKey());
+            if (logicalNodeTable == null) {
+                knownVersions.put(entry.getKey(), LogicalNodeTableVersion.UNKNOWN_TABLE);
+                continue;
+            }
+
+            LogicalNodeTableVersion tableVersion = logicalNodeTable.getTableVersion();
+            if (tableVersion.getCreatedVersion() != ownerVersion.getCreatedVersion()
+                    || tableVersion.getVersion() != ownerVersion.getVersion()) {
+                knownVersions.put(entry.getKey(), tableVersion);
+            }
+        }
+        return knownVersions;
+    }
+
+    void promote() {
+        while (true) {
+            long version = partitionVersion.get();
+            long promotedVersion = ((version >>> VERSION_EPOCH_SHIFT) + 1) << VERSION_EPOCH_SHIFT;
+            if (partitionVersion.compareAndSet(version, promotedVersion)) {
+                return;
+            }
+        }
     }
 
     void freeze() {
-        updateFreezeStatus(FROZEN);
+        if (updateFreezeStatus(FROZEN)) {
+            frozenSince = System.nanoTime();
+        }
     }
 
-    void unfreeze() {
-        updateFreezeStatus(UNFROZEN);
+    /**
+     * Unfreezes the partition.
+     *
+     * @return the number of nanoseconds the partition was frozen, -1 if it wasn't frozen
+     */
+    long unfreeze() {
+        long frozenSince = this.frozenSince;
+        if (updateFreezeStatus(UNFROZEN)) {
+            return System.nanoTime() - frozenSince;
+        }
+        return -1;
     }
 
     boolean isFrozen() {
         return frozen == FROZEN;
     }
 
-    private void updateFreezeStatus(int newStatus) {
+    private boolean updateFreezeStatus(int newStatus) {
         while (true) {
             int frozen = this.frozen;
             if (frozen == newStatus) {
-                return;
+                return false;
             }
             if (UNSAFE.compareAndSwapInt(this, FROZEN_OFFSET, frozen, newStatus)) {
-                return;
+                return true;
             }
         }
     }
@@ -213,6 +441,24 @@ public final class SequencerPartition {
         }
     }
 
+    @Nonnull
+    private LogicalNodeTable replicaLogicalNodeTable(@Nonnull SequencerDefinition definition,
+                                                     @Nonnull LogicalNodeTableVersion tableVersion) {
+
+        String sequencerName = definition.getSequencerName();
+        LogicalNodeTable logicalNodeTable = logicalNodeTables.get(sequencerName);
+        if (logicalNodeTable != null && logicalNodeTable.getCreatedVersion() == tableVersion.getCreatedVersion()) {
+            checkSequencerDefinitions(definition, logicalNodeTable.getSequencerDefinition());
+            return logicalNodeTable;
+        }
+
+        // Unknown or recreated on the owner in the meantime, the table starts at the owner's created version
+        long createdVersion = tableVersion.getCreatedVersion();
+        logicalNodeTable = new LogicalNodeTable(partitionId, definition, partitionVersion, createdVersion);
+        logicalNodeTables.put(sequencerName, logicalNodeTable);
+        return logicalNodeTable;
+    }
+
     @Nonnull
     private SequencerDefinition checkSequencerDefinitions(@Nonnull SequencerDefinition definition,
                                                           @Nullable SequencerDefinition other) {
@@ -17,18 +17,46 @@
 package com.noctarius.snowcast.impl;
 
 import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
 import com.noctarius.snowcast.SnowcastSequencer;
+import com.noctarius.snowcast.SnowcastSequencerOptions;
+import com.noctarius.snowcast.SnowcastSequencerSpec;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.util.Collection;
+import java.util.List;
 
 public interface SequencerService {
 
+    @Nonnull
+    default Object createSequencer(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                                   @Min(128) @Max(8192) int maxLogicalNodeCount,
+                                   @Nonnegative @Max(Short.MAX_VALUE) short backupCount) {
+
+        return createSequencer(sequencerName, epoch, maxLogicalNodeCount, backupCount, SnowcastSequencerOptions.defaults());
+    }
+
+    @Nonnull
+    default Object createSequencer(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
+                                   @Min(128) @Max(8192) int maxLogicalNodeCount,
+                                   @Nonnegative @Max(Short.MAX_VALUE) short backupCount,
+                                   @Nonnull SnowcastSequencerOptions options) {
+
+        SnowcastSequenceLayout sequenceLayout = SnowcastSequenceLayout.of(maxLogicalNodeCount);
+        return createSequencer(sequencerName, epoch, maxLogicalNodeCount, sequenceLayout, backupCount, options);
+    }
+
     @Nonnull
     Object createSequencer(@Nonnull String sequencerName, @Nonnull SnowcastEpoch epoch,
-                           @Min(128) @Max(8192) int maxLogicalNodeCount, @Nonnegative @Max(Short.MAX_VALUE) short backupCount);
+                           @Min(2) @Max(8192) int maxLogicalNodeCount, @Nonnull SnowcastSequenceLayout sequenceLayout,
+                           @Nonnegative @Max(Short.MAX_VALUE) short backupCount, @Nonnull SnowcastSequencerOptions options);
+
+    @Nonnull
+    List<SnowcastSequencer> createSequencers(@Nonnull Collection<SnowcastSequencerSpec> specs,
+                                             @Nonnegative @Max(Short.MAX_VALUE) short backupCount);
 
     void destroySequencer(@Nonnull SnowcastSequencer sequencer);
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import com.noctarius.snowcast.SnowcastSequencer;
+import com.noctarius.snowcast.SnowcastTimestampResolution;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.noctarius.snowcast.impl.ExceptionMessages.ILLEGAL_SUBSCRIPTION_REQUEST;
+import static com.noctarius.snowcast.impl.ExceptionUtils.exception;
+
+/**
+ * Reactive Streams subscription emitting snowcast sequence IDs according to the subscriber's
+ * demand. IDs are claimed in chunks without blocking. If the counter range of the current
+ * tick is exhausted, the emission continues at the next tick, therefore the
+ * producer is paced by the sequencer's counter budget instead of failing. The
+ * {@link MillisecondTickScheduler} only hands the continuation off to the given executor, the
+ * subscriber is never called from the shared tick scheduler thread.
+ */
+@ThreadSafe
+public final class SequencerSubscription
+        implements Subscription {
+
+    private static final int CHUNK_SIZE = 256;
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger workInProgress = new AtomicInteger();
+
+    private final long[] buffer = new long[CHUNK_SIZE];
+    private final Runnable drainTask = this::handOffDrain;
+
+    private final InternalSequencer sequencer;
+    private final SnowcastTimestampResolution timestampResolution;
+    private final Subscriber<? super Long> subscriber;
+    private final Executor executor;
+
+    private volatile boolean cancelled;
+    private volatile Throwable pendingError;
+
+    public SequencerSubscription(@Nonnull SnowcastSequencer sequencer, @Nonnull Subscriber<? super Long> subscriber,
+                                 @Nonnull Executor executor) {
+
+        this.sequencer = (InternalSequencer) sequencer;
+        this.timestampResolution = this.sequencer.getSequencerDefinition().getSequenceLayout().getTimestampResolution();
+        this.subscriber = subscriber;
+        this.executor = executor;
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            pendingError = exception(IllegalArgumentException::new, ILLEGAL_SUBSCRIPTION_REQUEST, n);
+        } else {
+            addRequested(n);
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private void addRequested(long n) {
+        while (true) {
+            long current = requested.get();
+            long next = current + n;
+            // Cap at Long.MAX_VALUE which counts as unbounded demand
+            if (next < 0) {
+                next = Long.MAX_VALUE;
+            }
+            if (requested.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private void handOffDrain() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Nothing would ever continue the emission
+            cancelled = true;
+            subscriber.onError(e);
+        }
+    }
+
+    private void drain() {
+        // Only one thread emits at a time, others just mark missed work
+        if (workInProgress.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        while (true) {
+            if (cancelled) {
+                return;
+            }
+
+            Throwable error = pendingError;
+            if (error != null) {
+                cancelled = true;
+                subscriber.onError(error);
+                return;
+            }
+
+            long demand = requested.get();
+            long emitted = 0;
+            boolean exhausted = false;
+            while (emitted != demand) {
+                int count = (int) Math.min(CHUNK_SIZE, demand - emitted);
+
+                int filled;
+                try {
+                    filled = sequencer.tryNextBatch(buffer, 0, count);
+                } catch (RuntimeException e) {
+                    cancelled = true;
+                    subscriber.onError(e);
+                    return;
+                }
+
+                if (filled == 0) {
+                    exhausted = true;
+                    break;
+                }
+
+                for (int i = 0; i < filled; i++) {
+                    if (cancelled) {
+                        return;
+                    }
+                    subscriber.onNext(buffer[i]);
+                }
+                emitted += filled;
+            }
+
+            if (emitted != 0 && demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+
+            if (exhausted) {
+                // Counter range of the current tick is used up, continue with the next one
+                MillisecondTickScheduler.scheduleNextTick(drainTask, timestampResolution);
+            }
+
+            missed = workInProgress.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+}
@@ -21,16 +21,10 @@ import java.util.Properties;
 
 public final class SnowcastConstants {
 
-    // Retry timeout for increment function of the counter
-    public static final int INCREMENT_RETRY_TIMEOUT_NANOS = 100;
-
     // Shifting values
-    public static final int SHIFT_COUNTER = 41;
     public static final int SHIFT_TIMESTAMP = 23;
 
     // Read masks
-    public static final long TC_TIMESTAMP_READ_MASK = 0x1FFFFFFFFFFL;
-    public static final long TC_COUNTER_READ_MASK = 0x7FFFFE0000000000L;
     public static final long ID_TIMESTAMP_READ_MASK = 0xFFFFFFFFFF800000L;
 
     // Exponent for power of 2 lookup
@@ -53,6 +47,15 @@ public final class SnowcastConstants {
     public static final int NODE_ID_LOWER_BOUND = 128;
     public static final int NODE_ID_UPPER_BOUND = 8192;
 
+    // Custom sequence layout bounds
+    public static final int SEQUENCE_ID_BITS = 64;
+    public static final int DEFAULT_TIMESTAMP_BITS = 41;
+    public static final int MIN_TIMESTAMP_BITS = 32;
+    public static final int MIN_LOGICAL_NODE_BITS = 1;
+    public static final int MAX_LOGICAL_NODE_BITS = 13;
+    public static final int MIN_COUNTER_BITS = 10;
+    public static final int MAX_COUNTER_BITS = 30;
+
     // Default configuration values
     public static final int DEFAULT_MAX_LOGICAL_NODES_13_BITS = 8192;
 
@@ -81,9 +84,25 @@ public final class SnowcastConstants {
     // Is logo disabled
     public static final boolean LOGO_DISABLED;
 
-    // Maximum retries to generate an ID before giving up
+    // Is publishing metrics as JMX MBeans disabled
+    public static final boolean JMX_METRICS_DISABLED;
+
+    // Is the shared millisecond ticker used as clock source
+    public static final boolean CLOCK_TICKER_ENABLED;
+
+    // Maximum number of milliseconds to wait for a free ID before giving up, sequencers retry once per tick
+    // of their timestamp resolution and scale it to their ticks per millisecond
     public static final int MAX_RETRY_GENERATE_IDS = 100;
 
+    // Number of milliseconds of retries from which on a single generation counts as approaching the retry limit
+    public static final int RETRY_LIMIT_APPROACH_THRESHOLD = MAX_RETRY_GENERATE_IDS / 2;
+
+    // Interval of sampling the counter exhaustion rate of adaptively scaled sequencers
+    public static final long ADAPTIVE_SCALING_INTERVAL_MILLIS = 100;
+
+    // Counter exhaustion waits per sampling interval from which on further logical node ids are attached
+    public static final long ADAPTIVE_SCALING_EXHAUSTION_THRESHOLD = 10;
+
     // File name for properties file containing build information
     private static final String SNOWCAST_VERSION_FILE = "snowcast-version.properties";
 
@@ -97,6 +116,12 @@ public final class SnowcastConstants {
     // System property to disable startup logo
     private static final String SNOWCAST_LOGO_DISABLE_PROPERTY = "snowcast.logo.disable";
 
+    // System property to disable publishing metrics as JMX MBeans
+    private static final String SNOWCAST_METRICS_JMX_DISABLE_PROPERTY = "snowcast.metrics.jmx.disable";
+
+    // System property to enable the shared millisecond ticker clock
+    private static final String SNOWCAST_CLOCK_TICKER_ENABLED_PROPERTY = "snowcast.clock.ticker.enabled";
+
     public enum HazelcastVersion {
         V_3_7, V_3_8, Unknown
     }
@@ -121,6 +146,8 @@ public final class SnowcastConstants {
 
         LOGGING_ENABLED = Boolean.getBoolean(SNOWCAST_LOGGING_ENABLED_PROPERTY);
         LOGO_DISABLED = Boolean.getBoolean(SNOWCAST_LOGO_DISABLE_PROPERTY);
+        JMX_METRICS_DISABLED = Boolean.getBoolean(SNOWCAST_METRICS_JMX_DISABLE_PROPERTY);
+        CLOCK_TICKER_ENABLED = Boolean.getBoolean(SNOWCAST_CLOCK_TICKER_ENABLED_PROPERTY);
     }
 
     private SnowcastConstants() {
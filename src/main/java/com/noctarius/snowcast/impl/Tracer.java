@@ -18,6 +18,8 @@ package com.noctarius.snowcast.impl;
 
 public interface Tracer {
 
+    boolean isTracing();
+
     void trace(String message);
 
     void trace(String message, Object arg1);
@@ -23,6 +23,14 @@ import java.util.logging.Level;
 
 public final class TracingUtils {
 
+    /**
+     * Guard for trace statements that box primitive arguments or need a varargs array, combined with
+     * {@link Tracer#isTracing()} as <tt>TRACING_ENABLED &amp;&amp; TRACER.isTracing()</tt>. Being a static
+     * final the JIT folds the guard and eliminates the guarded statement as dead code when tracing is
+     * disabled, no argument is ever evaluated in that case.
+     */
+    public static final boolean TRACING_ENABLED = SnowcastConstants.LOGGING_ENABLED;
+
     private static final Level TRACE_LEVEL = Level.FINEST;
 
     private static final Object[] EMPTY_ARGS = new Object[0];
@@ -33,7 +41,7 @@ public final class TracingUtils {
     }
 
     public static Tracer tracer(Class<?> type) {
-        if (!SnowcastConstants.LOGGING_ENABLED) {
+        if (!TRACING_ENABLED) {
             return NO_OP_TRACER;
         }
         ILogger logger = Logger.getLogger(type);
@@ -92,9 +100,14 @@ public final class TracingUtils {
             this.logger = logger;
         }
 
+        @Override
+        public boolean isTracing() {
+            return TracingUtils.isTracing(logger);
+        }
+
         @Override
         public void trace(String message) {
-            if (!isTracing(logger)) {
+            if (!isTracing()) {
                 return;
             }
             trace(message, (Throwable) null);
@@ -102,7 +115,7 @@ public final class TracingUtils {
 
         @Override
         public void trace(String message, Object arg1) {
-            if (!isTracing(logger)) {
+            if (!isTracing()) {
                 return;
             }
             trace(message, (Throwable) null, arg1);
@@ -110,7 +123,7 @@ public final class TracingUtils {
 
         @Override
         public void trace(String message, Object arg1, Object arg2) {
-            if (!isTracing(logger)) {
+            if (!isTracing()) {
                 return;
             }
             trace(message, (Throwable) null, arg1, arg2);
@@ -118,7 +131,7 @@ public final class TracingUtils {
 
         @Override
         public void trace(String message, Object arg1, Object arg2, Object arg3) {
-            if (!isTracing(logger)) {
+            if (!isTracing()) {
                 return;
             }
             trace(message, (Throwable) null, arg1, arg2, arg3);
@@ -126,7 +139,7 @@ public final class TracingUtils {
 
         @Override
         public void trace(String message, Object arg1, Object arg2, Object arg3, Object... args) {
-            if (!isTracing(logger)) {
+            if (!isTracing()) {
                 return;
             }
             trace(message, (Throwable) null, arg1, arg2, arg3, args);
@@ -135,7 +148,7 @@ public final class TracingUtils {
         // Implementation
         @Override
         public void trace(String message, Throwable throwable) {
-            if (!isTracing(logger)) {
+            if (!isTracing()) {
                 return;
             }
             log(logger, message, throwable);
@@ -143,7 +156,7 @@ public final class TracingUtils {
 
         @Override
         public void trace(String message, Throwable throwable, Object arg1) {
-            if (!isTracing(logger)) {
+            if (!isTracing()) {
                 return;
             }
             log(logger, message, throwable, arg1);
@@ -151,7 +164,7 @@ public final class TracingUtils {
 
         @Override
         public void trace(String message, Throwable throwable, Object arg1, Object arg2) {
-            if (!isTracing(logger)) {
+            if (!isTracing()) {
                 return;
             }
             log(logger, message, throwable, arg1, arg2);
@@ -159,7 +172,7 @@ public final class TracingUtils {
 
         @Override
         public void trace(String message, Throwable throwable, Object arg1, Object arg2, Object arg3) {
-            if (!isTracing(logger)) {
+            if (!isTracing()) {
                 return;
             }
             log(logger, message, throwable, arg1, arg2, arg3);
@@ -167,7 +180,7 @@ public final class TracingUtils {
 
         @Override
         public void trace(String message, Throwable throwable, Object arg1, Object arg2, Object arg3, Object... args) {
-            if (!isTracing(logger)) {
+            if (!isTracing()) {
                 return;
             }
             log(logger, message, throwable, arg1, arg2, arg3, args);
@@ -177,6 +190,11 @@ public final class TracingUtils {
     private static final class NoOpTracerImpl
             implements Tracer {
 
+        @Override
+        public boolean isTracing() {
+            return false;
+        }
+
         @Override
         public void trace(String message) {
         }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+final class VarIntUtils {
+
+    private static final int PAYLOAD_BITS = 7;
+    private static final int PAYLOAD_MASK = 0x7F;
+    private static final int CONTINUATION_BIT = 0x80;
+
+    private VarIntUtils() {
+    }
+
+    static void writeVarInt(@Nonnull ObjectDataOutput out, @Nonnegative int value)
+            throws IOException {
+
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    @Nonnegative
+    static int readVarInt(@Nonnull ObjectDataInput in)
+            throws IOException {
+
+        return (int) readVarLong(in);
+    }
+
+    static void writeVarLong(@Nonnull ObjectDataOutput out, long value)
+            throws IOException {
+
+        // Seven payload bits per byte, the highest bit marks a following byte
+        while ((value & ~PAYLOAD_MASK) != 0) {
+            out.writeByte((int) (value & PAYLOAD_MASK) | CONTINUATION_BIT);
+            value >>>= PAYLOAD_BITS;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(@Nonnull ObjectDataInput in)
+            throws IOException {
+
+        long value = 0;
+        for (int shift = 0; ; shift += PAYLOAD_BITS) {
+            int b = in.readByte();
+            value |= (long) (b & PAYLOAD_MASK) << shift;
+            if ((b & CONTINUATION_BIT) == 0) {
+                return value;
+            }
+        }
+    }
+}
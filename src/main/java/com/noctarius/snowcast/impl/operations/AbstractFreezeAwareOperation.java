@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl.operations;
+
+import com.hazelcast.spi.BlockingOperation;
+import com.hazelcast.spi.WaitNotifyKey;
+import com.noctarius.snowcast.impl.PartitionFreezeUtils;
+
+abstract class AbstractFreezeAwareOperation
+        extends AbstractSequencerOperation
+        implements BlockingOperation {
+
+    AbstractFreezeAwareOperation() {
+    }
+
+    AbstractFreezeAwareOperation(String sequencerName) {
+        super(sequencerName);
+    }
+
+    @Override
+    public WaitNotifyKey getWaitKey() {
+        return PartitionFreezeUtils.getWaitKey(this);
+    }
+
+    @Override
+    public boolean shouldWait() {
+        return PartitionFreezeUtils.shouldWait(this);
+    }
+
+    @Override
+    public void onWaitExpire() {
+        PartitionFreezeUtils.onWaitExpire(this);
+    }
+}
@@ -22,6 +22,8 @@ import com.hazelcast.spi.BackupAwareOperation;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.PartitionAwareOperation;
 import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
 import com.noctarius.snowcast.impl.NodeSequencerService;
 import com.noctarius.snowcast.impl.SequencerDataSerializerHook;
 import com.noctarius.snowcast.impl.SequencerDefinition;
@@ -29,8 +31,10 @@ import com.noctarius.snowcast.impl.SequencerPartition;
 
 import java.io.IOException;
 
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.sequenceLayoutOf;
+
 public class AttachLogicalNodeOperation
-        extends AbstractSequencerOperation
+        extends AbstractFreezeAwareOperation
         implements PartitionAwareOperation, BackupAwareOperation {
 
     private transient Integer logicalNodeId;
@@ -56,7 +60,9 @@ public class AttachLogicalNodeOperation
 
         NodeSequencerService sequencerService = getService();
         SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
-        logicalNodeId = partition.attachLogicalNode(definition, getCallerAddress());
+        // Registers or validates the definition as well, creating a sequencer needs no separate operation
+        long now = getNodeEngine().getClusterService().getClusterTime();
+        logicalNodeId = partition.attachLogicalNode(definition, getCallerAddress(), now, 0);
     }
 
     @Override
@@ -76,6 +82,9 @@ public class AttachLogicalNodeOperation
         super.writeInternal(out);
         out.writeLong(definition.getEpoch().getEpochOffset());
         out.writeInt(definition.getMaxLogicalNodeCount());
+        out.writeByte(definition.getSequenceLayout().getTimestampBits());
+        out.writeByte(definition.getSequenceLayout().getCounterBits());
+        out.writeByte(definition.getSequenceLayout().getTimestampResolution().getTicksPerMillisecond());
         out.writeShort(definition.getBackupCount());
     }
 
@@ -87,10 +96,15 @@ public class AttachLogicalNodeOperation
 
         long epochOffset = in.readLong();
         int maxLogicalNodeCount = in.readInt();
+        int timestampBits = in.readByte();
+        int counterBits = in.readByte();
+        int ticksPerMillisecond = in.readByte();
         short backupCount = in.readShort();
 
         SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(epochOffset);
-        definition = new SequencerDefinition(getSequencerName(), epoch, maxLogicalNodeCount, backupCount);
+        SnowcastSequenceLayout sequenceLayout = sequenceLayoutOf(maxLogicalNodeCount, timestampBits, counterBits,
+                ticksPerMillisecond);
+        definition = new SequencerDefinition(getSequencerName(), epoch, maxLogicalNodeCount, sequenceLayout, backupCount);
     }
 
     @Override
@@ -110,6 +124,9 @@ public class AttachLogicalNodeOperation
 
     @Override
     public Operation getBackupOperation() {
-        return new BackupAttachLogicalNodeOperation(definition, logicalNodeId, getCallerAddress());
+        NodeSequencerService sequencerService = getService();
+        SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
+        LogicalNodeTableVersion tableVersion = partition.getLogicalNodeTableVersion(getSequencerName());
+        return new BackupAttachLogicalNodeOperation(definition, logicalNodeId, getCallerAddress(), tableVersion);
     }
 }
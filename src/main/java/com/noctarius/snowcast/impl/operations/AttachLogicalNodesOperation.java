@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl.operations;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.BackupAwareOperation;
+import com.hazelcast.spi.BlockingOperation;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.PartitionAwareOperation;
+import com.hazelcast.spi.WaitNotifyKey;
+import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
+import com.noctarius.snowcast.impl.NodeSequencerService;
+import com.noctarius.snowcast.impl.PartitionFreezeUtils;
+import com.noctarius.snowcast.impl.SequencerDataSerializerHook;
+import com.noctarius.snowcast.impl.SequencerDefinition;
+import com.noctarius.snowcast.impl.SequencerPartition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.sequenceLayoutOf;
+
+public class AttachLogicalNodesOperation
+        extends Operation
+        implements IdentifiedDataSerializable, PartitionAwareOperation, BackupAwareOperation, BlockingOperation {
+
+    private transient int[] logicalNodeIds;
+
+    private List<SequencerDefinition> definitions;
+
+    public AttachLogicalNodesOperation() {
+    }
+
+    public AttachLogicalNodesOperation(List<SequencerDefinition> definitions) {
+        this.definitions = definitions;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SequencerDataSerializerHook.FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return SequencerDataSerializerHook.TYPE_ATTACH_LOGICAL_NODES;
+    }
+
+    @Override
+    public void run()
+            throws Exception {
+
+        NodeSequencerService sequencerService = getService();
+        SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
+        // All sequencers of the batch live in this partition, either all of them get attached or none
+        long now = getNodeEngine().getClusterService().getClusterTime();
+        logicalNodeIds = partition.attachLogicalNodes(definitions, getCallerAddress(), now);
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return true;
+    }
+
+    @Override
+    public Object getResponse() {
+        return logicalNodeIds;
+    }
+
+    @Override
+    public WaitNotifyKey getWaitKey() {
+        return PartitionFreezeUtils.getWaitKey(this);
+    }
+
+    @Override
+    public boolean shouldWait() {
+        return PartitionFreezeUtils.shouldWait(this);
+    }
+
+    @Override
+    public void onWaitExpire() {
+        PartitionFreezeUtils.onWaitExpire(this);
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out)
+            throws IOException {
+
+        super.writeInternal(out);
+        writeDefinitions(out, definitions);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in)
+            throws IOException {
+
+        super.readInternal(in);
+        definitions = readDefinitions(in);
+    }
+
+    @Override
+    public boolean shouldBackup() {
+        return true;
+    }
+
+    @Override
+    public int getSyncBackupCount() {
+        int backupCount = 0;
+        for (SequencerDefinition definition : definitions) {
+            backupCount = Math.max(backupCount, definition.getBackupCount());
+        }
+        return backupCount;
+    }
+
+    @Override
+    public int getAsyncBackupCount() {
+        return 0;
+    }
+
+    @Override
+    public Operation getBackupOperation() {
+        NodeSequencerService sequencerService = getService();
+        SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
+        LogicalNodeTableVersion[] tableVersions = partition.getLogicalNodeTableVersions(definitions);
+        return new BackupAttachLogicalNodesOperation(definitions, logicalNodeIds, getCallerAddress(), tableVersions);
+    }
+
+    static void writeDefinitions(ObjectDataOutput out, List<SequencerDefinition> definitions)
+            throws IOException {
+
+        out.writeInt(definitions.size());
+        for (SequencerDefinition definition : definitions) {
+            out.writeUTF(definition.getSequencerName());
+            out.writeLong(definition.getEpoch().getEpochOffset());
+            out.writeInt(definition.getMaxLogicalNodeCount());
+            out.writeByte(definition.getSequenceLayout().getTimestampBits());
+            out.writeByte(definition.getSequenceLayout().getCounterBits());
+            out.writeByte(definition.getSequenceLayout().getTimestampResolution().getTicksPerMillisecond());
+            out.writeShort(definition.getBackupCount());
+        }
+    }
+
+    static List<SequencerDefinition> readDefinitions(ObjectDataInput in)
+            throws IOException {
+
+        int size = in.readInt();
+        List<SequencerDefinition> definitions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String sequencerName = in.readUTF();
+            long epochOffset = in.readLong();
+            int maxLogicalNodeCount = in.readInt();
+            int timestampBits = in.readByte();
+            int counterBits = in.readByte();
+            int ticksPerMillisecond = in.readByte();
+            short backupCount = in.readShort();
+
+            SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(epochOffset);
+            SnowcastSequenceLayout sequenceLayout = sequenceLayoutOf(maxLogicalNodeCount, timestampBits, counterBits,
+                    ticksPerMillisecond);
+            definitions.add(new SequencerDefinition(sequencerName, epoch, maxLogicalNodeCount, sequenceLayout, backupCount));
+        }
+        return definitions;
+    }
+}
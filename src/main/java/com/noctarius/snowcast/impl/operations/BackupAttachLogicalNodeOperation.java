@@ -21,6 +21,8 @@ import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.spi.BackupOperation;
 import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
 import com.noctarius.snowcast.impl.NodeSequencerService;
 import com.noctarius.snowcast.impl.SequencerDataSerializerHook;
 import com.noctarius.snowcast.impl.SequencerDefinition;
@@ -28,6 +30,10 @@ import com.noctarius.snowcast.impl.SequencerPartition;
 
 import java.io.IOException;
 
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.sequenceLayoutOf;
+import static com.noctarius.snowcast.impl.LogicalNodeTableVersion.readTableVersion;
+import static com.noctarius.snowcast.impl.LogicalNodeTableVersion.writeTableVersion;
+
 public class BackupAttachLogicalNodeOperation
         extends AbstractSequencerOperation
         implements BackupOperation {
@@ -35,15 +41,27 @@ public class BackupAttachLogicalNodeOperation
     private SequencerDefinition definition;
     private int logicalNodeId;
     private Address address;
+    private long leaseExpiration;
+    private LogicalNodeTableVersion tableVersion;
 
     public BackupAttachLogicalNodeOperation() {
     }
 
-    public BackupAttachLogicalNodeOperation(SequencerDefinition definition, int logicalNodeId, Address address) {
+    public BackupAttachLogicalNodeOperation(SequencerDefinition definition, int logicalNodeId, Address address,
+                                            LogicalNodeTableVersion tableVersion) {
+
+        this(definition, logicalNodeId, address, 0, tableVersion);
+    }
+
+    public BackupAttachLogicalNodeOperation(SequencerDefinition definition, int logicalNodeId, Address address,
+                                            long leaseExpiration, LogicalNodeTableVersion tableVersion) {
+
         super(definition.getSequencerName());
         this.definition = definition;
         this.logicalNodeId = logicalNodeId;
         this.address = address;
+        this.leaseExpiration = leaseExpiration;
+        this.tableVersion = tableVersion;
     }
 
     @Override
@@ -57,7 +75,8 @@ public class BackupAttachLogicalNodeOperation
 
         NodeSequencerService sequencerService = getService();
         SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
-        partition.assignLogicalNode(definition, logicalNodeId, address);
+        // Registers the definition on the backup too if it's a newly created sequencer
+        partition.assignLogicalNode(definition, logicalNodeId, address, leaseExpiration, tableVersion);
     }
 
     @Override
@@ -67,8 +86,13 @@ public class BackupAttachLogicalNodeOperation
         super.writeInternal(out);
         out.writeInt(logicalNodeId);
         address.writeData(out);
+        out.writeLong(leaseExpiration);
+        writeTableVersion(out, tableVersion);
         out.writeLong(definition.getEpoch().getEpochOffset());
         out.writeInt(definition.getMaxLogicalNodeCount());
+        out.writeByte(definition.getSequenceLayout().getTimestampBits());
+        out.writeByte(definition.getSequenceLayout().getCounterBits());
+        out.writeByte(definition.getSequenceLayout().getTimestampResolution().getTicksPerMillisecond());
         out.writeShort(definition.getBackupCount());
     }
 
@@ -80,12 +104,19 @@ public class BackupAttachLogicalNodeOperation
         logicalNodeId = in.readInt();
         address = new Address();
         address.readData(in);
+        leaseExpiration = in.readLong();
+        tableVersion = readTableVersion(in);
 
         long epochOffset = in.readLong();
         int maxLogicalNodeCount = in.readInt();
+        int timestampBits = in.readByte();
+        int counterBits = in.readByte();
+        int ticksPerMillisecond = in.readByte();
         short backupCount = in.readShort();
 
         SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(epochOffset);
-        definition = new SequencerDefinition(getSequencerName(), epoch, maxLogicalNodeCount, backupCount);
+        SnowcastSequenceLayout sequenceLayout = sequenceLayoutOf(maxLogicalNodeCount, timestampBits, counterBits,
+                ticksPerMillisecond);
+        definition = new SequencerDefinition(getSequencerName(), epoch, maxLogicalNodeCount, sequenceLayout, backupCount);
     }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl.operations;
+
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.BackupOperation;
+import com.hazelcast.spi.Operation;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
+import com.noctarius.snowcast.impl.NodeSequencerService;
+import com.noctarius.snowcast.impl.SequencerDataSerializerHook;
+import com.noctarius.snowcast.impl.SequencerDefinition;
+import com.noctarius.snowcast.impl.SequencerPartition;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.noctarius.snowcast.impl.LogicalNodeTableVersion.readTableVersion;
+import static com.noctarius.snowcast.impl.LogicalNodeTableVersion.writeTableVersion;
+import static com.noctarius.snowcast.impl.operations.AttachLogicalNodesOperation.readDefinitions;
+import static com.noctarius.snowcast.impl.operations.AttachLogicalNodesOperation.writeDefinitions;
+
+public class BackupAttachLogicalNodesOperation
+        extends Operation
+        implements IdentifiedDataSerializable, BackupOperation {
+
+    private List<SequencerDefinition> definitions;
+    private int[] logicalNodeIds;
+    private Address address;
+    private LogicalNodeTableVersion[] tableVersions;
+
+    public BackupAttachLogicalNodesOperation() {
+    }
+
+    public BackupAttachLogicalNodesOperation(List<SequencerDefinition> definitions, int[] logicalNodeIds,
+                                             Address address, LogicalNodeTableVersion[] tableVersions) {
+
+        this.definitions = definitions;
+        this.logicalNodeIds = logicalNodeIds;
+        this.address = address;
+        this.tableVersions = tableVersions;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SequencerDataSerializerHook.FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return SequencerDataSerializerHook.TYPE_BACKUP_ATTACH_LOGICAL_NODES;
+    }
+
+    @Override
+    public void run()
+            throws Exception {
+
+        NodeSequencerService sequencerService = getService();
+        SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
+        for (int i = 0; i < logicalNodeIds.length; i++) {
+            // The batch is backed up to its highest backup count, further replicas don't hold the sequencer
+            SequencerDefinition definition = definitions.get(i);
+            if (getReplicaIndex() > definition.getBackupCount()) {
+                continue;
+            }
+
+            // Registers the definition on the backup too if it belongs to a newly created sequencer
+            partition.assignLogicalNode(definition, logicalNodeIds[i], address, 0, tableVersions[i]);
+        }
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out)
+            throws IOException {
+
+        super.writeInternal(out);
+        writeDefinitions(out, definitions);
+        out.writeIntArray(logicalNodeIds);
+        address.writeData(out);
+        for (LogicalNodeTableVersion tableVersion : tableVersions) {
+            writeTableVersion(out, tableVersion);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in)
+            throws IOException {
+
+        super.readInternal(in);
+        definitions = readDefinitions(in);
+        logicalNodeIds = in.readIntArray();
+        address = new Address();
+        address.readData(in);
+        tableVersions = new LogicalNodeTableVersion[logicalNodeIds.length];
+        for (int i = 0; i < tableVersions.length; i++) {
+            tableVersions[i] = readTableVersion(in);
+        }
+    }
+}
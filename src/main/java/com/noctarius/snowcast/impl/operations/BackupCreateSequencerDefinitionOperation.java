@@ -20,24 +20,32 @@ import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.spi.BackupOperation;
 import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
 import com.noctarius.snowcast.impl.NodeSequencerService;
 import com.noctarius.snowcast.impl.SequencerDataSerializerHook;
 import com.noctarius.snowcast.impl.SequencerDefinition;
 
 import java.io.IOException;
 
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.sequenceLayoutOf;
+import static com.noctarius.snowcast.impl.LogicalNodeTableVersion.readTableVersion;
+import static com.noctarius.snowcast.impl.LogicalNodeTableVersion.writeTableVersion;
+
 public class BackupCreateSequencerDefinitionOperation
         extends AbstractSequencerOperation
         implements BackupOperation {
 
     private SequencerDefinition definition;
+    private LogicalNodeTableVersion tableVersion;
 
     public BackupCreateSequencerDefinitionOperation() {
     }
 
-    public BackupCreateSequencerDefinitionOperation(SequencerDefinition definition) {
+    public BackupCreateSequencerDefinitionOperation(SequencerDefinition definition, LogicalNodeTableVersion tableVersion) {
         super(definition.getSequencerName());
         this.definition = definition;
+        this.tableVersion = tableVersion;
     }
 
     @Override
@@ -50,7 +58,7 @@ public class BackupCreateSequencerDefinitionOperation
             throws Exception {
 
         NodeSequencerService sequencerService = getService();
-        sequencerService.registerSequencerDefinition(definition);
+        sequencerService.registerSequencerDefinition(definition, tableVersion);
     }
 
     @Override
@@ -58,8 +66,12 @@ public class BackupCreateSequencerDefinitionOperation
             throws IOException {
 
         super.writeInternal(out);
+        writeTableVersion(out, tableVersion);
         out.writeLong(definition.getEpoch().getEpochOffset());
         out.writeInt(definition.getMaxLogicalNodeCount());
+        out.writeByte(definition.getSequenceLayout().getTimestampBits());
+        out.writeByte(definition.getSequenceLayout().getCounterBits());
+        out.writeByte(definition.getSequenceLayout().getTimestampResolution().getTicksPerMillisecond());
         out.writeShort(definition.getBackupCount());
     }
 
@@ -68,12 +80,18 @@ public class BackupCreateSequencerDefinitionOperation
             throws IOException {
 
         super.readInternal(in);
+        tableVersion = readTableVersion(in);
 
         long epochOffset = in.readLong();
         int maxLogicalNodeCount = in.readInt();
+        int timestampBits = in.readByte();
+        int counterBits = in.readByte();
+        int ticksPerMillisecond = in.readByte();
         short backupCount = in.readShort();
 
         SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(epochOffset);
-        definition = new SequencerDefinition(getSequencerName(), epoch, maxLogicalNodeCount, backupCount);
+        SnowcastSequenceLayout sequenceLayout = sequenceLayoutOf(maxLogicalNodeCount, timestampBits, counterBits,
+                ticksPerMillisecond);
+        definition = new SequencerDefinition(getSequencerName(), epoch, maxLogicalNodeCount, sequenceLayout, backupCount);
     }
 }
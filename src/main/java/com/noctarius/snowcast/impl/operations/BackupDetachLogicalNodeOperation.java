@@ -21,6 +21,8 @@ import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.spi.BackupOperation;
 import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
 import com.noctarius.snowcast.impl.NodeSequencerService;
 import com.noctarius.snowcast.impl.SequencerDataSerializerHook;
 import com.noctarius.snowcast.impl.SequencerDefinition;
@@ -28,6 +30,10 @@ import com.noctarius.snowcast.impl.SequencerPartition;
 
 import java.io.IOException;
 
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.sequenceLayoutOf;
+import static com.noctarius.snowcast.impl.LogicalNodeTableVersion.readTableVersion;
+import static com.noctarius.snowcast.impl.LogicalNodeTableVersion.writeTableVersion;
+
 public class BackupDetachLogicalNodeOperation
         extends AbstractSequencerOperation
         implements BackupOperation {
@@ -35,15 +41,19 @@ public class BackupDetachLogicalNodeOperation
     private SequencerDefinition definition;
     private int logicalNodeId;
     private Address address;
+    private LogicalNodeTableVersion tableVersion;
 
     public BackupDetachLogicalNodeOperation() {
     }
 
-    public BackupDetachLogicalNodeOperation(SequencerDefinition definition, int logicalNodeId, Address address) {
+    public BackupDetachLogicalNodeOperation(SequencerDefinition definition, int logicalNodeId, Address address,
+                                            LogicalNodeTableVersion tableVersion) {
+
         super(definition.getSequencerName());
         this.definition = definition;
         this.logicalNodeId = logicalNodeId;
         this.address = address;
+        this.tableVersion = tableVersion;
     }
 
     @Override
@@ -57,7 +67,7 @@ public class BackupDetachLogicalNodeOperation
 
         NodeSequencerService sequencerService = getService();
         SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
-        partition.unassignLogicalNode(definition, logicalNodeId, address);
+        partition.unassignLogicalNode(definition, logicalNodeId, address, tableVersion);
     }
 
     @Override
@@ -67,8 +77,12 @@ public class BackupDetachLogicalNodeOperation
         super.writeInternal(out);
         out.writeInt(logicalNodeId);
         address.writeData(out);
+        writeTableVersion(out, tableVersion);
         out.writeLong(definition.getEpoch().getEpochOffset());
         out.writeInt(definition.getMaxLogicalNodeCount());
+        out.writeByte(definition.getSequenceLayout().getTimestampBits());
+        out.writeByte(definition.getSequenceLayout().getCounterBits());
+        out.writeByte(definition.getSequenceLayout().getTimestampResolution().getTicksPerMillisecond());
         out.writeShort(definition.getBackupCount());
     }
 
@@ -80,12 +94,18 @@ public class BackupDetachLogicalNodeOperation
         logicalNodeId = in.readInt();
         address = new Address();
         address.readData(in);
+        tableVersion = readTableVersion(in);
 
         long epochOffset = in.readLong();
         int maxLogicalNodeCount = in.readInt();
+        int timestampBits = in.readByte();
+        int counterBits = in.readByte();
+        int ticksPerMillisecond = in.readByte();
         short backupCount = in.readShort();
 
         SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(epochOffset);
-        definition = new SequencerDefinition(getSequencerName(), epoch, maxLogicalNodeCount, backupCount);
+        SnowcastSequenceLayout sequenceLayout = sequenceLayoutOf(maxLogicalNodeCount, timestampBits, counterBits,
+                ticksPerMillisecond);
+        definition = new SequencerDefinition(getSequencerName(), epoch, maxLogicalNodeCount, sequenceLayout, backupCount);
     }
 }
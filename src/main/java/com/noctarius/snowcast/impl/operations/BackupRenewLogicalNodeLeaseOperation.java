@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl.operations;
+
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.BackupOperation;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
+import com.noctarius.snowcast.impl.NodeSequencerService;
+import com.noctarius.snowcast.impl.SequencerDataSerializerHook;
+import com.noctarius.snowcast.impl.SequencerPartition;
+
+import java.io.IOException;
+
+import static com.noctarius.snowcast.impl.LogicalNodeTableVersion.readTableVersion;
+import static com.noctarius.snowcast.impl.LogicalNodeTableVersion.writeTableVersion;
+
+public class BackupRenewLogicalNodeLeaseOperation
+        extends AbstractSequencerOperation
+        implements BackupOperation {
+
+    private int logicalNodeId;
+    private Address address;
+    private long leaseExpiration;
+    private LogicalNodeTableVersion tableVersion;
+
+    public BackupRenewLogicalNodeLeaseOperation() {
+    }
+
+    public BackupRenewLogicalNodeLeaseOperation(String sequencerName, int logicalNodeId, Address address,
+                                                long leaseExpiration, LogicalNodeTableVersion tableVersion) {
+
+        super(sequencerName);
+        this.logicalNodeId = logicalNodeId;
+        this.address = address;
+        this.leaseExpiration = leaseExpiration;
+        this.tableVersion = tableVersion;
+    }
+
+    @Override
+    public int getId() {
+        return SequencerDataSerializerHook.TYPE_BACKUP_RENEW_LOGICAL_NODE_LEASE;
+    }
+
+    @Override
+    public void run()
+            throws Exception {
+
+        NodeSequencerService sequencerService = getService();
+        SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
+        partition.renewLogicalNodeLease(getSequencerName(), address, logicalNodeId, leaseExpiration, tableVersion);
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out)
+            throws IOException {
+
+        super.writeInternal(out);
+        out.writeInt(logicalNodeId);
+        address.writeData(out);
+        out.writeLong(leaseExpiration);
+        writeTableVersion(out, tableVersion);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in)
+            throws IOException {
+
+        super.readInternal(in);
+        logicalNodeId = in.readInt();
+        address = new Address();
+        address.readData(in);
+        leaseExpiration = in.readLong();
+        tableVersion = readTableVersion(in);
+    }
+}
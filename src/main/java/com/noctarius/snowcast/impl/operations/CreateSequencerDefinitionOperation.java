@@ -21,14 +21,19 @@ import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.spi.BackupAwareOperation;
 import com.hazelcast.spi.Operation;
 import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
 import com.noctarius.snowcast.impl.NodeSequencerService;
 import com.noctarius.snowcast.impl.SequencerDataSerializerHook;
 import com.noctarius.snowcast.impl.SequencerDefinition;
+import com.noctarius.snowcast.impl.SequencerPartition;
 
 import java.io.IOException;
 
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.sequenceLayoutOf;
+
 public class CreateSequencerDefinitionOperation
-        extends AbstractSequencerOperation
+        extends AbstractFreezeAwareOperation
         implements BackupAwareOperation {
 
     private transient SequencerDefinition response;
@@ -73,6 +78,9 @@ public class CreateSequencerDefinitionOperation
         super.writeInternal(out);
         out.writeLong(definition.getEpoch().getEpochOffset());
         out.writeInt(definition.getMaxLogicalNodeCount());
+        out.writeByte(definition.getSequenceLayout().getTimestampBits());
+        out.writeByte(definition.getSequenceLayout().getCounterBits());
+        out.writeByte(definition.getSequenceLayout().getTimestampResolution().getTicksPerMillisecond());
         out.writeShort(definition.getBackupCount());
     }
 
@@ -84,10 +92,15 @@ public class CreateSequencerDefinitionOperation
 
         long epochOffset = in.readLong();
         int maxLogicalNodeCount = in.readInt();
+        int timestampBits = in.readByte();
+        int counterBits = in.readByte();
+        int ticksPerMillisecond = in.readByte();
         short backupCount = in.readShort();
 
         SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(epochOffset);
-        definition = new SequencerDefinition(getSequencerName(), epoch, maxLogicalNodeCount, backupCount);
+        SnowcastSequenceLayout sequenceLayout = sequenceLayoutOf(maxLogicalNodeCount, timestampBits, counterBits,
+                ticksPerMillisecond);
+        definition = new SequencerDefinition(getSequencerName(), epoch, maxLogicalNodeCount, sequenceLayout, backupCount);
     }
 
     @Override
@@ -107,6 +120,9 @@ public class CreateSequencerDefinitionOperation
 
     @Override
     public Operation getBackupOperation() {
-        return new BackupCreateSequencerDefinitionOperation(response);
+        NodeSequencerService sequencerService = getService();
+        SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
+        LogicalNodeTableVersion tableVersion = partition.getLogicalNodeTableVersion(getSequencerName());
+        return new BackupCreateSequencerDefinitionOperation(response, tableVersion);
     }
 }
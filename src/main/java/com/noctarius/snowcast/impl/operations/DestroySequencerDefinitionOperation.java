@@ -32,7 +32,7 @@ import java.util.Collection;
 import static com.noctarius.snowcast.impl.SnowcastConstants.SERVICE_NAME;
 
 public class DestroySequencerDefinitionOperation
-        extends AbstractSequencerOperation
+        extends AbstractFreezeAwareOperation
         implements BackupAwareOperation {
 
     private transient int backupCount;
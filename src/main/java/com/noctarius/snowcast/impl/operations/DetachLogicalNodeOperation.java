@@ -22,6 +22,8 @@ import com.hazelcast.spi.BackupAwareOperation;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.PartitionAwareOperation;
 import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
 import com.noctarius.snowcast.impl.NodeSequencerService;
 import com.noctarius.snowcast.impl.SequencerDataSerializerHook;
 import com.noctarius.snowcast.impl.SequencerDefinition;
@@ -29,8 +31,10 @@ import com.noctarius.snowcast.impl.SequencerPartition;
 
 import java.io.IOException;
 
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.sequenceLayoutOf;
+
 public class DetachLogicalNodeOperation
-        extends AbstractSequencerOperation
+        extends AbstractFreezeAwareOperation
         implements PartitionAwareOperation, BackupAwareOperation {
 
     private int logicalNodeId;
@@ -77,6 +81,9 @@ public class DetachLogicalNodeOperation
         out.writeInt(logicalNodeId);
         out.writeLong(definition.getEpoch().getEpochOffset());
         out.writeInt(definition.getMaxLogicalNodeCount());
+        out.writeByte(definition.getSequenceLayout().getTimestampBits());
+        out.writeByte(definition.getSequenceLayout().getCounterBits());
+        out.writeByte(definition.getSequenceLayout().getTimestampResolution().getTicksPerMillisecond());
         out.writeShort(definition.getBackupCount());
     }
 
@@ -89,10 +96,15 @@ public class DetachLogicalNodeOperation
 
         long epochOffset = in.readLong();
         int maxLogicalNodeCount = in.readInt();
+        int timestampBits = in.readByte();
+        int counterBits = in.readByte();
+        int ticksPerMillisecond = in.readByte();
         short backupCount = in.readShort();
 
         SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(epochOffset);
-        definition = new SequencerDefinition(getSequencerName(), epoch, maxLogicalNodeCount, backupCount);
+        SnowcastSequenceLayout sequenceLayout = sequenceLayoutOf(maxLogicalNodeCount, timestampBits, counterBits,
+                ticksPerMillisecond);
+        definition = new SequencerDefinition(getSequencerName(), epoch, maxLogicalNodeCount, sequenceLayout, backupCount);
     }
 
     @Override
@@ -112,6 +124,9 @@ public class DetachLogicalNodeOperation
 
     @Override
     public Operation getBackupOperation() {
-        return new BackupDetachLogicalNodeOperation(definition, logicalNodeId, getCallerAddress());
+        NodeSequencerService sequencerService = getService();
+        SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
+        LogicalNodeTableVersion tableVersion = partition.getLogicalNodeTableVersion(getSequencerName());
+        return new BackupDetachLogicalNodeOperation(definition, logicalNodeId, getCallerAddress(), tableVersion);
     }
 }
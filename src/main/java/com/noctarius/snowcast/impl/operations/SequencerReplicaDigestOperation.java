@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl.operations;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationService;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
+import com.noctarius.snowcast.impl.NodeSequencerService;
+import com.noctarius.snowcast.impl.SequencerDataSerializerHook;
+import com.noctarius.snowcast.impl.SequencerPartition;
+import com.noctarius.snowcast.impl.Tracer;
+import com.noctarius.snowcast.impl.TracingUtils;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static com.noctarius.snowcast.impl.LogicalNodeTableVersion.readTableVersions;
+import static com.noctarius.snowcast.impl.LogicalNodeTableVersion.writeTableVersions;
+import static com.noctarius.snowcast.impl.SnowcastConstants.SERVICE_NAME;
+
+public class SequencerReplicaDigestOperation
+        extends Operation
+        implements IdentifiedDataSerializable {
+
+    private static final Tracer TRACER = TracingUtils.tracer(SequencerReplicaDigestOperation.class);
+
+    private Map<String, LogicalNodeTableVersion> digest;
+    private int replicaIndex;
+
+    public SequencerReplicaDigestOperation() {
+    }
+
+    public SequencerReplicaDigestOperation(Map<String, LogicalNodeTableVersion> digest, int replicaIndex) {
+        this.digest = digest;
+        this.replicaIndex = replicaIndex;
+    }
+
+    @Override
+    public void run()
+            throws Exception {
+
+        NodeSequencerService sequencerService = getService();
+        SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
+
+        Map<String, LogicalNodeTableVersion> knownVersions = partition.compareDigest(digest);
+        if (knownVersions.isEmpty()) {
+            return;
+        }
+
+        // Request the slots changed since the known versions, the owner sends them to this replica index
+        OperationService operationService = getNodeEngine().getOperationService();
+        Operation operation = new SequencerReplicaSyncOperation(knownVersions, replicaIndex);
+        operationService.invokeOnPartition(SERVICE_NAME, operation, getPartitionId()).andThen(new ExecutionCallback<Object>() {
+            @Override
+            public void onResponse(Object response) {
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                // Hazelcast marked this replica in sync already, retry once asking for the full snapshot instead
+                TRACER.trace("delta sync request of partition %s for replica %s failed, requesting full snapshot",
+                        throwable, getPartitionId(), replicaIndex);
+                Operation operation = new SequencerReplicaSyncOperation(null, replicaIndex);
+                operationService.invokeOnPartition(SERVICE_NAME, operation, getPartitionId());
+            }
+        });
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SequencerDataSerializerHook.FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return SequencerDataSerializerHook.TYPE_REPLICA_DIGEST_OPERATION;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out)
+            throws IOException {
+
+        super.writeInternal(out);
+        out.writeInt(replicaIndex);
+        writeTableVersions(out, digest);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in)
+            throws IOException {
+
+        super.readInternal(in);
+        replicaIndex = in.readInt();
+        digest = readTableVersions(in);
+    }
+}
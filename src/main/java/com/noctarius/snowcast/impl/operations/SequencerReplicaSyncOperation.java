@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl.operations;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.InvocationBuilder;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationService;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
+import com.noctarius.snowcast.impl.NodeSequencerService;
+import com.noctarius.snowcast.impl.PartitionReplication;
+import com.noctarius.snowcast.impl.SequencerDataSerializerHook;
+import com.noctarius.snowcast.impl.SequencerPartition;
+import com.noctarius.snowcast.impl.Tracer;
+import com.noctarius.snowcast.impl.TracingUtils;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Map;
+
+import static com.noctarius.snowcast.impl.LogicalNodeTableVersion.readTableVersions;
+import static com.noctarius.snowcast.impl.LogicalNodeTableVersion.writeTableVersions;
+import static com.noctarius.snowcast.impl.SnowcastConstants.SERVICE_NAME;
+
+public class SequencerReplicaSyncOperation
+        extends Operation
+        implements IdentifiedDataSerializable {
+
+    private static final Tracer TRACER = TracingUtils.tracer(SequencerReplicaSyncOperation.class);
+
+    // null requests a full snapshot of the partition
+    private Map<String, LogicalNodeTableVersion> knownVersions;
+    private int replicaIndex;
+
+    public SequencerReplicaSyncOperation() {
+    }
+
+    public SequencerReplicaSyncOperation(Map<String, LogicalNodeTableVersion> knownVersions, int replicaIndex) {
+        this.knownVersions = knownVersions;
+        this.replicaIndex = replicaIndex;
+    }
+
+    @Override
+    public void run()
+            throws Exception {
+
+        NodeSequencerService sequencerService = getService();
+        SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
+        PartitionReplication partitionReplication = knownVersions == null
+                ? partition.createPartitionReplication()
+                : partition.createPartitionReplication(knownVersions);
+
+        // Sent to the requesting replica index, Hazelcast drops it if the replica moved in the meantime
+        OperationService operationService = getNodeEngine().getOperationService();
+        Operation operation = createReplicationOperation(partitionReplication);
+        InvocationBuilder invocationBuilder = operationService.createInvocationBuilder(SERVICE_NAME, operation, getPartitionId());
+        invocationBuilder.setReplicaIndex(replicaIndex).invoke().andThen(new ExecutionCallback<Object>() {
+            @Override
+            public void onResponse(Object response) {
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                // Hazelcast marked the replica in sync when the digest ran, a lost delta would leave it stale,
+                // the full snapshot doesn't depend on the versions the replica reported
+                if (knownVersions == null) {
+                    TRACER.trace("full replica sync of partition %s to replica %s failed", throwable,
+                            getPartitionId(), replicaIndex);
+                    return;
+                }
+                TRACER.trace("delta replica sync of partition %s to replica %s failed, sending full snapshot", throwable,
+                        getPartitionId(), replicaIndex);
+                Operation operation = new SequencerReplicaSyncOperation(null, replicaIndex);
+                operationService.invokeOnPartition(SERVICE_NAME, operation, getPartitionId());
+            }
+        });
+    }
+
+    @Nonnull
+    protected Operation createReplicationOperation(@Nonnull PartitionReplication partitionReplication) {
+        return new SequencerReplicationOperation(partitionReplication);
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SequencerDataSerializerHook.FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return SequencerDataSerializerHook.TYPE_REPLICA_SYNC_OPERATION;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out)
+            throws IOException {
+
+        super.writeInternal(out);
+        out.writeInt(replicaIndex);
+        out.writeBoolean(knownVersions != null);
+        if (knownVersions != null) {
+            writeTableVersions(out, knownVersions);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in)
+            throws IOException {
+
+        super.readInternal(in);
+        replicaIndex = in.readInt();
+        if (in.readBoolean()) {
+            knownVersions = readTableVersions(in);
+        }
+    }
+}
@@ -18,14 +18,17 @@ package com.noctarius.snowcast.impl.operations.clientcodec;
 
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.BlockingOperation;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.PartitionAwareOperation;
+import com.hazelcast.spi.WaitNotifyKey;
+import com.noctarius.snowcast.impl.PartitionFreezeUtils;
 
 import java.io.IOException;
 
 abstract class AbstractClientRequestOperation
         extends Operation
-        implements PartitionAwareOperation {
+        implements PartitionAwareOperation, BlockingOperation {
 
     private final String sequencerName;
     private final MessageChannel messageChannel;
@@ -50,6 +53,21 @@ abstract class AbstractClientRequestOperation
         return true;
     }
 
+    @Override
+    public WaitNotifyKey getWaitKey() {
+        return PartitionFreezeUtils.getWaitKey(this);
+    }
+
+    @Override
+    public boolean shouldWait() {
+        return PartitionFreezeUtils.shouldWait(this);
+    }
+
+    @Override
+    public void onWaitExpire() {
+        PartitionFreezeUtils.onWaitExpire(this);
+    }
+
     @Override
     protected void writeInternal(ObjectDataOutput out)
             throws IOException {
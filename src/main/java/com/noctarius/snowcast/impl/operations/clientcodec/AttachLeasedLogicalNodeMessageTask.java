@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl.operations.clientcodec;
+
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.SnowcastAttachLeasedLogicalNodeCodec;
+import com.hazelcast.instance.Node;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.spi.Operation;
+import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequenceLayout;
+import com.noctarius.snowcast.impl.SequencerDefinition;
+
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.sequenceLayoutOf;
+
+class AttachLeasedLogicalNodeMessageTask
+        extends AbstractSnowcastMessageTask<SnowcastAttachLeasedLogicalNodeCodec.RequestParameters> {
+
+    AttachLeasedLogicalNodeMessageTask(ClientMessage clientMessage, Node node, Connection connection) {
+        super(clientMessage, node, connection);
+    }
+
+    @Override
+    protected SnowcastAttachLeasedLogicalNodeCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
+        return SnowcastAttachLeasedLogicalNodeCodec.decodeRequest(clientMessage);
+    }
+
+    @Override
+    protected ClientMessage encodeResponse(Object response) {
+        return SnowcastAttachLeasedLogicalNodeCodec.encodeResponse((Integer) response);
+    }
+
+    @Override
+    protected Operation createOperation() {
+        String sequencerName = parameters.sequencerName;
+        long epochOffset = parameters.epochOffset;
+        SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(epochOffset);
+        int maxLogicalNodeCount = parameters.maxLogicalNodeCount;
+        int timestampBits = parameters.timestampBits;
+        int counterBits = parameters.counterBits;
+        int ticksPerMillisecond = parameters.ticksPerMillisecond;
+        short backupCount = (short) parameters.backupCount;
+        long leaseTimeMillis = parameters.leaseTimeMillis;
+
+        SnowcastSequenceLayout sequenceLayout = sequenceLayoutOf(maxLogicalNodeCount, timestampBits, counterBits,
+                ticksPerMillisecond);
+        SequencerDefinition sequencerDefinition = new SequencerDefinition(sequencerName, epoch, maxLogicalNodeCount,
+                sequenceLayout, backupCount);
+        return new ClientAttachLogicalNodeOperation(sequencerName, this, sequencerDefinition, leaseTimeMillis);
+    }
+}
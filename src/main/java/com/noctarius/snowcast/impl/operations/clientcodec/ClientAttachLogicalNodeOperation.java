@@ -16,8 +16,10 @@
  */
 package com.noctarius.snowcast.impl.operations.clientcodec;
 
+import com.hazelcast.nio.Address;
 import com.hazelcast.spi.BackupAwareOperation;
 import com.hazelcast.spi.Operation;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
 import com.noctarius.snowcast.impl.NodeSequencerService;
 import com.noctarius.snowcast.impl.SequencerDefinition;
 import com.noctarius.snowcast.impl.SequencerPartition;
@@ -30,14 +32,23 @@ class ClientAttachLogicalNodeOperation
         implements BackupAwareOperation {
 
     private final SequencerDefinition definition;
+    private final long leaseTimeMillis;
 
     private Integer logicalNodeId;
+    private long leaseExpiration;
 
     public ClientAttachLogicalNodeOperation(@Nonnull String sequencerName, @Nonnull MessageChannel messageChannel,
                                             @Nonnull SequencerDefinition definition) {
 
+        this(sequencerName, messageChannel, definition, 0);
+    }
+
+    ClientAttachLogicalNodeOperation(@Nonnull String sequencerName, @Nonnull MessageChannel messageChannel,
+                                     @Nonnull SequencerDefinition definition, long leaseTimeMillis) {
+
         super(sequencerName, messageChannel);
         this.definition = definition;
+        this.leaseTimeMillis = leaseTimeMillis;
     }
 
     @Override
@@ -46,7 +57,9 @@ class ClientAttachLogicalNodeOperation
 
         NodeSequencerService sequencerService = getService();
         SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
-        logicalNodeId = partition.attachLogicalNode(definition, getMessageChannel().getAddress());
+        long now = getNodeEngine().getClusterService().getClusterTime();
+        leaseExpiration = leaseTimeMillis > 0 ? now + leaseTimeMillis : 0;
+        logicalNodeId = partition.attachLogicalNode(definition, getMessageChannel().getAddress(), now, leaseExpiration);
     }
 
     @Override
@@ -71,6 +84,11 @@ class ClientAttachLogicalNodeOperation
 
     @Override
     public Operation getBackupOperation() {
-        return new BackupAttachLogicalNodeOperation(definition, logicalNodeId, getMessageChannel().getAddress());
+        NodeSequencerService sequencerService = getService();
+        SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
+        LogicalNodeTableVersion tableVersion = partition.getLogicalNodeTableVersion(getSequencerName());
+
+        Address address = getMessageChannel().getAddress();
+        return new BackupAttachLogicalNodeOperation(definition, logicalNodeId, address, leaseExpiration, tableVersion);
     }
 }
@@ -18,8 +18,10 @@ package com.noctarius.snowcast.impl.operations.clientcodec;
 
 import com.hazelcast.spi.BackupAwareOperation;
 import com.hazelcast.spi.Operation;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
 import com.noctarius.snowcast.impl.NodeSequencerService;
 import com.noctarius.snowcast.impl.SequencerDefinition;
+import com.noctarius.snowcast.impl.SequencerPartition;
 import com.noctarius.snowcast.impl.operations.BackupCreateSequencerDefinitionOperation;
 
 import javax.annotation.Nonnull;
@@ -68,6 +70,9 @@ class ClientCreateSequencerDefinitionOperation
 
     @Override
     public Operation getBackupOperation() {
-        return new BackupCreateSequencerDefinitionOperation(definition);
+        NodeSequencerService sequencerService = getService();
+        SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
+        LogicalNodeTableVersion tableVersion = partition.getLogicalNodeTableVersion(getSequencerName());
+        return new BackupCreateSequencerDefinitionOperation(definition, tableVersion);
     }
 }
@@ -16,8 +16,10 @@
  */
 package com.noctarius.snowcast.impl.operations.clientcodec;
 
+import com.hazelcast.nio.Address;
 import com.hazelcast.spi.BackupAwareOperation;
 import com.hazelcast.spi.Operation;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
 import com.noctarius.snowcast.impl.NodeSequencerService;
 import com.noctarius.snowcast.impl.SequencerDefinition;
 import com.noctarius.snowcast.impl.SequencerPartition;
@@ -76,6 +78,10 @@ class ClientDetachLogicalNodeOperation
 
     @Override
     public Operation getBackupOperation() {
-        return new BackupDetachLogicalNodeOperation(definition, logicalNodeId, getMessageChannel().getAddress());
+        NodeSequencerService sequencerService = getService();
+        SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
+        LogicalNodeTableVersion tableVersion = partition.getLogicalNodeTableVersion(getSequencerName());
+        Address address = getMessageChannel().getAddress();
+        return new BackupDetachLogicalNodeOperation(definition, logicalNodeId, address, tableVersion);
     }
 }
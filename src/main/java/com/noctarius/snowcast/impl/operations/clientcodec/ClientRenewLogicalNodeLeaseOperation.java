@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl.operations.clientcodec;
+
+import com.hazelcast.spi.BackupAwareOperation;
+import com.hazelcast.spi.Operation;
+import com.noctarius.snowcast.impl.LogicalNodeTableVersion;
+import com.noctarius.snowcast.impl.NodeSequencerService;
+import com.noctarius.snowcast.impl.SequencerDefinition;
+import com.noctarius.snowcast.impl.SequencerPartition;
+import com.noctarius.snowcast.impl.operations.BackupRenewLogicalNodeLeaseOperation;
+
+import javax.annotation.Nonnull;
+
+class ClientRenewLogicalNodeLeaseOperation
+        extends AbstractClientRequestOperation
+        implements BackupAwareOperation {
+
+    private final int logicalNodeId;
+    private final long leaseTimeMillis;
+
+    private long leaseExpiration;
+    private boolean renewed;
+    private int backupCount;
+
+    ClientRenewLogicalNodeLeaseOperation(@Nonnull String sequencerName, @Nonnull MessageChannel messageChannel,
+                                         int logicalNodeId, long leaseTimeMillis) {
+
+        super(sequencerName, messageChannel);
+        this.logicalNodeId = logicalNodeId;
+        this.leaseTimeMillis = leaseTimeMillis;
+    }
+
+    @Override
+    public void run()
+            throws Exception {
+
+        NodeSequencerService sequencerService = getService();
+        SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
+
+        leaseExpiration = getNodeEngine().getClusterService().getClusterTime() + leaseTimeMillis;
+        renewed = partition.renewLogicalNodeLease(getSequencerName(), getMessageChannel().getAddress(), logicalNodeId,
+                leaseExpiration);
+
+        SequencerDefinition definition = partition.getSequencerDefinition(getSequencerName());
+        backupCount = definition != null ? definition.getBackupCount() : 0;
+    }
+
+    @Override
+    public Object getResponse() {
+        return renewed;
+    }
+
+    @Override
+    public boolean shouldBackup() {
+        return renewed;
+    }
+
+    @Override
+    public int getSyncBackupCount() {
+        return backupCount;
+    }
+
+    @Override
+    public int getAsyncBackupCount() {
+        return 0;
+    }
+
+    @Override
+    public Operation getBackupOperation() {
+        String sequencerName = getSequencerName();
+        NodeSequencerService sequencerService = getService();
+        SequencerPartition partition = sequencerService.getSequencerPartition(getPartitionId());
+        LogicalNodeTableVersion tableVersion = partition.getLogicalNodeTableVersion(sequencerName);
+        return new BackupRenewLogicalNodeLeaseOperation(sequencerName, logicalNodeId, getMessageChannel().getAddress(),
+                leaseExpiration, tableVersion);
+    }
+}
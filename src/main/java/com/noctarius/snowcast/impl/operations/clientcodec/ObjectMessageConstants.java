@@ -20,4 +20,6 @@ public interface ObjectMessageConstants {
 
     int SEQUENCER_DEFINITION = 900;
 
+    int SEQUENCER_DEFINITION_WITH_LAYOUT = 901;
+
 }
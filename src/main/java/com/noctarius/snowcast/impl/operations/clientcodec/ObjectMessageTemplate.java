@@ -36,6 +36,13 @@ public interface ObjectMessageTemplate {
                                                                @Min(128) @Max(8192) int maxLogicalNodeCount,
                                                                @Nonnegative @Max(Short.MAX_VALUE) int backupCount);
 
+    @Response(ObjectMessageConstants.SEQUENCER_DEFINITION_WITH_LAYOUT)
+    SequencerDefinition SequencerDefinitionWithLayout(@Nonnull String sequencerName, @Nonnull long epochOffset,
+                                                      @Min(128) @Max(8192) int maxLogicalNodeCount,
+                                                      @Min(32) @Max(41) int timestampBits, @Min(10) @Max(30) int counterBits,
+                                                      @Min(1) @Max(100) int ticksPerMillisecond,
+                                                      @Nonnegative @Max(Short.MAX_VALUE) int backupCount);
+
     @EventResponse(EventMessageConst.EVENT_TOPIC)
     void Topic(@Nonnull Data item, @Nonnegative long publishTime, @Nonnull String uuid);
 
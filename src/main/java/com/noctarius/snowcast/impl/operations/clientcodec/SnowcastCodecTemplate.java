@@ -53,4 +53,38 @@ public interface SnowcastCodecTemplate {
     @Request(id = 6, retryable = false, response = ResponseMessageConst.BOOLEAN)
     boolean removeChannel(@Nonnull String sequencerName, @Nonnull String registrationId);
 
-}
\ No newline at end of file
+    @Request(id = 7, retryable = false, response = ResponseMessageConst.INTEGER)
+    int attachLeasedLogicalNode(@Nonnull String sequencerName, @Nonnull long epochOffset,
+                                @Min(128) @Max(8192) int maxLogicalNodeCount,
+                                @Min(32) @Max(41) int timestampBits, @Min(10) @Max(30) int counterBits,
+                                @Min(1) @Max(100) int ticksPerMillisecond,
+                                @Nonnegative @Max(Short.MAX_VALUE) int backupCount, @Min(1) long leaseTimeMillis);
+
+    @Request(id = 8, retryable = false, response = ResponseMessageConst.BOOLEAN)
+    boolean renewLogicalNodeLease(@Nonnull String sequencerName, int logicalNodeId, @Min(1) long leaseTimeMillis);
+
+    // Layout aware variants of the requests 1, 2 and 4, those keep using the default sequence layouts
+    @Request(id = 9, retryable = false, response = ResponseMessageConst.INTEGER)
+    int attachLogicalNodeWithLayout(@Nonnull String sequencerName, @Nonnull long epochOffset,
+                                    @Min(128) @Max(8192) int maxLogicalNodeCount,
+                                    @Min(32) @Max(41) int timestampBits, @Min(10) @Max(30) int counterBits,
+                                    @Min(1) @Max(100) int ticksPerMillisecond,
+                                    @Nonnegative @Max(Short.MAX_VALUE) int backupCount);
+
+    @Request(id = 10, retryable = false, response = ObjectMessageConstants.SEQUENCER_DEFINITION_WITH_LAYOUT)
+    SequencerDefinition createSequencerDefinitionWithLayout(@Nonnull String sequencerName, @Nonnull long epochOffset,
+                                                            @Min(128) @Max(8192) int maxLogicalNodeCount,
+                                                            @Min(32) @Max(41) int timestampBits,
+                                                            @Min(10) @Max(30) int counterBits,
+                                                            @Min(1) @Max(100) int ticksPerMillisecond,
+                                                            @Nonnegative @Max(Short.MAX_VALUE) int backupCount);
+
+    @Request(id = 11, retryable = false, response = ResponseMessageConst.BOOLEAN)
+    boolean detachLogicalNodeWithLayout(@Nonnull String sequencerName, @Nonnull long epochOffset,
+                                        @Min(128) @Max(8192) int maxLogicalNodeCount,
+                                        @Min(32) @Max(41) int timestampBits, @Min(10) @Max(30) int counterBits,
+                                        @Min(1) @Max(100) int ticksPerMillisecond,
+                                        @Nonnegative @Max(Short.MAX_VALUE) int backupCount,
+                                        int logicalNodeId);
+
+}
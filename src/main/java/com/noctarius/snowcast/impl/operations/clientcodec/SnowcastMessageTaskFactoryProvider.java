@@ -19,13 +19,18 @@ package com.noctarius.snowcast.impl.operations.clientcodec;
 import com.hazelcast.client.impl.protocol.ClientMessage;
 import com.hazelcast.client.impl.protocol.MessageTaskFactory;
 import com.hazelcast.client.impl.protocol.MessageTaskFactoryProvider;
+import com.hazelcast.client.impl.protocol.codec.SnowcastAttachLeasedLogicalNodeCodec;
 import com.hazelcast.client.impl.protocol.codec.SnowcastAttachLogicalNodeCodec;
+import com.hazelcast.client.impl.protocol.codec.SnowcastAttachLogicalNodeWithLayoutCodec;
 import com.hazelcast.client.impl.protocol.codec.SnowcastCreateSequencerDefinitionCodec;
+import com.hazelcast.client.impl.protocol.codec.SnowcastCreateSequencerDefinitionWithLayoutCodec;
 import com.hazelcast.client.impl.protocol.codec.SnowcastDestroySequencerDefinitionCodec;
 import com.hazelcast.client.impl.protocol.codec.SnowcastDetachLogicalNodeCodec;
+import com.hazelcast.client.impl.protocol.codec.SnowcastDetachLogicalNodeWithLayoutCodec;
 import com.hazelcast.client.impl.protocol.codec.SnowcastMessageType;
 import com.hazelcast.client.impl.protocol.codec.SnowcastRegisterChannelCodec;
 import com.hazelcast.client.impl.protocol.codec.SnowcastRemoveChannelCodec;
+import com.hazelcast.client.impl.protocol.codec.SnowcastRenewLogicalNodeLeaseCodec;
 import com.hazelcast.client.impl.protocol.task.MessageTask;
 import com.hazelcast.instance.Node;
 import com.hazelcast.nio.Connection;
@@ -46,6 +51,12 @@ public final class SnowcastMessageTaskFactoryProvider
         register(SnowcastDetachLogicalNodeCodec.RequestParameters.TYPE, DetachLogicalNodeMessageTask::new);
         register(SnowcastRegisterChannelCodec.RequestParameters.TYPE, RegisterChannelMessageTask::new);
         register(SnowcastRemoveChannelCodec.RequestParameters.TYPE, RemoveChannelMessageTask::new);
+        register(SnowcastAttachLeasedLogicalNodeCodec.RequestParameters.TYPE, AttachLeasedLogicalNodeMessageTask::new);
+        register(SnowcastRenewLogicalNodeLeaseCodec.RequestParameters.TYPE, RenewLogicalNodeLeaseMessageTask::new);
+        register(SnowcastAttachLogicalNodeWithLayoutCodec.RequestParameters.TYPE, AttachLogicalNodeWithLayoutMessageTask::new);
+        register(SnowcastCreateSequencerDefinitionWithLayoutCodec.RequestParameters.TYPE,
+                CreateSequencerDefinitionWithLayoutMessageTask::new);
+        register(SnowcastDetachLogicalNodeWithLayoutCodec.RequestParameters.TYPE, DetachLogicalNodeWithLayoutMessageTask::new);
     }
 
     @Override
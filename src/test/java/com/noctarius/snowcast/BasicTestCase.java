@@ -26,9 +26,17 @@ import org.junit.Test;
 import java.io.InputStream;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
+import static com.noctarius.snowcast.SnowcastTimestampResolution.HundredMicroseconds;
+import static com.noctarius.snowcast.SnowcastTimestampResolution.TenMicroseconds;
 import static com.noctarius.snowcast.impl.InternalSequencerUtils.*;
 import static org.junit.Assert.*;
 
@@ -105,6 +113,78 @@ public class BasicTestCase
         }
     }
 
+    @Test
+    public void test_batch_id_generation()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            SnowcastSequencer sequencer = buildSnowcastSequencer(snowcast);
+
+            long[] ids = sequencer.next(200000);
+            assertEquals(200000, ids.length);
+
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(SnowcastSequenceUtils.compareSequence(ids[i - 1], ids[i], 128) < 0);
+            }
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_async_id_generation()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            SnowcastSequencer sequencer = buildSnowcastSequencer(snowcast);
+
+            long first = sequencer.nextAsync().get(10, TimeUnit.SECONDS);
+
+            // Exceeds the counter range of a single millisecond and needs rescheduling
+            long[] ids = sequencer.nextBatchAsync(200000).get(10, TimeUnit.SECONDS);
+            assertEquals(200000, ids.length);
+            assertTrue(SnowcastSequenceUtils.compareSequence(first, ids[0], 128) < 0);
+
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(SnowcastSequenceUtils.compareSequence(ids[i - 1], ids[i], 128) < 0);
+            }
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test(expected = SnowcastStateException.class)
+    public void test_async_destroyed_state()
+            throws Throwable {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            SnowcastSequencer sequencer = buildSnowcastSequencer(snowcast);
+
+            snowcast.destroySequencer(sequencer);
+
+            CompletableFuture<Long> future = sequencer.nextAsync();
+            assertTrue(future.isCompletedExceptionally());
+            future.get();
+
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
     @Test(expected = SnowcastStateException.class)
     public void test_destroyed_state()
             throws Exception {
@@ -223,6 +303,194 @@ public class BasicTestCase
         }
     }
 
+    @Test
+    public void test_bulk_sequencer_creation()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(2);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+        factory.newHazelcastInstance();
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            SnowcastSequencer existing = buildSnowcastSequencer(snowcast);
+
+            SnowcastEpoch epoch = buildEpoch();
+            List<SnowcastSequencerSpec> specs = new ArrayList<>();
+            specs.add(SnowcastSequencerSpec.of("SimpleSequencer", epoch, 128));
+            for (int i = 0; i < 100; i++) {
+                specs.add(SnowcastSequencerSpec.of("BulkSequencer-" + i, epoch, 128));
+            }
+
+            List<SnowcastSequencer> sequencers = snowcast.createSequencers(specs);
+            assertEquals(specs.size(), sequencers.size());
+            assertSame(existing, sequencers.get(0));
+
+            for (int i = 0; i < specs.size(); i++) {
+                SnowcastSequencer sequencer = sequencers.get(i);
+                assertEquals(specs.get(i).getSequencerName(), sequencer.getSequencerName());
+                assertEquals(SnowcastSequenceState.Attached, sequencer.getSequencerState());
+                assertNotNull(sequencer.next());
+            }
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test(expected = SnowcastSequencerAlreadyRegisteredException.class)
+    public void test_bulk_sequencer_creation_wrong_definition()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            SnowcastSequencer sequencer = buildSnowcastSequencer(snowcast);
+
+            assertNotNull(sequencer);
+
+            SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis());
+            snowcast.createSequencers(Arrays.asList(SnowcastSequencerSpec.of("BulkSequencer", epoch, 128),
+                    SnowcastSequencerSpec.of("SimpleSequencer", epoch, 128)));
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_custom_layout_id_generation()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1));
+            SnowcastSequenceLayout layout = SnowcastSequenceLayout.of(38, 4, 22);
+            SnowcastSequencer sequencer = snowcast.createSequencer("LayoutSequencer", epoch, layout);
+
+            assertEquals(layout, sequenceLayout(sequencer));
+
+            long before = epoch.getEpochTimestamp();
+            long[] ids = sequencer.next(200000);
+            long after = epoch.getEpochTimestamp();
+
+            for (int i = 0; i < ids.length; i++) {
+                long timestamp = layout.timestampValue(ids[i]);
+                assertTrue(timestamp >= before && timestamp <= after);
+                assertEquals(timestamp, sequencer.timestampValue(ids[i]));
+                assertEquals(layout.logicalNodeId(ids[i]), sequencer.logicalNodeId(ids[i]));
+                assertEquals(layout.counterValue(ids[i]), sequencer.counterValue(ids[i]));
+                assertTrue(layout.logicalNodeId(ids[i]) < 16);
+                if (i > 0) {
+                    assertTrue(layout.compare(ids[i - 1], ids[i]) < 0);
+                }
+            }
+
+            List<SnowcastSequencer> sequencers = snowcast.createSequencers(
+                    Arrays.asList(SnowcastSequencerSpec.of("LayoutSequencer", epoch, layout),
+                            SnowcastSequencerSpec.of("BulkLayoutSequencer", epoch, layout)));
+            assertSame(sequencer, sequencers.get(0));
+            assertEquals(layout, sequenceLayout(sequencers.get(1)));
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test(expected = SnowcastSequencerAlreadyRegisteredException.class)
+    public void test_creation_wrong_layout()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            SnowcastEpoch epoch = buildEpoch();
+            snowcast.createSequencer("LayoutSequencer", epoch, 128);
+
+            snowcast.createSequencer("LayoutSequencer", epoch, SnowcastSequenceLayout.of(40, 7, 17));
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test(expected = SnowcastIllegalStateException.class)
+    public void test_custom_layout_timestamp_overflow()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+
+            // 32 timestamp bits last about 49 days
+            SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(60));
+            SnowcastSequencer sequencer = snowcast.createSequencer("LayoutSequencer", epoch,
+                    SnowcastSequenceLayout.of(32, 10, 22));
+
+            sequencer.next();
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_timestamp_resolution_id_generation()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+
+            // 41 bits of 10 microsecond ticks last about 8 months
+            SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1));
+            SnowcastSequenceLayout layout = SnowcastSequenceLayout.of(41, 13, 10, TenMicroseconds);
+            SnowcastSequencer sequencer = snowcast.createSequencer("ResolutionSequencer", epoch, layout);
+
+            assertEquals(layout, sequenceLayout(sequencer));
+
+            long before = epoch.getEpochTicks(TenMicroseconds);
+            long[] ids = sequencer.next(20000);
+            long after = epoch.getEpochTicks(TenMicroseconds);
+
+            for (int i = 0; i < ids.length; i++) {
+                long ticks = layout.tickValue(ids[i]);
+                assertTrue(ticks >= before && ticks <= after);
+                assertEquals(ticks / 100, sequencer.timestampValue(ids[i]));
+                assertTrue(sequencer.counterValue(ids[i]) < 1024);
+                if (i > 0) {
+                    assertTrue(layout.compare(ids[i - 1], ids[i]) < 0);
+                }
+            }
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test(expected = SnowcastSequencerAlreadyRegisteredException.class)
+    public void test_creation_wrong_timestamp_resolution()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            SnowcastEpoch epoch = buildEpoch();
+            snowcast.createSequencer("ResolutionSequencer", epoch, 128);
+
+            snowcast.createSequencer("ResolutionSequencer", epoch, SnowcastSequenceLayout.of(41, 7, 16, HundredMicroseconds));
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
     @Test
     public void test_sequencer_counter_value()
             throws Exception {
@@ -19,6 +19,13 @@ package com.noctarius.snowcast;
 import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.client.config.ClientConfig;
 import com.hazelcast.client.config.XmlClientConfigBuilder;
+import com.hazelcast.client.impl.HazelcastClientInstanceImpl;
+import com.hazelcast.client.impl.HazelcastClientProxy;
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.SnowcastAttachLogicalNodeCodec;
+import com.hazelcast.client.impl.protocol.codec.SnowcastCreateSequencerDefinitionCodec;
+import com.hazelcast.client.impl.protocol.codec.SnowcastDetachLogicalNodeCodec;
+import com.hazelcast.client.spi.impl.ClientInvocation;
 import com.hazelcast.config.Config;
 import com.hazelcast.config.XmlConfigBuilder;
 import com.hazelcast.core.Hazelcast;
@@ -26,10 +33,19 @@ import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.test.HazelcastTestSupport;
 import org.junit.Test;
 
+import java.lang.reflect.Field;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
-
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.noctarius.snowcast.SnowcastTimestampResolution.HundredMicroseconds;
 import static com.noctarius.snowcast.impl.InternalSequencerUtils.*;
 import static org.junit.Assert.*;
 
@@ -88,6 +104,284 @@ public class ClientBasicTestCase
         }
     }
 
+    @Test
+    public void test_async_id_generation()
+            throws Exception {
+
+        Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(client);
+            SnowcastSequencer sequencer = buildSnowcastSequencer(snowcast);
+
+            long first = sequencer.nextAsync().get(10, TimeUnit.SECONDS);
+
+            // Exceeds the counter range of a single millisecond and needs rescheduling
+            long[] ids = sequencer.nextBatchAsync(200000).get(10, TimeUnit.SECONDS);
+            assertEquals(200000, ids.length);
+            assertTrue(SnowcastSequenceUtils.compareSequence(first, ids[0], 128) < 0);
+        } finally {
+            HazelcastClient.shutdownAll();
+            Hazelcast.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_custom_layout_id_generation()
+            throws Exception {
+
+        Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(client);
+            SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1));
+            SnowcastSequenceLayout layout = SnowcastSequenceLayout.of(36, 2, 26);
+            SnowcastSequencer sequencer = snowcast.createSequencer("LayoutSequencer", epoch, layout);
+
+            assertEquals(layout, sequenceLayout(sequencer));
+
+            long[] ids = sequencer.next(10000);
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(layout.compare(ids[i - 1], ids[i]) < 0);
+                assertTrue(layout.logicalNodeId(ids[i]) < 4);
+            }
+
+            // Existing definition is validated by the cluster including the layout
+            HazelcastInstance otherClient = HazelcastClient.newHazelcastClient(clientConfig);
+            Snowcast otherSnowcast = SnowcastSystem.snowcast(otherClient);
+            SnowcastSequencer other = otherSnowcast.createSequencer("LayoutSequencer", epoch, layout);
+            assertEquals(layout, sequenceLayout(other));
+            assertNotEquals(sequencer.logicalNodeId(sequencer.next()), other.logicalNodeId(other.next()));
+        } finally {
+            HazelcastClient.shutdownAll();
+            Hazelcast.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_legacy_requests_use_default_layout()
+            throws Exception {
+
+        Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(client);
+            SnowcastSequencer sequencer = buildSnowcastSequencer(snowcast);
+
+            // Requests of clients without sequence layouts keep their message ids and layout-less parameters
+            Field clientField = HazelcastClientProxy.class.getDeclaredField("client");
+            clientField.setAccessible(true);
+            HazelcastClientInstanceImpl clientImpl = (HazelcastClientInstanceImpl) clientField.get(client);
+            int partitionId = client.getPartitionService().getPartition("SimpleSequencer").getPartitionId();
+
+            long epochOffset = buildEpoch().getEpochOffset();
+            ClientMessage request = SnowcastCreateSequencerDefinitionCodec.encodeRequest("SimpleSequencer", epochOffset, 128, 1);
+            ClientMessage response = new ClientInvocation(clientImpl, request, partitionId).invoke().get();
+
+            SnowcastCreateSequencerDefinitionCodec.ResponseParameters parameters = //
+                    SnowcastCreateSequencerDefinitionCodec.decodeResponse(response);
+            assertEquals("SimpleSequencer", parameters.sequencerName);
+            assertEquals(epochOffset, parameters.epochOffset);
+            assertEquals(128, parameters.maxLogicalNodeCount);
+            assertEquals(1, parameters.backupCount);
+
+            request = SnowcastAttachLogicalNodeCodec.encodeRequest("SimpleSequencer", epochOffset, 128, 1);
+            response = new ClientInvocation(clientImpl, request, partitionId).invoke().get();
+            int logicalNodeId = SnowcastAttachLogicalNodeCodec.decodeResponse(response).response;
+            assertNotEquals(sequencer.logicalNodeId(sequencer.next()), logicalNodeId);
+
+            request = SnowcastDetachLogicalNodeCodec.encodeRequest("SimpleSequencer", epochOffset, 128, 1, logicalNodeId);
+            response = new ClientInvocation(clientImpl, request, partitionId).invoke().get();
+            assertTrue(SnowcastDetachLogicalNodeCodec.decodeResponse(response).response);
+        } finally {
+            HazelcastClient.shutdownAll();
+            Hazelcast.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_timestamp_resolution_id_generation()
+            throws Exception {
+
+        Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(client);
+            SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1));
+            SnowcastSequenceLayout layout = SnowcastSequenceLayout.of(41, 10, 13, HundredMicroseconds);
+            SnowcastSequencer sequencer = snowcast.createSequencer("ResolutionSequencer", epoch, layout);
+
+            assertEquals(layout, sequenceLayout(sequencer));
+
+            long[] ids = sequencer.next(10000);
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(layout.compare(ids[i - 1], ids[i]) < 0);
+                assertEquals(layout.tickValue(ids[i]) / 10, sequencer.timestampValue(ids[i]));
+            }
+        } finally {
+            HazelcastClient.shutdownAll();
+            Hazelcast.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_leased_id_generation_after_renewal()
+            throws Exception {
+
+        Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(client);
+            SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults().withLeaseTime(300, TimeUnit.MILLISECONDS);
+            SnowcastSequencer sequencer = snowcast.createSequencer("SimpleSequencer", buildEpoch(), 128, options);
+
+            assertNotNull(sequencer.next());
+
+            // Outlives the initial lease, only valid if the lease was renewed in the background
+            TimeUnit.SECONDS.sleep(1);
+            assertNotNull(sequencer.next());
+        } finally {
+            HazelcastClient.shutdownAll();
+            Hazelcast.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_leased_id_generation_with_blocking_callback()
+            throws Exception {
+
+        Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(client);
+            SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults().withLeaseTime(300, TimeUnit.MILLISECONDS);
+            SnowcastSequencer sequencer = snowcast.createSequencer("SimpleSequencer", buildEpoch(), 8192, options);
+
+            // Needs multiple milliseconds, the blocking stage runs on the thread completing the future
+            CompletableFuture<Void> blocking = sequencer.nextBatchAsync(20000).thenAccept(ids -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            // Outlives the initial lease, the blocked callback must not delay the renewal
+            TimeUnit.SECONDS.sleep(1);
+            assertNotNull(sequencer.next());
+
+            release.countDown();
+            blocking.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            HazelcastClient.shutdownAll();
+            Hazelcast.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_leased_multiple_logical_nodes()
+            throws Exception {
+
+        Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(client);
+            SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults().withLogicalNodes(4)
+                                                                       .withLeaseTime(300, TimeUnit.MILLISECONDS);
+            SnowcastSequencer sequencer = snowcast.createSequencer("SimpleSequencer", buildEpoch(), 8192, options);
+
+            Set<Integer> logicalNodeIds = new HashSet<>();
+            for (long id : sequencer.next(20000)) {
+                logicalNodeIds.add(sequencer.logicalNodeId(id));
+            }
+            assertEquals(4, logicalNodeIds.size());
+
+            // Outlives the initial lease, only valid if the leases of all logical node ids were renewed
+            TimeUnit.SECONDS.sleep(1);
+            assertNotNull(sequencer.next());
+        } finally {
+            HazelcastClient.shutdownAll();
+            Hazelcast.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_leased_adaptive_logical_nodes()
+            throws Exception {
+
+        Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(client);
+            SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults()
+                                                                       .withAdaptiveLogicalNodes(2, 30, TimeUnit.SECONDS)
+                                                                       .withLeaseTime(300, TimeUnit.MILLISECONDS);
+            SnowcastSequencer sequencer = snowcast.createSequencer("SimpleSequencer", buildEpoch(), 8192, options);
+
+            // Exhausting the counter of a single logical node id attaches a second one
+            Set<Integer> logicalNodeIds = new HashSet<>();
+            long deadline = System.currentTimeMillis() + 30000;
+            while (logicalNodeIds.size() < 2 && System.currentTimeMillis() < deadline) {
+                for (long id : sequencer.next(1000)) {
+                    logicalNodeIds.add(sequencer.logicalNodeId(id));
+                }
+            }
+            assertEquals(2, logicalNodeIds.size());
+
+            // Outlives the lease of the additional logical node id, only valid if it was renewed as well
+            TimeUnit.SECONDS.sleep(1);
+            logicalNodeIds.clear();
+            for (long id : sequencer.next(20000)) {
+                logicalNodeIds.add(sequencer.logicalNodeId(id));
+            }
+            assertEquals(2, logicalNodeIds.size());
+        } finally {
+            HazelcastClient.shutdownAll();
+            Hazelcast.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_bulk_sequencer_creation()
+            throws Exception {
+
+        Hazelcast.newHazelcastInstance(config);
+        Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(client);
+
+            List<SnowcastSequencerSpec> specs = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                specs.add(SnowcastSequencerSpec.of("BulkSequencer-" + i, buildEpoch(), 128));
+            }
+
+            List<SnowcastSequencer> sequencers = snowcast.createSequencers(specs);
+            assertEquals(specs.size(), sequencers.size());
+
+            for (int i = 0; i < specs.size(); i++) {
+                SnowcastSequencer sequencer = sequencers.get(i);
+                assertEquals(specs.get(i).getSequencerName(), sequencer.getSequencerName());
+                assertNotNull(sequencer.next());
+            }
+            assertSame(sequencers.get(0), snowcast.createSequencer("BulkSequencer-0", buildEpoch(), 128));
+        } finally {
+            HazelcastClient.shutdownAll();
+            Hazelcast.shutdownAll();
+        }
+    }
+
     @Test(expected = SnowcastStateException.class)
     public void test_destroyed_state()
             throws Exception {
@@ -162,6 +456,40 @@ public class ClientBasicTestCase
         }
     }
 
+    @Test
+    public void test_cached_sequencer_invalidated_by_destroy_from_node()
+            throws Exception {
+
+        HazelcastInstance hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+
+        try {
+            SnowcastEpoch epoch = buildEpoch();
+
+            Snowcast snowcastClient = SnowcastSystem.snowcast(client);
+            SnowcastSequencer sequencerClient = buildSnowcastSequencer(snowcastClient, epoch);
+
+            // Equal definitions are served from the local cache
+            assertSame(sequencerClient, buildSnowcastSequencer(snowcastClient, epoch));
+
+            Snowcast snowcastNode = SnowcastSystem.snowcast(hazelcastInstance);
+            SnowcastSequencer sequencerNode = buildSnowcastSequencer(snowcastNode, epoch);
+            assertSame(sequencerNode, buildSnowcastSequencer(snowcastNode, epoch));
+
+            snowcastNode.destroySequencer(sequencerNode);
+
+            assertEqualsEventually(sequencerClient::getSequencerState, SnowcastSequenceState.Destroyed);
+
+            SnowcastSequencer recreated = buildSnowcastSequencer(snowcastClient, epoch);
+            assertNotSame(sequencerClient, recreated);
+            assertEquals(SnowcastSequenceState.Attached, recreated.getSequencerState());
+            assertNotNull(recreated.next());
+        } finally {
+            HazelcastClient.shutdownAll();
+            Hazelcast.shutdownAll();
+        }
+    }
+
     @Test(expected = SnowcastStateException.class)
     public void test_id_generation_in_detached_state()
             throws Exception {
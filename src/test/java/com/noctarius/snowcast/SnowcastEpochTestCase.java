@@ -57,6 +57,24 @@ public class SnowcastEpochTestCase {
         assertTrue(timestamp > 0);
     }
 
+    @Test
+    public void testEpochTicks()
+            throws Exception {
+
+        Instant instant = Instant.now().minus(1, ChronoUnit.MINUTES);
+        SnowcastEpoch epoch = SnowcastEpoch.byInstant(instant);
+
+        for (SnowcastTimestampResolution resolution : SnowcastTimestampResolution.values()) {
+            long ticks = epoch.getEpochTicks(resolution);
+            long millis = epoch.getEpochTimestamp();
+            long ticksPerMillisecond = resolution.getTicksPerMillisecond();
+
+            // Sub-millisecond ticks derive from System.nanoTime and may drift slightly from the wall clock
+            assertTrue(Math.abs(ticks / ticksPerMillisecond - millis) < 1000);
+            assertTrue(epoch.getEpochTicks(resolution) >= ticks);
+        }
+    }
+
     @Test(expected = SnowcastException.class)
     public void testFutureCalendarInstance()
             throws Exception {
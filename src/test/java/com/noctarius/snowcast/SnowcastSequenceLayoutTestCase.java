@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast;
+
+import com.noctarius.snowcast.impl.InternalSequencerUtils;
+import org.junit.Test;
+
+import static com.noctarius.snowcast.SnowcastTimestampResolution.HundredMicroseconds;
+import static com.noctarius.snowcast.SnowcastTimestampResolution.Milliseconds;
+import static com.noctarius.snowcast.SnowcastTimestampResolution.TenMicroseconds;
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.calculateBoundedMaxLogicalNodeCount;
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.calculateLogicalNodeShifting;
+import static com.noctarius.snowcast.impl.InternalSequencerUtils.generateSequenceId;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SnowcastSequenceLayoutTestCase {
+
+    @Test
+    public void test_layout_instances()
+            throws Exception {
+
+        assertSame(SnowcastSequenceLayout.of(128), SnowcastSequenceLayout.of(128));
+        assertSame(SnowcastSequenceLayout.of(1024), SnowcastSequenceLayout.of(1000));
+        assertEquals(8192, SnowcastSequenceLayout.of(8192).getMaxLogicalNodeCount());
+        assertEquals(16, SnowcastSequenceLayout.of(128).getCounterBits());
+        assertEquals(10, SnowcastSequenceLayout.of(8192).getCounterBits());
+    }
+
+    @Test(expected = SnowcastMaxLogicalNodeIdOutOfBoundsException.class)
+    public void test_layout_too_small()
+            throws Exception {
+
+        SnowcastSequenceLayout.of(127);
+    }
+
+    @Test(expected = SnowcastMaxLogicalNodeIdOutOfBoundsException.class)
+    public void test_layout_too_large()
+            throws Exception {
+
+        SnowcastSequenceLayout.of(8193);
+    }
+
+    @Test
+    public void test_custom_layout()
+            throws Exception {
+
+        SnowcastSequenceLayout layout = SnowcastSequenceLayout.of(38, 4, 22);
+        assertEquals(38, layout.getTimestampBits());
+        assertEquals(4, layout.getLogicalNodeBits());
+        assertEquals(22, layout.getCounterBits());
+        assertEquals(16, layout.getMaxLogicalNodeCount());
+        assertEquals(layout, SnowcastSequenceLayout.of(38, 4, 22));
+        assertNotEquals(layout, SnowcastSequenceLayout.of(38, 5, 21));
+    }
+
+    @Test
+    public void test_custom_layout_matching_default()
+            throws Exception {
+
+        assertSame(SnowcastSequenceLayout.of(128), SnowcastSequenceLayout.of(41, 7, 16));
+        assertSame(SnowcastSequenceLayout.of(8192), SnowcastSequenceLayout.of(41, 13, 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_custom_layout_not_64_bits()
+            throws Exception {
+
+        SnowcastSequenceLayout.of(40, 4, 22);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_custom_layout_timestamp_too_large()
+            throws Exception {
+
+        SnowcastSequenceLayout.of(42, 4, 18);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_custom_layout_counter_too_small()
+            throws Exception {
+
+        SnowcastSequenceLayout.of(41, 14, 9);
+    }
+
+    @Test
+    public void test_custom_layout_decode()
+            throws Exception {
+
+        SnowcastSequenceLayout layout = SnowcastSequenceLayout.of(34, 3, 27);
+        long sequenceId = generateSequenceId((1L << 34) - 1, 7, (1 << 27) - 1, layout);
+
+        assertTrue(sequenceId < 0);
+        assertEquals((1L << 34) - 1, layout.timestampValue(sequenceId));
+        assertEquals(7, layout.logicalNodeId(sequenceId));
+        assertEquals((1 << 27) - 1, layout.counterValue(sequenceId));
+
+        long sequenceId1 = generateSequenceId(10000, 1, 2, layout);
+        long sequenceId2 = generateSequenceId(10000, 2, 1, layout);
+        long sequenceId3 = generateSequenceId(10001, 0, 1, layout);
+        assertEquals(1, layout.compare(sequenceId1, sequenceId2));
+        assertEquals(-1, layout.compare(sequenceId2, sequenceId3));
+    }
+
+    @Test
+    public void test_timestamp_resolution_layout()
+            throws Exception {
+
+        SnowcastSequenceLayout layout = SnowcastSequenceLayout.of(41, 7, 16, HundredMicroseconds);
+        assertEquals(HundredMicroseconds, layout.getTimestampResolution());
+        assertEquals(Milliseconds, SnowcastSequenceLayout.of(128).getTimestampResolution());
+        assertEquals(layout, SnowcastSequenceLayout.of(41, 7, 16, HundredMicroseconds));
+        assertNotEquals(layout, SnowcastSequenceLayout.of(41, 7, 16, TenMicroseconds));
+        assertNotEquals(layout, SnowcastSequenceLayout.of(128));
+        assertNotSame(layout, SnowcastSequenceLayout.of(128));
+        assertSame(SnowcastSequenceLayout.of(128), SnowcastSequenceLayout.of(41, 7, 16, Milliseconds));
+    }
+
+    @Test
+    public void test_timestamp_resolution_decode()
+            throws Exception {
+
+        SnowcastSequenceLayout layout = SnowcastSequenceLayout.of(41, 13, 10, TenMicroseconds);
+        long sequenceId1 = generateSequenceId(1000099, 1, 2, layout);
+        long sequenceId2 = generateSequenceId(1000100, 0, 1, layout);
+
+        assertEquals(1000099, layout.tickValue(sequenceId1));
+        assertEquals(10000, layout.timestampValue(sequenceId1));
+        assertEquals(10001, layout.timestampValue(sequenceId2));
+        assertEquals(1, layout.logicalNodeId(sequenceId1));
+        assertEquals(2, layout.counterValue(sequenceId1));
+
+        // Ticks within the same millisecond are still ordered
+        long sequenceId3 = generateSequenceId(1000098, 5, 7, layout);
+        assertEquals(10000, layout.timestampValue(sequenceId3));
+        assertEquals(-1, layout.compare(sequenceId3, sequenceId1));
+        assertEquals(1, layout.compare(sequenceId2, sequenceId1));
+
+        long[] timestamps = new long[3];
+        layout.timestampValues(new long[]{sequenceId1, sequenceId2, sequenceId3}, timestamps);
+        assertArrayEquals(new long[]{10000, 10001, 10000}, timestamps);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_timestamp_resolution_unknown()
+            throws Exception {
+
+        InternalSequencerUtils.timestampResolutionOf(1000);
+    }
+
+    @Test
+    public void test_decode()
+            throws Exception {
+
+        for (int maxLogicalNodeCount = 128; maxLogicalNodeCount <= 8192; maxLogicalNodeCount *= 2) {
+            int shifting = calculateLogicalNodeShifting(calculateBoundedMaxLogicalNodeCount(maxLogicalNodeCount));
+            long sequenceId = generateSequenceId(10000, maxLogicalNodeCount - 1, 100, shifting);
+
+            SnowcastSequenceLayout layout = SnowcastSequenceLayout.of(maxLogicalNodeCount);
+            assertEquals(10000, layout.timestampValue(sequenceId));
+            assertEquals(maxLogicalNodeCount - 1, layout.logicalNodeId(sequenceId));
+            assertEquals(100, layout.counterValue(sequenceId));
+            assertEquals(SnowcastSequenceUtils.logicalNodeId(sequenceId, maxLogicalNodeCount),
+                    layout.logicalNodeId(sequenceId));
+            assertEquals(SnowcastSequenceUtils.counterValue(sequenceId, maxLogicalNodeCount),
+                    layout.counterValue(sequenceId));
+        }
+    }
+
+    @Test
+    public void test_compare()
+            throws Exception {
+
+        int shifting = calculateLogicalNodeShifting(calculateBoundedMaxLogicalNodeCount(1024));
+        long sequenceId1 = generateSequenceId(10000, 1, 2, shifting);
+        long sequenceId2 = generateSequenceId(10000, 2, 1, shifting);
+        long sequenceId3 = generateSequenceId(10001, 2, 1, shifting);
+
+        SnowcastSequenceLayout layout = SnowcastSequenceLayout.of(1024);
+        assertEquals(1, layout.compare(sequenceId1, sequenceId2));
+        assertEquals(-1, layout.compare(sequenceId1, sequenceId3));
+        assertEquals(0, layout.compare(sequenceId2, sequenceId2));
+    }
+
+    @Test
+    public void test_bulk_decode()
+            throws Exception {
+
+        int shifting = calculateLogicalNodeShifting(calculateBoundedMaxLogicalNodeCount(256));
+        long[] sequenceIds = new long[100];
+        for (int i = 0; i < sequenceIds.length; i++) {
+            sequenceIds[i] = generateSequenceId(10000 + i, i, i + 1, shifting);
+        }
+
+        long[] expectedTimestamps = new long[sequenceIds.length];
+        int[] expectedLogicalNodeIds = new int[sequenceIds.length];
+        int[] expectedCounters = new int[sequenceIds.length];
+        for (int i = 0; i < sequenceIds.length; i++) {
+            expectedTimestamps[i] = 10000 + i;
+            expectedLogicalNodeIds[i] = i;
+            expectedCounters[i] = i + 1;
+        }
+
+        SnowcastSequenceLayout layout = SnowcastSequenceLayout.of(256);
+
+        long[] timestamps = new long[sequenceIds.length];
+        int[] logicalNodeIds = new int[sequenceIds.length];
+        int[] counters = new int[sequenceIds.length];
+        layout.timestampValues(sequenceIds, timestamps);
+        layout.logicalNodeIds(sequenceIds, logicalNodeIds);
+        layout.counterValues(sequenceIds, counters);
+        assertArrayEquals(expectedTimestamps, timestamps);
+        assertArrayEquals(expectedLogicalNodeIds, logicalNodeIds);
+        assertArrayEquals(expectedCounters, counters);
+
+        timestamps = new long[sequenceIds.length];
+        logicalNodeIds = new int[sequenceIds.length];
+        counters = new int[sequenceIds.length];
+        layout.decode(sequenceIds, timestamps, logicalNodeIds, counters);
+        assertArrayEquals(expectedTimestamps, timestamps);
+        assertArrayEquals(expectedLogicalNodeIds, logicalNodeIds);
+        assertArrayEquals(expectedCounters, counters);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_bulk_decode_target_too_short()
+            throws Exception {
+
+        SnowcastSequenceLayout.of(128).counterValues(new long[10], new int[5]);
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SnowcastSequencePublisherTestCase
+        extends HazelcastTestSupport {
+
+    @Test
+    public void test_emits_requested_ids()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            SnowcastSequencer sequencer = buildSnowcastSequencer(hazelcastInstance);
+
+            // Exceeds the counter range of a single millisecond
+            CollectingSubscriber subscriber = new CollectingSubscriber(200000, 1000);
+            SnowcastSequencePublisher.publisher(sequencer).subscribe(subscriber);
+
+            assertTrue(subscriber.latch.await(30, TimeUnit.SECONDS));
+            assertEquals(null, subscriber.error.get());
+            assertEquals(200000, subscriber.position);
+
+            long[] ids = subscriber.ids;
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(SnowcastSequenceUtils.compareSequence(ids[i - 1], ids[i], 128) < 0);
+            }
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_emits_on_executor()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "publisher-executor"));
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - 60000);
+            SnowcastSequencer sequencer = snowcast.createSequencer("ExecutorSequencer", epoch, 8192);
+
+            // Exceeds the 1023 IDs of a single millisecond, emission continues on the executor
+            CollectingSubscriber subscriber = new CollectingSubscriber(20000, 20000);
+            SnowcastSequencePublisher.publisher(sequencer, executor).subscribe(subscriber);
+
+            assertTrue(subscriber.latch.await(30, TimeUnit.SECONDS));
+            assertEquals(null, subscriber.error.get());
+            assertTrue(subscriber.threads.toString(), subscriber.threads.contains("publisher-executor"));
+            assertFalse(subscriber.threads.toString(), subscriber.threads.contains("snowcast-tick-scheduler"));
+        } finally {
+            executor.shutdown();
+            factory.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_emits_with_timestamp_resolution()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - 60000);
+            SnowcastSequenceLayout layout = SnowcastSequenceLayout.of(41, 13, 10, SnowcastTimestampResolution.TenMicroseconds);
+            SnowcastSequencer sequencer = snowcast.createSequencer("ResolutionSequencer", epoch, layout);
+
+            // Exceeds the 1023 IDs of a single tick, emission continues with the next tick
+            CollectingSubscriber subscriber = new CollectingSubscriber(20000, 20000);
+            SnowcastSequencePublisher.publisher(sequencer).subscribe(subscriber);
+
+            assertTrue(subscriber.latch.await(30, TimeUnit.SECONDS));
+            assertEquals(null, subscriber.error.get());
+
+            long[] ids = subscriber.ids;
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(layout.compare(ids[i - 1], ids[i]) < 0);
+            }
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_honors_demand()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            SnowcastSequencer sequencer = buildSnowcastSequencer(hazelcastInstance);
+
+            // Requests only 10 elements and never more
+            CollectingSubscriber subscriber = new CollectingSubscriber(100, 10);
+            subscriber.requestMore = false;
+            SnowcastSequencePublisher.publisher(sequencer).subscribe(subscriber);
+
+            assertEquals(10, subscriber.position);
+            subscriber.subscription.request(5);
+            assertEquals(15, subscriber.position);
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_illegal_request()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            SnowcastSequencer sequencer = buildSnowcastSequencer(hazelcastInstance);
+
+            CollectingSubscriber subscriber = new CollectingSubscriber(100, 0);
+            SnowcastSequencePublisher.publisher(sequencer).subscribe(subscriber);
+
+            assertTrue(subscriber.latch.await(30, TimeUnit.SECONDS));
+            assertTrue(subscriber.error.get() instanceof IllegalArgumentException);
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_destroyed_sequencer()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            SnowcastSequencer sequencer = buildSnowcastSequencer(hazelcastInstance);
+            snowcast.destroySequencer(sequencer);
+
+            CollectingSubscriber subscriber = new CollectingSubscriber(100, 10);
+            SnowcastSequencePublisher.publisher(sequencer).subscribe(subscriber);
+
+            assertTrue(subscriber.latch.await(30, TimeUnit.SECONDS));
+            assertTrue(subscriber.error.get() instanceof SnowcastStateException);
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    private SnowcastSequencer buildSnowcastSequencer(HazelcastInstance hazelcastInstance) {
+        Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+        SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - 60000);
+        return snowcast.createSequencer("SimpleSequencer", epoch, 128);
+    }
+
+    private static class CollectingSubscriber
+            implements Subscriber<Long> {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        private final long[] ids;
+        private final int chunk;
+
+        private volatile Subscription subscription;
+        private volatile boolean requestMore = true;
+        private volatile int position;
+
+        private CollectingSubscriber(int count, int chunk) {
+            this.ids = new long[count];
+            this.chunk = chunk;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(chunk);
+        }
+
+        @Override
+        public void onNext(Long id) {
+            threads.add(Thread.currentThread().getName());
+            ids[position++] = id;
+            if (position == ids.length) {
+                subscription.cancel();
+                latch.countDown();
+            } else if (requestMore && position % chunk == 0) {
+                subscription.request(chunk);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.set(throwable);
+            latch.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            latch.countDown();
+        }
+    }
+}
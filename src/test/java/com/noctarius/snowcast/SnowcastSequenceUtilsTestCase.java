@@ -24,10 +24,14 @@ import org.junit.Test;
 
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Random;
 
 import static com.noctarius.snowcast.impl.InternalSequencerUtils.*;
 import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
 
 public class SnowcastSequenceUtilsTestCase
         extends HazelcastTestSupport {
@@ -266,6 +270,100 @@ public class SnowcastSequenceUtilsTestCase
         }
     }
 
+    @Test
+    public void test_sort_by_sequence() {
+        for (int length : new int[]{10, 10000}) {
+            long[] sequenceIds = buildRandomSequenceIds(length, 128);
+            long[] expected = sortBoxed(sequenceIds, new SnowcastSequenceComparator(128));
+
+            SnowcastSequenceUtils.sortBySequence(sequenceIds, 128);
+            assertArrayEquals(expected, sequenceIds);
+        }
+    }
+
+    @Test
+    public void test_sort_by_timestamp() {
+        for (int length : new int[]{10, 10000}) {
+            long[] sequenceIds = buildRandomSequenceIds(length, 8192);
+            long[] expected = sortBoxed(sequenceIds, SnowcastTimestampComparator.INSTANCE);
+
+            SnowcastSequenceUtils.sortByTimestamp(sequenceIds, new long[length]);
+            assertArrayEquals(expected, sequenceIds);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_sort_buffer_too_short() {
+        SnowcastSequenceUtils.sortByTimestamp(new long[10], new long[9]);
+    }
+
+    @Test
+    public void test_merge_by_sequence() {
+        long[] sequenceIds1 = buildRandomSequenceIds(1000, 8192);
+        long[] sequenceIds2 = buildRandomSequenceIds(500, 8192);
+        SnowcastSequenceUtils.sortBySequence(sequenceIds1);
+        SnowcastSequenceUtils.sortBySequence(sequenceIds2);
+
+        long[] merged = new long[1500];
+        SnowcastSequenceUtils.mergeBySequence(sequenceIds1, sequenceIds2, merged, 8192);
+
+        for (int i = 1; i < merged.length; i++) {
+            assertTrue(SnowcastSequenceUtils.compareSequence(merged[i - 1], merged[i]) <= 0);
+        }
+    }
+
+    @Test
+    public void test_merge_by_timestamp() {
+        long[] sequenceIds1 = buildRandomSequenceIds(1000, 8192);
+        long[] sequenceIds2 = buildRandomSequenceIds(500, 8192);
+        SnowcastSequenceUtils.sortByTimestamp(sequenceIds1);
+        SnowcastSequenceUtils.sortByTimestamp(sequenceIds2);
+
+        long[] merged = new long[1500];
+        SnowcastSequenceUtils.mergeByTimestamp(sequenceIds1, sequenceIds2, merged);
+
+        for (int i = 1; i < merged.length; i++) {
+            assertTrue(SnowcastSequenceUtils.compareTimestamp(merged[i - 1], merged[i]) <= 0);
+        }
+    }
+
+    @Test
+    public void test_long_comparator() {
+        int boundedNodeCount = calculateBoundedMaxLogicalNodeCount(SnowcastConstants.DEFAULT_MAX_LOGICAL_NODES_13_BITS);
+        int shifting = calculateLogicalNodeShifting(boundedNodeCount);
+        long sequence1 = generateSequenceId(10000, 1, 2, shifting);
+        long sequence2 = generateSequenceId(10000, 2, 1, shifting);
+
+        SnowcastLongComparator sequenceComparator = new SnowcastSequenceComparator(8192);
+        SnowcastLongComparator timestampComparator = SnowcastTimestampComparator.INSTANCE;
+
+        assertEquals(1, sequenceComparator.compare(sequence1, sequence2));
+        assertEquals(0, timestampComparator.compare(sequence1, sequence2));
+    }
+
+    private long[] buildRandomSequenceIds(int length, int maxLogicalNodeCount) {
+        int boundedNodeCount = calculateBoundedMaxLogicalNodeCount(maxLogicalNodeCount);
+        int shifting = calculateLogicalNodeShifting(boundedNodeCount);
+        int maxCounter = calculateMaxMillisCounter(shifting);
+
+        // Few distinct timestamps to produce plenty of ties
+        Random random = new Random(length);
+        long[] sequenceIds = new long[length];
+        for (int i = 0; i < length; i++) {
+            long timestamp = 1000000 + random.nextInt(64);
+            int logicalNodeId = random.nextInt(boundedNodeCount + 1);
+            int counter = 1 + random.nextInt(maxCounter);
+            sequenceIds[i] = generateSequenceId(timestamp, logicalNodeId, counter, shifting);
+        }
+        return sequenceIds;
+    }
+
+    private long[] sortBoxed(long[] sequenceIds, Comparator<Long> comparator) {
+        Long[] boxed = Arrays.stream(sequenceIds).boxed().toArray(Long[]::new);
+        Arrays.sort(boxed, comparator);
+        return Arrays.stream(boxed).mapToLong(Long::longValue).toArray();
+    }
+
     private SnowcastSequencer buildSnowcastSequencer(Snowcast snowcast) {
         // Build the custom epoch
         SnowcastEpoch epoch = buildEpoch();
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class SnowcastSequencerOptionsTestCase {
+
+    @Test
+    public void test_defaults()
+            throws Exception {
+
+        SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults();
+        assertEquals(1, options.getCounterStripes());
+        assertEquals(SnowcastWaitStrategy.Park, options.getWaitStrategy());
+    }
+
+    @Test
+    public void test_with_wait_strategy()
+            throws Exception {
+
+        SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults().withCounterStripes(4)
+                                                                   .withWaitStrategy(SnowcastWaitStrategy.SpinWait);
+
+        assertEquals(4, options.getCounterStripes());
+        assertEquals(SnowcastWaitStrategy.SpinWait, options.getWaitStrategy());
+    }
+
+    @Test
+    public void test_with_counter_stripes()
+            throws Exception {
+
+        SnowcastSequencerOptions defaults = SnowcastSequencerOptions.defaults();
+        SnowcastSequencerOptions options = defaults.withCounterStripes(16);
+
+        assertNotSame(defaults, options);
+        assertEquals(1, defaults.getCounterStripes());
+        assertEquals(16, options.getCounterStripes());
+    }
+
+    @Test
+    public void test_with_logical_nodes()
+            throws Exception {
+
+        SnowcastSequencerOptions defaults = SnowcastSequencerOptions.defaults();
+        SnowcastSequencerOptions options = defaults.withLogicalNodes(4);
+
+        assertEquals(1, defaults.getLogicalNodes());
+        assertEquals(4, options.getLogicalNodes());
+        assertNotEquals(defaults, options);
+        assertEquals(defaults, options.withLogicalNodes(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_logical_nodes_not_power_of_two()
+            throws Exception {
+
+        SnowcastSequencerOptions.defaults().withLogicalNodes(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_logical_nodes_too_large()
+            throws Exception {
+
+        SnowcastSequencerOptions.defaults().withLogicalNodes(SnowcastSequencerOptions.MAX_LOGICAL_NODES * 2);
+    }
+
+    @Test
+    public void test_with_adaptive_logical_nodes()
+            throws Exception {
+
+        SnowcastSequencerOptions defaults = SnowcastSequencerOptions.defaults();
+        SnowcastSequencerOptions options = defaults.withAdaptiveLogicalNodes(8, 30, TimeUnit.SECONDS);
+
+        assertEquals(0, defaults.getAdaptiveMaxLogicalNodes());
+        assertEquals(8, options.getAdaptiveMaxLogicalNodes());
+        assertEquals(30000, options.getAdaptiveCoolDownMillis());
+        assertNotEquals(defaults, options);
+        assertEquals(defaults, options.withAdaptiveLogicalNodes(0, 0, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_adaptive_logical_nodes_not_power_of_two()
+            throws Exception {
+
+        SnowcastSequencerOptions.defaults().withAdaptiveLogicalNodes(6, 30, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_adaptive_cool_down_too_small()
+            throws Exception {
+
+        SnowcastSequencerOptions.defaults().withAdaptiveLogicalNodes(8, 10, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void test_with_prefetch()
+            throws Exception {
+
+        SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults().withPrefetchDepth(1024)
+                                                                   .withPrefetchMaxStaleness(1, TimeUnit.SECONDS);
+
+        assertEquals(0, SnowcastSequencerOptions.defaults().getPrefetchDepth());
+        assertEquals(1024, options.getPrefetchDepth());
+        assertEquals(1000, options.getPrefetchMaxStalenessMillis());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_prefetch_depth_not_power_of_two()
+            throws Exception {
+
+        SnowcastSequencerOptions.defaults().withPrefetchDepth(1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_prefetch_max_staleness_too_small()
+            throws Exception {
+
+        SnowcastSequencerOptions.defaults().withPrefetchMaxStaleness(100, TimeUnit.MICROSECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_counter_stripes_not_power_of_two()
+            throws Exception {
+
+        SnowcastSequencerOptions.defaults().withCounterStripes(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_counter_stripes_too_small()
+            throws Exception {
+
+        SnowcastSequencerOptions.defaults().withCounterStripes(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_counter_stripes_too_large()
+            throws Exception {
+
+        SnowcastSequencerOptions.defaults().withCounterStripes(SnowcastSequencerOptions.MAX_COUNTER_STRIPES * 2);
+    }
+
+    @Test
+    public void test_with_lease_time()
+            throws Exception {
+
+        SnowcastSequencerOptions defaults = SnowcastSequencerOptions.defaults();
+        SnowcastSequencerOptions options = defaults.withLeaseTime(30, TimeUnit.SECONDS);
+
+        assertEquals(0, defaults.getLeaseTimeMillis());
+        assertEquals(30000, options.getLeaseTimeMillis());
+        assertNotEquals(defaults, options);
+        assertEquals(defaults, options.withLeaseTime(0, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_lease_time_too_small()
+            throws Exception {
+
+        SnowcastSequencerOptions.defaults().withLeaseTime(10, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_lease_time_negative()
+            throws Exception {
+
+        SnowcastSequencerOptions.defaults().withLeaseTime(-1, TimeUnit.SECONDS);
+    }
+}
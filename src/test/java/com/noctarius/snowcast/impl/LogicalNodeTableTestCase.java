@@ -16,7 +16,11 @@
  */
 package com.noctarius.snowcast.impl;
 
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
 import com.hazelcast.nio.Address;
+import com.hazelcast.nio.BufferObjectDataInput;
+import com.hazelcast.nio.BufferObjectDataOutput;
 import com.noctarius.snowcast.SnowcastEpoch;
 import com.noctarius.snowcast.SnowcastIllegalStateException;
 import com.noctarius.snowcast.SnowcastNodeIdsExceededException;
@@ -24,12 +28,16 @@ import com.noctarius.snowcast.SnowcastSequenceState;
 import org.junit.Test;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class LogicalNodeTableTestCase {
@@ -281,6 +289,272 @@ public class LogicalNodeTableTestCase {
         logicalNodeTable.assignLogicalNode(1, address);
     }
 
+    @Test
+    public void test_attach_reuses_expired_lease()
+            throws Exception {
+
+        SequencerDefinition definition = new SequencerDefinition("empty", SnowcastEpoch.byTimestamp(1), 128, (short) 1);
+        LogicalNodeTable logicalNodeTable = new LogicalNodeTable(1, definition);
+
+        Address address1 = new Address("localhost", 12345);
+        Address address2 = new Address("localhost", 54321);
+
+        int logicalNodeId1 = logicalNodeTable.attachLogicalNode(address1, 1000, 2000);
+
+        // Lease already expired, but free slots are used first
+        int logicalNodeId2 = logicalNodeTable.attachLogicalNode(address2, 2000, 3000);
+        assertNotEquals(logicalNodeId1, logicalNodeId2);
+
+        // Table is full, slot with the expired lease is taken over
+        for (int i = 2; i < definition.getBoundedMaxLogicalNodeCount(); i++) {
+            logicalNodeTable.attachLogicalNode(address2);
+        }
+        int logicalNodeId3 = logicalNodeTable.attachLogicalNode(address2, 2000, 3000);
+        assertEquals(logicalNodeId1, logicalNodeId3);
+        assertEquals(address2, logicalNodeTable.getAttachedLogicalNode(logicalNodeId3));
+        assertEquals(3000, logicalNodeTable.getLeaseExpiration(logicalNodeId3));
+    }
+
+    @Test
+    public void test_renew_lease()
+            throws Exception {
+
+        SequencerDefinition definition = new SequencerDefinition("empty", SnowcastEpoch.byTimestamp(1), 128, (short) 1);
+        LogicalNodeTable logicalNodeTable = new LogicalNodeTable(1, definition);
+
+        Address address1 = new Address("localhost", 12345);
+        Address address2 = new Address("localhost", 54321);
+
+        int logicalNodeId = logicalNodeTable.attachLogicalNode(address1, 1000, 2000);
+        assertTrue(logicalNodeTable.renewLease(address1, logicalNodeId, 4000));
+        assertEquals(4000, logicalNodeTable.getLeaseExpiration(logicalNodeId));
+
+        // Not owned by the renewing address
+        assertFalse(logicalNodeTable.renewLease(address2, logicalNodeId, 5000));
+
+        // Permanent attachments have no lease to renew
+        int permanentLogicalNodeId = logicalNodeTable.attachLogicalNode(address1);
+        assertFalse(logicalNodeTable.renewLease(address1, permanentLogicalNodeId, 7000));
+
+        // Reassigned after expiration, once no free slot is left
+        for (int i = 2; i < definition.getBoundedMaxLogicalNodeCount(); i++) {
+            logicalNodeTable.attachLogicalNode(address2);
+        }
+        assertEquals(logicalNodeId, logicalNodeTable.attachLogicalNode(address2, 4000, 6000));
+        assertFalse(logicalNodeTable.renewLease(address1, logicalNodeId, 7000));
+    }
+
+    @Test
+    public void test_assign_over_leased_slot()
+            throws Exception {
+
+        SequencerDefinition definition = new SequencerDefinition("empty", SnowcastEpoch.byTimestamp(1), 128, (short) 1);
+        LogicalNodeTable logicalNodeTable = new LogicalNodeTable(1, definition);
+
+        Address address1 = new Address("localhost", 12345);
+        Address address2 = new Address("localhost", 54321);
+
+        logicalNodeTable.assignLogicalNode(1, address1, 2000);
+        logicalNodeTable.assignLogicalNode(1, address2, 4000);
+
+        assertEquals(address2, logicalNodeTable.getAttachedLogicalNode(1));
+        assertEquals(4000, logicalNodeTable.getLeaseExpiration(1));
+    }
+
+    @Test
+    public void test_detach_reuses_lowest_free_slot()
+            throws Exception {
+
+        SequencerDefinition definition = new SequencerDefinition("empty", SnowcastEpoch.byTimestamp(1), 1024, (short) 1);
+        LogicalNodeTable logicalNodeTable = new LogicalNodeTable(1, definition);
+
+        Address address = new Address("localhost", 12345);
+
+        // Fill more than one bitmap word
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, logicalNodeTable.attachLogicalNode(address));
+        }
+
+        logicalNodeTable.detachLogicalNode(address, 130);
+        logicalNodeTable.detachLogicalNode(address, 70);
+
+        assertEquals(70, logicalNodeTable.attachLogicalNode(address));
+        assertEquals(130, logicalNodeTable.attachLogicalNode(address));
+        assertEquals(200, logicalNodeTable.attachLogicalNode(address));
+    }
+
+    @Test
+    public void test_assign_marks_slot_as_used()
+            throws Exception {
+
+        SequencerDefinition definition = new SequencerDefinition("empty", SnowcastEpoch.byTimestamp(1), 128, (short) 1);
+        LogicalNodeTable logicalNodeTable = new LogicalNodeTable(1, definition);
+
+        Address address = new Address("localhost", 12345);
+
+        logicalNodeTable.assignLogicalNode(0, address);
+        logicalNodeTable.assignLogicalNode(1, address);
+
+        assertEquals(2, logicalNodeTable.attachLogicalNode(address));
+    }
+
+    @Test
+    public void test_write_read_logical_node_table()
+            throws Exception {
+
+        SequencerDefinition definition = new SequencerDefinition("empty", SnowcastEpoch.byTimestamp(1), 1024, (short) 1);
+        LogicalNodeTable logicalNodeTable = new LogicalNodeTable(1, definition);
+
+        Address address1 = new Address("localhost", 12345);
+        Address address2 = new Address("localhost", 54321);
+
+        logicalNodeTable.assignLogicalNode(0, address1);
+        logicalNodeTable.assignLogicalNode(63, address2, 2000);
+        logicalNodeTable.assignLogicalNode(64, address1);
+        logicalNodeTable.assignLogicalNode(1022, address2, 3000);
+
+        InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput(1024);
+
+        LogicalNodeTable.SlotSnapshot snapshot = logicalNodeTable.snapshot();
+        Map<Address, Integer> addressDictionary = new LinkedHashMap<>();
+        snapshot.collectAddresses(addressDictionary);
+        assertEquals(2, addressDictionary.size());
+        LogicalNodeTable.writeSlotSnapshot(snapshot, addressDictionary, out);
+
+        BufferObjectDataInput in = serializationService.createObjectDataInput(out.toByteArray());
+        Address[] addresses = addressDictionary.keySet().toArray(new Address[0]);
+        LogicalNodeTable.SlotSnapshot copySnapshot = LogicalNodeTable.readSlotSnapshot(addresses, in);
+        LogicalNodeTable copy = new LogicalNodeTable(1, copySnapshot.getSequencerDefinition());
+        copy.merge(copySnapshot);
+
+        assertEquals(definition, copy.getSequencerDefinition());
+        for (int i = 0; i < definition.getBoundedMaxLogicalNodeCount(); i++) {
+            assertEquals(logicalNodeTable.getAttachedLogicalNode(i), copy.getAttachedLogicalNode(i));
+            assertEquals(logicalNodeTable.getLeaseExpiration(i), copy.getLeaseExpiration(i));
+        }
+
+        // Free slots are restored as well
+        assertEquals(1, copy.attachLogicalNode(address1));
+    }
+
+    @Test
+    public void test_delta_snapshot_contains_changed_slots_only()
+            throws Exception {
+
+        SequencerDefinition definition = new SequencerDefinition("empty", SnowcastEpoch.byTimestamp(1), 1024, (short) 1);
+        LogicalNodeTable logicalNodeTable = new LogicalNodeTable(1, definition);
+
+        Address address = new Address("localhost", 12345);
+        for (int i = 0; i < 100; i++) {
+            logicalNodeTable.attachLogicalNode(address);
+        }
+        LogicalNodeTableVersion knownVersion = logicalNodeTable.getTableVersion();
+
+        logicalNodeTable.detachLogicalNode(address, 10);
+        logicalNodeTable.attachLogicalNode(address);
+        logicalNodeTable.attachLogicalNode(address);
+
+        // Slot 10 was freed and reused, slot 100 is new
+        LogicalNodeTable.SlotSnapshot delta = logicalNodeTable.snapshot(knownVersion);
+        assertTrue(delta.isDelta());
+        assertEquals(2, delta.size());
+
+        // A table version of another table results in a full snapshot
+        LogicalNodeTableVersion otherTable = new LogicalNodeTableVersion(knownVersion.getCreatedVersion() + 1000, 0, 0);
+        LogicalNodeTable.SlotSnapshot full = logicalNodeTable.snapshot(otherTable);
+        assertFalse(full.isDelta());
+        assertEquals(101, full.size());
+    }
+
+    @Test
+    public void test_merge_reassigned_leased_slot()
+            throws Exception {
+
+        SequencerDefinition definition = new SequencerDefinition("empty", SnowcastEpoch.byTimestamp(1), 128, (short) 1);
+        Address address1 = new Address("localhost", 12345);
+        Address address2 = new Address("localhost", 54321);
+
+        // The destination still holds the previous owner of the leased slot
+        LogicalNodeTable replica = new LogicalNodeTable(1, definition);
+        replica.assignLogicalNode(0, address1, 1000);
+
+        // The lease expired and the slot was reassigned on the partition owner
+        LogicalNodeTable owner = new LogicalNodeTable(1, definition);
+        owner.assignLogicalNode(0, address2, 5000);
+
+        replica.merge(owner.snapshot());
+        assertEquals(address2, replica.getAttachedLogicalNode(0));
+        assertEquals(5000, replica.getLeaseExpiration(0));
+    }
+
+    @Test
+    public void test_apply_delta()
+            throws Exception {
+
+        SequencerDefinition definition = new SequencerDefinition("empty", SnowcastEpoch.byTimestamp(1), 128, (short) 1);
+        LogicalNodeTable owner = new LogicalNodeTable(1, definition);
+
+        Address address1 = new Address("localhost", 12345);
+        Address address2 = new Address("localhost", 54321);
+        owner.assignLogicalNode(0, address1);
+        owner.assignLogicalNode(1, address1);
+
+        LogicalNodeTable replica = new LogicalNodeTable(1, definition);
+        replica.merge(owner.snapshot());
+        assertEquals(owner.getTableVersion().getVersion(), replica.getTableVersion().getVersion());
+
+        LogicalNodeTableVersion knownVersion = replica.getTableVersion();
+        owner.detachLogicalNode(address1, 0);
+        owner.assignLogicalNode(5, address2, 5000);
+
+        InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput(1024);
+
+        LogicalNodeTable.SlotSnapshot delta = owner.snapshot(knownVersion);
+        Map<Address, Integer> addressDictionary = new LinkedHashMap<>();
+        delta.collectAddresses(addressDictionary);
+        LogicalNodeTable.writeSlotSnapshot(delta, addressDictionary, out);
+
+        BufferObjectDataInput in = serializationService.createObjectDataInput(out.toByteArray());
+        Address[] addresses = addressDictionary.keySet().toArray(new Address[0]);
+        replica.applyDelta(LogicalNodeTable.readSlotSnapshot(addresses, in));
+
+        for (int i = 0; i < definition.getBoundedMaxLogicalNodeCount(); i++) {
+            assertEquals(owner.getAttachedLogicalNode(i), replica.getAttachedLogicalNode(i));
+            assertEquals(owner.getLeaseExpiration(i), replica.getLeaseExpiration(i));
+        }
+        assertEquals(owner.getTableVersion().getVersion(), replica.getTableVersion().getVersion());
+    }
+
+    @Test
+    public void test_backup_mutation_out_of_order()
+            throws Exception {
+
+        SequencerDefinition definition = new SequencerDefinition("empty", SnowcastEpoch.byTimestamp(1), 128, (short) 1);
+        LogicalNodeTable owner = new LogicalNodeTable(1, definition);
+        LogicalNodeTable replica = new LogicalNodeTable(1, definition);
+
+        Address address1 = new Address("localhost", 12345);
+        Address address2 = new Address("localhost", 54321);
+
+        owner.assignLogicalNode(0, address1);
+        LogicalNodeTableVersion first = owner.getTableVersion();
+        owner.detachLogicalNode(address1, 0);
+        owner.assignLogicalNode(0, address2);
+        LogicalNodeTableVersion third = owner.getTableVersion();
+
+        // The second mutation got lost, the table version stays behind while the slot is up to date
+        replica.assignLogicalNode(0, address1, 0, first);
+        replica.assignLogicalNode(0, address2, 0, third);
+        assertEquals(address2, replica.getAttachedLogicalNode(0));
+        assertEquals(first.getVersion(), replica.getTableVersion().getVersion());
+
+        // An outdated mutation doesn't overwrite a newer slot
+        replica.assignLogicalNode(0, address1, 0, first);
+        assertEquals(address2, replica.getAttachedLogicalNode(0));
+    }
+
     @Test(expected = SnowcastNodeIdsExceededException.class)
     public void test_exceed_logical_node_ids()
             throws Exception {
@@ -16,14 +16,30 @@
  */
 package com.noctarius.snowcast.impl;
 
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationService;
 import com.hazelcast.spi.PartitionMigrationEvent;
 import com.hazelcast.spi.partition.MigrationEndpoint;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.noctarius.snowcast.Snowcast;
+import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSystem;
 import org.junit.Test;
 
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.noctarius.snowcast.impl.SnowcastConstants.SERVICE_NAME;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
-public class MigrationSimulationTestCase {
+public class MigrationSimulationTestCase
+        extends HazelcastTestSupport {
 
     @Test
     public void test_frozen_before_migration_source()
@@ -114,4 +130,62 @@ public class MigrationSimulationTestCase {
         sequencerService.rollbackMigration(event);
         assertFalse(partition.isFrozen());
     }
+
+    @Test
+    public void test_parked_while_frozen_replayed_after_rollback_migration()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            String sequencerName = generateKeyOwnedBy(hazelcastInstance);
+            SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - 60000);
+
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            InternalSequencer sequencer = (InternalSequencer) snowcast.createSequencer(sequencerName, epoch, 128);
+            NodeSequencerService sequencerService = (NodeSequencerService) sequencer.getSequencerService();
+
+            int logicalNodeId = sequencer.logicalNodeId(sequencer.next());
+            int partitionId = hazelcastInstance.getPartitionService().getPartition(sequencerName).getPartitionId();
+            SequencerPartition partition = sequencerService.getSequencerPartition(partitionId);
+
+            PartitionMigrationEvent event = new PartitionMigrationEvent(MigrationEndpoint.SOURCE, partitionId, 0, 1);
+            runOnPartitionThread(hazelcastInstance, partitionId, () -> sequencerService.beforeMigration(event));
+
+            // Detaching must neither fail nor change the frozen partition
+            Future<?> future = spawn(() -> sequencer.detachLogicalNode());
+            assertTrueAllTheTime(new AssertTask() {
+                @Override
+                public void run()
+                        throws Exception {
+
+                    assertFalse(future.isDone());
+                    assertNotNull(partition.getAttachedLogicalNode(sequencerName, logicalNodeId));
+                }
+            }, 2);
+
+            runOnPartitionThread(hazelcastInstance, partitionId, () -> sequencerService.rollbackMigration(event));
+
+            future.get(30, TimeUnit.SECONDS);
+            assertNull(partition.getAttachedLogicalNode(sequencerName, logicalNodeId));
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    private static void runOnPartitionThread(HazelcastInstance hazelcastInstance, int partitionId, Runnable task)
+            throws Exception {
+
+        // Hazelcast calls the migration callbacks on the partition thread as well
+        OperationService operationService = getNodeEngineImpl(hazelcastInstance).getOperationService();
+        operationService.invokeOnPartition(SERVICE_NAME, new Operation() {
+            @Override
+            public void run()
+                    throws Exception {
+
+                task.run();
+            }
+        }, partitionId).get();
+    }
 }
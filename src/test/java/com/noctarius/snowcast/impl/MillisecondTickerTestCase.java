@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastTestSupport;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MillisecondTickerTestCase
+        extends HazelcastTestSupport {
+
+    @Test
+    public void test_advance_never_moves_backwards() {
+        MillisecondTicker ticker = new MillisecondTicker(1000);
+
+        assertFalse(ticker.advance(999));
+        assertFalse(ticker.advance(1000));
+        assertEquals(1000, ticker.currentTimeMillis());
+
+        assertTrue(ticker.advance(1002));
+        assertEquals(1002, ticker.currentTimeMillis());
+
+        assertFalse(ticker.advance(1001));
+        assertEquals(1002, ticker.currentTimeMillis());
+    }
+
+    @Test
+    public void test_ticker_follows_clock() {
+        MillisecondTicker ticker = MillisecondTicker.start();
+        long start = ticker.currentTimeMillis();
+        assertTrue(start <= InternalClock.preciseTimeMillis());
+
+        long target = InternalClock.preciseTimeMillis() + 10;
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run()
+                    throws Exception {
+
+                assertTrue(ticker.currentTimeMillis() >= target);
+            }
+        });
+        assertTrue(ticker.currentTimeMillis() <= InternalClock.preciseTimeMillis());
+    }
+}
@@ -17,9 +17,37 @@
 package com.noctarius.snowcast.impl;
 
 import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastSequencerOptions;
+import com.noctarius.snowcast.SnowcastStateException;
+import com.noctarius.snowcast.SnowcastWaitStrategy;
+import com.sun.management.ThreadMXBean;
+import org.junit.Assume;
 import org.junit.Test;
 
 import javax.annotation.Nonnull;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class NodeSequencerTestCase {
 
@@ -45,4 +73,545 @@ public class NodeSequencerTestCase {
             sequencer.next();
         }
     }
+
+    @Test(timeout = 60000)
+    public void test_batch_counter()
+            throws Exception {
+
+        // Definition leaves 10 bits for the counter
+        SequencerDefinition definition = new SequencerDefinition("foo", SnowcastEpoch.byTimestamp(0), 8191, (short) 1);
+
+        NodeSequencer sequencer = new NodeSequencer(new NodeSequencerService() {
+            @Override
+            public int attachSequencer(@Nonnull final SequencerDefinition definition) {
+                // Faking we're in node 0
+                return 0;
+            }
+        }, definition);
+
+        sequencer.attachLogicalNode();
+
+        Set<Long> ids = new HashSet<>();
+        long[] batch = new long[700];
+        for (int i = 0; i < 10; i++) {
+            // Batches spill over into the next millisecond when the counter is exceeded
+            sequencer.nextBatch(batch);
+            for (long id : batch) {
+                assertTrue(ids.add(id));
+            }
+            ids.add(sequencer.next());
+        }
+        assertEquals(7010, ids.size());
+    }
+
+    @Test(timeout = 60000)
+    public void test_striped_counter()
+            throws Exception {
+
+        // Definition leaves 10 bits for the counter
+        SequencerDefinition definition = new SequencerDefinition("foo", SnowcastEpoch.byTimestamp(0), 8191, (short) 1);
+        SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults().withCounterStripes(8);
+
+        NodeSequencer sequencer = new NodeSequencer(new NodeSequencerService() {
+            @Override
+            public int attachSequencer(@Nonnull final SequencerDefinition definition) {
+                // Faking we're in node 0
+                return 0;
+            }
+        }, definition, options);
+
+        sequencer.attachLogicalNode();
+
+        int threads = 16;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Throwable> failures = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    long[] batch = new long[100];
+                    for (int i = 0; i < 20; i++) {
+                        for (int o = 0; o < 100; o++) {
+                            assertTrue(ids.add(sequencer.next()));
+                        }
+                        sequencer.nextBatch(batch);
+                        for (long id : batch) {
+                            assertTrue(ids.add(id));
+                        }
+                    }
+                } catch (Throwable throwable) {
+                    synchronized (failures) {
+                        failures.add(throwable);
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertEquals(threads * 20 * 200, ids.size());
+        for (long id : ids) {
+            assertEquals(0, sequencer.logicalNodeId(id));
+            int counter = sequencer.counterValue(id);
+            assertTrue(counter >= 1 && counter <= 1023);
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void test_multiple_logical_nodes()
+            throws Exception {
+
+        // Recent epoch keeps IDs positive, definition leaves 10 bits for the counter
+        SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - 60000);
+        SequencerDefinition definition = new SequencerDefinition("foo", epoch, 8191, (short) 1);
+        SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults().withLogicalNodes(4).withCounterStripes(2);
+
+        Set<Integer> attached = ConcurrentHashMap.newKeySet();
+        NodeSequencer sequencer = new NodeSequencer(new NodeSequencerService() {
+            @Override
+            public int attachSequencer(@Nonnull final SequencerDefinition definition) {
+                // Faking we're in nodes 10 to 13
+                int logicalNodeId = 10 + attached.size();
+                attached.add(logicalNodeId);
+                return logicalNodeId;
+            }
+
+            @Override
+            void detachSequencer(@Nonnull SequencerDefinition definition, int logicalNodeId) {
+                assertTrue(attached.remove(logicalNodeId));
+            }
+        }, definition, options);
+
+        sequencer.attachLogicalNode();
+        assertEquals(4, attached.size());
+
+        Set<Long> ids = new HashSet<>();
+        Set<Integer> logicalNodeIds = new HashSet<>();
+        Map<Long, Integer> idsPerMillisecond = new HashMap<>();
+        long[] batch = new long[4092];
+        for (int i = 0; i < 10; i++) {
+            sequencer.nextBatch(batch);
+            for (long id : batch) {
+                assertTrue(ids.add(id));
+                logicalNodeIds.add(sequencer.logicalNodeId(id));
+                idsPerMillisecond.merge(sequencer.timestampValue(id), 1, Integer::sum);
+            }
+        }
+
+        assertEquals(new HashSet<>(Arrays.asList(10, 11, 12, 13)), logicalNodeIds);
+        // A single logical node id is limited to 1023 IDs per millisecond
+        assertTrue(idsPerMillisecond.values().stream().anyMatch(count -> count > 1023));
+
+        sequencer.detachLogicalNode();
+        assertTrue(attached.isEmpty());
+    }
+
+    @Test(timeout = 60000)
+    public void test_adaptive_logical_nodes()
+            throws Exception {
+
+        // Recent epoch keeps IDs positive, definition leaves 10 bits for the counter
+        SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - 60000);
+        SequencerDefinition definition = new SequencerDefinition("foo", epoch, 8191, (short) 1);
+        SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults()
+                                                                   .withAdaptiveLogicalNodes(4, 200, TimeUnit.MILLISECONDS);
+
+        AtomicInteger nextLogicalNodeId = new AtomicInteger(10);
+        Set<Integer> attached = ConcurrentHashMap.newKeySet();
+        NodeSequencer sequencer = new NodeSequencer(new NodeSequencerService() {
+            @Override
+            public int attachSequencer(@Nonnull final SequencerDefinition definition) {
+                int logicalNodeId = nextLogicalNodeId.getAndIncrement();
+                attached.add(logicalNodeId);
+                return logicalNodeId;
+            }
+
+            @Override
+            void detachSequencer(@Nonnull SequencerDefinition definition, int logicalNodeId) {
+                assertTrue(attached.remove(logicalNodeId));
+            }
+        }, definition, options);
+
+        sequencer.attachLogicalNode();
+        SequencerMetrics metrics = sequencer.getSequencerMetrics();
+        assertEquals(1, metrics.getAttachedLogicalNodes());
+
+        // Exhausts the counter of a single logical node id every millisecond
+        Set<Long> ids = new HashSet<>();
+        long[] batch = new long[1000];
+        long deadline = System.currentTimeMillis() + 30000;
+        while (metrics.getAttachedLogicalNodes() < 4 && System.currentTimeMillis() < deadline) {
+            sequencer.nextBatch(batch);
+            for (long id : batch) {
+                assertTrue(ids.add(id));
+            }
+        }
+        assertEquals(4, metrics.getAttachedLogicalNodes());
+        assertEquals(4, attached.size());
+
+        // Without exhaustion the additional logical node ids are detached after the cool-down
+        deadline = System.currentTimeMillis() + 30000;
+        while (attached.size() > 1 && System.currentTimeMillis() < deadline) {
+            assertTrue(ids.add(sequencer.next()));
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(1, metrics.getAttachedLogicalNodes());
+        assertEquals(1, attached.size());
+
+        sequencer.detachLogicalNode();
+        assertTrue(attached.isEmpty());
+    }
+
+    @Test(timeout = 60000)
+    public void test_shrink_while_generating()
+            throws Exception {
+
+        // Recent epoch keeps IDs positive, definition leaves 10 bits for the counter
+        SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - 60000);
+        SequencerDefinition definition = new SequencerDefinition("foo", epoch, 8191, (short) 1);
+        SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults()
+                                                                   .withAdaptiveLogicalNodes(2, 1, TimeUnit.HOURS);
+
+        AtomicInteger nextLogicalNodeId = new AtomicInteger(10);
+        Map<Integer, Long> detached = new ConcurrentHashMap<>();
+        NodeSequencer sequencer = new NodeSequencer(new NodeSequencerService() {
+            @Override
+            public int attachSequencer(@Nonnull final SequencerDefinition definition) {
+                return nextLogicalNodeId.getAndIncrement();
+            }
+
+            @Override
+            void detachSequencer(@Nonnull SequencerDefinition definition, int logicalNodeId) {
+                detached.put(logicalNodeId, epoch.getEpochTimestamp());
+            }
+        }, definition, options);
+
+        sequencer.attachLogicalNode();
+
+        // Generating threads exhaust the counter and park for the next millisecond all the time,
+        // some of them are parked with the previous logical node ids while those are shrunk
+        int threads = 4;
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Long> ids = Collections.synchronizedList(new ArrayList<>());
+        List<Throwable> failures = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    long[] generated = new long[100000];
+                    int count = 0;
+                    while (running.get() && count < generated.length) {
+                        generated[count++] = sequencer.next();
+                    }
+                    for (int i = 0; i < count; i++) {
+                        ids.add(generated[i]);
+                    }
+                } catch (Throwable throwable) {
+                    synchronized (failures) {
+                        failures.add(throwable);
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            }).start();
+        }
+
+        for (int i = 0; i < 50; i++) {
+            // The scaler may have grown the logical node ids already
+            sequencer.growLogicalNodes();
+            Thread.sleep(2);
+            assertTrue(sequencer.shrinkLogicalNodes());
+        }
+        running.set(false);
+        latch.await();
+        assertTrue(failures.toString(), failures.isEmpty());
+
+        // Removed logical node ids must not be used from the tick on they were detached and could be reassigned
+        for (long id : ids) {
+            Long detachedAt = detached.get(sequencer.logicalNodeId(id));
+            if (detachedAt != null) {
+                assertTrue(sequencer.timestampValue(id) < detachedAt);
+            }
+        }
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+        sequencer.detachLogicalNode();
+    }
+
+    @Test(timeout = 60000)
+    public void test_detach_while_growing()
+            throws Exception {
+
+        // Recent epoch keeps IDs positive, definition leaves 10 bits for the counter
+        SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - 60000);
+        SequencerDefinition definition = new SequencerDefinition("foo", epoch, 8191, (short) 1);
+        SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults()
+                                                                   .withAdaptiveLogicalNodes(2, 1, TimeUnit.HOURS);
+
+        AtomicInteger nextLogicalNodeId = new AtomicInteger(10);
+        Set<Integer> attached = ConcurrentHashMap.newKeySet();
+        CountDownLatch attaching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        NodeSequencer sequencer = new NodeSequencer(new NodeSequencerService() {
+            @Override
+            public int attachSequencer(@Nonnull final SequencerDefinition definition) {
+                int logicalNodeId = nextLogicalNodeId.getAndIncrement();
+                if (logicalNodeId > 10) {
+                    // Remote attach of the grown logical node id takes its time
+                    attaching.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                attached.add(logicalNodeId);
+                return logicalNodeId;
+            }
+
+            @Override
+            void detachSequencer(@Nonnull SequencerDefinition definition, int logicalNodeId) {
+                assertTrue(attached.remove(logicalNodeId));
+            }
+        }, definition, options);
+
+        sequencer.attachLogicalNode();
+
+        CompletableFuture<Boolean> grown = CompletableFuture.supplyAsync(sequencer::growLogicalNodes);
+        attaching.await();
+
+        // Must not wait for the remote attach of the growing thread
+        sequencer.detachLogicalNode();
+        assertEquals(0, sequencer.getSequencerMetrics().getAttachedLogicalNodes());
+        release.countDown();
+
+        // The grown logical node id was attached for a detached sequencer and is released again
+        assertFalse(grown.get());
+        assertTrue(attached.isEmpty());
+    }
+
+    @Test(timeout = 60000)
+    public void test_wait_strategies_burst()
+            throws Exception {
+
+        for (SnowcastWaitStrategy waitStrategy : SnowcastWaitStrategy.values()) {
+            NodeSequencer sequencer = buildFakeNodeSequencer(waitStrategy);
+            sequencer.attachLogicalNode();
+
+            // 100 times the IDs of a single millisecond, must never exceed the retries
+            long last = 0;
+            for (int i = 0; i < 102300; i++) {
+                long id = sequencer.next();
+                assertTrue(waitStrategy.name(), id > last);
+                last = id;
+            }
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void test_wait_strategies_interrupted()
+            throws Exception {
+
+        for (SnowcastWaitStrategy waitStrategy : SnowcastWaitStrategy.values()) {
+            NodeSequencer sequencer = buildFakeNodeSequencer(waitStrategy);
+            sequencer.attachLogicalNode();
+
+            Thread.currentThread().interrupt();
+            try {
+                // Interruption is only recognized when waiting for the next millisecond
+                for (int i = 0; i < 1024 * 1024; i++) {
+                    sequencer.next();
+                }
+                fail("Expected InterruptedException with wait strategy " + waitStrategy);
+            } catch (InterruptedException e) {
+                // expected
+            } finally {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void test_prefetch_concurrent()
+            throws Exception {
+
+        SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults().withPrefetchDepth(1024);
+        NodeSequencer sequencer = buildFakeNodeSequencer(options);
+        sequencer.attachLogicalNode();
+
+        int threads = 8;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Throwable> failures = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    for (int i = 0; i < 5000; i++) {
+                        assertTrue(ids.add(sequencer.next()));
+                    }
+                } catch (Throwable throwable) {
+                    synchronized (failures) {
+                        failures.add(throwable);
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertEquals(threads * 5000, ids.size());
+        sequencer.detachLogicalNode();
+    }
+
+    @Test(timeout = 60000)
+    public void test_prefetch_staleness()
+            throws Exception {
+
+        SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults().withPrefetchDepth(64)
+                                                                   .withPrefetchMaxStaleness(5, TimeUnit.MILLISECONDS);
+        NodeSequencer sequencer = buildFakeNodeSequencer(options);
+        sequencer.attachLogicalNode();
+
+        sequencer.next();
+        Thread.sleep(200);
+
+        // Stale IDs must have been discarded by the filler in the meantime
+        long now = System.currentTimeMillis() - sequencer.getSequencerDefinition().getEpoch().getEpochOffset();
+        long timestamp = sequencer.timestampValue(sequencer.next());
+        assertTrue(now - timestamp < 50);
+        sequencer.detachLogicalNode();
+    }
+
+    @Test(timeout = 60000, expected = SnowcastStateException.class)
+    public void test_prefetch_detached()
+            throws Exception {
+
+        SnowcastSequencerOptions options = SnowcastSequencerOptions.defaults().withPrefetchDepth(64);
+        NodeSequencer sequencer = buildFakeNodeSequencer(options);
+        sequencer.attachLogicalNode();
+
+        sequencer.next();
+        sequencer.detachLogicalNode();
+
+        // Prefetched IDs must not be handed out anymore
+        sequencer.next();
+    }
+
+    @Test(timeout = 60000)
+    public void test_async_completion_thread()
+            throws Exception {
+
+        NodeSequencer sequencer = buildFakeNodeSequencer(SnowcastWaitStrategy.Park);
+        sequencer.attachLogicalNode();
+
+        // Needs about a hundred milliseconds, dependent stages are registered before completion
+        CompletableFuture<String> completionThread = sequencer.nextBatchAsync(100000)
+                                                              .thenApply(ids -> Thread.currentThread().getName());
+
+        // Dependent stages must not run on the shared tick scheduler thread
+        assertNotEquals("snowcast-tick-scheduler", completionThread.get());
+
+        CompletableFuture<String> failureThread = sequencer.nextBatchAsync(100000)
+                                                           .handle((ids, t) -> Thread.currentThread().getName());
+        Thread.sleep(10);
+        sequencer.detachLogicalNode();
+        assertNotEquals("snowcast-tick-scheduler", failureThread.get());
+    }
+
+    @Test(timeout = 60000)
+    public void test_batch_detached_while_generating()
+            throws Exception {
+
+        NodeSequencer sequencer = buildFakeNodeSequencer(SnowcastWaitStrategy.Park);
+        sequencer.attachLogicalNode();
+
+        // Takes about five seconds with 1023 IDs per millisecond
+        CompletableFuture<long[]> batch = CompletableFuture.supplyAsync(() -> {
+            try {
+                return sequencer.next(5000000);
+            } catch (InterruptedException e) {
+                throw new CompletionException(e);
+            }
+        });
+
+        Thread.sleep(50);
+        sequencer.detachLogicalNode();
+
+        // The batch must stop using the detached logical node id
+        try {
+            batch.get(1, TimeUnit.SECONDS);
+            fail("Expected SnowcastStateException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SnowcastStateException);
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void test_allocation_free()
+            throws Exception {
+
+        // Thread allocation counters are a HotSpot extension
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+
+        ThreadMXBean allocationCounter = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(allocationCounter.isThreadAllocatedMemorySupported());
+        allocationCounter.setThreadAllocatedMemoryEnabled(true);
+
+        NodeSequencer sequencer = buildFakeNodeSequencer(SnowcastWaitStrategy.BusySpin);
+        sequencer.attachLogicalNode();
+
+        long threadId = Thread.currentThread().getId();
+        long[] batch = new long[100];
+
+        // Warm up until the generation methods are compiled
+        generate(sequencer, batch, 200000);
+
+        // Calibrate the cost of reading the allocation counter itself
+        long calibrationStart = allocationCounter.getThreadAllocatedBytes(threadId);
+        long calibration = allocationCounter.getThreadAllocatedBytes(threadId) - calibrationStart;
+
+        long start = allocationCounter.getThreadAllocatedBytes(threadId);
+        generate(sequencer, batch, 100000);
+        long allocated = allocationCounter.getThreadAllocatedBytes(threadId) - start - calibration;
+
+        assertEquals("Steady state generation allocated " + allocated + " bytes", 0, allocated);
+        sequencer.detachLogicalNode();
+    }
+
+    private long generate(NodeSequencer sequencer, long[] batch, int iterations)
+            throws InterruptedException {
+
+        long sum = 0;
+        for (int i = 0; i < iterations; i++) {
+            sum += sequencer.next();
+            sequencer.nextBatch(batch);
+            sum += batch[0];
+        }
+        return sum;
+    }
+
+    private NodeSequencer buildFakeNodeSequencer(SnowcastWaitStrategy waitStrategy) {
+        return buildFakeNodeSequencer(SnowcastSequencerOptions.defaults().withWaitStrategy(waitStrategy));
+    }
+
+    private NodeSequencer buildFakeNodeSequencer(SnowcastSequencerOptions options) {
+        // Definition leaves 10 bits for the counter, recent epoch keeps IDs positive
+        SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - 60000);
+        SequencerDefinition definition = new SequencerDefinition("foo", epoch, 8191, (short) 1);
+
+        return new NodeSequencer(new NodeSequencerService() {
+            @Override
+            public int attachSequencer(@Nonnull final SequencerDefinition definition) {
+                // Faking we're in node 0
+                return 0;
+            }
+
+            @Override
+            void detachSequencer(@Nonnull SequencerDefinition definition, int logicalNodeId) {
+            }
+        }, definition, options);
+    }
 }
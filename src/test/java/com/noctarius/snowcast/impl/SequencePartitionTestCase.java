@@ -16,14 +16,22 @@
  */
 package com.noctarius.snowcast.impl;
 
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
 import com.hazelcast.nio.Address;
+import com.hazelcast.nio.serialization.Data;
 import com.noctarius.snowcast.SnowcastEpoch;
 import com.noctarius.snowcast.SnowcastIllegalStateException;
 import com.noctarius.snowcast.SnowcastSequencerAlreadyRegisteredException;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class SequencePartitionTestCase {
@@ -57,6 +65,36 @@ public class SequencePartitionTestCase {
         partition.checkOrRegisterSequencerDefinition(otherDefinition);
     }
 
+    @Test
+    public void test_bulk_registration_illegal_registers_nothing()
+            throws Exception {
+
+        SequencerDefinition definition1 = new SequencerDefinition("first", SnowcastEpoch.byTimestamp(1), 128, (short) 1);
+        SequencerDefinition definition2 = new SequencerDefinition("second", SnowcastEpoch.byTimestamp(1), 128, (short) 1);
+        SequencerDefinition otherDefinition = new SequencerDefinition("second", SnowcastEpoch.byTimestamp(1), 1000, (short) 1);
+        Address address = new Address("localhost", 1000);
+
+        SequencerPartition partition = new SequencerPartition(1);
+        partition.checkOrRegisterSequencerDefinition(definition2);
+
+        try {
+            partition.attachLogicalNodes(Arrays.asList(definition1, otherDefinition), address, 0);
+            fail("Conflicting definition must fail the batch");
+        } catch (SnowcastSequencerAlreadyRegisteredException e) {
+            // expected
+        }
+        assertNull(partition.getSequencerDefinition("first"));
+
+        try {
+            SequencerDefinition otherDefinition1 = new SequencerDefinition("first", SnowcastEpoch.byTimestamp(1), 1000, (short) 1);
+            partition.attachLogicalNodes(Arrays.asList(definition1, otherDefinition1), address, 0);
+            fail("Conflicting definitions inside the batch must fail the batch");
+        } catch (SnowcastSequencerAlreadyRegisteredException e) {
+            // expected
+        }
+        assertNull(partition.getSequencerDefinition("first"));
+    }
+
     @Test(expected = SnowcastIllegalStateException.class)
     public void test_freeze_partition()
             throws Exception {
@@ -337,4 +375,107 @@ public class SequencePartitionTestCase {
         PartitionReplication replication = partition1.createPartitionReplication();
         replication.applyReplication(partition2);
     }
+
+    @Test
+    public void test_partition_replication_serialization()
+            throws Exception {
+
+        SequencerDefinition definition1 = new SequencerDefinition("first", SnowcastEpoch.byTimestamp(1), 128, (short) 1);
+        SequencerDefinition definition2 = new SequencerDefinition("second", SnowcastEpoch.byTimestamp(2), 8192, (short) 2);
+
+        Address address1 = new Address("localhost", 1000);
+        Address address2 = new Address("localhost", 2000);
+
+        SequencerPartition partition1 = new SequencerPartition(1);
+        partition1.assignLogicalNode(definition1, 0, address1);
+        partition1.assignLogicalNode(definition1, 100, address2, 5000);
+        partition1.assignLogicalNode(definition2, 8000, address1);
+        partition1.checkOrRegisterSequencerDefinition(
+                new SequencerDefinition("empty", SnowcastEpoch.byTimestamp(3), 128, (short) 1));
+
+        InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        Data data = serializationService.toData(partition1.createPartitionReplication());
+        PartitionReplication replication = serializationService.toObject(data);
+
+        SequencerPartition partition2 = new SequencerPartition(1);
+        replication.applyReplication(partition2);
+
+        assertEquals(definition1, partition2.getSequencerDefinition("first"));
+        assertEquals(definition2, partition2.getSequencerDefinition("second"));
+        assertNotNull(partition2.getSequencerDefinition("empty"));
+        assertEquals(address1, partition2.getAttachedLogicalNode("first", 0));
+        assertEquals(address2, partition2.getAttachedLogicalNode("first", 100));
+        assertEquals(address1, partition2.getAttachedLogicalNode("second", 8000));
+        assertNull(partition2.getAttachedLogicalNode("second", 0));
+    }
+
+    @Test
+    public void test_partition_replica_synchronization()
+            throws Exception {
+
+        SequencerDefinition definition1 = new SequencerDefinition("first", SnowcastEpoch.byTimestamp(1), 128, (short) 1);
+        SequencerDefinition definition2 = new SequencerDefinition("second", SnowcastEpoch.byTimestamp(2), 128, (short) 1);
+        SequencerDefinition definition3 = new SequencerDefinition("third", SnowcastEpoch.byTimestamp(3), 128, (short) 1);
+
+        Address address1 = new Address("localhost", 1000);
+        Address address2 = new Address("localhost", 2000);
+
+        SequencerPartition owner = new SequencerPartition(1);
+        owner.attachLogicalNode(definition1, address1);
+        owner.attachLogicalNode(definition1, address2);
+        owner.attachLogicalNode(definition2, address1);
+        owner.checkOrRegisterSequencerDefinition(definition3);
+
+        SequencerPartition replica = new SequencerPartition(1);
+        owner.createPartitionReplication().applyReplication(replica);
+        assertTrue(replica.compareDigest(owner.createPartitionDigest()).isEmpty());
+
+        // Changes the replica never received
+        owner.detachLogicalNode("first", address1, 0);
+        owner.attachLogicalNode(definition2, address2);
+        owner.destroySequencerDefinition("third");
+
+        Map<String, LogicalNodeTableVersion> knownVersions = replica.compareDigest(owner.createPartitionDigest());
+        assertEquals(2, knownVersions.size());
+        assertNull(replica.getSequencerDefinition("third"));
+
+        InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        Data data = serializationService.toData(owner.createPartitionReplication(knownVersions));
+        PartitionReplication replication = serializationService.toObject(data);
+        replication.applyReplication(replica);
+
+        assertNull(replica.getAttachedLogicalNode("first", 0));
+        assertEquals(address2, replica.getAttachedLogicalNode("first", 1));
+        assertEquals(address1, replica.getAttachedLogicalNode("second", 0));
+        assertEquals(address2, replica.getAttachedLogicalNode("second", 1));
+        assertTrue(replica.compareDigest(owner.createPartitionDigest()).isEmpty());
+    }
+
+    @Test
+    public void test_partition_replica_synchronization_recreated_sequencer()
+            throws Exception {
+
+        SequencerDefinition definition1 = new SequencerDefinition("empty", SnowcastEpoch.byTimestamp(1), 128, (short) 1);
+        SequencerDefinition definition2 = new SequencerDefinition("empty", SnowcastEpoch.byTimestamp(2), 128, (short) 1);
+
+        Address address1 = new Address("localhost", 1000);
+        Address address2 = new Address("localhost", 2000);
+
+        SequencerPartition owner = new SequencerPartition(1);
+        owner.attachLogicalNode(definition1, address1);
+
+        SequencerPartition replica = new SequencerPartition(1);
+        owner.createPartitionReplication().applyReplication(replica);
+
+        // Destroyed and recreated with another definition, the replica still knows the old one
+        owner.destroySequencerDefinition("empty");
+        owner.attachLogicalNode(definition2, address2);
+
+        Map<String, LogicalNodeTableVersion> knownVersions = replica.compareDigest(owner.createPartitionDigest());
+        owner.createPartitionReplication(knownVersions).applyReplication(replica);
+
+        assertEquals(definition2, replica.getSequencerDefinition("empty"));
+        assertEquals(address2, replica.getAttachedLogicalNode("empty", 0));
+        assertTrue(replica.compareDigest(owner.createPartitionDigest()).isEmpty());
+    }
 }
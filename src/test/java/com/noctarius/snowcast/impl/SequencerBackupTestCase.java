@@ -16,9 +16,13 @@
  */
 package com.noctarius.snowcast.impl;
 
+import com.hazelcast.config.Config;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.PartitionService;
+import com.hazelcast.internal.partition.InternalPartition;
 import com.hazelcast.nio.Address;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationService;
 import com.hazelcast.test.AssertTask;
 import com.hazelcast.test.HazelcastTestSupport;
 import com.hazelcast.test.TestHazelcastInstanceFactory;
@@ -26,12 +30,20 @@ import com.noctarius.snowcast.Snowcast;
 import com.noctarius.snowcast.SnowcastEpoch;
 import com.noctarius.snowcast.SnowcastSequencer;
 import com.noctarius.snowcast.SnowcastSystem;
+import com.noctarius.snowcast.impl.operations.AttachLogicalNodesOperation;
+import com.noctarius.snowcast.impl.operations.SequencerReplicaSyncOperation;
 import org.junit.Test;
 
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Map;
 
+import static com.noctarius.snowcast.impl.SnowcastConstants.SERVICE_NAME;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class SequencerBackupTestCase
         extends HazelcastTestSupport {
@@ -387,6 +399,141 @@ public class SequencerBackupTestCase
         }
     }
 
+    @Test
+    public void test_replica_sync_dropped_delta_falls_back_to_full_snapshot()
+            throws Exception {
+
+        // Dropped operations are only detected through the call timeout
+        Config config = new Config().setProperty("hazelcast.operation.call.timeout.millis", "3000");
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(2);
+        HazelcastInstance hazelcastInstance1 = factory.newHazelcastInstance(config);
+        HazelcastInstance hazelcastInstance2 = factory.newHazelcastInstance(config);
+
+        try {
+            final String sequencerName = generateKeyOwnedBy(hazelcastInstance1);
+
+            // Build the custom epoch
+            SnowcastEpoch epoch = buildEpoch();
+
+            Snowcast snowcast1 = SnowcastSystem.snowcast(hazelcastInstance1);
+            Snowcast snowcast2 = SnowcastSystem.snowcast(hazelcastInstance2);
+
+            InternalSequencer sequencer1 = (InternalSequencer) buildSnowcastSequencer(snowcast1, sequencerName, epoch);
+            InternalSequencer sequencer2 = (InternalSequencer) buildSnowcastSequencer(snowcast2, sequencerName, epoch);
+
+            NodeSequencerService sequencerService1 = (NodeSequencerService) sequencer1.getSequencerService();
+            NodeSequencerService sequencerService2 = (NodeSequencerService) sequencer2.getSequencerService();
+
+            final int logicalNodeId = sequencer1.logicalNodeId(sequencer1.next());
+
+            PartitionService partitionService = hazelcastInstance1.getPartitionService();
+            final int partitionId = partitionService.getPartition(sequencerName).getPartitionId();
+
+            final SequencerPartition partition1 = sequencerService1.getSequencerPartition(partitionId);
+            final SequencerPartition partition2 = sequencerService2.getSequencerPartition(partitionId);
+
+            assertTrueEventually(new AssertTask() {
+                @Override
+                public void run()
+                        throws Exception {
+
+                    Address address1 = partition1.getAttachedLogicalNode(sequencerName, logicalNodeId);
+                    Address address2 = partition2.getAttachedLogicalNode(sequencerName, logicalNodeId);
+                    assertEquals(address1, address2);
+                }
+            });
+
+            // Changes the backup never received, applied on the owner's partition thread
+            final Address address = getAddress(hazelcastInstance2);
+            final SequencerDefinition definition = partition1.getSequencerDefinition(sequencerName);
+            OperationService operationService = getNodeEngineImpl(hazelcastInstance1).getOperationService();
+            operationService.invokeOnPartition(SERVICE_NAME, new Operation() {
+                @Override
+                public void run()
+                        throws Exception {
+
+                    partition1.attachLogicalNode(definition, address);
+                }
+            }, partitionId).join();
+
+            Map<String, LogicalNodeTableVersion> knownVersions = partition2.compareDigest(partition1.createPartitionDigest());
+            assertEquals(1, knownVersions.size());
+
+            // The owner's delta never reaches the backup
+            operationService.invokeOnPartition(SERVICE_NAME, new DroppingReplicaSyncOperation(knownVersions), partitionId);
+
+            assertTrueEventually(new AssertTask() {
+                @Override
+                public void run()
+                        throws Exception {
+
+                    assertTrue(partition2.compareDigest(partition1.createPartitionDigest()).isEmpty());
+                    for (int i = 0; i < 128; i++) {
+                        assertEquals(partition1.getAttachedLogicalNode(sequencerName, i),
+                                partition2.getAttachedLogicalNode(sequencerName, i));
+                    }
+                }
+            });
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_bulk_attach_backup_respects_backup_count()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(3);
+        HazelcastInstance hazelcastInstance1 = factory.newHazelcastInstance();
+        HazelcastInstance hazelcastInstance2 = factory.newHazelcastInstance();
+        HazelcastInstance hazelcastInstance3 = factory.newHazelcastInstance();
+
+        try {
+            final String sequencerName1 = generateKeyOwnedBy(hazelcastInstance1);
+            int partitionId = hazelcastInstance1.getPartitionService().getPartition(sequencerName1).getPartitionId();
+            final String sequencerName2 = generateKeyForPartition(hazelcastInstance1, partitionId);
+
+            // Build the custom epoch
+            SnowcastEpoch epoch = buildEpoch();
+
+            SequencerDefinition definition1 = new SequencerDefinition(sequencerName1, epoch, 128, (short) 1);
+            SequencerDefinition definition2 = new SequencerDefinition(sequencerName2, epoch, 128, (short) 2);
+
+            // Both definitions in one batch, the second replica only backs up the second one
+            OperationService operationService = getNodeEngineImpl(hazelcastInstance1).getOperationService();
+            Operation operation = new AttachLogicalNodesOperation(Arrays.asList(definition1, definition2));
+            operationService.invokeOnPartition(SERVICE_NAME, operation, partitionId).join();
+
+            InternalPartition partition = getNodeEngineImpl(hazelcastInstance1).getPartitionService().getPartition(partitionId);
+            HazelcastInstance firstBackup = getAddress(hazelcastInstance2).equals(partition.getReplicaAddress(1))
+                    ? hazelcastInstance2 : hazelcastInstance3;
+            HazelcastInstance secondBackup = firstBackup == hazelcastInstance2 ? hazelcastInstance3 : hazelcastInstance2;
+
+            final SequencerPartition partition1 = sequencerPartition(firstBackup, partitionId);
+            final SequencerPartition partition2 = sequencerPartition(secondBackup, partitionId);
+
+            assertTrueEventually(new AssertTask() {
+                @Override
+                public void run()
+                        throws Exception {
+
+                    assertNotNull(partition1.getSequencerDefinition(sequencerName1));
+                    assertNotNull(partition1.getSequencerDefinition(sequencerName2));
+                    assertNotNull(partition2.getSequencerDefinition(sequencerName2));
+                }
+            });
+            assertNull(partition2.getSequencerDefinition(sequencerName1));
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    private SequencerPartition sequencerPartition(HazelcastInstance hazelcastInstance, int partitionId) {
+        NodeSequencerService sequencerService = getNodeEngineImpl(hazelcastInstance).getService(SERVICE_NAME);
+        return sequencerService.getSequencerPartition(partitionId);
+    }
+
     private SnowcastSequencer buildSnowcastSequencer(Snowcast snowcast, String sequencerName, SnowcastEpoch epoch) {
         int maxLogicalNodeCount = 128;
 
@@ -398,4 +545,34 @@ public class SequencerBackupTestCase
         ZonedDateTime utc = ZonedDateTime.of(2017, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
         return SnowcastEpoch.byInstant(utc.toInstant());
     }
+
+    public static class DroppingReplicaSyncOperation
+            extends SequencerReplicaSyncOperation {
+
+        public DroppingReplicaSyncOperation() {
+        }
+
+        DroppingReplicaSyncOperation(Map<String, LogicalNodeTableVersion> knownVersions) {
+            super(knownVersions, 1);
+        }
+
+        @Override
+        protected Operation createReplicationOperation(PartitionReplication partitionReplication) {
+            return new DroppedOperation();
+        }
+    }
+
+    public static class DroppedOperation
+            extends Operation {
+
+        @Override
+        public void run()
+                throws Exception {
+        }
+
+        @Override
+        public boolean returnsResponse() {
+            return false;
+        }
+    }
 }
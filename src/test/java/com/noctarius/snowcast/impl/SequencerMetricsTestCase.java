@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2015-2017, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.snowcast.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.spi.PartitionMigrationEvent;
+import com.hazelcast.spi.partition.MigrationEndpoint;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.noctarius.snowcast.Snowcast;
+import com.noctarius.snowcast.SnowcastEpoch;
+import com.noctarius.snowcast.SnowcastLatencyHistogram;
+import com.noctarius.snowcast.SnowcastSequencer;
+import com.noctarius.snowcast.SnowcastSequencerSpec;
+import com.noctarius.snowcast.SnowcastSystem;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SequencerMetricsTestCase
+        extends HazelcastTestSupport {
+
+    @Test
+    public void test_latency_histogram_buckets() {
+        StripedLatencyHistogram histogram = new StripedLatencyHistogram();
+        histogram.record(500);
+        histogram.record(1500);
+        histogram.record(3000000);
+
+        assertEquals(3, histogram.getCount());
+        assertEquals(3002000, histogram.getTotalNanos());
+        assertEquals(3000000, histogram.getMaxNanos());
+        assertEquals(1000666, histogram.getMeanNanos());
+
+        assertEquals(1, histogram.getBucketValue(0));
+        assertEquals(1, histogram.getBucketValue(1));
+        // 3000 microseconds fall into [2048, 4096)
+        assertEquals(1, histogram.getBucketValue(12));
+        assertEquals(4096, SnowcastLatencyHistogram.getBucketUpperBoundMicros(12));
+    }
+
+    @Test
+    public void test_latency_histogram_last_bucket_unbounded() {
+        StripedLatencyHistogram histogram = new StripedLatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(1, histogram.getBucketValue(SnowcastLatencyHistogram.BUCKET_COUNT - 1));
+    }
+
+    @Test
+    public void test_sequencer_metrics()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - 60000);
+
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            SnowcastSequencer sequencer = snowcast.createSequencer("metrics", epoch, 8192);
+            SequencerMetrics metrics = ((InternalSequencer) sequencer).getSequencerMetrics();
+
+            assertEquals(1, metrics.getAttachLatency().getCount());
+
+            for (int i = 0; i < 10; i++) {
+                sequencer.next();
+            }
+            // 8192 logical nodes leave 1023 IDs per millisecond, the batch has to wait for following milliseconds
+            sequencer.next(5000);
+
+            assertEquals(5010, metrics.getGeneratedIds());
+            assertTrue(metrics.getCounterExhaustionWaits() > 0);
+            assertEquals(0, metrics.getRetryLimitApproaches());
+
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("com.noctarius.snowcast:type=Sequencer,instance="
+                    + ObjectName.quote(hazelcastInstance.getName()) + ",name=" + ObjectName.quote("metrics"));
+
+            assertEquals(5010L, mBeanServer.getAttribute(objectName, "GeneratedIds"));
+            assertEquals(1L, mBeanServer.getAttribute(objectName, "AttachLatencyCount"));
+
+            snowcast.destroySequencer(sequencer);
+            assertFalse(mBeanServer.isRegistered(objectName));
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_bulk_created_sequencer_metrics()
+            throws Exception {
+
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hazelcastInstance = factory.newHazelcastInstance();
+
+        try {
+            SnowcastEpoch epoch = SnowcastEpoch.byTimestamp(System.currentTimeMillis() - 60000);
+
+            Snowcast snowcast = SnowcastSystem.snowcast(hazelcastInstance);
+            List<SnowcastSequencer> sequencers = snowcast.createSequencers(
+                    Arrays.asList(SnowcastSequencerSpec.of("metrics1", epoch), SnowcastSequencerSpec.of("metrics2", epoch)));
+
+            for (SnowcastSequencer sequencer : sequencers) {
+                SequencerMetrics metrics = ((InternalSequencer) sequencer).getSequencerMetrics();
+                assertEquals(1, metrics.getAttachLatency().getCount());
+            }
+        } finally {
+            factory.shutdownAll();
+        }
+    }
+
+    @Test
+    public void test_partition_freeze_durations()
+            throws Exception {
+
+        NodeSequencerService sequencerService = new NodeSequencerService();
+        sequencerService.getSequencerPartition(1);
+
+        PartitionMigrationEvent event = new PartitionMigrationEvent(MigrationEndpoint.SOURCE, 1, 0, 1);
+
+        sequencerService.beforeMigration(event);
+        Thread.sleep(5);
+        sequencerService.rollbackMigration(event);
+
+        // Rolling back an unfrozen partition must not count
+        sequencerService.rollbackMigration(event);
+
+        SnowcastLatencyHistogram histogram = sequencerService.getMemberMetrics().getPartitionFreezeDurations();
+        assertEquals(1, histogram.getCount());
+        assertTrue(histogram.getMaxNanos() >= 5000000);
+    }
+}